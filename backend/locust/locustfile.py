@@ -1,13 +1,167 @@
-import time
-from locust import HttpUser, task, between
+"""A day at a testing site, for load testing.
 
-class QuickstartSimpleReport(HttpUser):
-    root_url = "http://backend:8080"
+Front desk staff register patients and add them to the queue, testers work the
+queue and submit results, and patients open the links to their results. The
+backend must run with the no-security profile (the "dev" profile includes it)
+so that the simulated users can sign in as the demo users, against the data
+seeded by OrganizationInitializingService.
+"""
 
-    @task
-    def health_test(self):
-        self.client.get(QuickstartSimpleReport.root_url)
+import random
+from collections import deque
+from datetime import datetime, timedelta, timezone
+
+import locust.stats
+from locust import HttpUser, between, task
+
+from simplereport import queries
+from simplereport.client import SimpleReportUser
+from simplereport.patients import random_name_prefix, random_patient, random_result
+
+# report these for each operation, in the console summary and the --csv files
+locust.stats.PERCENTILES_TO_REPORT = [0.50, 0.95, 0.99]
+
+RESULTS_PAGE_SIZE = 20
+
+# (patient link id, birth date) for each submitted result, for the patients to
+# verify; shared by the users of this process
+PATIENT_LINKS = deque(maxlen=1000)
+
+
+class TestingSiteStaff(SimpleReportUser):
+    weight = 4
+    wait_time = between(1, 5)
 
-    # Runs at the start of each test. Useful for authentication and setup actions.
     def on_start(self):
-        pass
+        super().on_start()
+        self.waiting = []  # registered patients, not in the queue
+        self.queued = []  # patients in the queue
+
+    @task(10)
+    def view_queue(self):
+        self.graphql(
+            "GetFacilityQueue",
+            queries.GET_FACILITY_QUEUE,
+            {"facilityId": self.facility_id},
+        )
+
+    @task(4)
+    def add_patient_to_queue(self):
+        if not self.waiting:
+            self.register_patient()
+        patient = self.waiting.pop()
+        self.graphql(
+            "AddPatientToQueue",
+            queries.ADD_PATIENT_TO_QUEUE,
+            {
+                "facilityId": self.facility_id,
+                "patientId": patient["internalId"],
+                "noSymptoms": True,
+                "testResultDelivery": "NONE",
+            },
+        )
+        self.queued.append(patient)
+
+    @task(4)
+    def submit_test_result(self):
+        if not self.queued:
+            return
+        patient = self.queued.pop(0)
+        self.graphql(
+            "SubmitTestResult",
+            queries.SUBMIT_TEST_RESULT,
+            {
+                "patientId": patient["internalId"],
+                "deviceId": self.device_id,
+                "deviceSpecimenType": self.device_specimen_type_id,
+                "result": random_result(),
+            },
+        )
+        self.waiting.append(patient)
+        # the patient gets a link to this result
+        result = self.graphql(
+            "GetFacilityResults",
+            queries.GET_FACILITY_RESULTS,
+            {
+                "facilityId": self.facility_id,
+                "patientId": patient["internalId"],
+                "pageNumber": 0,
+                "pageSize": 1,
+            },
+        )["testResults"][0]
+        if result["patientLink"]:
+            PATIENT_LINKS.append(
+                (result["patientLink"]["internalId"], patient["birthDate"])
+            )
+
+    @task(6)
+    def search_patients(self):
+        self.graphql(
+            "GetPatientsByFacility",
+            queries.GET_PATIENTS_BY_FACILITY,
+            {
+                "facilityId": self.facility_id,
+                "namePrefixMatch": random_name_prefix(),
+                "pageNumber": 0,
+                "pageSize": 20,
+            },
+        )
+
+    def register_patient(self):
+        variables = random_patient(self.facility_id)
+        patient = self.graphql("AddPatient", queries.ADD_PATIENT, variables)[
+            "addPatient"
+        ]
+        patient["birthDate"] = variables["birthDate"]
+        self.waiting.append(patient)
+
+
+class OrganizationAdmin(SimpleReportUser):
+    weight = 1
+    wait_time = between(2, 10)
+
+    @task(3)
+    def page_through_results(self):
+        variables = {"facilityId": self.facility_id}
+        count = self.graphql(
+            "GetResultsCountByFacility",
+            queries.GET_RESULTS_COUNT_BY_FACILITY,
+            variables,
+        )["testResultsCount"]
+        pages = max(1, -(-count // RESULTS_PAGE_SIZE))
+        # most people stay on the first few pages
+        for page_number in range(min(pages, random.randint(1, 3))):
+            self.graphql(
+                "GetFacilityResults",
+                queries.GET_FACILITY_RESULTS,
+                dict(variables, pageNumber=page_number, pageSize=RESULTS_PAGE_SIZE),
+            )
+
+    @task(1)
+    def view_dashboard(self):
+        now = datetime.now(timezone.utc)
+        self.graphql(
+            "GetTopLevelDashboardMetricsNew",
+            queries.GET_TOP_LEVEL_DASHBOARD_METRICS,
+            {
+                "facilityId": random.choice([self.facility_id, None]),
+                "startDate": (now - timedelta(days=7)).isoformat(),
+                "endDate": now.isoformat(),
+            },
+        )
+
+
+class Patient(HttpUser):
+    weight = 2
+    wait_time = between(5, 15)
+
+    @task
+    def verify_patient_link(self):
+        if not PATIENT_LINKS:
+            return
+        patient_link_id, birth_date = random.choice(PATIENT_LINKS)
+        self.client.post(
+            "/pxp/link/verify",
+            json={"patientLinkId": patient_link_id, "dateOfBirth": birth_date},
+            name="/pxp/link/verify",
+        )
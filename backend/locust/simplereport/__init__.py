@@ -0,0 +1,3 @@
+"""Building blocks for the SimpleReport load tests: the GraphQL operations the
+frontend sends, a base user that talks to the backend the way the frontend
+does, and generators for test data."""
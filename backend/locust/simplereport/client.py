@@ -0,0 +1,63 @@
+"""A base Locust user that signs in and sends GraphQL the way the frontend does."""
+
+import os
+
+from locust import HttpUser
+from locust.exception import RescheduleTask
+
+from simplereport.queries import WHOAMI
+
+# DemoAuthenticationConfiguration (profile no-security) signs in whoever is
+# named in a bearer token with this prefix; the demo users are listed in
+# application-create-sample-data.yaml.
+DEMO_AUTHORIZATION_FLAG = "SR-DEMO-LOGIN "
+DEMO_USER = os.environ.get("SR_LOCUST_DEMO_USER", "bob@example.com")
+
+
+class SimpleReportUser(HttpUser):
+    abstract = True
+    demo_user = DEMO_USER
+
+    def on_start(self):
+        self.client.headers["Authorization"] = (
+            "Bearer " + DEMO_AUTHORIZATION_FLAG + self.demo_user
+        )
+        # the "Testing Site" seeded by OrganizationInitializingService
+        facility = self.graphql("WhoAmI", WHOAMI)["whoami"]["organization"][
+            "testingFacility"
+        ][0]
+        self.facility_id = facility["id"]
+        self.device_id = facility["deviceTypes"][0]["internalId"]
+        self.device_specimen_type_id = facility["defaultDeviceSpecimen"]
+
+    def graphql(self, operation_name, query, variables=None):
+        """Send one operation to /graphql and return its data.
+
+        GraphQL errors come back with a 200, so they are checked for here and
+        counted as failures, which also ends the current task. Statistics are
+        grouped by operation name.
+        """
+        with self.client.post(
+            "/graphql",
+            json={
+                "operationName": operation_name,
+                "query": query,
+                "variables": variables or {},
+            },
+            name=operation_name,
+            catch_response=True,
+        ) as response:
+            if response.status_code != 200:
+                response.failure("HTTP %d" % response.status_code)
+                data = None
+            else:
+                body = response.json()
+                data = body.get("data")
+                if body.get("errors"):
+                    response.failure(body["errors"][0].get("message"))
+                    data = None
+        # raised outside the block: the response context swallows exceptions
+        # once a failure has been recorded
+        if data is None:
+            raise RescheduleTask()
+        return data
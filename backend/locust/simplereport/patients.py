@@ -0,0 +1,74 @@
+"""Made-up patients for the load tests: none are seeded by
+OrganizationInitializingService, so each simulated user registers its own."""
+
+import random
+from datetime import date, timedelta
+
+LAST_NAMES = [
+    "Astaire",
+    "Baker",
+    "Garcia",
+    "Johnson",
+    "Kim",
+    "Lopez",
+    "Nguyen",
+    "Okafor",
+    "Patel",
+    "Rogers",
+    "Smith",
+    "Williams",
+]
+FIRST_NAMES = [
+    "Amelia",
+    "Ben",
+    "Carmen",
+    "Dev",
+    "Eleanor",
+    "Fred",
+    "Ginger",
+    "Hiro",
+    "Imani",
+    "Jamar",
+    "Ruby",
+    "Sarah",
+]
+RACES = ["white", "black", "asian", "native", "pacific", "other", "refused"]
+ETHNICITIES = ["hispanic", "not_hispanic", "refused"]
+GENDERS = ["female", "male", "other"]
+ROLES = ["STAFF", "RESIDENT", "STUDENT", "VISITOR"]
+
+
+def random_patient(facility_id):
+    """Variables for the AddPatient mutation."""
+    birth_date = date(1940, 1, 1) + timedelta(days=random.randrange(365 * 80))
+    return {
+        "facilityId": facility_id,
+        "firstName": random.choice(FIRST_NAMES),
+        "lastName": random.choice(LAST_NAMES),
+        "birthDate": birth_date.isoformat(),
+        "street": "%d Main Street" % random.randint(1, 9999),
+        "city": "Washington",
+        "state": "DC",
+        "zipCode": "20008",
+        "phoneNumbers": [
+            {"type": "MOBILE", "number": "(202) 555-%04d" % random.randrange(10000)}
+        ],
+        "role": random.choice(ROLES),
+        "race": random.choice(RACES),
+        "ethnicity": random.choice(ETHNICITIES),
+        "gender": random.choice(GENDERS),
+        "residentCongregateSetting": random.random() < 0.2,
+        "employedInHealthcare": random.random() < 0.3,
+        # the load tests should never send texts or email
+        "testResultDelivery": "NONE",
+    }
+
+
+def random_name_prefix():
+    """What someone types into the patient search box: the start of a name."""
+    name = random.choice(LAST_NAMES + FIRST_NAMES)
+    return name[: random.randint(2, len(name))]
+
+
+def random_result():
+    return random.choices(["NEGATIVE", "POSITIVE", "UNDETERMINED"], [85, 12, 3])[0]
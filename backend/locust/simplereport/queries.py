@@ -0,0 +1,248 @@
+"""GraphQL operations, trimmed copies of the ones the frontend sends.
+
+Each operation is named: SimpleReportUser.graphql reports its statistics under
+that name, so every operation gets its own row (and percentiles) in Locust.
+"""
+
+WHOAMI = """
+query WhoAmI {
+  whoami {
+    id
+    organization {
+      name
+      testingFacility {
+        id
+        name
+        defaultDeviceSpecimen
+        deviceTypes {
+          internalId
+          name
+        }
+      }
+    }
+    permissions
+  }
+}
+"""
+
+ADD_PATIENT = """
+mutation AddPatient(
+  $facilityId: ID
+  $firstName: String!
+  $lastName: String!
+  $birthDate: LocalDate!
+  $street: String!
+  $city: String
+  $state: String!
+  $zipCode: String!
+  $phoneNumbers: [PhoneNumberInput!]
+  $role: String
+  $race: String
+  $ethnicity: String
+  $gender: String
+  $residentCongregateSetting: Boolean
+  $employedInHealthcare: Boolean
+  $testResultDelivery: TestResultDeliveryPreference
+) {
+  addPatient(
+    facilityId: $facilityId
+    firstName: $firstName
+    lastName: $lastName
+    birthDate: $birthDate
+    street: $street
+    city: $city
+    state: $state
+    zipCode: $zipCode
+    phoneNumbers: $phoneNumbers
+    role: $role
+    race: $race
+    ethnicity: $ethnicity
+    gender: $gender
+    residentCongregateSetting: $residentCongregateSetting
+    employedInHealthcare: $employedInHealthcare
+    testResultDelivery: $testResultDelivery
+  ) {
+    internalId
+  }
+}
+"""
+
+GET_FACILITY_QUEUE = """
+query GetFacilityQueue($facilityId: ID!) {
+  queue(facilityId: $facilityId) {
+    internalId
+    pregnancy
+    dateAdded
+    symptoms
+    symptomOnset
+    noSymptoms
+    deviceType {
+      internalId
+      name
+      model
+      testLength
+    }
+    deviceSpecimenType {
+      internalId
+    }
+    patient {
+      internalId
+      telephone
+      birthDate
+      firstName
+      middleName
+      lastName
+      gender
+      testResultDelivery
+      preferredLanguage
+      email
+      emails
+      phoneNumbers {
+        type
+        number
+      }
+    }
+    result
+    dateTested
+  }
+}
+"""
+
+ADD_PATIENT_TO_QUEUE = """
+mutation AddPatientToQueue(
+  $facilityId: ID!
+  $patientId: ID!
+  $symptoms: String
+  $symptomOnset: LocalDate
+  $pregnancy: String
+  $noSymptoms: Boolean
+  $testResultDelivery: TestResultDeliveryPreference
+) {
+  addPatientToQueue(
+    facilityId: $facilityId
+    patientId: $patientId
+    pregnancy: $pregnancy
+    noSymptoms: $noSymptoms
+    symptoms: $symptoms
+    symptomOnset: $symptomOnset
+    testResultDelivery: $testResultDelivery
+  )
+}
+"""
+
+SUBMIT_TEST_RESULT = """
+mutation SubmitTestResult(
+  $patientId: ID!
+  $deviceId: String!
+  $deviceSpecimenType: ID
+  $result: String!
+  $dateTested: DateTime
+) {
+  addTestResult(
+    patientId: $patientId
+    deviceId: $deviceId
+    deviceSpecimenType: $deviceSpecimenType
+    result: $result
+    dateTested: $dateTested
+  ) {
+    internalId
+  }
+}
+"""
+
+GET_PATIENTS_BY_FACILITY = """
+query GetPatientsByFacility(
+  $facilityId: ID!
+  $pageNumber: Int!
+  $pageSize: Int!
+  $namePrefixMatch: String
+) {
+  patients(
+    facilityId: $facilityId
+    pageNumber: $pageNumber
+    pageSize: $pageSize
+    namePrefixMatch: $namePrefixMatch
+  ) {
+    internalId
+    firstName
+    lastName
+    middleName
+    birthDate
+    isDeleted
+    role
+    lastTest {
+      dateAdded
+    }
+  }
+}
+"""
+
+GET_RESULTS_COUNT_BY_FACILITY = """
+query GetResultsCountByFacility($facilityId: ID, $patientId: ID) {
+  testResultsCount(facilityId: $facilityId, patientId: $patientId)
+}
+"""
+
+GET_FACILITY_RESULTS = """
+query GetFacilityResults(
+  $facilityId: ID
+  $patientId: ID
+  $pageNumber: Int
+  $pageSize: Int
+) {
+  testResults(
+    facilityId: $facilityId
+    patientId: $patientId
+    pageNumber: $pageNumber
+    pageSize: $pageSize
+  ) {
+    internalId
+    dateTested
+    result
+    correctionStatus
+    deviceType {
+      internalId
+      name
+    }
+    patient {
+      internalId
+      firstName
+      middleName
+      lastName
+      birthDate
+      gender
+      lookupId
+      email
+    }
+    createdBy {
+      nameInfo {
+        firstName
+        middleName
+        lastName
+      }
+    }
+    patientLink {
+      internalId
+    }
+    symptoms
+    noSymptoms
+  }
+}
+"""
+
+GET_TOP_LEVEL_DASHBOARD_METRICS = """
+query GetTopLevelDashboardMetricsNew(
+  $facilityId: ID
+  $startDate: DateTime
+  $endDate: DateTime
+) {
+  topLevelDashboardMetrics(
+    facilityId: $facilityId
+    startDate: $startDate
+    endDate: $endDate
+  ) {
+    positiveTestCount
+    totalTestCount
+  }
+}
+"""
@@ -0,0 +1,54 @@
+package gov.cdc.usds.simplereport.api;
+
+import gov.cdc.usds.simplereport.db.model.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneNumberInput;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The {@link Translators} that run for every patient saved through the API or a CSV upload. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TranslatorsBenchmark {
+
+  private List<PhoneNumberInput> phoneNumbers =
+      List.of(
+          new PhoneNumberInput("MOBILE", "(503) 867-5309"),
+          new PhoneNumberInput("landline", "503.555.1212"));
+  private String shortDate = "5/11/1933";
+  private String raceDisplayValue = "Black or African American";
+  private String raceValue = "black";
+
+  @Benchmark
+  public List<PhoneNumber> parsePhoneNumbers() {
+    return Translators.parsePhoneNumbers(phoneNumbers);
+  }
+
+  @Benchmark
+  public LocalDate parseUserShortDate() {
+    return Translators.parseUserShortDate(shortDate);
+  }
+
+  @Benchmark
+  public String parseRaceDisplayValue() {
+    return Translators.parseRaceDisplayValue(raceDisplayValue);
+  }
+
+  @Benchmark
+  public String parseRaceDisplayValue_alreadyParsed() {
+    return Translators.parseRaceDisplayValue(raceValue);
+  }
+}
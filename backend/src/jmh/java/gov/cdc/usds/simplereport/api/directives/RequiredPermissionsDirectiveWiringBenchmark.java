@@ -0,0 +1,145 @@
+package gov.cdc.usds.simplereport.api.directives;
+
+import gov.cdc.usds.simplereport.config.GraphQlSchemaDirectiveConfig;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.SiteAdminPrincipal;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.kickstart.execution.context.DefaultGraphQLContext;
+import graphql.kickstart.execution.context.GraphQLContext;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import org.dataloader.DataLoaderRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A patient list query against a small schema whose fields carry the same requiredPermissions
+ * directives as <code>Patient</code> does in main.graphqls. The unwired benchmark runs the same
+ * query without the directive wiring, as a baseline for the cost of the permission checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RequiredPermissionsDirectiveWiringBenchmark {
+
+  private static final int PATIENTS = 100;
+  private static final String SCHEMA =
+      "directive @requiredPermissions(anyOf: [String!], allOf: [String!])"
+          + " on FIELD_DEFINITION | OBJECT | ARGUMENT_DEFINITION\n"
+          + "type Query { patients(showDeleted: Boolean = false"
+          + " @requiredPermissions(allOf: [\"READ_ARCHIVED_PATIENT_LIST\"])): [Patient] }\n"
+          + "type Patient {\n"
+          + "  firstName: String\n"
+          + "  lastName: String\n"
+          + "  birthDate: String @requiredPermissions(anyOf: [\"READ_PATIENT_LIST\", \"UPDATE_TEST\"])\n"
+          + "  telephone: String @requiredPermissions(anyOf: [\"READ_PATIENT_LIST\", \"UPDATE_TEST\"])\n"
+          + "  race: String @requiredPermissions(allOf: [\"READ_PATIENT_LIST\"])\n"
+          + "  ethnicity: String @requiredPermissions(allOf: [\"READ_PATIENT_LIST\"])\n"
+          + "  street: String @requiredPermissions(allOf: [\"READ_PATIENT_LIST\"])\n"
+          + "  city: String @requiredPermissions(allOf: [\"READ_PATIENT_LIST\"])\n"
+          + "  state: String @requiredPermissions(allOf: [\"READ_PATIENT_LIST\"])\n"
+          + "  zipCode: String @requiredPermissions(allOf: [\"READ_PATIENT_LIST\"])\n"
+          + "}\n";
+  private static final String QUERY =
+      "{ patients { firstName lastName birthDate telephone race ethnicity street city state"
+          + " zipCode } }";
+
+  private GraphQL wired;
+  private GraphQL unwired;
+  private GraphQLContext userContext;
+  private GraphQLContext siteAdminContext;
+
+  @Setup
+  public void setup() {
+    List<Map<String, String>> patients = new ArrayList<>();
+    for (int i = 0; i < PATIENTS; i++) {
+      patients.add(
+          Map.of(
+              "firstName", "Fred" + i,
+              "lastName", "Astaire",
+              "birthDate", "1899-05-10",
+              "telephone", "(202) 123-4567",
+              "race", "white",
+              "ethnicity", "not_hispanic",
+              "street", "736 Jackson PI NW",
+              "city", "Washington",
+              "state", "DC",
+              "zipCode", "20503"));
+    }
+    wired =
+        build(
+            RuntimeWiring.newRuntimeWiring()
+                .directive(
+                    GraphQlSchemaDirectiveConfig.REQUIRED_PERMISSIONS_DIRECTIVE_NAME,
+                    new RequiredPermissionsDirectiveWiring()),
+            patients);
+    unwired = build(RuntimeWiring.newRuntimeWiring(), patients);
+
+    userContext = context(new HashSet<>(OrganizationRole.USER.getGrantedPermissions()));
+    siteAdminContext = context(Set.of(SiteAdminPrincipal.getInstance()));
+  }
+
+  @Benchmark
+  public ExecutionResult user() {
+    return execute(wired, userContext);
+  }
+
+  @Benchmark
+  public ExecutionResult siteAdmin() {
+    return execute(wired, siteAdminContext);
+  }
+
+  @Benchmark
+  public ExecutionResult unwired() {
+    return execute(unwired, userContext);
+  }
+
+  private static ExecutionResult execute(GraphQL graphQL, GraphQLContext context) {
+    ExecutionResult result =
+        graphQL.execute(ExecutionInput.newExecutionInput(QUERY).context(context).build());
+    if (!result.getErrors().isEmpty()) {
+      throw new IllegalStateException(result.getErrors().toString());
+    }
+    return result;
+  }
+
+  private static GraphQL build(RuntimeWiring.Builder wiring, List<Map<String, String>> patients) {
+    return GraphQL.newGraphQL(
+            new SchemaGenerator()
+                .makeExecutableSchema(
+                    new SchemaParser().parse(SCHEMA),
+                    wiring
+                        .type("Query", type -> type.dataFetcher("patients", env -> patients))
+                        .build()))
+        .build();
+  }
+
+  private static GraphQLContext context(Set<? extends Principal> principals) {
+    return new DefaultGraphQLContext(
+        new DataLoaderRegistry(),
+        new Subject(true, principals, Collections.emptySet(), Collections.emptySet()));
+  }
+}
@@ -0,0 +1,160 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
+import gov.cdc.usds.simplereport.db.model.DeviceType;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.IdentifiedEntity;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.PatientAnswers;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.Provider;
+import gov.cdc.usds.simplereport.db.model.SpecimenType;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneType;
+import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Compares the reflective {@link TestEventExport} bean serialization that test event reporting used
+ * to do with {@link TestEventExportWriter}, both for a single JSON message (as sent to the
+ * ReportStream queue) and for rows streamed to an open generator (as in the bulk export). Run with
+ * the GC profiler to see the bytes allocated per event (<code>gc.alloc.rate.norm</code>).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TestEventExportBenchmark {
+
+  private ObjectMapper mapper;
+  private JsonFactory factory;
+  private TestEvent event;
+  private JsonGenerator stream;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = new ObjectMapper();
+    factory = mapper.getFactory();
+    event = createEvent();
+    stream = factory.createGenerator(OutputStream.nullOutputStream());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    stream.close();
+  }
+
+  @Benchmark
+  public String beanSerializerToString() throws IOException {
+    return mapper.writeValueAsString(new TestEventExport(event));
+  }
+
+  @Benchmark
+  public String exportWriterToString() throws IOException {
+    return TestEventExportWriter.writeValueAsString(factory, event);
+  }
+
+  @Benchmark
+  public void beanSerializerToStream() throws IOException {
+    mapper.writeValue(stream, new TestEventExport(event));
+  }
+
+  @Benchmark
+  public void exportWriterToStream() throws IOException {
+    TestEventExportWriter.write(event, stream);
+  }
+
+  /** A fully-populated test event, built in memory rather than loaded from the database. */
+  static TestEvent createEvent() {
+    Organization org = new Organization("Dis Organization", "university", "DIS_ORG", true);
+    StreetAddress address =
+        new StreetAddress(
+            "736 Jackson PI NW", "APT. 123", "Washington", "DC", "20503", "Washington");
+    Provider provider =
+        new Provider("Fred", null, "Flintstone", null, "PEBBLES", address, "(202) 555-1212");
+    DeviceType device =
+        withId(new DeviceType("LumiraDx", "LumiraDx UK Ltd.", "LumiraDx", "95209-3", null, 15));
+    DeviceSpecimenType deviceSpecimen =
+        new DeviceSpecimenType(
+            device, new SpecimenType("Swab of internal nose", "445297001", "Nasal", "71836000"));
+    Facility facility =
+        new Facility(
+            org,
+            "Injection Site",
+            "000111222-3",
+            address,
+            "(202) 555-1212",
+            "facility@example.com",
+            provider,
+            deviceSpecimen,
+            List.of(device));
+    Person patient =
+        withId(
+            new Person(
+                org,
+                null,
+                "Fred",
+                "M",
+                "Astaire",
+                null,
+                LocalDate.of(1899, 5, 10),
+                address,
+                "USA",
+                PersonRole.RESIDENT,
+                List.of("fred@astaire.com"),
+                "white",
+                "not_hispanic",
+                List.of("1"),
+                "male",
+                false,
+                false,
+                "English",
+                TestResultDeliveryPreference.SMS));
+    patient.setPrimaryPhone(new PhoneNumber(patient, PhoneType.MOBILE, "(202) 123-4567"));
+    TestOrder order = new TestOrder(patient, facility);
+    order.setAskOnEntrySurvey(
+        new PatientAnswers(
+            AskOnEntrySurvey.builder().symptoms(Collections.emptyMap()).noSymptoms(true).build()));
+    order.setDateTestedBackdate(new Date());
+    order.setResult(TestResult.NEGATIVE);
+    return withId(new TestEvent(order));
+  }
+
+  private static <T extends IdentifiedEntity> T withId(T entity) {
+    Field internalId = ReflectionUtils.findField(IdentifiedEntity.class, "internalId");
+    ReflectionUtils.makeAccessible(internalId);
+    ReflectionUtils.setField(internalId, entity, UUID.randomUUID());
+    return entity;
+  }
+}
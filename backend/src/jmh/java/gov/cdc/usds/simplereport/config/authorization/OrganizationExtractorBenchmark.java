@@ -0,0 +1,70 @@
+package gov.cdc.usds.simplereport.config.authorization;
+
+import gov.cdc.usds.simplereport.config.AuthorizationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Turning the group claims of an Okta token into {@link OrganizationRoleClaims}, which happens
+ * whenever the current user's roles are looked up. A user of a large organization can carry a
+ * facility claim for each facility they can access. {@code convert} is what a request pays once the
+ * user's claims have been seen; {@code parse} is the cost of the first sight.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class OrganizationExtractorBenchmark {
+
+  @Param({"1", "50"})
+  private int facilityCount;
+
+  private OrganizationExtractor extractor;
+  private List<GrantedAuthority> authorities;
+  private List<String> claims;
+
+  @Setup
+  public void setup() {
+    AuthorizationProperties properties = new AuthorizationProperties(null, "UNITTEST");
+    extractor = new OrganizationExtractor(properties);
+    String orgPrefix = properties.getRolePrefix() + "DIS_ORG:";
+    authorities = new ArrayList<>();
+    authorities.add(new SimpleGrantedAuthority("Everyone"));
+    authorities.add(new SimpleGrantedAuthority(orgPrefix + OrganizationRole.NO_ACCESS));
+    authorities.add(new SimpleGrantedAuthority(orgPrefix + OrganizationRole.USER));
+    for (int i = 0; i < facilityCount; i++) {
+      authorities.add(
+          new SimpleGrantedAuthority(
+              orgPrefix + OrganizationExtractor.FACILITY_ACCESS_MARKER + ":" + UUID.randomUUID()));
+    }
+    claims = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<OrganizationRoleClaims> convert() {
+    return extractor.convert(authorities);
+  }
+
+  @Benchmark
+  public List<OrganizationRoleClaims> parse() {
+    return extractor.parse(claims);
+  }
+}
@@ -0,0 +1,68 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.task.TaskExecutorBuilder;
+
+/**
+ * Reading and validating the rows of a patient upload: everything {@link
+ * UploadService#processPersonCSV} does before the address lookups and the database. Scores are per
+ * row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class UploadServiceBenchmark {
+
+  private static final int ROWS = 500;
+  private static final String HEADER =
+      "LastName,FirstName,MiddleName,Suffix,Race,DOB,biologicalSex,Ethnicity,Street,Street2,City,"
+          + "County,State,ZipCode,Country,PhoneNumber,PhoneNumberType,employedInHealthcare,"
+          + "residentCongregateSetting,Role,Email,facilityId\n";
+  private static final String ROW =
+      "Best,Tim%d,,,White,5/11/1933,Male,Not_Hispanic,123 Main Street,,Washington,,DC,20008,USA,"
+          + "5656667777,MOBILE,Yes,No,Staff,foo@example.com,\n";
+
+  private UploadService uploadService;
+  private byte[] csv;
+
+  @Setup
+  public void setup() {
+    // only the row parsing is exercised, which needs none of the collaborating services
+    uploadService = new UploadService(null, null, null, new TaskExecutorBuilder(), 1);
+    StringBuilder file = new StringBuilder(HEADER);
+    for (int i = 0; i < ROWS; i++) {
+      file.append(String.format(ROW, i));
+    }
+    csv = file.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void parseRows(Blackhole blackhole) {
+    MappingIterator<Map<String, String>> rows =
+        uploadService.getIteratorForCsv(new ByteArrayInputStream(csv));
+    int rowNumber = 0;
+    while (rows.hasNext()) {
+      blackhole.consume(uploadService.parseRow(++rowNumber, rows.next()));
+    }
+  }
+}
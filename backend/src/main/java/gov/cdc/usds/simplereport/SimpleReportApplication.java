@@ -12,7 +12,9 @@ import gov.cdc.usds.simplereport.properties.SendGridProperties;
 import gov.cdc.usds.simplereport.properties.SmartyStreetsProperties;
 import gov.cdc.usds.simplereport.service.OrganizationInitializingService;
 import gov.cdc.usds.simplereport.service.ScheduledTasksService;
+import java.time.Duration;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -62,6 +64,39 @@ public class SimpleReportApplication {
     return args -> scheduler.scheduleAccountReminderEmails("0 0 1 * * *", "America/New_York");
   }
 
+  @Bean
+  @ConditionalOnProperty("simple-report.test-event-outbox.relay-enabled")
+  public CommandLineRunner scheduleTestEventOutboxRelay(
+      ScheduledTasksService scheduler,
+      @Value("${simple-report.test-event-outbox.relay-interval:5s}") Duration interval) {
+    return args -> scheduler.scheduleTestEventOutboxRelay(interval);
+  }
+
+  @Bean
+  @ConditionalOnProperty("simple-report.test-result-notifications.dispatch-enabled")
+  public CommandLineRunner scheduleTestResultNotificationDispatch(
+      ScheduledTasksService scheduler,
+      @Value("${simple-report.test-result-notifications.dispatch-interval:10s}")
+          Duration interval) {
+    return args -> scheduler.scheduleTestResultNotificationDispatch(interval);
+  }
+
+  @Bean
+  @ConditionalOnProperty("simple-report.okta-roster.refresh-enabled")
+  public CommandLineRunner scheduleOktaRosterRefresh(
+      ScheduledTasksService scheduler,
+      @Value("${simple-report.okta-roster.refresh-interval:5m}") Duration interval) {
+    return args -> scheduler.scheduleOktaRosterRefresh(interval);
+  }
+
+  @Bean
+  @ConditionalOnProperty("simple-report.audit.partition-maintenance.enabled")
+  public CommandLineRunner scheduleAuditEventPartitionMaintenance(
+      ScheduledTasksService scheduler,
+      @Value("${simple-report.audit.partition-maintenance.cron:0 30 2 * * *}") String cron) {
+    return args -> scheduler.scheduleAuditEventPartitionMaintenance(cron, "America/New_York");
+  }
+
   @Bean
   @ConditionalOnSingleCandidate(GitProperties.class)
   public CommandLineRunner logGitCommit(GitProperties gitProperties) {
@@ -0,0 +1,128 @@
+package gov.cdc.usds.simplereport.api;
+
+import gov.cdc.usds.simplereport.logging.GraphqlMetricsInstrumentation;
+import gov.cdc.usds.simplereport.logging.LoggingConstants;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * A summary of the metrics recorded by {@link GraphqlMetricsInstrumentation} and the DataLoaders,
+ * slowest first: where the time of the sampled GraphQL operations went.
+ */
+@Endpoint(id = "graphqlmetrics")
+@Component
+public class GraphqlMetricsEndpoint {
+
+  private static final int PERCENT = 100;
+
+  private final MeterRegistry meterRegistry;
+
+  public GraphqlMetricsEndpoint(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @ReadOperation(produces = "application/json")
+  public Map<String, List<?>> getSummary() {
+    Map<String, List<?>> summary = new LinkedHashMap<>();
+    summary.put(
+        "fields",
+        meterRegistry.find(LoggingConstants.FIELD_FETCH_METRIC).timers().stream()
+            .map(t -> new FieldSummary(t.getId().getTag("field"), t.takeSnapshot()))
+            .sorted(Comparator.comparingDouble(FieldSummary::getTotalMillis).reversed())
+            .collect(Collectors.toList()));
+    summary.put(
+        "dataLoaders",
+        meterRegistry.find(LoggingConstants.BATCH_LOAD_METRIC).timers().stream()
+            .map(this::summarizeDataLoader)
+            .sorted(Comparator.comparingDouble(DataLoaderSummary::getTotalMillis).reversed())
+            .collect(Collectors.toList()));
+    summary.put(
+        "operations",
+        meterRegistry.find(LoggingConstants.STATEMENTS_METRIC).summaries().stream()
+            .map(s -> new OperationSummary(s.getId().getTag("operation"), s.takeSnapshot()))
+            .sorted(Comparator.comparingDouble(OperationSummary::getMeanStatements).reversed())
+            .collect(Collectors.toList()));
+    return summary;
+  }
+
+  private DataLoaderSummary summarizeDataLoader(Timer loads) {
+    String loader = loads.getId().getTag("loader");
+    DistributionSummary sizes =
+        meterRegistry.find(LoggingConstants.BATCH_SIZE_METRIC).tag("loader", loader).summary();
+    return new DataLoaderSummary(
+        loader,
+        loads.count(),
+        loads.totalTime(TimeUnit.MILLISECONDS),
+        loads.max(TimeUnit.MILLISECONDS),
+        sizes == null ? 0 : sizes.mean(),
+        sizes == null ? 0 : sizes.max());
+  }
+
+  private static Map<String, Double> percentiles(HistogramSnapshot snapshot, TimeUnit unit) {
+    Map<String, Double> percentiles = new LinkedHashMap<>();
+    for (ValueAtPercentile p : snapshot.percentileValues()) {
+      String key = "p" + Math.round(p.percentile() * PERCENT);
+      percentiles.put(key, unit == null ? p.value() : p.value(unit));
+    }
+    return percentiles;
+  }
+
+  @Value
+  public static class FieldSummary {
+    String field;
+    long count;
+    double totalMillis;
+    double meanMillis;
+    double maxMillis;
+    Map<String, Double> percentileMillis;
+
+    FieldSummary(String field, HistogramSnapshot snapshot) {
+      this.field = field;
+      this.count = snapshot.count();
+      this.totalMillis = snapshot.total(TimeUnit.MILLISECONDS);
+      this.meanMillis = snapshot.mean(TimeUnit.MILLISECONDS);
+      this.maxMillis = snapshot.max(TimeUnit.MILLISECONDS);
+      this.percentileMillis = percentiles(snapshot, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Value
+  public static class DataLoaderSummary {
+    String loader;
+    long dispatches;
+    double totalMillis;
+    double maxMillis;
+    double meanBatchSize;
+    double maxBatchSize;
+  }
+
+  @Value
+  public static class OperationSummary {
+    String operation;
+    long count;
+    double meanStatements;
+    double maxStatements;
+    Map<String, Double> percentileStatements;
+
+    OperationSummary(String operation, HistogramSnapshot snapshot) {
+      this.operation = operation;
+      this.count = snapshot.count();
+      this.meanStatements = snapshot.mean();
+      this.maxStatements = snapshot.max();
+      this.percentileStatements = percentiles(snapshot, null);
+    }
+  }
+}
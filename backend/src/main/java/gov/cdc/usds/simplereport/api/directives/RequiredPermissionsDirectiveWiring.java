@@ -1,5 +1,7 @@
 package gov.cdc.usds.simplereport.api.directives;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlFieldAccessException;
 import gov.cdc.usds.simplereport.config.GraphQlSchemaDirectiveConfig;
@@ -19,6 +21,7 @@ import graphql.schema.GraphQLNonNull;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.idl.SchemaDirectiveWiring;
 import graphql.schema.idl.SchemaDirectiveWiringEnvironment;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -40,6 +43,14 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring {
+  // The permissions of each request's subject, compiled into a mask of UserPermission bits the
+  // first time one of its fields is checked. The subject is built afresh for every request, and
+  // weak keys are compared by identity, so an entry lives exactly as long as its request does.
+  private static final Cache<Subject, Long> GRANTED_PERMISSION_MASKS =
+      Caffeine.newBuilder().weakKeys().build();
+  // Site admins are always allowed through
+  private static final long SITE_ADMIN_MASK = -1L;
+
   @Override
   public GraphQLArgument onArgument(SchemaDirectiveWiringEnvironment<GraphQLArgument> environment) {
     GraphQLArgument argument = environment.getElement();
@@ -134,14 +145,15 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
 
   private static boolean satisfiesRequiredPermissions(
       RequiredPermissions requiredPermissions, Subject subject, ResultPath path) {
-    // Site admins are always allowed through
-    if (!subject.getPrincipals(SiteAdminPrincipal.class).isEmpty()) {
+    long userPermissions =
+        GRANTED_PERMISSION_MASKS.get(
+            subject, RequiredPermissionsDirectiveWiring::compileGrantedMask);
+    if (userPermissions == SITE_ADMIN_MASK) {
       return true;
     }
 
-    var userPermissions = subject.getPrincipals(UserPermission.class);
-
-    if (!userPermissions.containsAll(requiredPermissions.getAllOf())) {
+    long allOf = requiredPermissions.getAllOfMask();
+    if ((userPermissions & allOf) != allOf) {
       log.info(
           "User does not have all of {}; denying access at {}",
           requiredPermissions.getAllOf(),
@@ -149,9 +161,13 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
       return false;
     }
 
-    for (var clause : requiredPermissions.getAnyOfClauses()) {
-      if (clause.stream().noneMatch(userPermissions::contains)) {
-        log.info("User does not have at least one of {}; denying access at {}", clause, path);
+    long[] anyOfMasks = requiredPermissions.getAnyOfMasks();
+    for (int i = 0; i < anyOfMasks.length; i++) {
+      if ((userPermissions & anyOfMasks[i]) == 0) {
+        log.info(
+            "User does not have at least one of {}; denying access at {}",
+            requiredPermissions.getAnyOfClauses().get(i),
+            path);
         return false;
       }
     }
@@ -159,6 +175,13 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
     return true;
   }
 
+  private static long compileGrantedMask(Subject subject) {
+    if (!subject.getPrincipals(SiteAdminPrincipal.class).isEmpty()) {
+      return SITE_ADMIN_MASK;
+    }
+    return UserPermission.maskOf(subject.getPrincipals(UserPermission.class));
+  }
+
   private static void gatherRequiredPermissions(
       RequiredPermissions.Builder permissionsAccumulator, GraphQLDirectiveContainer queryElement) {
     Optional.ofNullable(
@@ -193,9 +216,16 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
                     .collect(Collectors.toCollection(() -> EnumSet.noneOf(UserPermission.class))));
   }
 
+  /**
+   * The permissions required by a schema element, both as sets and as masks of {@link
+   * UserPermission} bits: the masks are compiled when the schema is wired, so that checking them
+   * costs a few bitwise operations per field.
+   */
   private static class RequiredPermissions {
     private final Set<UserPermission> allOf;
-    private final Set<Set<UserPermission>> anyOfClauses;
+    private final List<Set<UserPermission>> anyOfClauses;
+    private final long allOfMask;
+    private final long[] anyOfMasks;
 
     private RequiredPermissions(Set<UserPermission> allOf, Set<Set<UserPermission>> anyOfClauses) {
       this.allOf = Set.copyOf(allOf);
@@ -205,7 +235,7 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
       // This reduction will iterate over the clauses in ascending order by length, then only add
       // clauses to the reduced set if they are not fully covered by clauses already present in the
       // reduced set.
-      var clauses = new HashSet<Set<UserPermission>>();
+      var clauses = new ArrayList<Set<UserPermission>>();
       anyOfClauses.stream()
           .filter(s -> s.stream().noneMatch(allOf::contains))
           .sorted(Comparator.comparingInt(Set::size))
@@ -215,7 +245,9 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
                   clauses.add(s);
                 }
               });
-      this.anyOfClauses = Collections.unmodifiableSet(clauses);
+      this.anyOfClauses = Collections.unmodifiableList(clauses);
+      this.allOfMask = UserPermission.maskOf(this.allOf);
+      this.anyOfMasks = clauses.stream().mapToLong(UserPermission::maskOf).toArray();
     }
 
     static Builder builder() {
@@ -226,10 +258,18 @@ public class RequiredPermissionsDirectiveWiring implements SchemaDirectiveWiring
       return allOf;
     }
 
-    Set<Set<UserPermission>> getAnyOfClauses() {
+    List<Set<UserPermission>> getAnyOfClauses() {
       return anyOfClauses;
     }
 
+    long getAllOfMask() {
+      return allOfMask;
+    }
+
+    long[] getAnyOfMasks() {
+      return anyOfMasks;
+    }
+
     private static class Builder {
       private final Set<UserPermission> allOf = EnumSet.noneOf(UserPermission.class);
       private final Set<Set<UserPermission>> anyOfClauses = new HashSet<>();
@@ -0,0 +1,21 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** One of the patients to be added to a queue by the {@code addPatientsToQueue} mutation. */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddPatientToQueueInput {
+  private UUID patientId;
+  private String pregnancy;
+  private String symptoms;
+  private LocalDate symptomOnset;
+  private Boolean noSymptoms;
+  private TestResultDeliveryPreference testResultDelivery;
+}
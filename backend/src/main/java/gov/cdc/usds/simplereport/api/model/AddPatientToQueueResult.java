@@ -0,0 +1,40 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import java.util.UUID;
+
+/**
+ * The outcome of adding one patient to a queue with the {@code addPatientsToQueue} mutation: either
+ * the new queue entry, or the reason the patient could not be added.
+ */
+public class AddPatientToQueueResult {
+  private final UUID _patientId;
+  private final TestOrder _testOrder;
+  private final String _error;
+
+  private AddPatientToQueueResult(UUID patientId, TestOrder testOrder, String error) {
+    this._patientId = patientId;
+    this._testOrder = testOrder;
+    this._error = error;
+  }
+
+  public static AddPatientToQueueResult added(UUID patientId, TestOrder testOrder) {
+    return new AddPatientToQueueResult(patientId, testOrder, null);
+  }
+
+  public static AddPatientToQueueResult failed(UUID patientId, String error) {
+    return new AddPatientToQueueResult(patientId, null, error);
+  }
+
+  public UUID getPatientId() {
+    return _patientId;
+  }
+
+  public UUID getTestOrderId() {
+    return _testOrder == null ? null : _testOrder.getInternalId();
+  }
+
+  public String getError() {
+    return _error;
+  }
+}
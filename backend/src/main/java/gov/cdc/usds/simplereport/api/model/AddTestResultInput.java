@@ -0,0 +1,19 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import java.util.Date;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** One of the results to be recorded by the {@code addTestResults} mutation. */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddTestResultInput {
+  private UUID patientId;
+  private String deviceId;
+  private UUID deviceSpecimenType;
+  private String result;
+  private Date dateTested;
+}
@@ -0,0 +1,40 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import java.util.UUID;
+
+/**
+ * The outcome of recording one result with the {@code addTestResults} mutation: either the
+ * completed test order, or the reason the result could not be recorded.
+ */
+public class AddTestResultOutcome {
+  private final UUID _patientId;
+  private final TestOrder _testOrder;
+  private final String _error;
+
+  private AddTestResultOutcome(UUID patientId, TestOrder testOrder, String error) {
+    this._patientId = patientId;
+    this._testOrder = testOrder;
+    this._error = error;
+  }
+
+  public static AddTestResultOutcome recorded(UUID patientId, TestOrder testOrder) {
+    return new AddTestResultOutcome(patientId, testOrder, null);
+  }
+
+  public static AddTestResultOutcome failed(UUID patientId, String error) {
+    return new AddTestResultOutcome(patientId, null, error);
+  }
+
+  public UUID getPatientId() {
+    return _patientId;
+  }
+
+  public ApiTestOrder getTestResult() {
+    return _testOrder == null ? null : new ApiTestOrder(_testOrder);
+  }
+
+  public String getError() {
+    return _error;
+  }
+}
@@ -0,0 +1,66 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes the seek key of a row into an opaque connection cursor and back. Each part is base64
+ * encoded separately, so parts may contain any character; a null part is encoded as an empty
+ * string, and decoded as null.
+ */
+public final class ConnectionCursor {
+  private static final String SEPARATOR = ".";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private ConnectionCursor() {}
+
+  public static String encode(String... parts) {
+    return Arrays.stream(parts)
+        .map(
+            // the leading marker distinguishes an empty string from null
+            part ->
+                part == null
+                    ? ""
+                    : ENCODER.encodeToString(("=" + part).getBytes(StandardCharsets.UTF_8)))
+        .collect(Collectors.joining(SEPARATOR));
+  }
+
+  /**
+   * Decode a cursor produced by {@link #encode}.
+   *
+   * @throws IllegalGraphqlArgumentException if the cursor is malformed or does not have the
+   *     expected number of parts.
+   */
+  public static String[] decode(String cursor, int expectedParts) {
+    String[] encoded = cursor.split(Pattern.quote(SEPARATOR), -1);
+    if (encoded.length != expectedParts) {
+      throw invalid();
+    }
+    try {
+      return Arrays.stream(encoded)
+          .map(
+              part -> {
+                if (part.isEmpty()) {
+                  return null;
+                }
+                String decoded = new String(DECODER.decode(part), StandardCharsets.UTF_8);
+                if (!decoded.startsWith("=")) {
+                  throw invalid();
+                }
+                return decoded.substring(1);
+              })
+          .toArray(String[]::new);
+    } catch (IllegalArgumentException e) {
+      throw invalid();
+    }
+  }
+
+  static IllegalGraphqlArgumentException invalid() {
+    return new IllegalGraphqlArgumentException("Invalid cursor");
+  }
+}
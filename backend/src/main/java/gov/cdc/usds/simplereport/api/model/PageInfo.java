@@ -0,0 +1,12 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Relay-style paging information for a connection. */
+@AllArgsConstructor
+@Getter
+public class PageInfo {
+  private boolean hasNextPage;
+  private String endCursor;
+}
@@ -0,0 +1,32 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import lombok.Getter;
+
+/** A page of patients, in the shape of a Relay connection. */
+public class PatientConnection {
+  @Getter private final List<PatientEdge> edges;
+  @Getter private final PageInfo pageInfo;
+  private final IntSupplier totalCount;
+
+  /**
+   * @param rows up to {@code pageSize + 1} patients: the extra row, if present, only signals that
+   *     there is another page.
+   * @param totalCount run (only) if the client asks for the total count.
+   */
+  public PatientConnection(List<Person> rows, int pageSize, IntSupplier totalCount) {
+    this.edges = rows.stream().limit(pageSize).map(PatientEdge::new).collect(Collectors.toList());
+    this.pageInfo =
+        new PageInfo(
+            rows.size() > pageSize,
+            edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor());
+    this.totalCount = totalCount;
+  }
+
+  public int getTotalCount() {
+    return totalCount.getAsInt();
+  }
+}
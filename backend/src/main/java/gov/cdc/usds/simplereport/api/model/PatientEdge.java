@@ -0,0 +1,35 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.service.model.PersonPageKey;
+import java.util.UUID;
+import lombok.Getter;
+
+@Getter
+public class PatientEdge {
+  private static final int CURSOR_PARTS = 3;
+
+  private final String cursor;
+  private final Person node;
+
+  public PatientEdge(Person node) {
+    PersonPageKey key = PersonPageKey.of(node);
+    this.cursor =
+        ConnectionCursor.encode(
+            key.getLastName(), key.getFirstName(), key.getInternalId().toString());
+    this.node = node;
+  }
+
+  /** Decode a cursor returned by {@link #getCursor()}; a null cursor decodes to null. */
+  public static PersonPageKey parseCursor(String cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    String[] parts = ConnectionCursor.decode(cursor, CURSOR_PARTS);
+    try {
+      return new PersonPageKey(parts[0], parts[1], UUID.fromString(parts[2]));
+    } catch (RuntimeException e) {
+      throw ConnectionCursor.invalid();
+    }
+  }
+}
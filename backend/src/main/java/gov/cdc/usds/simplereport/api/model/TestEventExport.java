@@ -4,27 +4,26 @@ import static java.lang.Boolean.TRUE;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
-import gov.cdc.usds.simplereport.db.model.DeviceType;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.Provider;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
-import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
-import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -39,55 +38,61 @@ public class TestEventExport {
   private static final int FALLBACK_DEFAULT_TEST_MINUTES = 15;
   public static final String USA = "USA";
   private final TestEvent testEvent;
-  private final Optional<Person> patient;
-  private final Optional<AskOnEntrySurvey> survey;
-  private final Optional<Provider> provider;
-  private final Optional<Facility> facility;
-  private final Optional<Organization> organization;
-  private final Optional<DeviceSpecimenType> deviceSpecimenType;
+  private final Person patient;
+  private final AskOnEntrySurvey survey;
+  private final Provider provider;
+  private final Facility facility;
+  private final StreetAddress facilityAddress;
+  private final Organization organization;
+  private final DeviceSpecimenType deviceSpecimenType;
 
   public TestEventExport(TestEvent testEvent) {
     this.testEvent = testEvent;
-    this.patient = Optional.ofNullable(testEvent.getPatientData());
-    this.survey = Optional.ofNullable(testEvent.getSurveyData());
-    this.provider = Optional.ofNullable(testEvent.getProviderData());
-    this.facility = Optional.ofNullable(testEvent.getFacility());
-    this.organization = Optional.ofNullable(testEvent.getOrganization());
+    this.patient = testEvent.getPatientData();
+    this.survey = testEvent.getSurveyData();
+    this.provider = testEvent.getProviderData();
+    this.facility = testEvent.getFacility();
+    this.facilityAddress = facility == null ? null : facility.getAddress();
+    this.organization = testEvent.getOrganization();
 
-    this.deviceSpecimenType = Optional.ofNullable(testEvent.getDeviceSpecimen());
+    this.deviceSpecimenType = testEvent.getDeviceSpecimen();
   }
 
-  private String genderUnknown = "U";
-  private String ethnicityUnknown = "U";
-  private String raceUnknown = "UNK";
+  private static final String GENDER_UNKNOWN = "U";
+  private static final String ETHNICITY_UNKNOWN = "U";
+  private static final String RACE_UNKNOWN = "UNK";
   private static final String DEFAULT_LOCATION_CODE = "53342003"; // http://snomed.info/id/53342003
   // "Internal nose structure"
+  private static final DateTimeFormatter HEALTHCARE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter HEALTHCARE_DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
   // values pulled from
   // https://github.com/CDCgov/prime-data-hub/blob/master/prime-router/metadata/valuesets/common.valuesets
-  private Map<String, String> genderMap =
+  private static final Map<String, String> GENDER_CODES =
       Map.of(
           "male", "M",
           "female", "F",
           "other", "O",
           "ambiguous", "A",
-          "unknown", genderUnknown,
-          "unk", genderUnknown,
-          "refused", genderUnknown,
+          "unknown", GENDER_UNKNOWN,
+          "unk", GENDER_UNKNOWN,
+          "refused", GENDER_UNKNOWN,
           "notapplicable", "N");
 
-  private Map<String, String> ethnicityMap =
+  private static final Map<String, String> ETHNICITY_CODES =
       Map.of(
           "hispanic", "H",
           "not_hispanic", "N",
           "refused", "U");
 
-  private Map<TestResult, String> testResultMap =
-      Map.of(
-          TestResult.POSITIVE, "260373001",
-          TestResult.NEGATIVE, "260415000",
-          TestResult.UNDETERMINED, "419984006");
+  private static final Map<TestResult, String> TEST_RESULT_CODES =
+      new EnumMap<>(
+          Map.of(
+              TestResult.POSITIVE, "260373001",
+              TestResult.NEGATIVE, "260415000",
+              TestResult.UNDETERMINED, "419984006"));
 
-  private Map<String, String> raceMap =
+  private static final Map<String, String> RACE_CODES =
       Map.of(
           "native", "1002-5",
           "asian", "2028-9",
@@ -95,11 +100,15 @@ public class TestEventExport {
           "pacific", "2076-8",
           "white", "2106-3",
           "other", "2131-1",
-          "unknown", raceUnknown,
+          "unknown", RACE_UNKNOWN,
           "refused", "ASKU" // Asked, but unknown
           );
 
-  private String boolToYesNoUnk(Boolean value) {
+  private static String lookup(Map<String, String> codes, String value, String unknown) {
+    return value == null ? unknown : codes.getOrDefault(value, unknown);
+  }
+
+  private static String boolToYesNoUnk(Boolean value) {
     if (value == null) {
       return "UNK";
     } else if (value) {
@@ -109,150 +118,147 @@ public class TestEventExport {
     }
   }
 
-  private String boolToYesNoUnk(Optional<Boolean> value) {
-    return boolToYesNoUnk(value.orElse(null));
-  }
-
-  private String dateToHealthCareString(LocalDate value) {
+  private static String dateToHealthCareString(LocalDate value) {
     if (value == null) {
       return "";
     }
-    return value.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+    return HEALTHCARE_DATE.format(value);
   }
 
-  private String dateToHealthCareString(LocalDateTime value) {
+  private static String dateToHealthCareString(LocalDateTime value) {
     if (value == null) {
       return "";
     }
-    return value.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+    return HEALTHCARE_DATE_TIME.format(value);
   }
 
-  private LocalDateTime convertToLocalDateTime(Date dateToConvert) {
-    return dateToConvert.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+  private static LocalDateTime convertToLocalDateTime(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
   }
 
   @JsonProperty("Patient_last_name")
   public String getPatientLastName() {
-    return patient.map(Person::getLastName).orElse(null);
+    return patient == null ? null : patient.getLastName();
   }
 
   @JsonProperty("Patient_first_name")
   public String getPatientFirstName() {
-    return patient.map(Person::getFirstName).orElse(null);
+    return patient == null ? null : patient.getFirstName();
   }
 
   @JsonProperty("Patient_middle_name")
   public String getPatientMiddleName() {
-    return patient.map(Person::getMiddleName).orElse(null);
+    return patient == null ? null : patient.getMiddleName();
   }
 
   @JsonProperty("Patient_suffix")
   public String getPatientSuffix() {
-    return patient.map(Person::getSuffix).orElse(null);
+    return patient == null ? null : patient.getSuffix();
   }
 
   @JsonProperty("Patient_race")
   public String getPatientRace() {
-    return patient.map(Person::getRace).map(raceMap::get).orElse(raceUnknown);
+    return patient == null ? RACE_UNKNOWN : lookup(RACE_CODES, patient.getRace(), RACE_UNKNOWN);
   }
 
   @JsonProperty("Patient_DOB")
   public String getPatientBirthDate() {
-    return dateToHealthCareString(patient.map(Person::getBirthDate).orElse(null));
+    return dateToHealthCareString(patient == null ? null : patient.getBirthDate());
   }
 
   @JsonProperty("Patient_gender")
   public String getPatientGender() {
-    return patient.map(Person::getGender).map(genderMap::get).orElse(genderUnknown);
+    return patient == null
+        ? GENDER_UNKNOWN
+        : lookup(GENDER_CODES, patient.getGender(), GENDER_UNKNOWN);
   }
 
   @JsonProperty("Patient_ethnicity")
   public String getPatientEthnicity() {
-    return patient.map(Person::getEthnicity).map(ethnicityMap::get).orElse(ethnicityUnknown);
+    return patient == null
+        ? ETHNICITY_UNKNOWN
+        : lookup(ETHNICITY_CODES, patient.getEthnicity(), ETHNICITY_UNKNOWN);
   }
 
   @JsonProperty("Patient_street")
   public String getPatientStreet() {
-    return patient.map(Person::getStreet).orElse(null);
+    return patient == null ? null : patient.getStreet();
   }
 
   @JsonProperty("Patient_street_2")
   public String getPatientStreetTwo() {
-    return patient.map(Person::getStreetTwo).orElse(null);
+    return patient == null ? null : patient.getStreetTwo();
   }
 
   @JsonProperty("Patient_city")
   public String getPatientCity() {
-    return patient.map(Person::getCity).orElse(null);
+    return patient == null ? null : patient.getCity();
   }
 
   @JsonProperty("Patient_county")
   public String getPatientCounty() {
-    return patient.map(Person::getCounty).orElse(null);
+    return patient == null ? null : patient.getCounty();
   }
 
   @JsonProperty("Patient_state")
   public String getPatientState() {
-    return patient.map(Person::getState).orElse(null);
+    return patient == null ? null : patient.getState();
   }
 
   @JsonProperty("Patient_zip_code")
   public String getPatientZipCode() {
-    return patient.map(Person::getZipCode).orElse(null);
+    return patient == null ? null : patient.getZipCode();
   }
 
   @JsonProperty("Patient_country")
   public String getPatientCountry() {
-    return patient.map(Person::getCountry).orElse(USA);
+    return patient == null ? USA : Objects.requireNonNullElse(patient.getCountry(), USA);
   }
 
   @JsonProperty("Patient_phone_number")
   public String getPatientPhoneNumber() {
-    return patient.map(Person::getTelephone).orElse(null);
+    return patient == null ? null : patient.getTelephone();
   }
 
   @JsonProperty("Patient_email")
   public String getPatientEmail() {
-    return patient.map(Person::getEmail).orElse(null);
+    return patient == null ? null : patient.getEmail();
   }
 
   @JsonProperty("Patient_ID")
   public String getPatientId() {
-    return patient.map(Person::getInternalId).map(UUID::toString).orElse(null);
+    return patient == null || patient.getInternalId() == null
+        ? null
+        : patient.getInternalId().toString();
   }
 
   @JsonProperty("Patient_role")
   public String getPatientRole() {
-    return patient.map(Person::getRole).map(PersonRole::toString).orElse("");
+    return patient == null || patient.getRole() == null ? "" : patient.getRole().toString();
   }
 
   @JsonProperty("Patient_tribal_affiliation")
   public String getPatientTribalAffiliation() {
-    return patient
-        .map(Person::getTribalAffiliation)
-        .map(
-            affiliationList -> {
-              if (affiliationList.isEmpty()) {
-                return "";
-              }
-              return Objects.requireNonNullElse(affiliationList.get(0), "");
-            })
-        .orElse("");
+    List<String> affiliations = patient == null ? null : patient.getTribalAffiliation();
+    if (affiliations == null || affiliations.isEmpty()) {
+      return "";
+    }
+    return Objects.requireNonNullElse(affiliations.get(0), "");
   }
 
   @JsonProperty("Patient_preferred_language")
   public String getPatientPreferredLanguage() {
-    return patient.map(Person::getPreferredLanguage).orElse("");
+    return patient == null ? "" : Objects.requireNonNullElse(patient.getPreferredLanguage(), "");
   }
 
   @JsonProperty("Employed_in_healthcare")
   public String getPatientEmployedInHealthcare() {
-    return boolToYesNoUnk(patient.map(Person::getEmployedInHealthcare));
+    return boolToYesNoUnk(patient == null ? null : patient.getEmployedInHealthcare());
   }
 
   @JsonProperty("Resident_congregate_setting")
   public String getPatientResidentCongregateSetting() {
-    return boolToYesNoUnk(patient.map(Person::getResidentCongregateSetting));
+    return boolToYesNoUnk(patient == null ? null : patient.getResidentCongregateSetting());
   }
 
   @JsonProperty("Result_ID")
@@ -272,7 +278,7 @@ public class TestEventExport {
   @JsonProperty("Test_correction_reason")
   public String getCorrectionReason() {
     if (testEvent.getCorrectionStatus() != TestCorrectionStatus.ORIGINAL) {
-      return Optional.ofNullable(testEvent.getReasonForCorrection()).orElse("");
+      return Objects.requireNonNullElse(testEvent.getReasonForCorrection(), "");
     }
     return "";
   }
@@ -296,25 +302,23 @@ public class TestEventExport {
 
   @JsonProperty("Test_result_code")
   public String getTestResult() {
-    return testResultMap.get(testEvent.getResult());
+    return TEST_RESULT_CODES.get(testEvent.getResult());
   }
 
   @JsonProperty("Specimen_collection_date_time")
   public String getSpecimenCollectionDateTime() {
-    var testDuration =
-        deviceSpecimenType
-            .map(DeviceSpecimenType::getDeviceType)
-            .map(DeviceType::getTestLength)
-            .orElse(FALLBACK_DEFAULT_TEST_MINUTES);
+    int testDuration =
+        deviceSpecimenType == null || deviceSpecimenType.getDeviceType() == null
+            ? FALLBACK_DEFAULT_TEST_MINUTES
+            : deviceSpecimenType.getDeviceType().getTestLength();
     return dateToHealthCareString(
         convertToLocalDateTime(
-            Date.from(
-                testEvent.getDateTested().toInstant().minus(Duration.ofMinutes(testDuration)))));
+            testEvent.getDateTested().toInstant().minus(Duration.ofMinutes(testDuration))));
   }
 
   @JsonProperty("Ordering_provider_ID")
   public String getOrderingProviderID() {
-    return provider.map(Provider::getProviderId).orElse(null);
+    return provider == null ? null : provider.getProviderId();
   }
 
   @JsonProperty("First_test")
@@ -324,12 +328,13 @@ public class TestEventExport {
 
   @JsonProperty("Symptomatic_for_disease")
   public String getSymptomaticForDisease() {
-    return boolToYesNoUnk(survey.map(AskOnEntrySurvey::getNoSymptoms).map(b -> !b));
+    Boolean noSymptoms = survey == null ? null : survey.getNoSymptoms();
+    return boolToYesNoUnk(noSymptoms == null ? null : !noSymptoms);
   }
 
   @JsonProperty("Illness_onset_date")
   public String getSymptomOnsetDate() {
-    return dateToHealthCareString(survey.map(AskOnEntrySurvey::getSymptomOnsetDate).orElse(null));
+    return dateToHealthCareString(survey == null ? null : survey.getSymptomOnsetDate());
   }
 
   @JsonProperty("Testing_lab_name")
@@ -339,7 +344,7 @@ public class TestEventExport {
 
   @JsonProperty("Testing_lab_CLIA")
   public String getTestingLabID() {
-    return facility.map(Facility::getCliaNumber).orElse(null);
+    return facility == null ? null : facility.getCliaNumber();
   }
 
   @JsonProperty("Testing_lab_state")
@@ -386,82 +391,86 @@ public class TestEventExport {
 
   @JsonProperty("Ordering_facility_city")
   public String getOrderingFacilityCity() {
-    return facility.map(Facility::getAddress).map(StreetAddress::getCity).orElse(null);
+    return facilityAddress == null ? null : facilityAddress.getCity();
   }
 
   @JsonProperty("Ordering_facility_county")
   public String getOrderingFacilityCounty() {
-    return facility.map(Facility::getAddress).map(StreetAddress::getCounty).orElse(null);
+    return facilityAddress == null ? null : facilityAddress.getCounty();
   }
 
   @JsonProperty("Ordering_facility_name")
   public String getOrderingFacilityName() {
-    return facility.map(Facility::getFacilityName).orElse(null);
+    return facility == null ? null : facility.getFacilityName();
   }
 
   @JsonProperty("Organization_name")
   public String getOrganizationName() {
-    return organization.map(Organization::getOrganizationName).orElse(null);
+    return organization == null ? null : organization.getOrganizationName();
   }
 
   @JsonProperty("Ordering_facility_phone_number")
   public String getOrderingFacilityPhoneNumber() {
-    return facility.map(Facility::getTelephone).orElse(null);
+    return facility == null ? null : facility.getTelephone();
   }
 
   @JsonProperty("Ordering_facility_email")
   public String getOrderingFacilityEmail() {
-    return facility.map(Facility::getEmail).orElse(null);
+    return facility == null ? null : facility.getEmail();
   }
 
   @JsonProperty("Ordering_facility_state")
   public String getOrderingFacilityState() {
-    return facility.map(Facility::getAddress).map(StreetAddress::getState).orElse(null);
+    return facilityAddress == null ? null : facilityAddress.getState();
   }
 
   @JsonProperty("Ordering_facility_street")
   public String getOrderingFacilityStreet() {
-    return facility.map(Facility::getAddress).map(StreetAddress::getStreetOne).orElse(null);
+    return facilityAddress == null ? null : facilityAddress.getStreetOne();
   }
 
   @JsonProperty("Ordering_facility_street_2")
   public String getOrderingFacilityStreetTwo() {
-    return facility.map(Facility::getAddress).map(StreetAddress::getStreetTwo).orElse(null);
+    return facilityAddress == null ? null : facilityAddress.getStreetTwo();
   }
 
   @JsonProperty("Ordering_facility_zip_code")
   public String getOrderingFacilityZipCode() {
-    return facility.map(Facility::getAddress).map(StreetAddress::getPostalCode).orElse(null);
+    return facilityAddress == null ? null : facilityAddress.getPostalCode();
   }
 
   @JsonProperty("Ordering_provider_last_name")
   public String getOrderingProviderLastName() {
-    return provider.map(Provider::getNameInfo).map(PersonName::getLastName).orElse(null);
+    return provider == null || provider.getNameInfo() == null
+        ? null
+        : provider.getNameInfo().getLastName();
   }
 
   @JsonProperty("Ordering_provider_first_name")
   public String getOrderingProviderFirstName() {
-    return provider.map(Provider::getNameInfo).map(PersonName::getFirstName).orElse(null);
+    return provider == null || provider.getNameInfo() == null
+        ? null
+        : provider.getNameInfo().getFirstName();
   }
 
   @JsonProperty("Ordering_provider_street")
   public String getOrderingProviderStreet() {
-    return provider.map(Provider::getStreet).orElse(null);
+    return provider == null ? null : provider.getStreet();
   }
 
   @JsonProperty("Ordering_provider_street_2")
   public String getOrderingProviderStreetTwo() {
-    return provider.map(Provider::getStreetTwo).orElse(null);
+    return provider == null ? null : provider.getStreetTwo();
   }
 
   @JsonProperty("Ordering_provider_city")
   public String getOrderingProviderCity() {
-    return provider.map(Provider::getCity).orElse(null);
+    return provider == null ? null : provider.getCity();
   }
 
   @JsonProperty("Ordering_provider_state")
   public String getOrderingProviderState() {
-    return provider.map(Provider::getState).orElse(null);
+    return provider == null ? null : provider.getState();
   }
 
   @JsonProperty("Ordering_provider_zip_code")
@@ -471,50 +480,50 @@ public class TestEventExport {
 
   @JsonProperty("Ordering_provider_county")
   public String getOrderingProviderCounty() {
-    return provider.map(Provider::getCounty).orElse(null);
+    return provider == null ? null : provider.getCounty();
   }
 
   @JsonProperty("Ordering_provider_phone_number")
   public String getOrderingProviderPhoneNumber() {
-    return provider.map(Provider::getTelephone).orElse(null);
+    return provider == null ? null : provider.getTelephone();
   }
 
   @JsonProperty("Ordered_test_code")
   public String getOrderedTestCode() {
-    return deviceSpecimenType.map(dst -> dst.getDeviceType().getLoincCode()).orElse(null);
+    return deviceSpecimenType == null ? null : deviceSpecimenType.getDeviceType().getLoincCode();
   }
 
   @JsonProperty("Specimen_source_site_code")
   public String getSpecimenSourceSiteCode() {
-    return deviceSpecimenType
-        .map(dst -> dst.getSpecimenType().getCollectionLocationCode())
-        .orElse(DEFAULT_LOCATION_CODE);
+    return deviceSpecimenType == null
+        ? DEFAULT_LOCATION_CODE
+        : Objects.requireNonNullElse(
+            deviceSpecimenType.getSpecimenType().getCollectionLocationCode(),
+            DEFAULT_LOCATION_CODE);
   }
 
   @JsonProperty("Specimen_type_code")
   public String getSpecimenTypeCode() {
-    return deviceSpecimenType.map(dst -> dst.getSpecimenType().getTypeCode()).orElse(null);
+    return deviceSpecimenType == null ? null : deviceSpecimenType.getSpecimenType().getTypeCode();
   }
 
   @JsonProperty("Instrument_ID")
   public String getInstrumentID() {
-    return deviceSpecimenType
-        .map(dst -> dst.getDeviceType().getInternalId())
-        .map(UUID::toString)
-        .orElse(null);
+    UUID deviceTypeId =
+        deviceSpecimenType == null ? null : deviceSpecimenType.getDeviceType().getInternalId();
+    return deviceTypeId == null ? null : deviceTypeId.toString();
   }
 
   @JsonProperty("Device_ID")
   public String getDeviceID() {
-    return deviceSpecimenType.map(dst -> dst.getDeviceType().getModel()).orElse(null);
+    return deviceSpecimenType == null ? null : deviceSpecimenType.getDeviceType().getModel();
   }
 
   @JsonProperty("Test_date")
   public String getTestDate() {
+    Date dateTested = testEvent.getDateTested();
     return dateToHealthCareString(
-        Optional.ofNullable(testEvent.getDateTested())
-            .map(this::convertToLocalDateTime)
-            .orElse(null));
+        dateTested == null ? null : convertToLocalDateTime(dateTested.toInstant()));
   }
 
   @JsonProperty("Date_result_released")
@@ -530,6 +539,6 @@ public class TestEventExport {
 
   @JsonProperty("Site_of_care")
   public String getSiteOfCare() {
-    return organization.map(Organization::getOrganizationType).orElse(null);
+    return organization == null ? null : organization.getOrganizationType();
   }
 }
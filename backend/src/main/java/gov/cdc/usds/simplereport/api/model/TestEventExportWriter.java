@@ -0,0 +1,144 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.function.Function;
+
+/**
+ * Writes test events in the {@link TestEventExport} (ReportStream) schema straight to a {@link
+ * JsonGenerator}, without going through Jackson's bean introspection. The column names are encoded
+ * once, up front, and each value is read with a plain getter call. Works for JSON and, with {@link
+ * #CSV_SCHEMA}, for CSV.
+ *
+ * <p>The columns must stay in step with the {@link com.fasterxml.jackson.annotation.JsonProperty}
+ * annotations on {@link TestEventExport}; TestEventExportWriterTest checks that they do.
+ */
+public final class TestEventExportWriter {
+
+  private static final Column[] COLUMNS = {
+    column("Patient_last_name", TestEventExport::getPatientLastName),
+    column("Patient_first_name", TestEventExport::getPatientFirstName),
+    column("Patient_middle_name", TestEventExport::getPatientMiddleName),
+    column("Patient_suffix", TestEventExport::getPatientSuffix),
+    column("Patient_race", TestEventExport::getPatientRace),
+    column("Patient_DOB", TestEventExport::getPatientBirthDate),
+    column("Patient_gender", TestEventExport::getPatientGender),
+    column("Patient_ethnicity", TestEventExport::getPatientEthnicity),
+    column("Patient_street", TestEventExport::getPatientStreet),
+    column("Patient_street_2", TestEventExport::getPatientStreetTwo),
+    column("Patient_city", TestEventExport::getPatientCity),
+    column("Patient_county", TestEventExport::getPatientCounty),
+    column("Patient_state", TestEventExport::getPatientState),
+    column("Patient_zip_code", TestEventExport::getPatientZipCode),
+    column("Patient_country", TestEventExport::getPatientCountry),
+    column("Patient_phone_number", TestEventExport::getPatientPhoneNumber),
+    column("Patient_email", TestEventExport::getPatientEmail),
+    column("Patient_ID", TestEventExport::getPatientId),
+    column("Patient_role", TestEventExport::getPatientRole),
+    column("Patient_tribal_affiliation", TestEventExport::getPatientTribalAffiliation),
+    column("Patient_preferred_language", TestEventExport::getPatientPreferredLanguage),
+    column("Employed_in_healthcare", TestEventExport::getPatientEmployedInHealthcare),
+    column("Resident_congregate_setting", TestEventExport::getPatientResidentCongregateSetting),
+    column("Result_ID", TestEventExport::getResultID),
+    column("Corrected_result_ID", TestEventExport::getCorrectedResultId),
+    column("Test_correction_reason", TestEventExport::getCorrectionReason),
+    column("Test_result_status", TestEventExport::getTestResultStatus),
+    column("Test_result_code", TestEventExport::getTestResult),
+    column("Specimen_collection_date_time", TestEventExport::getSpecimenCollectionDateTime),
+    column("Ordering_provider_ID", TestEventExport::getOrderingProviderID),
+    column("First_test", TestEventExport::getFirstTest),
+    column("Symptomatic_for_disease", TestEventExport::getSymptomaticForDisease),
+    column("Illness_onset_date", TestEventExport::getSymptomOnsetDate),
+    column("Testing_lab_name", TestEventExport::getTestingLabName),
+    column("Testing_lab_CLIA", TestEventExport::getTestingLabID),
+    column("Testing_lab_state", TestEventExport::getTestingLabState),
+    column("Testing_lab_street", TestEventExport::getTestingLabStreet),
+    column("Testing_lab_street_2", TestEventExport::getTestingLabStreetTwo),
+    column("Testing_lab_zip_code", TestEventExport::getTestingLabZipCode),
+    column("Testing_lab_county", TestEventExport::getTestingLabCounty),
+    column("Testing_lab_phone_number", TestEventExport::getTestingLabPhoneNumber),
+    column("Testing_lab_city", TestEventExport::getTestingLabCity),
+    column("Processing_mode_code", TestEventExport::getFacilityProcessingModeCode),
+    column("Ordering_facility_city", TestEventExport::getOrderingFacilityCity),
+    column("Ordering_facility_county", TestEventExport::getOrderingFacilityCounty),
+    column("Ordering_facility_name", TestEventExport::getOrderingFacilityName),
+    column("Organization_name", TestEventExport::getOrganizationName),
+    column("Ordering_facility_phone_number", TestEventExport::getOrderingFacilityPhoneNumber),
+    column("Ordering_facility_email", TestEventExport::getOrderingFacilityEmail),
+    column("Ordering_facility_state", TestEventExport::getOrderingFacilityState),
+    column("Ordering_facility_street", TestEventExport::getOrderingFacilityStreet),
+    column("Ordering_facility_street_2", TestEventExport::getOrderingFacilityStreetTwo),
+    column("Ordering_facility_zip_code", TestEventExport::getOrderingFacilityZipCode),
+    column("Ordering_provider_last_name", TestEventExport::getOrderingProviderLastName),
+    column("Ordering_provider_first_name", TestEventExport::getOrderingProviderFirstName),
+    column("Ordering_provider_street", TestEventExport::getOrderingProviderStreet),
+    column("Ordering_provider_street_2", TestEventExport::getOrderingProviderStreetTwo),
+    column("Ordering_provider_city", TestEventExport::getOrderingProviderCity),
+    column("Ordering_provider_state", TestEventExport::getOrderingProviderState),
+    column("Ordering_provider_zip_code", TestEventExport::getOrderingProviderZipCode),
+    column("Ordering_provider_county", TestEventExport::getOrderingProviderCounty),
+    column("Ordering_provider_phone_number", TestEventExport::getOrderingProviderPhoneNumber),
+    column("Ordered_test_code", TestEventExport::getOrderedTestCode),
+    column("Specimen_source_site_code", TestEventExport::getSpecimenSourceSiteCode),
+    column("Specimen_type_code", TestEventExport::getSpecimenTypeCode),
+    column("Instrument_ID", TestEventExport::getInstrumentID),
+    column("Device_ID", TestEventExport::getDeviceID),
+    column("Test_date", TestEventExport::getTestDate),
+    column("Date_result_released", TestEventExport::getDateResultReleased),
+    column("Order_test_date", TestEventExport::getOrderTestDate),
+    column("Site_of_care", TestEventExport::getSiteOfCare)
+  };
+
+  /** The CSV schema (with a header row) matching the columns written by {@link #write}. */
+  public static final CsvSchema CSV_SCHEMA = buildCsvSchema();
+
+  private TestEventExportWriter() {}
+
+  /** Write a single test event as one object (or CSV row) to the generator. */
+  public static void write(TestEvent event, JsonGenerator generator) throws IOException {
+    TestEventExport export = new TestEventExport(event);
+    generator.writeStartObject();
+    for (Column column : COLUMNS) {
+      generator.writeFieldName(column.name);
+      generator.writeString(column.value.apply(export));
+    }
+    generator.writeEndObject();
+  }
+
+  /** Serialize a single test event as a JSON string. */
+  public static String writeValueAsString(JsonFactory factory, TestEvent event) throws IOException {
+    StringWriter out = new StringWriter();
+    try (JsonGenerator generator = factory.createGenerator(out)) {
+      write(event, generator);
+    }
+    return out.toString();
+  }
+
+  private static CsvSchema buildCsvSchema() {
+    CsvSchema.Builder builder = CsvSchema.builder().setUseHeader(true);
+    for (Column column : COLUMNS) {
+      builder.addColumn(column.name.getValue());
+    }
+    return builder.build();
+  }
+
+  private static Column column(String name, Function<TestEventExport, String> value) {
+    return new Column(new SerializedString(name), value);
+  }
+
+  private static final class Column {
+    private final SerializableString name;
+    private final Function<TestEventExport, String> value;
+
+    private Column(SerializableString name, Function<TestEventExport, String> value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.service.model.TestEventPageKey;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+
+@Getter
+public class TestResultEdge {
+  private static final int CURSOR_PARTS = 2;
+
+  private final String cursor;
+  private final TestEvent node;
+
+  public TestResultEdge(TestEvent node) {
+    TestEventPageKey key = TestEventPageKey.of(node);
+    this.cursor =
+        ConnectionCursor.encode(key.getCreatedAt().toString(), key.getInternalId().toString());
+    this.node = node;
+  }
+
+  /** Decode a cursor returned by {@link #getCursor()}; a null cursor decodes to null. */
+  public static TestEventPageKey parseCursor(String cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    String[] parts = ConnectionCursor.decode(cursor, CURSOR_PARTS);
+    try {
+      return new TestEventPageKey(Instant.parse(parts[0]), UUID.fromString(parts[1]));
+    } catch (RuntimeException e) {
+      throw ConnectionCursor.invalid();
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package gov.cdc.usds.simplereport.api.patient;
 
+import gov.cdc.usds.simplereport.api.model.PatientConnection;
+import gov.cdc.usds.simplereport.api.model.PatientEdge;
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
@@ -35,6 +37,24 @@ public class PatientResolver implements GraphQLQueryResolver {
     return _ps.getPatientsCount(facilityId, showDeleted, namePrefixMatch);
   }
 
+  // authorization happens in calls to PersonService
+  public PatientConnection getPatientsConnection(
+      UUID facilityId, boolean showDeleted, String namePrefixMatch, int first, String after) {
+    int pageSize = Math.min(Math.max(first, 1), PersonService.DEFAULT_PAGINATION_PAGESIZE);
+    List<Person> rows =
+        _ps.getPatientsAfter(
+            facilityId, showDeleted, namePrefixMatch, PatientEdge.parseCursor(after), pageSize + 1);
+    return new PatientConnection(
+        rows, pageSize, () -> (int) _ps.getPatientsCount(facilityId, showDeleted, namePrefixMatch));
+  }
+
+  // authorization happens in calls to PersonService
+  public List<Person> searchPatients(
+      UUID facilityId, boolean showDeleted, String namePrefixMatch, int limit) {
+    int pageSize = Math.min(Math.max(limit, 1), PersonService.DEFAULT_PAGINATION_PAGESIZE);
+    return _ps.searchPatients(facilityId, showDeleted, namePrefixMatch, pageSize);
+  }
+
   public boolean patientExists(
       String firstName, String lastName, LocalDate birthDate, String zipCode, UUID facilityId) {
     // Backwards compatibility shim -- zipCode is unused
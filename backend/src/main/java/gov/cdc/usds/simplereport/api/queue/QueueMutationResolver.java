@@ -3,6 +3,10 @@ package gov.cdc.usds.simplereport.api.queue;
 import static gov.cdc.usds.simplereport.api.Translators.parseSymptoms;
 
 import com.google.i18n.phonenumbers.NumberParseException;
+import gov.cdc.usds.simplereport.api.model.AddPatientToQueueInput;
+import gov.cdc.usds.simplereport.api.model.AddPatientToQueueResult;
+import gov.cdc.usds.simplereport.api.model.AddTestResultInput;
+import gov.cdc.usds.simplereport.api.model.AddTestResultOutcome;
 import gov.cdc.usds.simplereport.api.model.AddTestResultResponse;
 import gov.cdc.usds.simplereport.api.model.ApiTestOrder;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
@@ -14,6 +18,7 @@ import gov.cdc.usds.simplereport.service.TestOrderService;
 import graphql.kickstart.tools.GraphQLMutationResolver;
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import org.json.JSONException;
@@ -60,6 +65,11 @@ public class QueueMutationResolver implements GraphQLMutationResolver {
         .getTestResult();
   }
 
+  public List<AddTestResultOutcome> addTestResults(
+      UUID facilityID, List<AddTestResultInput> results) {
+    return _tos.addTestResults(facilityID, results);
+  }
+
   public ApiTestOrder editQueueItem(
       UUID id, String deviceId, UUID deviceSpecimenType, String result, Date dateTested) {
     UUID dst =
@@ -98,6 +108,11 @@ public class QueueMutationResolver implements GraphQLMutationResolver {
         .toString(); // this return is unused in the UI. it used to be PatientLinkInternalId
   }
 
+  public List<AddPatientToQueueResult> addPatientsToQueue(
+      UUID facilityID, List<AddPatientToQueueInput> patients) {
+    return _tos.addPatientsToQueue(facilityID, patients);
+  }
+
   public void removePatientFromQueue(UUID patientID) {
     _tos.removePatientFromQueue(patientID);
   }
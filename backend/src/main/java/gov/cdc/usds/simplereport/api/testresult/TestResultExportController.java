@@ -0,0 +1,142 @@
+package gov.cdc.usds.simplereport.api.testresult;
+
+import static gov.cdc.usds.simplereport.config.WebConfiguration.TEST_RESULT_EXPORT;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import gov.cdc.usds.simplereport.api.model.TestEventExport;
+import gov.cdc.usds.simplereport.api.model.TestEventExportWriter;
+import gov.cdc.usds.simplereport.api.model.errors.BadRequestException;
+import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.service.OrganizationService;
+import gov.cdc.usds.simplereport.service.TestOrderService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+/**
+ * Downloads test results as CSV or newline-delimited JSON, using the same columns as {@link
+ * TestEventExport} and the same filters as the <code>testResults</code> query. Rows are written as
+ * they are read from the database, so the response starts immediately and the server never holds
+ * the whole result set. A large export can take far longer than an ordinary request, so it is given
+ * its own async timeout.
+ */
+@RestController
+@RequestMapping(TEST_RESULT_EXPORT)
+public class TestResultExportController {
+  static final String FORMAT_CSV = "csv";
+  static final String FORMAT_NDJSON = "ndjson";
+  static final MediaType TEXT_CSV = new MediaType("text", "csv");
+  static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+
+  private static final CsvFactory CSV_FACTORY = new CsvFactory();
+
+  private final TestOrderService _tos;
+  private final OrganizationService _orgService;
+  private final ObjectMapper _mapper;
+  private final Duration _timeout;
+
+  public TestResultExportController(
+      TestOrderService tos,
+      OrganizationService orgService,
+      ObjectMapper mapper,
+      @Value("${simple-report.test-result-export.timeout:15m}") Duration timeout) {
+    _tos = tos;
+    _orgService = orgService;
+    _mapper = mapper;
+    _timeout = timeout;
+  }
+
+  @GetMapping
+  @AuthorizationConfiguration.RequirePermissionReadResultListAtFacility
+  @PostAuthorize("@restAuditLogManager.logAuthenticatedRestSuccess(#request)")
+  public WebAsyncTask<Void> exportTestResults(
+      @RequestParam(required = false) UUID facilityId,
+      @RequestParam(required = false) UUID patientId,
+      @RequestParam(required = false) TestResult result,
+      @RequestParam(required = false) PersonRole role,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date startDate,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date endDate,
+      @RequestParam(defaultValue = FORMAT_CSV) String format,
+      HttpServletRequest request,
+      HttpServletResponse response) {
+    // checked here, since once the body starts streaming it is too late to return an error status.
+    // (A facility outside the organization fails the permission check, but a patient is not checked
+    // on its own: the export is limited to the current organization, so it exports no rows.)
+    if (facilityId == null && patientId == null) {
+      throw new BadRequestException(TestOrderService.MISSING_ARG);
+    }
+    MediaType contentType;
+    if (FORMAT_CSV.equals(format)) {
+      contentType = TEXT_CSV;
+    } else if (FORMAT_NDJSON.equals(format)) {
+      contentType = APPLICATION_NDJSON;
+    } else {
+      throw new BadRequestException("Unsupported export format: " + format);
+    }
+
+    // the body is written on another thread, without the request context that the permission
+    // checks need: they have already run (above), so the export itself does not repeat them
+    Organization org = _orgService.getCurrentOrganization();
+    response.setContentType(contentType.toString());
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename("test-results." + format).build().toString());
+    return new WebAsyncTask<>(
+        _timeout.toMillis(),
+        () -> {
+          try (JsonGenerator rows = createGenerator(format, response.getOutputStream())) {
+            _tos.exportTestEventsResultsNoPermissionsCheck(
+                org,
+                facilityId,
+                patientId,
+                result,
+                role,
+                startDate,
+                endDate,
+                event -> {
+                  try {
+                    TestEventExportWriter.write(event, rows);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          }
+          return null;
+        });
+  }
+
+  private JsonGenerator createGenerator(String format, OutputStream out) throws IOException {
+    if (FORMAT_CSV.equals(format)) {
+      JsonGenerator generator = CSV_FACTORY.createGenerator(out);
+      generator.setSchema(TestEventExportWriter.CSV_SCHEMA);
+      return generator;
+    }
+    return _mapper
+        .getFactory()
+        .createGenerator(out)
+        .setRootValueSeparator(new SerializedString("\n"));
+  }
+}
@@ -2,8 +2,12 @@ package gov.cdc.usds.simplereport.api.testresult;
 
 import gov.cdc.usds.simplereport.api.Translators;
 import gov.cdc.usds.simplereport.api.model.OrganizationLevelDashboardMetrics;
+import gov.cdc.usds.simplereport.api.model.TestResultConnection;
+import gov.cdc.usds.simplereport.api.model.TestResultEdge;
 import gov.cdc.usds.simplereport.api.model.TopLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import gov.cdc.usds.simplereport.service.TestOrderService;
 import graphql.kickstart.tools.GraphQLMutationResolver;
 import graphql.kickstart.tools.GraphQLQueryResolver;
@@ -46,6 +50,37 @@ public class TestResultResolver implements GraphQLQueryResolver, GraphQLMutation
         pageSize);
   }
 
+  public TestResultConnection getTestResultsConnection(
+      UUID facilityId,
+      UUID patientId,
+      String result,
+      String role,
+      Date startDate,
+      Date endDate,
+      int first,
+      String after) {
+    int pageSize = Math.min(Math.max(first, 1), TestOrderService.DEFAULT_PAGINATION_PAGESIZE);
+    TestResult parsedResult = Translators.parseTestResult(result);
+    PersonRole parsedRole = Translators.parsePersonRole(role, true);
+
+    List<TestEvent> rows =
+        tos.getTestEventsResultsAfter(
+            facilityId,
+            patientId,
+            parsedResult,
+            parsedRole,
+            startDate,
+            endDate,
+            TestResultEdge.parseCursor(after),
+            pageSize + 1);
+    return new TestResultConnection(
+        rows,
+        pageSize,
+        () ->
+            tos.getTestResultsCount(
+                facilityId, patientId, parsedResult, parsedRole, startDate, endDate));
+  }
+
   public int testResultsCount(
       UUID facilityId, UUID patientId, String result, String role, Date startDate, Date endDate) {
     return tos.getTestResultsCount(
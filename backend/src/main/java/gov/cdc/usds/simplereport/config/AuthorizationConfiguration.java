@@ -419,4 +419,16 @@ public class AuthorizationConfiguration {
           + " && "
           + SPEL_CAN_VIEW_QUEUE_ITEM_FOR_PATIENT)
   public @interface RequirePermissionSubmitTestForPatient {}
+
+  /**
+   * Require the current user to have the {@link UserPermission#SUBMIT_TEST} permission at the
+   * facility with UUID {@code facilityId}.
+   *
+   * <p>NOTE: any method with this annotation must have a parameter {@code facilityId}.
+   */
+  @Retention(RUNTIME)
+  @Target(METHOD)
+  @PreAuthorize(
+      SPEL_IS_VALID + " && " + SPEL_HAS_PERMISSION_SUBMIT_TEST + " && " + SPEL_CAN_ACCESS_FACILITY)
+  public @interface RequirePermissionSubmitTestAtFacility {}
 }
@@ -7,7 +7,6 @@ import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.properties.AzureStorageQueueReportingProperties;
 import gov.cdc.usds.simplereport.service.AzureStorageQueueTestEventReportingService;
 import gov.cdc.usds.simplereport.service.TestEventReportingService;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -25,9 +24,19 @@ class AzureTestEventReportingQueueConfiguration {
       value = "simple-report.azure-reporting-queue.enabled",
       havingValue = "true")
   TestEventReportingService storageQueueReportingService(
-      ObjectMapper mapper, QueueAsyncClient queueClient) {
-    log.info("Configured for queue={}", queueClient.getQueueName());
-    return new AzureStorageQueueTestEventReportingService(mapper, queueClient);
+      ObjectMapper mapper,
+      QueueAsyncClient queueClient,
+      AzureStorageQueueReportingProperties properties) {
+    log.info(
+        "Configured for queue={} with batchSize={}",
+        queueClient.getQueueName(),
+        properties.getBatchSize());
+    return new AzureStorageQueueTestEventReportingService(
+        mapper,
+        queueClient,
+        properties.getBatchSize(),
+        properties.getBufferCapacity(),
+        properties.getEnqueueTimeoutMillis());
   }
 
   @Bean
@@ -55,10 +64,5 @@ class AzureTestEventReportingQueueConfiguration {
           testEvent.getInternalId());
       return CompletableFuture.completedFuture(null);
     }
-
-    @Override
-    public void markTestEventsAsReported(Set<TestEvent> testEvents) {
-      log.warn("No TestEventReportingService configured; defaulting to no-op reporting");
-    }
   }
 }
@@ -1,8 +1,12 @@
 package gov.cdc.usds.simplereport.config.authorization;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import gov.cdc.usds.simplereport.config.AuthorizationProperties;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -10,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.convert.converter.Converter;
@@ -25,65 +30,79 @@ public class OrganizationExtractor
 
   public static final String FACILITY_ACCESS_MARKER = "FACILITY_ACCESS";
   private static final String CLAIM_SEPARATOR = ":";
-  private AuthorizationProperties properties;
+  private static final String FACILITY_ACCESS_INFIX = CLAIM_SEPARATOR + FACILITY_ACCESS_MARKER;
+  private static final Map<String, OrganizationRole> ROLES_BY_NAME =
+      Arrays.stream(OrganizationRole.values())
+          .collect(Collectors.toUnmodifiableMap(OrganizationRole::name, Function.identity()));
+  // well beyond the number of distinct sets of claims held by users active at any one time
+  private static final int MAXIMUM_CACHED_CLAIM_LISTS = 10_000;
+
+  private final String rolePrefix;
+  private final Cache<List<String>, List<OrganizationRoleClaims>> parsedClaims;
 
   public OrganizationExtractor(AuthorizationProperties properties) {
-    this.properties = properties;
+    this.rolePrefix = properties.getRolePrefix();
+    this.parsedClaims = Caffeine.newBuilder().maximumSize(MAXIMUM_CACHED_CLAIM_LISTS).build();
   }
 
   /**
    * There are two kinds of claims we care about - role claims and facility claims. Role claims take
    * the format SR-<ENV>-TENANT:<ORG_EXTERNAL_ID>:<ROLE> Facility claims take the format
    * SR-<ENV>-TENANT:<ORG_EXTERNAL_ID>:FACILITY_ACCESS:<FACILITY_UUID>
+   *
+   * <p>The same user presents the same claims on every request, so each distinct list of claims is
+   * only parsed once: the (immutable) result is shared by every later call with an equal list.
    */
   public List<OrganizationRoleClaims> convertClaims(Collection<String> claims) {
+    return parsedClaims.get(Collections.unmodifiableList(new ArrayList<>(claims)), this::parse);
+  }
+
+  @Override
+  public List<OrganizationRoleClaims> convert(Collection<? extends GrantedAuthority> source) {
+    List<String> claims = new ArrayList<>(source.size());
+    source.forEach(a -> claims.add(a.getAuthority()));
+    return parsedClaims.get(Collections.unmodifiableList(claims), this::parse);
+  }
+
+  // package-private so that the benchmark can measure parsing without the cache
+  List<OrganizationRoleClaims> parse(List<String> claims) {
     // Map of orgs to facilities the user can access therein
     Map<String, Set<UUID>> facilitiesFound = new HashMap<>();
     // Map of orgs to roles the user has therein
     Map<String, EnumSet<OrganizationRole>> rolesFound = new HashMap<>();
     for (String claimed : claims) {
-      try {
-        if (!claimed.startsWith(properties.getRolePrefix())) {
+      if (claimed == null || !claimed.startsWith(rolePrefix)) {
+        continue;
+      }
+      // the last separator splits off the role, or the facility of a facility claim
+      int valueOffset = claimed.lastIndexOf(CLAIM_SEPARATOR);
+      if (valueOffset < rolePrefix.length()) {
+        log.error("Cannot process unexpected claim={}", claimed);
+        continue;
+      }
+      String claimedValue = claimed.substring(valueOffset + CLAIM_SEPARATOR.length());
+      int markerOffset = valueOffset - FACILITY_ACCESS_INFIX.length();
+      if (markerOffset >= rolePrefix.length()
+          && claimed.startsWith(FACILITY_ACCESS_INFIX, markerOffset)) {
+        String claimedOrg = claimed.substring(rolePrefix.length(), markerOffset);
+        UUID claimedFacility;
+        try {
+          claimedFacility = UUID.fromString(claimedValue);
+        } catch (IllegalArgumentException e) {
+          log.warn("Invalid facility_id={} for organization={}", claimedValue, claimedOrg);
           continue;
         }
-        if (claimed.contains(FACILITY_ACCESS_MARKER)) {
-          int facilityOffset = claimed.lastIndexOf(CLAIM_SEPARATOR);
-          String claimedFacility = claimed.substring(facilityOffset + CLAIM_SEPARATOR.length());
-          int facilityMarkerOffset = claimed.lastIndexOf(CLAIM_SEPARATOR + FACILITY_ACCESS_MARKER);
-          String claimedOrg =
-              claimed.substring(properties.getRolePrefix().length(), facilityMarkerOffset);
-          try {
-            UUID claimedFacilityValidated = UUID.fromString(claimedFacility);
-            Set<UUID> existingFacilities = facilitiesFound.get(claimedOrg);
-            if (existingFacilities == null) {
-              facilitiesFound.put(
-                  claimedOrg, new HashSet<>(Arrays.asList(claimedFacilityValidated)));
-            } else {
-              existingFacilities.add(claimedFacilityValidated);
-            }
-          } catch (IllegalArgumentException e) {
-            log.warn("Invalid facility_id={} for organization={}", claimedFacility, claimedOrg);
-          }
-        } else {
-          int roleOffset = claimed.lastIndexOf(CLAIM_SEPARATOR);
-          String claimedOrg = claimed.substring(properties.getRolePrefix().length(), roleOffset);
-          String claimedRole =
-              claimed.substring(
-                  roleOffset + CLAIM_SEPARATOR.length()); // the separator is part of neither string
-          try {
-            OrganizationRole claimedRoleValidated = OrganizationRole.valueOf(claimedRole);
-            EnumSet<OrganizationRole> existingRoles = rolesFound.get(claimedOrg);
-            if (existingRoles == null) {
-              rolesFound.put(claimedOrg, EnumSet.of(claimedRoleValidated));
-            } else {
-              existingRoles.add(claimedRoleValidated);
-            }
-          } catch (IllegalArgumentException e) {
-            log.warn("Unexpected role_constant={}", claimedRole);
-          }
+        facilitiesFound.computeIfAbsent(claimedOrg, o -> new HashSet<>()).add(claimedFacility);
+      } else {
+        OrganizationRole claimedRole = ROLES_BY_NAME.get(claimedValue);
+        if (claimedRole == null) {
+          log.warn("Unexpected role_constant={}", claimedValue);
+          continue;
         }
-      } catch (IndexOutOfBoundsException e) {
-        log.error("Cannot process unexpected claim={}", claimed);
+        String claimedOrg = claimed.substring(rolePrefix.length(), valueOffset);
+        rolesFound
+            .computeIfAbsent(claimedOrg, o -> EnumSet.noneOf(OrganizationRole.class))
+            .add(claimedRole);
       }
     }
     if (facilitiesFound.isEmpty()
@@ -104,12 +123,6 @@ public class OrganizationExtractor
                     o,
                     facilitiesFound.getOrDefault(o, Set.of()),
                     rolesFound.getOrDefault(o, EnumSet.noneOf(OrganizationRole.class))))
-        .collect(Collectors.toList());
-  }
-
-  @Override
-  public List<OrganizationRoleClaims> convert(Collection<? extends GrantedAuthority> source) {
-    return convertClaims(
-        source.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
+        .collect(Collectors.toUnmodifiableList());
   }
 }
@@ -63,10 +63,12 @@ public enum OrganizationRole implements Principal {
 
   private String description;
   private Set<UserPermission> grantedPermissions;
+  private long grantedPermissionMask;
 
   private OrganizationRole(String description, Set<UserPermission> permissions) {
     this.description = description;
     this.grantedPermissions = Collections.unmodifiableSet(EnumSet.copyOf(permissions));
+    this.grantedPermissionMask = UserPermission.maskOf(permissions);
   }
 
   public String getDescription() {
@@ -77,6 +79,10 @@ public enum OrganizationRole implements Principal {
     return this.grantedPermissions;
   }
 
+  public long getGrantedPermissionMask() {
+    return this.grantedPermissionMask;
+  }
+
   @Override
   public String getName() {
     return name();
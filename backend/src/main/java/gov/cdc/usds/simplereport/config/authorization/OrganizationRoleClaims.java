@@ -3,14 +3,20 @@ package gov.cdc.usds.simplereport.config.authorization;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+/**
+ * The facilities and roles a user has been granted in one organization. Instances are immutable, so
+ * they can be shared between requests (see {@link OrganizationExtractor}).
+ */
 public class OrganizationRoleClaims implements PermissionHolder {
 
-  private String organizationExternalId;
-  private Set<UUID> facilities;
-  private Set<OrganizationRole> grantedRoles;
+  private final String organizationExternalId;
+  private final Set<UUID> facilities;
+  private final Set<OrganizationRole> grantedRoles;
+  private final int hashCode;
 
   public OrganizationRoleClaims(
       String organizationExternalId,
@@ -18,8 +24,9 @@ public class OrganizationRoleClaims implements PermissionHolder {
       Collection<OrganizationRole> grantedRoles) {
     super();
     this.organizationExternalId = organizationExternalId;
-    this.facilities = facilities;
-    this.grantedRoles = EnumSet.copyOf(grantedRoles);
+    this.facilities = Set.copyOf(facilities);
+    this.grantedRoles = Collections.unmodifiableSet(EnumSet.copyOf(grantedRoles));
+    this.hashCode = Objects.hash(organizationExternalId, this.facilities, this.grantedRoles);
   }
 
   public String getOrganizationExternalId() {
@@ -32,10 +39,29 @@ public class OrganizationRoleClaims implements PermissionHolder {
    * ignored.
    */
   public Set<UUID> getFacilities() {
-    return Collections.unmodifiableSet(facilities);
+    return facilities;
   }
 
   public Set<OrganizationRole> getGrantedRoles() {
-    return Collections.unmodifiableSet(grantedRoles);
+    return grantedRoles;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof OrganizationRoleClaims)) {
+      return false;
+    }
+    OrganizationRoleClaims other = (OrganizationRoleClaims) o;
+    return Objects.equals(organizationExternalId, other.organizationExternalId)
+        && Objects.equals(facilities, other.facilities)
+        && Objects.equals(grantedRoles, other.grantedRoles);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
   }
 }
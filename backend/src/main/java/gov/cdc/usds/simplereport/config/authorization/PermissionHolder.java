@@ -19,6 +19,15 @@ public interface PermissionHolder {
     return getPermissionsFromRoles(getGrantedRoles());
   }
 
+  /** {@link #getGrantedPermissions()} as a mask of {@link UserPermission#getMask()} bits. */
+  default long getGrantedPermissionMask() {
+    long mask = 0;
+    for (OrganizationRole role : getGrantedRoles()) {
+      mask |= role.getGrantedPermissionMask();
+    }
+    return mask;
+  }
+
   default boolean grantsAllFacilityAccess() {
     return getGrantedPermissions().contains(UserPermission.ACCESS_ALL_FACILITIES);
   }
@@ -23,6 +23,7 @@ import gov.cdc.usds.simplereport.service.OrganizationService;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
 import gov.cdc.usds.simplereport.service.model.IdentitySupplier;
 import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -83,6 +84,10 @@ public class UserAuthorizationVerifier {
   }
 
   public boolean userHasPermissions(Set<UserPermission> permissions) {
+    return userHasPermissions(UserPermission.maskOf(permissions), permissions);
+  }
+
+  private boolean userHasPermissions(long requiredMask, Object permissions) {
     Optional<OrganizationRoles> orgRoles = _orgService.getCurrentOrganizationRoles();
     // more troubleshooting help here.
     // Note: if your not reaching this code, then grep for
@@ -92,14 +97,13 @@ public class UserAuthorizationVerifier {
       log.warn("Permission request for {} failed. No roles for org defined.", permissions);
       return false;
     }
-    // check that all the granted permissions contain this permission.
-    Set<UserPermission> failedChecks =
-        permissions.stream()
-            .filter(permission -> !orgRoles.get().getGrantedPermissions().contains(permission))
-            .collect(Collectors.toSet());
-
-    if (!failedChecks.isEmpty()) {
-      // if failed checks are empty, then user has permission
+    // check that the granted permissions contain all of the required ones.
+    long grantedMask = orgRoles.get().getGrantedPermissionMask();
+    if ((grantedMask & requiredMask) != requiredMask) {
+      Set<UserPermission> failedChecks =
+          Arrays.stream(UserPermission.values())
+              .filter(p -> (requiredMask & ~grantedMask & p.getMask()) != 0)
+              .collect(Collectors.toSet());
       log.warn(
           "Permissions request for {} failed. Failed permission: {}", permissions, failedChecks);
       return false;
@@ -114,7 +118,7 @@ public class UserAuthorizationVerifier {
   }
 
   public boolean userHasPermission(UserPermission permission) {
-    return userHasPermissions(Set.of(permission));
+    return userHasPermissions(permission.getMask(), permission);
   }
 
   public boolean userIsInSameOrg(UUID userId) {
@@ -1,6 +1,7 @@
 package gov.cdc.usds.simplereport.config.authorization;
 
 import java.security.Principal;
+import java.util.Collection;
 
 /**
  * Permissions that a user may hold, usually via their {@link OrganizationRole}.
@@ -22,8 +23,24 @@ public enum UserPermission implements Principal {
   SUBMIT_TEST,
   ACCESS_ALL_FACILITIES;
 
+  // one bit per permission, so that there can be no more than 64 of them
+  private final long mask = 1L << ordinal();
+
   @Override
   public String getName() {
     return name();
   }
+
+  /** This permission as a single-bit mask, for checking against {@link #maskOf} a set of them. */
+  public long getMask() {
+    return mask;
+  }
+
+  public static long maskOf(Collection<UserPermission> permissions) {
+    long mask = 0;
+    for (UserPermission permission : permissions) {
+      mask |= permission.mask;
+    }
+    return mask;
+  }
 }
@@ -1,6 +1,7 @@
 package gov.cdc.usds.simplereport.db.model;
 
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import java.time.Duration;
 import java.util.Date;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
@@ -50,6 +51,22 @@ public class ApiUser extends EternalSystemManagedEntity implements PersonEntity
     lastSeen = new Date();
   }
 
+  /**
+   * Record that this user was just seen, but only if the stored value is older than the supplied
+   * granularity. Callers use this on every authenticated request, so skipping fresh values keeps
+   * read-only requests from turning into row updates.
+   *
+   * @return true if the last-seen time was changed (and the row therefore needs to be written)
+   */
+  public boolean updateLastSeen(Duration granularity) {
+    Date now = new Date();
+    if (lastSeen != null && now.getTime() - lastSeen.getTime() < granularity.toMillis()) {
+      return false;
+    }
+    lastSeen = now;
+    return true;
+  }
+
   public PersonName getNameInfo() {
     return nameInfo;
   }
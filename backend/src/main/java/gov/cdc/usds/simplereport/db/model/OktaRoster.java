@@ -0,0 +1,45 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.OneToOne;
+import lombok.Getter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * The local snapshot of an organization's Okta users (see {@link OktaRosterEntry}). The snapshot is
+ * built in the background, and then kept up to date with changes in Okta since {@link
+ * #getSyncedAt()}; changes we make ourselves are written to it as we make them. A refresh claims
+ * the snapshots (see {@link #getRefreshClaimedUntil()}) while it runs.
+ */
+@Getter
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class OktaRoster extends IdentifiedEntity {
+  @OneToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "organization_id", updatable = false)
+  private Organization organization;
+
+  @Column(updatable = false)
+  @CreatedDate
+  private Date createdAt;
+
+  @Column(nullable = false)
+  private Date syncedAt;
+
+  @Column private Date refreshClaimedUntil;
+
+  protected OktaRoster() {
+    /* for hibernate */
+  }
+
+  public OktaRoster(Organization organization, Date syncedAt) {
+    this.organization = organization;
+    this.syncedAt = syncedAt;
+  }
+}
@@ -0,0 +1,54 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import com.okta.sdk.resource.user.UserStatus;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import lombok.Getter;
+import org.hibernate.annotations.Type;
+
+/**
+ * A user in the Okta snapshot of an organization: their login, their Okta status, and what their
+ * Okta groups grant them in the organization.
+ *
+ * <p>Entries are only ever written with {@link
+ * gov.cdc.usds.simplereport.db.repository.OktaRosterEntryRepository#upsert}, so that a refresh and
+ * one of our own changes to the same user can never collide.
+ */
+@Getter
+@Entity
+public class OktaRosterEntry extends IdentifiedEntity {
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "okta_roster_id", updatable = false)
+  private OktaRoster roster;
+
+  @Column(nullable = false)
+  private String loginEmail;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private UserStatus status;
+
+  @Column(nullable = false)
+  @Type(type = "list-array")
+  private List<String> roles = new ArrayList<>();
+
+  @Column(nullable = false)
+  @Type(type = "list-array")
+  private List<UUID> facilityIds = new ArrayList<>();
+
+  @Column(nullable = false)
+  private Date refreshedAt;
+
+  protected OktaRosterEntry() {
+    /* for hibernate */
+  }
+}
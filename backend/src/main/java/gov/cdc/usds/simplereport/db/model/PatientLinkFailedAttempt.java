@@ -43,14 +43,22 @@ public class PatientLinkFailedAttempt {
     return failedAttempts >= LOCKOUT_THRESHOLD;
   }
 
-  public void addFailedAttempt() {
+  /** @return true if the count changed (it stops at the largest value a byte can hold) */
+  public boolean addFailedAttempt() {
     // do not overflow the byte
     if (failedAttempts < Byte.MAX_VALUE) {
       failedAttempts++;
+      return true;
     }
+    return false;
   }
 
-  public void resetFailedAttempts() {
+  /** @return true if the count changed (that is, it was not already zero) */
+  public boolean resetFailedAttempts() {
+    if (failedAttempts == 0) {
+      return false;
+    }
     this.failedAttempts = 0;
+    return true;
   }
 }
@@ -0,0 +1,67 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import lombok.Getter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * A test event that is waiting to be reported. Rows are written in the same transaction as the
+ * {@link TestEvent} they point to, and are marked as reported by the outbox relay once the event
+ * has been handed to the reporting vehicle.
+ */
+@Getter
+@Entity
+@Table(name = "test_event_outbox")
+@EntityListeners(AuditingEntityListener.class)
+public class TestEventOutboxEntry extends IdentifiedEntity {
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "test_event_internal_id", updatable = false)
+  private TestEvent testEvent;
+
+  @Column(updatable = false)
+  @CreatedDate
+  private Date createdAt;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column private String lastError;
+
+  @Column private Date reportedAt;
+
+  @Column private Date deadLetteredAt;
+
+  protected TestEventOutboxEntry() {
+    /* for hibernate */
+  }
+
+  public TestEventOutboxEntry(TestEvent testEvent) {
+    this.testEvent = testEvent;
+  }
+
+  public void markReported() {
+    this.attempts++;
+    this.lastError = null;
+    this.reportedAt = new Date();
+  }
+
+  /**
+   * Record a failed attempt. Once the entry has had {@code maxAttempts} of them it is
+   * dead-lettered, and no longer picked up by the relay.
+   */
+  public void markFailed(String error, int maxAttempts) {
+    this.attempts++;
+    this.lastError = error;
+    if (this.attempts >= maxAttempts) {
+      this.deadLetteredAt = new Date();
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+/**
+ * The number of current test results for a facility, day and result: that is, original test events
+ * that have not since been corrected or removed. Rows are maintained by a database trigger on
+ * <code>test_event</code>, so this entity is read-only.
+ */
+@Getter
+@Entity
+@Immutable
+public class TestResultDailyRollup extends IdentifiedEntity {
+  /** The zone in which the day a test was performed is determined (by the trigger, and readers). */
+  public static final ZoneId DAY_ZONE = ZoneId.of("America/New_York");
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "facility_id")
+  private Facility facility;
+
+  @Column(nullable = false)
+  private LocalDate testDate;
+
+  @Column(nullable = false)
+  @Type(type = "pg_enum")
+  @Enumerated(EnumType.STRING)
+  private TestResult result;
+
+  @Column(nullable = false)
+  private long testCount;
+
+  protected TestResultDailyRollup() {
+    /* for hibernate */
+  }
+}
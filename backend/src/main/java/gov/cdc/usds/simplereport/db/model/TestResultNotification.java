@@ -0,0 +1,98 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.NotificationChannel;
+import gov.cdc.usds.simplereport.db.model.auxiliary.NotificationStatus;
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import lombok.Getter;
+import org.hibernate.annotations.Type;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * A test result notification (one SMS or email to a patient) that is waiting to be sent, or has
+ * been. Rows are written in the same transaction as the result, and are sent by the notification
+ * worker, which retries failures with backoff until it runs out of attempts.
+ */
+@Getter
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class TestResultNotification extends IdentifiedEntity {
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "patient_link_internal_id", updatable = false)
+  private PatientLink patientLink;
+
+  @Column(nullable = false, updatable = false)
+  @Type(type = "pg_enum")
+  @Enumerated(EnumType.STRING)
+  private NotificationChannel channel;
+
+  @Column(nullable = false)
+  @Type(type = "pg_enum")
+  @Enumerated(EnumType.STRING)
+  private NotificationStatus status;
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "requested_by", updatable = false)
+  private ApiUser requestedBy;
+
+  @Column(updatable = false)
+  @CreatedDate
+  private Date createdAt;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false)
+  private Date nextAttemptAt;
+
+  @Column private String lastError;
+
+  @Column private Date sentAt;
+
+  protected TestResultNotification() {
+    /* for hibernate */
+  }
+
+  public TestResultNotification(
+      PatientLink patientLink, NotificationChannel channel, ApiUser requestedBy) {
+    this.patientLink = patientLink;
+    this.channel = channel;
+    this.requestedBy = requestedBy;
+    this.status = NotificationStatus.PENDING;
+    this.nextAttemptAt = new Date();
+  }
+
+  /** Keep other workers from picking this notification up until the given time. */
+  public void claimUntil(Date leaseExpiry) {
+    this.nextAttemptAt = leaseExpiry;
+  }
+
+  public void markSent() {
+    this.attempts++;
+    this.status = NotificationStatus.SENT;
+    this.lastError = null;
+    this.sentAt = new Date();
+  }
+
+  /**
+   * Record a failed attempt, to be retried at the given time; if there is no retry time, the
+   * notification is given up on.
+   */
+  public void markFailed(String error, Date retryAt) {
+    this.attempts++;
+    this.lastError = error;
+    if (retryAt == null) {
+      this.status = NotificationStatus.FAILED;
+    } else {
+      this.nextAttemptAt = retryAt;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** The results from a group by facility and result when getting dashboard metrics */
+@AllArgsConstructor
+@Getter
+public class FacilityTestResultWithCount {
+  private UUID facilityId;
+  private TestResult result;
+  private Long count;
+}
@@ -0,0 +1,6 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+public enum NotificationChannel {
+  SMS,
+  EMAIL;
+}
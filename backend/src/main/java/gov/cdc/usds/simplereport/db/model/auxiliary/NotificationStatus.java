@@ -0,0 +1,7 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+public enum NotificationStatus {
+  PENDING,
+  SENT,
+  FAILED;
+}
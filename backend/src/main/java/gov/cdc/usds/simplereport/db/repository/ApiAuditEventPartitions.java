@@ -0,0 +1,285 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manages the monthly range partitions of the <code>api_audit_event</code> table (see the
+ * partition-api-audit-event-table changeset). Each partition holds the events from its lower bound
+ * up to (but not including) its upper bound; the oldest one has no lower bound, and the default
+ * partition catches events that no other partition will take.
+ *
+ * <p>All of these methods are expected to run inside a transaction.
+ */
+@Component
+public class ApiAuditEventPartitions {
+
+  public static final String TABLE_NAME = "api_audit_event";
+
+  /**
+   * The lock identifier for the advisory lock held while maintaining partitions. (Use as the second
+   * argument to the postgresql two-argument locking functions.)
+   */
+  public static final int PARTITION_MAINTENANCE_LOCK = 58230917; // arbitrary 32-bit integer
+
+  private static final DateTimeFormatter PARTITION_NAME_FORMAT =
+      DateTimeFormatter.ofPattern("'" + TABLE_NAME + "_y'yyyy'm'MM");
+  private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+  private static final int EXPORT_FETCH_SIZE = 1000;
+
+  private final JdbcTemplate _jdbc;
+  private final String _schema;
+
+  public ApiAuditEventPartitions(
+      JdbcTemplate jdbc,
+      @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+    _jdbc = jdbc;
+    _schema = schema;
+  }
+
+  /**
+   * Try to obtain the lock for partition maintenance. (It will be released automatically when the
+   * current transaction closes.)
+   *
+   * @return true if the lock was obtained, false otherwise.
+   */
+  public boolean tryMaintenanceLock() {
+    return Boolean.TRUE.equals(
+        _jdbc.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(?, ?)",
+            Boolean.class,
+            AdvisoryLockManager.CORE_API_LOCK_SCOPE,
+            PARTITION_MAINTENANCE_LOCK));
+  }
+
+  /**
+   * The planner's estimate of the number of rows in the table, summed over its partitions. This is
+   * only as fresh as the last VACUUM or ANALYZE of each partition, but costs nothing to look up.
+   */
+  public long estimateRowCount() {
+    Long estimate =
+        _jdbc.queryForObject(
+            "SELECT CAST(COALESCE(SUM(GREATEST(c.reltuples, 0)), 0) AS bigint)"
+                + " FROM pg_catalog.pg_inherits i"
+                + " JOIN pg_catalog.pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = to_regclass(?)",
+            Long.class,
+            qualify(TABLE_NAME));
+    return estimate == null ? 0 : estimate;
+  }
+
+  /** The partitions currently attached to the table, in no particular order. */
+  public List<Partition> findPartitions() {
+    return _jdbc.query(
+        "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)"
+            + " FROM pg_catalog.pg_inherits i"
+            + " JOIN pg_catalog.pg_class c ON c.oid = i.inhrelid"
+            + " WHERE i.inhparent = to_regclass(?)",
+        (rs, rowNum) -> new Partition(rs.getString(1), parseUpperBound(rs.getString(2))),
+        qualify(TABLE_NAME));
+  }
+
+  /**
+   * Whether the default partition holds events for the given month, as it will if maintenance has
+   * not run for a while. Postgres will not create the month's partition while it does: see {@link
+   * #createDetachedMonthlyPartition}.
+   */
+  public boolean hasDefaultPartitionEvents(YearMonth month) {
+    String defaultPartition = findDefaultPartition();
+    return defaultPartition != null
+        && Boolean.TRUE.equals(
+            _jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM "
+                    + qualify(defaultPartition)
+                    + " WHERE event_timestamp >= ? AND event_timestamp < ?)",
+                Boolean.class,
+                monthStart(month),
+                monthStart(month.plusMonths(1))));
+  }
+
+  /** Whether the table for the given month's partition exists, whether or not it is attached. */
+  public boolean monthlyPartitionExists(YearMonth month) {
+    return Boolean.TRUE.equals(
+        _jdbc.queryForObject(
+            "SELECT to_regclass(?) IS NOT NULL", Boolean.class, qualify(partitionName(month))));
+  }
+
+  /**
+   * Create the partition for the events of the given month. The default partition must not hold any
+   * events for that month.
+   */
+  public void createMonthlyPartition(YearMonth month) {
+    _jdbc.execute(
+        String.format(
+            "CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+            qualify(partitionName(month)),
+            qualify(TABLE_NAME),
+            month.atDay(1),
+            month.plusMonths(1).atDay(1)));
+  }
+
+  /**
+   * Create the table for the given month's partition, without attaching it, so that the month's
+   * events can be moved out of the default partition in short transactions that only lock the moved
+   * rows (see {@link #moveDefaultPartitionEvents}). Events moved into it are not visible through
+   * the table until {@link #attachMonthlyPartition} has run.
+   */
+  public void createDetachedMonthlyPartition(YearMonth month) {
+    String partition = qualify(partitionName(month));
+    _jdbc.execute(
+        String.format(
+            "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+            partition, qualify(TABLE_NAME)));
+    // the check constraint lets the attach skip scanning the moved events
+    _jdbc.execute(
+        String.format(
+            "ALTER TABLE %s ADD CONSTRAINT %s CHECK"
+                + " (event_timestamp IS NOT NULL AND event_timestamp >= '%s' AND event_timestamp < '%s')",
+            partition, partitionBoundName(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+  }
+
+  /**
+   * Move up to {@code limit} of the given month's events out of the default partition, into the
+   * table created by {@link #createDetachedMonthlyPartition}.
+   *
+   * @return the number of events moved
+   */
+  public int moveDefaultPartitionEvents(YearMonth month, int limit) {
+    String defaultPartition = findDefaultPartition();
+    if (defaultPartition == null) {
+      return 0;
+    }
+    return _jdbc.update(
+        "WITH moved AS (DELETE FROM "
+            + qualify(defaultPartition)
+            + " WHERE ctid IN (SELECT ctid FROM "
+            + qualify(defaultPartition)
+            + " WHERE event_timestamp >= ? AND event_timestamp < ? LIMIT ?) RETURNING *)"
+            + " INSERT INTO "
+            + qualify(partitionName(month))
+            + " SELECT * FROM moved",
+        monthStart(month),
+        monthStart(month.plusMonths(1)),
+        limit);
+  }
+
+  /**
+   * Attach the table created by {@link #createDetachedMonthlyPartition} as the given month's
+   * partition, first moving any of the month's events that are still in the default partition.
+   * Postgres checks that the default partition holds none of them under an ACCESS EXCLUSIVE lock on
+   * it, which blocks audit events that belong in no other partition until the transaction ends;
+   * events for the other months are not held up. The lock is short as long as the default partition
+   * is small, so move the bulk of the events out beforehand.
+   *
+   * @return the number of events moved out of the default partition
+   */
+  public int attachMonthlyPartition(YearMonth month) {
+    String defaultPartition = findDefaultPartition();
+    int moved = 0;
+    if (defaultPartition != null) {
+      // no more of the month's events can arrive between the last move and the attach
+      _jdbc.execute("LOCK TABLE " + qualify(defaultPartition) + " IN SHARE ROW EXCLUSIVE MODE");
+      moved = moveDefaultPartitionEvents(month, Integer.MAX_VALUE);
+    }
+    String partition = qualify(partitionName(month));
+    _jdbc.execute(
+        String.format(
+            "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+            qualify(TABLE_NAME), partition, month.atDay(1), month.plusMonths(1).atDay(1)));
+    _jdbc.execute(
+        String.format("ALTER TABLE %s DROP CONSTRAINT %s", partition, partitionBoundName(month)));
+    return moved;
+  }
+
+  /**
+   * Pass every row of the given partition, rendered as a JSON object, to the consumer. Rows are
+   * fetched from a cursor, so the partition is never held in memory all at once.
+   *
+   * @return the number of rows exported
+   */
+  public long exportPartition(String partitionName, Consumer<String> rowConsumer) {
+    long[] rows = {0};
+    _jdbc.query(
+        con -> {
+          PreparedStatement statement =
+              con.prepareStatement(
+                  "SELECT CAST(row_to_json(e) AS text) FROM " + qualify(partitionName) + " e");
+          statement.setFetchSize(EXPORT_FETCH_SIZE);
+          return statement;
+        },
+        (RowCallbackHandler)
+            rs -> {
+              rowConsumer.accept(rs.getString(1));
+              rows[0]++;
+            });
+    return rows[0];
+  }
+
+  /** Detach the given partition from the table, and drop it. */
+  public void dropPartition(String partitionName) {
+    _jdbc.execute(
+        String.format(
+            "ALTER TABLE %s DETACH PARTITION %s", qualify(TABLE_NAME), qualify(partitionName)));
+    _jdbc.execute("DROP TABLE " + qualify(partitionName));
+  }
+
+  /**
+   * Stop the DDL in the current transaction from waiting longer than the given number of seconds
+   * for its locks: while it waits, it blocks every request that tries to write an audit event.
+   */
+  public void setLockTimeout(int seconds) {
+    _jdbc.execute("SET LOCAL lock_timeout = '" + seconds + "s'");
+  }
+
+  private String findDefaultPartition() {
+    List<String> names =
+        _jdbc.queryForList(
+            "SELECT c.relname"
+                + " FROM pg_catalog.pg_inherits i"
+                + " JOIN pg_catalog.pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = to_regclass(?) AND c.relispartition"
+                + " AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT'",
+            String.class,
+            qualify(TABLE_NAME));
+    return names.isEmpty() ? null : names.get(0);
+  }
+
+  public static String partitionName(YearMonth month) {
+    return PARTITION_NAME_FORMAT.format(month);
+  }
+
+  private static String partitionBoundName(YearMonth month) {
+    return partitionName(month) + "_bound";
+  }
+
+  private static Timestamp monthStart(YearMonth month) {
+    return Timestamp.valueOf(month.atDay(1).atStartOfDay());
+  }
+
+  private String qualify(String relationName) {
+    return _schema + "." + relationName;
+  }
+
+  private static LocalDateTime parseUpperBound(String boundExpression) {
+    Matcher matcher = UPPER_BOUND.matcher(boundExpression);
+    return matcher.find() ? Timestamp.valueOf(matcher.group(1)).toLocalDateTime() : null;
+  }
+
+  /** A partition of the table, with the upper bound of its range (null for the default). */
+  @lombok.Value
+  public static class Partition {
+    String name;
+    LocalDateTime upperBound;
+  }
+}
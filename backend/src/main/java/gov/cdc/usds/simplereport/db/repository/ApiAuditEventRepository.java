@@ -15,6 +15,8 @@ public interface ApiAuditEventRepository extends Repository<ApiAuditEvent, UUID>
 
   ApiAuditEvent save(ApiAuditEvent apiAuditEvent);
 
+  List<ApiAuditEvent> saveAll(Iterable<ApiAuditEvent> apiAuditEvents);
+
   // Fetch greedily, because this method is largely used in non-transactional test code and we care
   // more about convenience than efficiency
   @EntityGraph(attributePaths = {"patientLink.testOrder.patient", "organization", "user"})
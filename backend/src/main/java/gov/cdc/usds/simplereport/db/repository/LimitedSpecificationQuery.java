@@ -0,0 +1,80 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a {@link Specification} with a sort order and a row limit, but (unlike the {@link
+ * org.springframework.data.domain.Pageable} variants of <code>findAll</code>) without an OFFSET or
+ * a companion count query. Intended for keyset pagination, where the specification itself seeks
+ * past the last row of the previous page.
+ *
+ * <p>Also runs a {@link Specification} as a forward-only scroll, for exports that must not hold the
+ * whole result set in memory.
+ */
+@Component
+public class LimitedSpecificationQuery {
+
+  private final EntityManager entityManager;
+
+  public LimitedSpecificationQuery(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  public <T> List<T> findAll(Class<T> entityType, Specification<T> spec, Sort sort, int limit) {
+    return entityManager
+        .createQuery(buildQuery(entityType, spec, sort))
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /**
+   * Hand every matching row to <code>action</code> in sort order, reading from a forward-only
+   * cursor <code>fetchSize</code> rows at a time. The persistence context is cleared after each
+   * batch, so memory use does not grow with the size of the result set: entities passed to the
+   * action must not be used after it returns. Must be called inside a transaction, or the
+   * PostgreSQL driver ignores the fetch size and reads the entire result set up front.
+   */
+  public <T> void forEach(
+      Class<T> entityType, Specification<T> spec, Sort sort, int fetchSize, Consumer<T> action) {
+    try (Stream<T> rows =
+        entityManager
+            .createQuery(buildQuery(entityType, spec, sort))
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .getResultStream()) {
+      int inBatch = 0;
+      for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+        action.accept(it.next());
+        if (++inBatch == fetchSize) {
+          entityManager.clear();
+          inBatch = 0;
+        }
+      }
+    }
+  }
+
+  private <T> CriteriaQuery<T> buildQuery(Class<T> entityType, Specification<T> spec, Sort sort) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = cb.createQuery(entityType);
+    Root<T> root = query.from(entityType);
+    Predicate predicate = spec.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query.orderBy(QueryUtils.toOrders(sort, root, cb));
+    return query;
+  }
+}
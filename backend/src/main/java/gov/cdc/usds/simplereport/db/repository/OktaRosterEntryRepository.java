@@ -0,0 +1,111 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import com.okta.sdk.resource.user.UserStatus;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.OktaRoster;
+import gov.cdc.usds.simplereport.db.model.OktaRosterEntry;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface OktaRosterEntryRepository extends Repository<OktaRosterEntry, UUID> {
+
+  void delete(OktaRosterEntry entry);
+
+  List<OktaRosterEntry> findAllByLoginEmail(String loginEmail);
+
+  /**
+   * Fetch the (undeleted) users in the roster along with their Okta status, as pairs of {@code
+   * ApiUser} and {@code UserStatus}, in name order.
+   */
+  @Query(
+      "SELECT u, e.status FROM #{#entityName} e, ApiUser u"
+          + " WHERE e.roster = :roster AND u.loginEmail = e.loginEmail AND u.isDeleted = false"
+          + " ORDER BY u.nameInfo.lastName, u.nameInfo.firstName, u.nameInfo.middleName,"
+          + " u.internalId")
+  List<Object[]> findUsersWithStatus(OktaRoster roster);
+
+  /**
+   * Write the user's entry in the roster as it was read from Okta at {@code refreshedAt}, unless
+   * the entry already holds something read more recently. This is safe to run at the same time as
+   * anything else that writes the same entry.
+   */
+  default void upsert(
+      OktaRoster roster,
+      String loginEmail,
+      UserStatus status,
+      OrganizationRoleClaims claims,
+      Date refreshedAt) {
+    upsert(
+        roster.getInternalId(),
+        loginEmail,
+        status,
+        claims.getGrantedRoles().stream().map(OrganizationRole::name).collect(Collectors.toList()),
+        claims.getFacilities(),
+        refreshedAt);
+  }
+
+  /** See {@link #upsert(OktaRoster, String, UserStatus, OrganizationRoleClaims, Date)}. */
+  default void upsert(
+      UUID rosterId,
+      String loginEmail,
+      UserStatus status,
+      Collection<String> roles,
+      Collection<UUID> facilityIds,
+      Date refreshedAt) {
+    upsertRow(
+        UUID.randomUUID(),
+        rosterId,
+        loginEmail,
+        status.name(),
+        String.join(",", roles),
+        facilityIds.stream().map(UUID::toString).collect(Collectors.joining(",")),
+        refreshedAt);
+  }
+
+  // the arrays are passed as comma-separated lists: role names and UUIDs never contain commas
+  @Modifying(flushAutomatically = true)
+  @Query(
+      nativeQuery = true,
+      value =
+          "INSERT INTO {h-schema}okta_roster_entry"
+              + " (internal_id, okta_roster_id, login_email, status, roles, facility_ids, refreshed_at)"
+              + " VALUES (:id, :rosterId, :loginEmail, :status, string_to_array(:roles, ','),"
+              + " CAST(string_to_array(:facilityIds, ',') AS uuid[]), :refreshedAt)"
+              + " ON CONFLICT (okta_roster_id, login_email) DO UPDATE"
+              + " SET status = EXCLUDED.status, roles = EXCLUDED.roles,"
+              + " facility_ids = EXCLUDED.facility_ids, refreshed_at = EXCLUDED.refreshed_at"
+              + " WHERE okta_roster_entry.refreshed_at <= EXCLUDED.refreshed_at")
+  int upsertRow(
+      UUID id,
+      UUID rosterId,
+      String loginEmail,
+      String status,
+      String roles,
+      String facilityIds,
+      Date refreshedAt);
+
+  /**
+   * Record the user's status, as it was read from Okta at {@code refreshedAt}, in every roster they
+   * are in (unless the roster already has something read more recently).
+   */
+  @Modifying
+  @Query(
+      "UPDATE #{#entityName} e SET e.status = :status, e.refreshedAt = :refreshedAt"
+          + " WHERE e.loginEmail = :loginEmail AND e.refreshedAt <= :refreshedAt")
+  int updateStatus(String loginEmail, UserStatus status, Date refreshedAt);
+
+  /**
+   * Remove the entries in the roster that were last read from Okta before the given time: once the
+   * roster's members have all been written, these are the users who have left the organization.
+   */
+  @Modifying
+  @Query("DELETE FROM #{#entityName} e WHERE e.roster = :roster AND e.refreshedAt < :refreshedAt")
+  int deleteRefreshedBefore(OktaRoster roster, Date refreshedAt);
+}
@@ -0,0 +1,78 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.OktaRoster;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface OktaRosterRepository extends Repository<OktaRoster, UUID>, AdvisoryLockManager {
+
+  /**
+   * The lock identifier for the advisory lock held while refreshing rosters from Okta. (Use as the
+   * second argument to the postgresql two-argument locking functions.)
+   */
+  int ROSTER_REFRESH_LOCK = 63015472; // arbitrary 32-bit integer for our lock
+
+  OktaRoster save(OktaRoster roster);
+
+  Optional<OktaRoster> findByOrganization(Organization organization);
+
+  @Query("FROM #{#entityName} r JOIN FETCH r.organization o WHERE o.externalId = :externalId")
+  Optional<OktaRoster> findByOrganizationExternalId(String externalId);
+
+  /** The time up to which every roster has caught up with Okta, or null if there are no rosters. */
+  @Query("SELECT MIN(r.syncedAt) FROM #{#entityName} r")
+  Date findOldestSync();
+
+  /** Whether a refresh that has not yet run out its lease has claimed the rosters. */
+  boolean existsByRefreshClaimedUntilAfter(Date now);
+
+  /** Claim all of the rosters for a refresh, until it completes or the given time is reached. */
+  @Modifying
+  @Query("UPDATE #{#entityName} r SET r.refreshClaimedUntil = :claimedUntil")
+  int claimAllForRefresh(Date claimedUntil);
+
+  /** Release the claim on a roster that the refresh was unable to bring up to date. */
+  @Modifying
+  @Query(
+      "UPDATE #{#entityName} r SET r.refreshClaimedUntil = NULL"
+          + " WHERE r.internalId = :rosterId AND r.refreshClaimedUntil = :claimedUntil")
+  int releaseRefreshClaim(UUID rosterId, Date claimedUntil);
+
+  /** Release the refresh's claim on all of the rosters, without marking them as synced. */
+  @Modifying
+  @Query(
+      "UPDATE #{#entityName} r SET r.refreshClaimedUntil = NULL"
+          + " WHERE r.refreshClaimedUntil = :claimedUntil")
+  int releaseRefreshClaims(Date claimedUntil);
+
+  /** Mark the rosters the refresh still has claimed as synced, and release them. */
+  @Modifying
+  @Query(
+      "UPDATE #{#entityName} r SET r.syncedAt = :syncedAt, r.refreshClaimedUntil = NULL"
+          + " WHERE r.refreshClaimedUntil = :claimedUntil")
+  int completeRefresh(Date syncedAt, Date claimedUntil);
+
+  /** Fetch organizations that do not have a roster yet, oldest first. */
+  @Query(
+      "SELECT o FROM Organization o WHERE o.isDeleted = false"
+          + " AND NOT EXISTS (SELECT r FROM #{#entityName} r WHERE r.organization = o)"
+          + " ORDER BY o.createdAt")
+  List<Organization> findOrganizationsWithoutRoster(Pageable p);
+
+  /**
+   * Try to obtain the lock for refreshing rosters. (It will be released automatically when the
+   * current transaction closes.)
+   *
+   * @return true if the lock was obtained, false otherwise.
+   */
+  default boolean tryRefreshLock() {
+    return tryTransactionLock(CORE_API_LOCK_SCOPE, ROSTER_REFRESH_LOCK);
+  }
+}
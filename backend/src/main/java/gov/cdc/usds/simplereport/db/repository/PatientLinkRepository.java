@@ -5,9 +5,22 @@ import gov.cdc.usds.simplereport.db.model.TestOrder;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
 
 public interface PatientLinkRepository extends EternalAuditedEntityRepository<PatientLink> {
   List<PatientLink> findAllByTestOrderInternalIdIn(List<UUID> testOrderIds);
 
   Optional<PatientLink> findFirstByTestOrder(TestOrder testOrder);
+
+  /**
+   * Fetch a link along with everything needed to verify it and answer the request it was verified
+   * for (its test order, the order's patient and test event), as a pair of {@code PatientLink} and
+   * its {@code PatientLinkFailedAttempt} (which is null if the link has never had one).
+   */
+  @Query(
+      "SELECT l, a FROM #{#entityName} l JOIN FETCH l.testOrder o JOIN FETCH o.patient"
+          + " LEFT JOIN FETCH o.testEvent"
+          + " LEFT JOIN PatientLinkFailedAttempt a ON a.patientLinkInternalId = l.internalId"
+          + " WHERE l.internalId = :id")
+  List<Object[]> findForVerification(UUID id);
 }
@@ -0,0 +1,80 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds patients whose names contain a word starting with each of a list of search terms, using the
+ * trigram index on the generated <code>person.name_search</code> column (the lower-cased first,
+ * middle and last name, each preceded by a space). Matches are ranked by trigram similarity to the
+ * whole search, so the closest names come first.
+ */
+@Component
+public class PersonNameSearchQuery {
+
+  private final EntityManager entityManager;
+
+  public PersonNameSearchQuery(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * @param organizationId the organization whose patients are searched
+   * @param facilityIds patients assigned to any of these facilities are returned, as are those not
+   *     assigned to a facility at all
+   * @param isDeleted whether to search archived patients (and only archived patients)
+   * @param terms the search terms, already lower-cased; every term must match
+   * @param limit the maximum number of patients to return
+   */
+  @SuppressWarnings("unchecked")
+  public List<Person> search(
+      UUID organizationId,
+      Collection<UUID> facilityIds,
+      boolean isDeleted,
+      List<String> terms,
+      int limit) {
+    Query query =
+        entityManager
+            .createNativeQuery(toSql(terms.size(), !facilityIds.isEmpty()), Person.class)
+            .setParameter("organizationId", organizationId)
+            .setParameter("isDeleted", isDeleted)
+            .setParameter("search", String.join(" ", terms))
+            .setMaxResults(limit);
+    if (!facilityIds.isEmpty()) {
+      query.setParameter("facilityIds", facilityIds);
+    }
+    for (int i = 0; i < terms.size(); i++) {
+      query.setParameter("term" + i, toLikePattern(terms.get(i)));
+    }
+    return query.getResultList();
+  }
+
+  static String toSql(int termCount, boolean hasFacilities) {
+    StringBuilder sql =
+        new StringBuilder(
+            "SELECT p.* FROM {h-schema}person p"
+                + " WHERE p.organization_id = :organizationId AND p.is_deleted = :isDeleted");
+    if (hasFacilities) {
+      sql.append(" AND (p.facility_id IS NULL OR p.facility_id IN (:facilityIds))");
+    } else {
+      sql.append(" AND p.facility_id IS NULL");
+    }
+    for (int i = 0; i < termCount; i++) {
+      sql.append(" AND p.name_search LIKE :term").append(i);
+    }
+    sql.append(
+        " ORDER BY similarity(p.name_search, :search) DESC,"
+            + " p.last_name, p.first_name, p.internal_id");
+    return sql.toString();
+  }
+
+  /** A LIKE pattern matching the term at the start of any word, with its wildcards escaped. */
+  static String toLikePattern(String term) {
+    return "% " + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+  }
+}
@@ -17,6 +17,9 @@ public interface PersonRepository extends EternalAuditedEntityRepository<Person>
 
   List<Person> findAllByInternalIdIn(Collection<UUID> ids);
 
+  @Query(BASE_QUERY + " and e.organization = :org and e.internalId in :ids")
+  List<Person> findAllByOrganizationAndInternalIdIn(Organization org, Collection<UUID> ids);
+
   int count(Specification<Person> searchSpec);
 
   @Query(
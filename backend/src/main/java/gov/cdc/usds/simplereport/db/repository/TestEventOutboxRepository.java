@@ -0,0 +1,62 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.TestEventOutboxEntry;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface TestEventOutboxRepository
+    extends Repository<TestEventOutboxEntry, UUID>, AdvisoryLockManager {
+
+  /**
+   * The lock identifier for the advisory lock held by the outbox relay. (Use as the second argument
+   * to the postgresql two-argument locking functions.)
+   */
+  int OUTBOX_RELAY_LOCK = 37165522; // arbitrary 32-bit integer for our lock
+
+  TestEventOutboxEntry save(TestEventOutboxEntry entry);
+
+  List<TestEventOutboxEntry> saveAll(Iterable<TestEventOutboxEntry> entries);
+
+  /**
+   * Fetch the oldest entries that have not yet been reported, along with their test events,
+   * skipping any that have already failed too many times to be worth retrying automatically. (The
+   * dead-letter condition matches the predicate of the pending index; the attempts condition covers
+   * entries left over from a larger max-attempts setting, until {@link #deadLetterExhausted} has
+   * marked them.)
+   */
+  @Query(
+      "FROM #{#entityName} e JOIN FETCH e.testEvent"
+          + " WHERE e.reportedAt IS NULL AND e.deadLetteredAt IS NULL"
+          + " AND e.attempts < :maxAttempts ORDER BY e.createdAt")
+  List<TestEventOutboxEntry> findPending(int maxAttempts, Pageable p);
+
+  /**
+   * Dead-letter the pending entries that have already had {@code maxAttempts} failures: those left
+   * over from a larger max-attempts setting, which were not marked on their last failure.
+   *
+   * @return the number of entries dead-lettered
+   */
+  @Modifying
+  @Query(
+      "UPDATE #{#entityName} e SET e.deadLetteredAt = CURRENT_TIMESTAMP"
+          + " WHERE e.reportedAt IS NULL AND e.deadLetteredAt IS NULL"
+          + " AND e.attempts >= :maxAttempts")
+  int deadLetterExhausted(int maxAttempts);
+
+  // used by unit tests
+  List<TestEventOutboxEntry> findAll();
+
+  /**
+   * Try to obtain the lock for the outbox relay. (It will be released automatically when the
+   * current transaction closes.)
+   *
+   * @return true if the lock was obtained, false otherwise.
+   */
+  default boolean tryRelayLock() {
+    return tryTransactionLock(CORE_API_LOCK_SCOPE, OUTBOX_RELAY_LOCK);
+  }
+}
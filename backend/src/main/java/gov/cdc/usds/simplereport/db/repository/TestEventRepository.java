@@ -4,10 +4,11 @@ import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
-import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultWithCount;
+import gov.cdc.usds.simplereport.db.model.auxiliary.FacilityTestResultWithCount;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -75,26 +76,25 @@ public interface TestEventRepository
 
   long count(Specification<TestEvent> searchSpec);
 
+  /**
+   * Count current results per facility for tests performed in a half-open time range. Used for the
+   * partial days at either end of a dashboard date range, where the daily rollup is too coarse.
+   */
   @Query(
       value =
-          "SELECT new gov.cdc.usds.simplereport.db.model.auxiliary.TestResultWithCount(te.result, COUNT(te)) "
+          "SELECT new gov.cdc.usds.simplereport.db.model.auxiliary.FacilityTestResultWithCount(te.facility.internalId, te.result, COUNT(te)) "
               + "FROM TestEvent te "
               + "         LEFT JOIN TestEvent corrected_te ON corrected_te.priorCorrectedTestEventId = te.internalId "
-              + "WHERE te.facility.internalId IN :facilityIds AND COALESCE(te.dateTestedBackdate, te.createdAt) BETWEEN :startDate AND :endDate AND "
+              + "WHERE te.facility.internalId IN :facilityIds AND COALESCE(te.dateTestedBackdate, te.createdAt) >= :startDate AND "
+              + "    COALESCE(te.dateTestedBackdate, te.createdAt) < :endDateExclusive AND "
               + "    te.correctionStatus = 'ORIGINAL' AND corrected_te.priorCorrectedTestEventId IS NULL "
-              + "GROUP BY te.result")
-  List<TestResultWithCount> countByResultByFacility(
-      Collection<UUID> facilityIds, Date startDate, Date endDate);
-
-  @Query(
-      value =
-          "SELECT new gov.cdc.usds.simplereport.db.model.auxiliary.TestResultWithCount(te.result, COUNT(te)) "
-              + "FROM TestEvent te "
-              + "         LEFT JOIN TestEvent corrected_te ON corrected_te.priorCorrectedTestEventId = te.internalId "
-              + "WHERE te.facility.internalId = :facilityId AND COALESCE(te.dateTestedBackdate, te.createdAt) BETWEEN :startDate AND :endDate AND "
-              + "    te.correctionStatus = 'ORIGINAL' AND corrected_te.priorCorrectedTestEventId IS NULL "
-              + "GROUP BY te.result")
-  List<TestResultWithCount> countByResultForFacility(UUID facilityId, Date startDate, Date endDate);
+              + "GROUP BY te.facility.internalId, te.result")
+  List<FacilityTestResultWithCount> countByFacilityAndResult(
+      Collection<UUID> facilityIds, Date startDate, Date endDateExclusive);
 
   boolean existsByPatient(Person person);
+
+  /** The IDs of those of the given patients who have been tested before. */
+  @Query("select distinct e.patient.internalId from #{#entityName} e where e.patient in :patients")
+  Set<UUID> findTestedPatientIds(Collection<Person> patients);
 }
@@ -5,6 +5,7 @@ import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,6 +34,15 @@ public interface TestOrderRepository
   @EntityGraph(attributePaths = "patient")
   Optional<TestOrder> fetchQueueItem(Organization org, Person patient);
 
+  @Query(BASE_ORG_QUERY + IS_PENDING + " and q.patient in :patients")
+  @EntityGraph(attributePaths = "patient")
+  List<TestOrder> fetchQueueItems(Organization org, Collection<Person> patients);
+
+  @Query(FACILITY_QUERY + IS_PENDING + " and q.patient.internalId in :patientIds")
+  @EntityGraph(attributePaths = "patient")
+  List<TestOrder> fetchQueueItemsForPatientIds(
+      Organization org, Facility facility, Collection<UUID> patientIds);
+
   @Query(BASE_QUERY + IS_PENDING + " and q.id = :id")
   Optional<TestOrder> fetchQueueItemById(UUID id);
 
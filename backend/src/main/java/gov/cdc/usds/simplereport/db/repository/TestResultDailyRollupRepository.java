@@ -0,0 +1,24 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.TestResultDailyRollup;
+import gov.cdc.usds.simplereport.db.model.auxiliary.FacilityTestResultWithCount;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+/** Read-only access to the daily test result rollup (which is maintained by the database). */
+public interface TestResultDailyRollupRepository extends Repository<TestResultDailyRollup, UUID> {
+
+  /** Sum the rollup for the given facilities over the given days (both ends inclusive). */
+  @Query(
+      "SELECT new gov.cdc.usds.simplereport.db.model.auxiliary.FacilityTestResultWithCount("
+          + "r.facility.internalId, r.result, SUM(r.testCount)) "
+          + "FROM #{#entityName} r "
+          + "WHERE r.facility.internalId IN :facilityIds AND r.testDate BETWEEN :firstDay AND :lastDay "
+          + "GROUP BY r.facility.internalId, r.result")
+  List<FacilityTestResultWithCount> countByFacilityAndResult(
+      Collection<UUID> facilityIds, LocalDate firstDay, LocalDate lastDay);
+}
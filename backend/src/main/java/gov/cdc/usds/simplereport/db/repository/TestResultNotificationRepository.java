@@ -0,0 +1,55 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.TestResultNotification;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface TestResultNotificationRepository
+    extends Repository<TestResultNotification, UUID>, AdvisoryLockManager {
+
+  /**
+   * The lock identifier for the advisory lock held while claiming notifications to send. (Use as
+   * the second argument to the postgresql two-argument locking functions.)
+   */
+  int NOTIFICATION_DISPATCH_LOCK = 47201386; // arbitrary 32-bit integer for our lock
+
+  List<TestResultNotification> saveAll(Iterable<TestResultNotification> notifications);
+
+  /** Fetch the pending notifications that are due to be sent, oldest first. */
+  @Query(
+      "FROM #{#entityName} n WHERE n.status = 'PENDING' AND n.nextAttemptAt <= :now"
+          + " ORDER BY n.nextAttemptAt")
+  List<TestResultNotification> findDue(Date now, Pageable p);
+
+  /**
+   * Fetch a notification along with everything needed to send it, so that it can be sent once the
+   * transaction has closed.
+   */
+  @Query(
+      "SELECT DISTINCT n FROM #{#entityName} n JOIN FETCH n.requestedBy JOIN FETCH n.patientLink l"
+          + " JOIN FETCH l.testOrder o JOIN FETCH o.patient p LEFT JOIN FETCH p.phoneNumbers"
+          + " JOIN FETCH o.facility JOIN FETCH o.organization"
+          + " WHERE n.internalId = :id")
+  Optional<TestResultNotification> findForSending(UUID id);
+
+  Optional<TestResultNotification> findById(UUID id);
+
+  // used by unit tests
+  List<TestResultNotification> findAllByPatientLinkInternalIdIn(Collection<UUID> patientLinkIds);
+
+  /**
+   * Try to obtain the lock for claiming notifications. (It will be released automatically when the
+   * current transaction closes.)
+   *
+   * @return true if the lock was obtained, false otherwise.
+   */
+  default boolean tryDispatchLock() {
+    return tryTransactionLock(CORE_API_LOCK_SCOPE, NOTIFICATION_DISPATCH_LOCK);
+  }
+}
@@ -14,6 +14,8 @@ import gov.cdc.usds.simplereport.config.authorization.PermissionHolder;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import gov.cdc.usds.simplereport.service.model.OrganizationRosterMember;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -226,6 +228,24 @@ public class DemoOktaRepository implements OktaRepository {
         .collect(Collectors.toMap(u -> u, u -> getUserStatus(u)));
   }
 
+  // like an organization with no Okta groups, a nonexistent organization has no users
+  public List<OrganizationRosterMember> getOrganizationRoster(Organization org) {
+    return orgUsernamesMap.getOrDefault(org.getExternalId(), Set.of()).stream()
+        .filter(usernameOrgRolesMap::containsKey)
+        .map(u -> new OrganizationRosterMember(u, getUserStatus(u), usernameOrgRolesMap.get(u)))
+        .collect(Collectors.toList());
+  }
+
+  // nothing changes in a demo env except through this repository
+  public Map<String, UserStatus> getUserStatusesChangedSince(Instant since) {
+    return Map.of();
+  }
+
+  // nothing changes in a demo env except through this repository
+  public Set<String> getOrganizationsWithMembershipChangesSince(Instant since) {
+    return Set.of();
+  }
+
   // this method doesn't mean much in a demo env
   public void createOrganization(Organization org) {
     String externalId = org.getExternalId();
@@ -27,6 +27,11 @@ import gov.cdc.usds.simplereport.config.exceptions.MisconfiguredApplicationExcep
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import gov.cdc.usds.simplereport.service.model.OrganizationRosterMember;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -36,8 +41,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -59,18 +64,24 @@ public class LiveOktaRepository implements OktaRepository {
 
   private static final String OKTA_GROUP_NOT_FOUND = "Okta group not found for this organization";
 
+  // the timestamp format that Okta filter expressions expect
+  private static final DateTimeFormatter OKTA_TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
   private String _rolePrefix;
   private Client _client;
   private Application _app;
   private OrganizationExtractor _extractor;
   private CurrentTenantDataAccessContextHolder _tenantDataContextHolder;
+  private OktaDirectoryCache _cache;
 
   public LiveOktaRepository(
       AuthorizationProperties authorizationProperties,
       Client client,
       @Value("${okta.oauth2.client-id}") String oktaOAuth2ClientId,
       OrganizationExtractor organizationExtractor,
-      CurrentTenantDataAccessContextHolder tenantDataContextHolder) {
+      CurrentTenantDataAccessContextHolder tenantDataContextHolder,
+      OktaDirectoryCache cache) {
     _rolePrefix = authorizationProperties.getRolePrefix();
     _client = client;
     try {
@@ -81,6 +92,7 @@ public class LiveOktaRepository implements OktaRepository {
     }
     _extractor = organizationExtractor;
     _tenantDataContextHolder = tenantDataContextHolder;
+    _cache = cache;
   }
 
   @Autowired
@@ -89,7 +101,8 @@ public class LiveOktaRepository implements OktaRepository {
       OktaClientProperties oktaClientProperties,
       @Value("${okta.oauth2.client-id}") String oktaOAuth2ClientId,
       OrganizationExtractor organizationExtractor,
-      CurrentTenantDataAccessContextHolder tenantDataContextHolder) {
+      CurrentTenantDataAccessContextHolder tenantDataContextHolder,
+      OktaDirectoryCache cache) {
     _rolePrefix = authorizationProperties.getRolePrefix();
     _client =
         Clients.builder()
@@ -104,6 +117,7 @@ public class LiveOktaRepository implements OktaRepository {
     }
     _extractor = organizationExtractor;
     _tenantDataContextHolder = tenantDataContextHolder;
+    _cache = cache;
   }
 
   public Optional<OrganizationRoleClaims> createUser(
@@ -156,33 +170,29 @@ public class LiveOktaRepository implements OktaRepository {
             .map(f -> generateFacilityGroupName(organizationExternalId, f.getInternalId()))
             .collect(Collectors.toSet()));
 
-    GroupList orgGroups =
-        _client.listGroups(generateGroupOrgPrefix(organizationExternalId), null, null);
-    if (orgGroups.stream().count() == 0) {
+    Map<String, String> orgGroupIds =
+        getOrganizationGroupIds(organizationExternalId, groupNamesToAdd);
+    if (orgGroupIds.isEmpty()) {
       throw new IllegalGraphqlArgumentException(
           String.format(
               "Cannot add Okta user to nonexistent organization=%s", organizationExternalId));
     }
-    Set<String> orgGroupNames =
-        orgGroups.stream().map(g -> g.getProfile().getName()).collect(Collectors.toSet());
     groupNamesToAdd.stream()
-        .filter(n -> !orgGroupNames.contains(n))
+        .filter(n -> !orgGroupIds.containsKey(n))
         .forEach(
             n -> {
               throw new IllegalGraphqlArgumentException(
                   String.format("Cannot add Okta user to nonexistent group=%s", n));
             });
     Set<String> groupIdsToAdd =
-        orgGroups.stream()
-            .filter(g -> groupNamesToAdd.contains(g.getProfile().getName()))
-            .map(g -> g.getId())
-            .collect(Collectors.toSet());
+        groupNamesToAdd.stream().map(orgGroupIds::get).collect(Collectors.toSet());
 
     UserBuilder.instance()
         .setProfileProperties(userProfileMap)
         .setGroups(groupIdsToAdd)
         .setActive(active)
         .buildAndCreate(_client);
+    _cache.invalidateUser(userIdentity.getUsername());
 
     List<OrganizationRoleClaims> claims = _extractor.convertClaims(groupNamesToAdd);
     if (claims.size() != 1) {
@@ -225,15 +235,70 @@ public class LiveOktaRepository implements OktaRepository {
         .collect(Collectors.toMap(u -> u.getProfile().getEmail(), u -> u.getStatus()));
   }
 
+  public List<OrganizationRosterMember> getOrganizationRoster(Organization org) {
+    final String orgGroupPrefix = generateGroupOrgPrefix(org.getExternalId());
+    final String orgDefaultGroupName =
+        generateRoleGroupName(org.getExternalId(), OrganizationRole.getDefault());
+    // one (paged) listing per group, rather than one listing of groups per user
+    Map<String, List<String>> groupNamesByUser = new HashMap<>();
+    Map<String, UserStatus> statusByUser = new HashMap<>();
+    for (Group group : _client.listGroups(orgGroupPrefix, FILTER_TYPE_EQ_OKTA_GROUP, null)) {
+      String groupName = group.getProfile().getName();
+      if (!groupName.startsWith(orgGroupPrefix + ":")) {
+        continue;
+      }
+      for (User user : group.listUsers()) {
+        String email = user.getProfile().getEmail();
+        groupNamesByUser.computeIfAbsent(email, e -> new ArrayList<>()).add(groupName);
+        statusByUser.put(email, user.getStatus());
+      }
+    }
+
+    List<OrganizationRosterMember> roster = new ArrayList<>();
+    groupNamesByUser.forEach(
+        (email, groupNames) -> {
+          // as elsewhere, the organization's users are the members of its default group
+          if (groupNames.contains(orgDefaultGroupName)) {
+            toOrganizationRoleClaims(groupNames)
+                .ifPresent(
+                    claims ->
+                        roster.add(
+                            new OrganizationRosterMember(email, statusByUser.get(email), claims)));
+          }
+        });
+    return roster;
+  }
+
+  public Map<String, UserStatus> getUserStatusesChangedSince(Instant since) {
+    String filter = "lastUpdated gt \"" + OKTA_TIMESTAMP_FORMAT.format(since) + "\"";
+    return _client.listUsers(null, filter, null, null, null).stream()
+        .collect(
+            Collectors.toMap(
+                u -> u.getProfile().getEmail(), User::getStatus, (first, second) -> second));
+  }
+
+  public Set<String> getOrganizationsWithMembershipChangesSince(Instant since) {
+    String filter =
+        FILTER_TYPE_EQ_OKTA_GROUP
+            + " and lastMembershipUpdated gt \""
+            + OKTA_TIMESTAMP_FORMAT.format(since)
+            + "\"";
+    return _client.listGroups(null, filter, null).stream()
+        .map(g -> parseOrganizationExternalId(g.getProfile().getName()))
+        .flatMap(Optional::stream)
+        .collect(Collectors.toSet());
+  }
+
   public Optional<OrganizationRoleClaims> updateUser(IdentityAttributes userIdentity) {
 
-    UserList users = _client.listUsers(userIdentity.getUsername(), null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot update Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(userIdentity.getUsername())
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot update Okta user with unrecognized username"));
     updateUser(user, userIdentity);
+    _cache.invalidateUser(userIdentity.getUsername());
 
     return getOrganizationRoleClaimsForUser(user);
   }
@@ -250,28 +315,30 @@ public class LiveOktaRepository implements OktaRepository {
 
   public Optional<OrganizationRoleClaims> updateUserEmail(
       IdentityAttributes userIdentity, String email) {
-    UserList users = _client.listUsers(userIdentity.getUsername(), null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot update email of Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(userIdentity.getUsername())
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot update email of Okta user with unrecognized username"));
     UserProfile profile = user.getProfile();
     profile.setLogin(email);
     profile.setEmail(email);
     user.setProfile(profile);
     user.update();
+    _cache.invalidateUser(userIdentity.getUsername());
+    _cache.invalidateUser(email);
 
     return getOrganizationRoleClaimsForUser(user);
   }
 
   public void reprovisionUser(IdentityAttributes userIdentity) {
-    UserList users = _client.listUsers(userIdentity.getUsername(), null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot reprovision Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(userIdentity.getUsername())
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot reprovision Okta user with unrecognized username"));
     UserStatus userStatus = user.getStatus();
 
     // any org user "deleted" through our api will be in SUSPENDED state
@@ -291,16 +358,17 @@ public class LiveOktaRepository implements OktaRepository {
     // requires the user to be in PROVISIONED state
     user.deactivate();
     user.activate(true);
+    _cache.invalidateUser(userIdentity.getUsername());
   }
 
   public Optional<OrganizationRoleClaims> updateUserPrivileges(
       String username, Organization org, Set<Facility> facilities, Set<OrganizationRole> roles) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot update role of Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot update role of Okta user with unrecognized username"));
 
     String orgId = org.getExternalId();
 
@@ -321,6 +389,7 @@ public class LiveOktaRepository implements OktaRepository {
       // The user is not a member of the default group for this organization.  If they happen
       // to be in any of this organization's groups, remove the user from those groups.
       currentOrgGroupMapForUser.values().forEach(g -> g.removeUser(user.getId()));
+      _cache.invalidateUser(username);
       throw new IllegalGraphqlArgumentException(
           "Cannot update privileges of Okta user in organization they do not belong to.");
     }
@@ -345,97 +414,96 @@ public class LiveOktaRepository implements OktaRepository {
     groupNamesToAdd.removeIf(currentOrgGroupMapForUser::containsKey);
 
     if (!groupNamesToRemove.isEmpty() || !groupNamesToAdd.isEmpty()) {
-      Map<String, Group> fullOrgGroupMap =
-          _client.listGroups(groupOrgPrefix, null, null).stream()
-              .filter(g -> GroupType.OKTA_GROUP == g.getType())
-              .collect(Collectors.toMap(g -> g.getProfile().getName(), Function.identity()));
-      if (fullOrgGroupMap.size() == 0) {
+      Map<String, String> orgGroupIds = getOrganizationGroupIds(orgId, groupNamesToAdd);
+      if (orgGroupIds.isEmpty()) {
         throw new IllegalGraphqlArgumentException(
             String.format("Cannot add Okta user to nonexistent organization=%s", orgId));
       }
 
       for (String groupName : groupNamesToRemove) {
-        Group group = fullOrgGroupMap.get(groupName);
-        log.info("Removing {} from Okta group: {}", username, group.getProfile().getName());
-        group.removeUser(user.getId());
+        log.info("Removing {} from Okta group: {}", username, groupName);
+        currentOrgGroupMapForUser.get(groupName).removeUser(user.getId());
       }
 
       for (String groupName : groupNamesToAdd) {
-        if (!fullOrgGroupMap.containsKey(groupName)) {
+        if (!orgGroupIds.containsKey(groupName)) {
           throw new IllegalGraphqlArgumentException(
               String.format("Cannot add Okta user to nonexistent group=%s", groupName));
         }
-        Group group = fullOrgGroupMap.get(groupName);
-        log.info("Adding {} to Okta group: {}", username, group.getProfile().getName());
-        user.addToGroup(group.getId());
+        log.info("Adding {} to Okta group: {}", username, groupName);
+        user.addToGroup(orgGroupIds.get(groupName));
       }
+      _cache.invalidateUser(username);
     }
 
     return getOrganizationRoleClaimsForUser(user);
   }
 
   public void resetUserPassword(String username) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot reset password for Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot reset password for Okta user with unrecognized username"));
     user.resetPassword(true);
+    _cache.invalidateUser(username);
   }
 
   public void resetUserMfa(String username) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot reset MFA for Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot reset MFA for Okta user with unrecognized username"));
     user.resetFactors();
   }
 
   public void setUserIsActive(String username, Boolean active) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot update active status of Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot update active status of Okta user with unrecognized username"));
 
     if (active && user.getStatus() == UserStatus.SUSPENDED) {
       user.unsuspend();
     } else if (!active && user.getStatus() != UserStatus.SUSPENDED) {
       user.suspend();
     }
+    _cache.invalidateUser(username);
   }
 
   public UserStatus getUserStatus(String username) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot retrieve Okta user's status with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findCachedUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot retrieve Okta user's status with unrecognized username"));
     return user.getStatus();
   }
 
   public void reactivateUser(String username) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot reactivate Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot reactivate Okta user with unrecognized username"));
     user.unsuspend();
+    _cache.invalidateUser(username);
   }
 
   public void resendActivationEmail(String username) {
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot reactivate Okta user with unrecognized username");
-    }
-    User user = users.single();
+    User user =
+        findUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot reactivate Okta user with unrecognized username"));
     if (user.getStatus() == UserStatus.PROVISIONED) {
       user.reactivate(true);
     } else if (user.getStatus() == UserStatus.STAGED) {
@@ -444,6 +512,7 @@ public class LiveOktaRepository implements OktaRepository {
       throw new IllegalGraphqlArgumentException(
           "Cannot reactivate user with status: " + user.getStatus());
     }
+    _cache.invalidateUser(username);
   }
 
   /**
@@ -471,20 +540,23 @@ public class LiveOktaRepository implements OktaRepository {
 
       log.info("Created Okta group={}", roleGroupName);
     }
+    _cache.invalidateOrganization(externalId);
   }
 
   private UserList getOrgAdminUsers(Organization org) {
     String externalId = org.getExternalId();
     String roleGroupName = generateRoleGroupName(externalId, OrganizationRole.ADMIN);
-    GroupList groups = _client.listGroups(roleGroupName, null, null);
-    if (groups.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException("Cannot activate nonexistent Okta organization");
-    }
-    Group group = groups.single();
+    Group group =
+        single(_client.listGroups(roleGroupName, null, null).stream())
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot activate nonexistent Okta organization"));
     return group.listUsers();
   }
 
   private String activateUser(User user) {
+    _cache.invalidateUser(user.getProfile().getLogin());
     if (user.getStatus() == UserStatus.PROVISIONED) {
       // reactivates user and sends them an Okta email to reactivate their account
       return user.reactivate(true).getActivationToken();
@@ -516,8 +588,7 @@ public class LiveOktaRepository implements OktaRepository {
   public void createFacility(Facility facility) {
     // Only create the facility group if the facility's organization has already been created
     String orgExternalId = facility.getOrganization().getExternalId();
-    GroupList orgGroups = _client.listGroups(generateGroupOrgPrefix(orgExternalId), null, null);
-    if (orgGroups.stream().count() == 0) {
+    if (getOrganizationGroupIds(orgExternalId, Set.of()).isEmpty()) {
       throw new IllegalGraphqlArgumentException(
           "Cannot create Okta group for facility="
               + facility.getFacilityName()
@@ -534,6 +605,7 @@ public class LiveOktaRepository implements OktaRepository {
             .setDescription(generateFacilityGroupDescription(orgName, facility.getFacilityName()))
             .buildAndCreate(_client);
     _app.createApplicationGroupAssignment(g.getId());
+    _cache.invalidateOrganization(orgExternalId);
 
     log.info("Created Okta group={}", facilityGroupName);
   }
@@ -545,6 +617,8 @@ public class LiveOktaRepository implements OktaRepository {
     for (Group group : groups) {
       group.delete();
     }
+    _cache.invalidateOrganization(orgExternalId);
+    _cache.invalidateAllUserGroups();
   }
 
   public void deleteOrganization(Organization org) {
@@ -553,6 +627,8 @@ public class LiveOktaRepository implements OktaRepository {
     for (Group group : orgGroups) {
       group.delete();
     }
+    _cache.invalidateOrganization(externalId);
+    _cache.invalidateAllUserGroups();
   }
 
   // returns the external ID of the organization the specified user belongs to
@@ -565,12 +641,14 @@ public class LiveOktaRepository implements OktaRepository {
       return getOrganizationRoleClaimsFromAuthorities(_tenantDataContextHolder.getAuthorities());
     }
 
-    UserList users = _client.listUsers(username, null, null, null, null);
-    if (users.stream().count() == 0) {
-      throw new IllegalGraphqlArgumentException("Cannot get org external ID for nonexistent user");
-    }
-    User user = users.single();
-    return getOrganizationRoleClaimsForUser(user);
+    User user =
+        findCachedUser(username)
+            .orElseThrow(
+                () ->
+                    new IllegalGraphqlArgumentException(
+                        "Cannot get org external ID for nonexistent user"));
+    return toOrganizationRoleClaims(
+        _cache.getUserGroupNames(username, u -> listOktaGroupNames(user)));
   }
 
   private Optional<OrganizationRoleClaims> getOrganizationRoleClaimsFromAuthorities(
@@ -585,11 +663,10 @@ public class LiveOktaRepository implements OktaRepository {
   }
 
   private Optional<OrganizationRoleClaims> getOrganizationRoleClaimsForUser(User user) {
-    List<String> groupNames =
-        user.listGroups().stream()
-            .filter(g -> g.getType() == GroupType.OKTA_GROUP)
-            .map(g -> g.getProfile().getName())
-            .collect(Collectors.toList());
+    return toOrganizationRoleClaims(listOktaGroupNames(user));
+  }
+
+  private Optional<OrganizationRoleClaims> toOrganizationRoleClaims(List<String> groupNames) {
     List<OrganizationRoleClaims> claims = _extractor.convertClaims(groupNames);
 
     if (claims.size() != 1) {
@@ -599,6 +676,76 @@ public class LiveOktaRepository implements OktaRepository {
     return Optional.of(claims.get(0));
   }
 
+  private List<String> listOktaGroupNames(User user) {
+    return user.listGroups().stream()
+        .filter(g -> g.getType() == GroupType.OKTA_GROUP)
+        .map(g -> g.getProfile().getName())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /** Look up a user by login, walking the results only once. */
+  private Optional<User> findUser(String username) {
+    return single(_client.listUsers(username, null, null, null, null).stream());
+  }
+
+  /**
+   * Look up a user by login, reusing a recent lookup if there is one. Only use the result to read
+   * the user: anything that changes them should use {@link #findUser} and then invalidate it.
+   */
+  private Optional<User> findCachedUser(String username) {
+    return Optional.ofNullable(_cache.getUser(username, u -> findUser(u).orElse(null)));
+  }
+
+  /**
+   * The ids of the organization's Okta groups, by group name. If any of the required groups is
+   * missing, the cached groups may predate its creation (by another instance), so they are fetched
+   * again before giving up on it.
+   */
+  private Map<String, String> getOrganizationGroupIds(
+      String orgExternalId, Collection<String> requiredGroupNames) {
+    Map<String, String> groupIds =
+        _cache.getOrganizationGroupIds(orgExternalId, this::listOrganizationGroupIds);
+    if (groupIds.isEmpty() || !groupIds.keySet().containsAll(requiredGroupNames)) {
+      _cache.invalidateOrganization(orgExternalId);
+      groupIds = _cache.getOrganizationGroupIds(orgExternalId, this::listOrganizationGroupIds);
+    }
+    return groupIds;
+  }
+
+  private Map<String, String> listOrganizationGroupIds(String orgExternalId) {
+    return _client.listGroups(generateGroupOrgPrefix(orgExternalId), null, null).stream()
+        .filter(g -> GroupType.OKTA_GROUP == g.getType())
+        .collect(Collectors.toUnmodifiableMap(g -> g.getProfile().getName(), Group::getId));
+  }
+
+  /**
+   * The only element of an Okta collection. Unlike a {@code count()} followed by {@code single()},
+   * this fetches the collection's pages only once.
+   */
+  private static <T> Optional<T> single(Stream<T> elements) {
+    List<T> found = elements.limit(2).collect(Collectors.toList());
+    if (found.size() > 1) {
+      throw new IllegalStateException(
+          "Only a single resource was expected, but this list contains more than one item.");
+    }
+    return found.stream().findFirst();
+  }
+
+  /**
+   * The external id of the organization that a group belongs to, following the group names that
+   * {@link OrganizationExtractor} understands; empty if the group is not one of ours.
+   */
+  private Optional<String> parseOrganizationExternalId(String groupName) {
+    if (!groupName.startsWith(_rolePrefix)) {
+      return Optional.empty();
+    }
+    String claim = groupName.substring(_rolePrefix.length());
+    int facilityMarkerOffset =
+        claim.lastIndexOf(":" + OrganizationExtractor.FACILITY_ACCESS_MARKER + ":");
+    int orgEnd = facilityMarkerOffset >= 0 ? facilityMarkerOffset : claim.lastIndexOf(':');
+    return orgEnd > 0 ? Optional.of(claim.substring(0, orgEnd)) : Optional.empty();
+  }
+
   private String generateGroupOrgPrefix(String orgExternalId) {
     return String.format("%s%s", _rolePrefix, orgExternalId);
   }
@@ -0,0 +1,114 @@
+package gov.cdc.usds.simplereport.idp.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.okta.sdk.resource.user.User;
+import gov.cdc.usds.simplereport.config.BeanProfiles;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived cache of what {@link LiveOktaRepository} reads from the Okta directory: users by
+ * login, the names of the groups each user is in, and the ids of each organization's groups by
+ * name. Viewing a user takes several Okta calls in a row, and the user management pages view the
+ * same users over and over, so even a TTL of seconds saves most of those round trips.
+ *
+ * <p>The repository invalidates whatever it changes. Changes made by another instance of the
+ * application, or directly in Okta, show up when the entries expire. Lookups that find nothing are
+ * not cached. Okta logins are not case-sensitive, so users are cached by their lower-cased login,
+ * and a change made under one spelling of a login also invalidates what was cached under another.
+ */
+@Profile("!" + BeanProfiles.NO_OKTA_MGMT)
+@Component
+@Slf4j
+public class OktaDirectoryCache {
+
+  private final Cache<String, User> users;
+  private final Cache<String, List<String>> userGroupNames;
+  private final Cache<String, Map<String, String>> organizationGroupIds;
+
+  public OktaDirectoryCache(
+      MeterRegistry meterRegistry,
+      @Value("${simple-report.okta-cache.ttl:30s}") Duration ttl,
+      @Value("${simple-report.okta-cache.maximum-size:10000}") long maximumSize) {
+    if (ttl.isZero() || ttl.isNegative()) {
+      log.info("Okta directory cache is disabled");
+      users = null;
+      userGroupNames = null;
+      organizationGroupIds = null;
+    } else {
+      users = build(ttl, maximumSize);
+      userGroupNames = build(ttl, maximumSize);
+      organizationGroupIds = build(ttl, maximumSize);
+      CaffeineCacheMetrics.monitor(meterRegistry, users, "oktaUsers");
+      CaffeineCacheMetrics.monitor(meterRegistry, userGroupNames, "oktaUserGroups");
+      CaffeineCacheMetrics.monitor(meterRegistry, organizationGroupIds, "oktaOrganizationGroups");
+    }
+  }
+
+  private static <V> Cache<String, V> build(Duration ttl, long maximumSize) {
+    return Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .<String, V>build();
+  }
+
+  /**
+   * Get the user with the given login, calling {@code loader} if they are not cached. The user is
+   * for reading only: anything that changes a user should fetch it afresh.
+   */
+  public User getUser(String username, Function<String, User> loader) {
+    return get(users, userKey(username), key -> loader.apply(username));
+  }
+
+  /** Get the names of the groups the user with the given login is in. */
+  public List<String> getUserGroupNames(String username, Function<String, List<String>> loader) {
+    return get(userGroupNames, userKey(username), key -> loader.apply(username));
+  }
+
+  /** Get the ids of the groups of the organization with the given external id, by group name. */
+  public Map<String, String> getOrganizationGroupIds(
+      String orgExternalId, Function<String, Map<String, String>> loader) {
+    return get(organizationGroupIds, orgExternalId, loader);
+  }
+
+  /** Forget the user with the given login, and the groups they are in. */
+  public void invalidateUser(String username) {
+    if (users != null) {
+      users.invalidate(userKey(username));
+      userGroupNames.invalidate(userKey(username));
+    }
+  }
+
+  /** Forget the groups of the organization with the given external id. */
+  public void invalidateOrganization(String orgExternalId) {
+    if (organizationGroupIds != null) {
+      organizationGroupIds.invalidate(orgExternalId);
+    }
+  }
+
+  /** Forget the groups of every user (for instance, because a group was deleted). */
+  public void invalidateAllUserGroups() {
+    if (userGroupNames != null) {
+      userGroupNames.invalidateAll();
+    }
+  }
+
+  private static String userKey(String username) {
+    return username.toLowerCase(Locale.ROOT);
+  }
+
+  private static <V> V get(Cache<String, V> cache, String key, Function<String, V> loader) {
+    return cache == null ? loader.apply(key) : cache.get(key, loader);
+  }
+}
@@ -6,6 +6,8 @@ import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import gov.cdc.usds.simplereport.service.model.OrganizationRosterMember;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -50,6 +52,18 @@ public interface OktaRepository {
 
   Map<String, UserStatus> getAllUsersWithStatusForOrganization(Organization org);
 
+  /** Every user in the organization, with their status and their claims in the organization. */
+  List<OrganizationRosterMember> getOrganizationRoster(Organization org);
+
+  /** The current status of every user that changed in any way since the given time, by login. */
+  Map<String, UserStatus> getUserStatusesChangedSince(Instant since);
+
+  /**
+   * The external ids of the organizations that have had users added to or removed from any of their
+   * groups since the given time.
+   */
+  Set<String> getOrganizationsWithMembershipChangesSince(Instant since);
+
   void createOrganization(Organization org);
 
   void activateOrganization(Organization org);
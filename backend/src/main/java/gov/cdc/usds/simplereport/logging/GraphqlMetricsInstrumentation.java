@@ -0,0 +1,149 @@
+package gov.cdc.usds.simplereport.logging;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records, for a sample of GraphQL operations, how long each non-trivial data fetcher takes (until
+ * its value is available, so a field resolved through a DataLoader includes the wait for its batch)
+ * and how many JDBC statements the operation runs. Fields are identified by their coordinates (
+ * <code>Patient.lastTest</code>), which map one-to-one to resolver methods and, unlike result
+ * paths, cannot be multiplied by the client through aliases.
+ *
+ * <p>Sampling is decided once per operation: unsampled operations get no state, and their data
+ * fetchers are not wrapped at all.
+ */
+@Component
+@Slf4j
+public class GraphqlMetricsInstrumentation extends SimpleInstrumentation {
+
+  private static final String ANONYMOUS_OPERATION = "anonymous";
+  // operation names come from the client: don't let them create an unbounded number of meters
+  private static final int MAX_OPERATION_NAMES = 200;
+  private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+  private final MeterRegistry meterRegistry;
+  private final double sampleRate;
+  private final Map<String, Timer> fieldTimers = new ConcurrentHashMap<>();
+
+  public GraphqlMetricsInstrumentation(
+      MeterRegistry meterRegistry,
+      @Value("${simple-report.graphql-metrics.sample-rate:0.05}") double sampleRate) {
+    this.meterRegistry = meterRegistry;
+    this.sampleRate = sampleRate;
+    meterRegistry
+        .config()
+        .meterFilter(
+            MeterFilter.maximumAllowableTags(
+                LoggingConstants.STATEMENTS_METRIC,
+                "operation",
+                MAX_OPERATION_NAMES,
+                MeterFilter.deny()));
+    log.info("Sampling {} of GraphQL operations for field-level metrics", sampleRate);
+  }
+
+  @Override
+  public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+    if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return null;
+    }
+    String operationName = parameters.getExecutionInput().getOperationName();
+    return new GraphqlMetricsState(
+        operationName == null || operationName.isEmpty() ? ANONYMOUS_OPERATION : operationName);
+  }
+
+  @Override
+  public InstrumentationContext<ExecutionResult> beginExecution(
+      InstrumentationExecutionParameters parameters) {
+    GraphqlMetricsState state = parameters.getInstrumentationState();
+    if (state == null) {
+      return super.beginExecution(parameters);
+    }
+    return SimpleInstrumentationContext.whenCompleted(
+        (result, t) ->
+            DistributionSummary.builder(LoggingConstants.STATEMENTS_METRIC)
+                .description("JDBC statements run by a sampled GraphQL operation")
+                .tag("operation", state.getOperationName())
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(state.getStatementCount()));
+  }
+
+  @Override
+  public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+      InstrumentationExecuteOperationParameters parameters) {
+    GraphqlMetricsState state = parameters.getInstrumentationState();
+    if (state == null) {
+      return super.beginExecuteOperation(parameters);
+    }
+    // Bound until the operation has been dispatched: everything that runs synchronously on this
+    // thread, including the first DataLoader dispatch, belongs to this operation. Later work runs
+    // on DataLoader threads, which pick the state up from the thread that submitted it.
+    GraphqlMetricsState previous = GraphqlMetricsState.bind(state);
+    return SimpleInstrumentationContext.whenDispatched(
+        result -> GraphqlMetricsState.bind(previous));
+  }
+
+  @Override
+  public DataFetcher<?> instrumentDataFetcher(
+      DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters) {
+    if (parameters.getInstrumentationState() == null || parameters.isTrivialDataFetcher()) {
+      return dataFetcher;
+    }
+    Timer timer =
+        fieldTimers.computeIfAbsent(
+            GraphQLTypeUtil.simplePrint(parameters.getEnvironment().getParentType())
+                + "."
+                + parameters.getEnvironment().getField().getName(),
+            this::createFieldTimer);
+    return environment -> {
+      long start = System.nanoTime();
+      boolean async = false;
+      try {
+        Object value = dataFetcher.get(environment);
+        if (value instanceof CompletionStage) {
+          async = true;
+          // hand back the dependent stage, so the time is recorded before the field completes
+          return ((CompletionStage<?>) value)
+              .whenComplete(
+                  (v, t) -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        }
+        return value;
+      } finally {
+        if (!async) {
+          timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+      }
+    };
+  }
+
+  private Timer createFieldTimer(String field) {
+    return Timer.builder(LoggingConstants.FIELD_FETCH_METRIC)
+        .description("Time for a data fetcher's value to become available")
+        .tag("field", field)
+        .publishPercentiles(PERCENTILES)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,69 @@
+package gov.cdc.usds.simplereport.logging;
+
+import graphql.execution.instrumentation.InstrumentationState;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Metrics collected over one sampled GraphQL operation. While the operation runs, its state is
+ * bound to the threads working on it (the request thread, and the DataLoader threads through {@link
+ * #propagate(Runnable)}), so that code with no access to the GraphQL context can still attribute
+ * work to it.
+ */
+public class GraphqlMetricsState implements InstrumentationState {
+
+  private static final ThreadLocal<GraphqlMetricsState> CURRENT = new ThreadLocal<>();
+
+  private final String operationName;
+  private final AtomicInteger statementCount = new AtomicInteger();
+
+  GraphqlMetricsState(String operationName) {
+    this.operationName = operationName;
+  }
+
+  /** The state of the sampled operation running on this thread, or null if there is none. */
+  public static GraphqlMetricsState current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Wrap a task that will run on another thread so that it counts towards the operation running on
+   * this one, if any.
+   */
+  public static Runnable propagate(Runnable task) {
+    GraphqlMetricsState state = CURRENT.get();
+    if (state == null) {
+      return task;
+    }
+    return () -> {
+      GraphqlMetricsState previous = bind(state);
+      try {
+        task.run();
+      } finally {
+        bind(previous);
+      }
+    };
+  }
+
+  /** Bind a state (or none) to this thread, returning the one that was bound before. */
+  static GraphqlMetricsState bind(GraphqlMetricsState state) {
+    GraphqlMetricsState previous = CURRENT.get();
+    if (state == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(state);
+    }
+    return previous;
+  }
+
+  public String getOperationName() {
+    return operationName;
+  }
+
+  public int getStatementCount() {
+    return statementCount.get();
+  }
+
+  void countStatement() {
+    statementCount.incrementAndGet();
+  }
+}
@@ -11,4 +11,16 @@ public final class LoggingConstants {
 
   /** The header we will use to return the request ID for debugging purposes. */
   public static final String REQUEST_ID_HEADER = "X-SimpleReport-RequestId";
+
+  /** Time for a GraphQL data fetcher's value to become available, tagged by field. */
+  public static final String FIELD_FETCH_METRIC = "graphql.field.fetch";
+
+  /** JDBC statements run by a sampled GraphQL operation, tagged by operation name. */
+  public static final String STATEMENTS_METRIC = "graphql.operation.jdbc.statements";
+
+  /** Keys passed to a single DataLoader batch load, tagged by loader. */
+  public static final String BATCH_SIZE_METRIC = "graphql.dataloader.batch.size";
+
+  /** Time spent running a DataLoader batch load, tagged by loader. */
+  public static final String BATCH_LOAD_METRIC = "graphql.dataloader.batch.load";
 }
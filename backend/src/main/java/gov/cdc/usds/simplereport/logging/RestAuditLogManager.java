@@ -5,7 +5,9 @@ import gov.cdc.usds.simplereport.api.pxp.CurrentPatientContextHolder;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.service.AuditService;
+import gov.cdc.usds.simplereport.service.OrganizationService;
 import gov.cdc.usds.simplereport.service.errors.RestAuditFailureException;
+import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
 import javax.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
@@ -22,16 +24,19 @@ public class RestAuditLogManager {
   private final AuditService _auditService;
   private final CurrentPatientContextHolder _contextHolder;
   private final WebhookContextHolder _webhookContextHolder;
+  private final OrganizationService _organizationService;
 
   private static final int DEFAULT_SUCCESS = HttpStatus.OK.value();
 
   public RestAuditLogManager(
       AuditService auditService,
       CurrentPatientContextHolder contextHolder,
-      WebhookContextHolder webhookContextHolder) {
+      WebhookContextHolder webhookContextHolder,
+      OrganizationService organizationService) {
     this._auditService = auditService;
     this._contextHolder = contextHolder;
     this._webhookContextHolder = webhookContextHolder;
+    this._organizationService = organizationService;
   }
 
   /**
@@ -64,6 +69,25 @@ public class RestAuditLogManager {
     return true;
   }
 
+  /**
+   * As {@link #logRestSuccess}, but for REST requests made by an authenticated SimpleReport user
+   * rather than by a patient.
+   */
+  public boolean logAuthenticatedRestSuccess(HttpServletRequest request) {
+    try {
+      String requestId = MDC.get(LoggingConstants.REQUEST_ID_MDC_KEY);
+      Organization org =
+          _organizationService
+              .getCurrentOrganizationRoles()
+              .map(OrganizationRoles::getOrganization)
+              .orElse(null);
+      _auditService.logRestEvent(requestId, request, DEFAULT_SUCCESS, org, null);
+    } catch (Exception e) {
+      throw new RestAuditFailureException(e);
+    }
+    return true;
+  }
+
   public boolean logWebhookSuccess(HttpServletRequest request) {
     if (!_webhookContextHolder.isWebhook()) {
       log.error("Somehow reached success handler without webhook context being true");
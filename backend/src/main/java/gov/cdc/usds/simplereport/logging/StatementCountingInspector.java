@@ -0,0 +1,32 @@
+package gov.cdc.usds.simplereport.logging;
+
+import java.util.Map;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on behalf of a sampled GraphQL operation (see
+ * {@link GraphqlMetricsInstrumentation}). The SQL itself is passed through untouched.
+ */
+@Component
+public class StatementCountingInspector
+    implements StatementInspector, HibernatePropertiesCustomizer {
+
+  private static final long serialVersionUID = 1L;
+
+  @Override
+  public String inspect(String sql) {
+    GraphqlMetricsState state = GraphqlMetricsState.current();
+    if (state != null) {
+      state.countStatement();
+    }
+    return sql;
+  }
+
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+  }
+}
@@ -17,4 +17,7 @@ public final class AzureStorageQueueReportingProperties {
   private final String name;
   private final String exceptionWebhookEnabled;
   private final String exceptionWebhookToken;
+  private final int batchSize;
+  private final int bufferCapacity;
+  private final long enqueueTimeoutMillis;
 }
@@ -1,18 +1,28 @@
 package gov.cdc.usds.simplereport.properties;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "smarty-streets")
 public final class SmartyStreetsProperties {
 
   private final String id;
   private final String token;
+  private final Duration cacheTtl;
+  private final long cacheMaximumSize;
 
   @ConstructorBinding
-  public SmartyStreetsProperties(String id, String token) {
+  public SmartyStreetsProperties(
+      String id,
+      String token,
+      @DefaultValue("1d") Duration cacheTtl,
+      @DefaultValue("10000") long cacheMaximumSize) {
     this.id = id;
     this.token = token;
+    this.cacheTtl = cacheTtl;
+    this.cacheMaximumSize = cacheMaximumSize;
   }
 
   public String getId() {
@@ -22,4 +32,12 @@ public final class SmartyStreetsProperties {
   public String getToken() {
     return token;
   }
+
+  public Duration getCacheTtl() {
+    return cacheTtl;
+  }
+
+  public long getCacheMaximumSize() {
+    return cacheMaximumSize;
+  }
 }
@@ -3,8 +3,11 @@ package gov.cdc.usds.simplereport.service;
 import static gov.cdc.usds.simplereport.api.Translators.parseState;
 import static gov.cdc.usds.simplereport.api.Translators.parseString;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.smartystreets.api.ClientBuilder;
 import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
 import com.smartystreets.api.us_street.Candidate;
 import com.smartystreets.api.us_street.Client;
 import com.smartystreets.api.us_street.Lookup;
@@ -13,7 +16,14 @@ import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentExceptio
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.properties.SmartyStreetsProperties;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,15 +32,34 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class AddressValidationService {
   public final String FACILITY_DISPLAY_NAME = "facility";
+  /** The largest number of addresses SmartyStreets accepts in a single request. */
+  public static final int MAX_BATCH_SIZE = Batch.MAX_BATCH_SIZE;
+
+  private static final Duration DEFAULT_CACHE_TTL = Duration.ofDays(1);
+  private static final long DEFAULT_CACHE_MAXIMUM_SIZE = 10_000;
+  private static final String LOOKUP_FAILED_MESSAGE =
+      "The server is unable to verify the address you entered. Please try again later";
+
   private Client _client;
+  // normalized address -> county name ("" if SmartyStreets found no match)
+  private final Cache<AddressKey, String> _countyCache;
 
   public AddressValidationService(Client client) {
+    this(client, DEFAULT_CACHE_TTL, DEFAULT_CACHE_MAXIMUM_SIZE);
+  }
+
+  public AddressValidationService(Client client, Duration cacheTtl, long cacheMaximumSize) {
     _client = client;
+    _countyCache =
+        Caffeine.newBuilder().expireAfterWrite(cacheTtl).maximumSize(cacheMaximumSize).build();
   }
 
   @Autowired
   public AddressValidationService(SmartyStreetsProperties config) {
-    _client = new ClientBuilder(config.getId(), config.getToken()).buildUsStreetApiClient();
+    this(
+        new ClientBuilder(config.getId(), config.getToken()).buildUsStreetApiClient(),
+        config.getCacheTtl(),
+        config.getCacheMaximumSize());
   }
 
   private Lookup getStrictLookup(
@@ -54,44 +83,146 @@ public class AddressValidationService {
       _client.send(lookup);
     } catch (SmartyException | IOException ex) {
       log.error("SmartyStreets address lookup failed", ex);
-      throw new IllegalGraphqlArgumentException(
-          "The server is unable to verify the address you entered. Please try again later");
+      throw new IllegalGraphqlArgumentException(LOOKUP_FAILED_MESSAGE);
     }
 
-    ArrayList<Candidate> results = lookup.getResult();
+    return toStreetAddress(lookup, getCountyName(lookup));
+  }
+
+  /** Returns a StreetAddress if the address is valid and throws an exception if it is not */
+  public StreetAddress getValidatedAddress(
+      String street1,
+      String street2,
+      String city,
+      String state,
+      String postalCode,
+      String fieldName) {
+    Lookup lookup = getStrictLookup(street1, street2, city, state, postalCode);
+    var key = new AddressKey(lookup);
+    String county = _countyCache.getIfPresent(key);
+    if (county != null) {
+      return toStreetAddress(lookup, county);
+    }
+    StreetAddress validated = getValidatedAddress(lookup, fieldName);
+    _countyCache.put(key, validated.getCounty());
+    return validated;
+  }
+
+  /**
+   * Bulk version of {@link #getValidatedAddress(String, String, String, String, String, String)}.
+   * Addresses that have been validated recently are answered from the cache; the rest are
+   * de-duplicated and sent to SmartyStreets in batches of up to {@link #MAX_BATCH_SIZE}.
+   *
+   * @return the validated addresses, in the same order as the input
+   */
+  public List<StreetAddress> getValidatedAddresses(List<StreetAddress> addresses) {
+    var lookups = new ArrayList<Lookup>(addresses.size());
+    Map<AddressKey, String> counties = new LinkedHashMap<>();
+    var batch = new Batch();
+    for (StreetAddress address : addresses) {
+      Lookup lookup =
+          getStrictLookup(
+              address.getStreetOne(),
+              address.getStreetTwo(),
+              address.getCity(),
+              address.getState(),
+              address.getPostalCode());
+      lookups.add(lookup);
+
+      var key = new AddressKey(lookup);
+      if (counties.containsKey(key)) {
+        continue;
+      }
+      String county = _countyCache.getIfPresent(key);
+      counties.put(key, county);
+      if (county == null) {
+        addToBatch(batch, lookup);
+        if (batch.size() == MAX_BATCH_SIZE) {
+          sendBatch(batch, counties);
+          batch = new Batch();
+        }
+      }
+    }
+    if (batch.size() > 0) {
+      sendBatch(batch, counties);
+    }
+
+    var results = new StreetAddress[lookups.size()];
+    for (int i = 0; i < results.length; i++) {
+      Lookup lookup = lookups.get(i);
+      results[i] = toStreetAddress(lookup, counties.get(new AddressKey(lookup)));
+    }
+    return Arrays.asList(results);
+  }
+
+  private static void addToBatch(Batch batch, Lookup lookup) {
+    try {
+      batch.add(lookup);
+    } catch (SmartyException e) {
+      // batches are sent as soon as they are full, so this cannot happen
+      throw new IllegalStateException(e);
+    }
+  }
 
-    if (results.isEmpty()) {
-      return new StreetAddress(
-          lookup.getStreet(),
-          lookup.getSecondary(),
-          lookup.getCity(),
-          lookup.getState(),
-          lookup.getZipCode(),
-          "");
+  private void sendBatch(Batch batch, Map<AddressKey, String> counties) {
+    log.debug("Sending batch of {} address lookups to SmartyStreets", batch.size());
+    try {
+      _client.send(batch);
+    } catch (SmartyException | IOException ex) {
+      log.error("SmartyStreets batch address lookup failed", ex);
+      throw new IllegalGraphqlArgumentException(LOOKUP_FAILED_MESSAGE);
     }
 
+    for (Lookup lookup : batch.getAllLookups()) {
+      var key = new AddressKey(lookup);
+      String county = getCountyName(lookup);
+      counties.put(key, county);
+      _countyCache.put(key, county);
+    }
+  }
+
+  private static String getCountyName(Lookup lookup) {
+    ArrayList<Candidate> results = lookup.getResult();
+
     // If the address is invalid then Smarty street returns 0 results.
     // If the address is valid the results are returned and the first result is the best match
     // and is the one we should be using to get the County metadata
-    Candidate addressMatch = results.get(0);
+    if (results == null || results.isEmpty()) {
+      return "";
+    }
+    return results.get(0).getMetadata().getCountyName();
+  }
+
+  // we return the address as entered (SmartyStreets is only used to find the county)
+  private static StreetAddress toStreetAddress(Lookup lookup, String county) {
     return new StreetAddress(
         lookup.getStreet(),
         lookup.getSecondary(),
         lookup.getCity(),
         lookup.getState(),
         lookup.getZipCode(),
-        addressMatch.getMetadata().getCountyName());
+        county);
   }
 
-  /** Returns a StreetAddress if the address is valid and throws an exception if it is not */
-  public StreetAddress getValidatedAddress(
-      String street1,
-      String street2,
-      String city,
-      String state,
-      String postalCode,
-      String fieldName) {
-    Lookup lookup = getStrictLookup(street1, street2, city, state, postalCode);
-    return getValidatedAddress(lookup, fieldName);
+  /** Cache key: the lookup fields, ignoring case and runs of whitespace. */
+  @EqualsAndHashCode
+  private static class AddressKey {
+    private final String street;
+    private final String secondary;
+    private final String city;
+    private final String state;
+    private final String zipCode;
+
+    private AddressKey(Lookup lookup) {
+      street = normalize(lookup.getStreet());
+      secondary = normalize(lookup.getSecondary());
+      city = normalize(lookup.getCity());
+      state = normalize(lookup.getState());
+      zipCode = normalize(lookup.getZipCode());
+    }
+
+    private static String normalize(String value) {
+      return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
   }
 }
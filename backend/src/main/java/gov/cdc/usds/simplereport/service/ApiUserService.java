@@ -26,6 +26,7 @@ import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
 import gov.cdc.usds.simplereport.service.model.IdentitySupplier;
 import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
 import gov.cdc.usds.simplereport.service.model.UserInfo;
+import java.time.Duration;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -37,6 +38,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -58,6 +60,8 @@ public class ApiUserService {
 
   @Autowired private OktaRepository _oktaRepo;
 
+  @Autowired private OktaRosterService _rosterService;
+
   @Autowired private TenantDataAccessService _tenantService;
 
   @Autowired private CurrentPatientContextHolder _patientContextHolder;
@@ -68,6 +72,12 @@ public class ApiUserService {
 
   @Autowired private ApiUserContextHolder _apiUserContextHolder;
 
+  @Value("${simple-report.api-user.last-seen-granularity:5m}")
+  private Duration _lastSeenGranularity;
+
+  // the user that background work on the current thread is being done for (see runAsUser)
+  private static final ThreadLocal<ApiUser> BACKGROUND_USER = new ThreadLocal<>();
+
   public boolean userExists(String username) {
     Optional<ApiUser> found =
         _apiUserRepo.findByLoginEmailIncludeArchived(username.toLowerCase().strip());
@@ -116,6 +126,7 @@ public class ApiUserService {
         EnumSet.of(role.toOrganizationRole(), OrganizationRole.getDefault());
     Optional<OrganizationRoleClaims> roleClaims =
         _oktaRepo.updateUserPrivileges(apiUser.getLoginEmail(), org, Set.of(), roles);
+    roleClaims.ifPresent(c -> _rosterService.recordMember(apiUser.getLoginEmail(), c));
 
     apiUser.setNameInfo(name);
     apiUser.setIsDeleted(false);
@@ -141,6 +152,7 @@ public class ApiUserService {
         EnumSet.of(role.toOrganizationRole(), OrganizationRole.getDefault());
     Optional<OrganizationRoleClaims> roleClaims =
         _oktaRepo.createUser(userIdentity, org, Set.of(), roles, active);
+    roleClaims.ifPresent(c -> _rosterService.recordMember(username, c));
     Optional<OrganizationRoles> orgRoles = roleClaims.map(c -> _orgService.getOrganizationRoles(c));
     boolean isAdmin = isAdmin(apiUser);
     UserInfo user = new UserInfo(apiUser, orgRoles, isAdmin);
@@ -193,6 +205,7 @@ public class ApiUserService {
     Optional<OrganizationRoleClaims> newOrgClaims =
         _oktaRepo.updateUserPrivileges(
             username, org, facilitiesFound, getOrganizationRoles(role, accessAllFacilities));
+    newOrgClaims.ifPresent(c -> _rosterService.recordMember(username, c));
     Optional<OrganizationRoles> orgRoles =
         newOrgClaims.map(c -> _orgService.getOrganizationRoles(org, c));
     UserInfo user = new UserInfo(apiUser, orgRoles, isAdmin(apiUser));
@@ -221,6 +234,7 @@ public class ApiUserService {
     apiUser = _apiUserRepo.save(apiUser);
 
     Optional<OrganizationRoleClaims> roleClaims = _oktaRepo.updateUserEmail(userIdentity, email);
+    _rosterService.renameMember(username, email);
     Optional<OrganizationRoles> orgRoles = roleClaims.map(_orgService::getOrganizationRoles);
     boolean isAdmin = isAdmin(apiUser);
     UserInfo user = new UserInfo(apiUser, orgRoles, isAdmin);
@@ -238,6 +252,7 @@ public class ApiUserService {
     ApiUser apiUser = getApiUser(userId);
     String username = apiUser.getLoginEmail();
     _oktaRepo.resetUserPassword(username);
+    _rosterService.recordMemberStatus(username);
     OrganizationRoleClaims orgClaims =
         _oktaRepo
             .getOrganizationRoleClaimsForUser(username)
@@ -252,6 +267,7 @@ public class ApiUserService {
     ApiUser apiUser = getApiUser(userId);
     String username = apiUser.getLoginEmail();
     _oktaRepo.resetUserMfa(username);
+    _rosterService.recordMemberStatus(username);
     OrganizationRoleClaims orgClaims =
         _oktaRepo
             .getOrganizationRoleClaimsForUser(username)
@@ -267,6 +283,7 @@ public class ApiUserService {
     apiUser.setIsDeleted(deleted);
     apiUser = _apiUserRepo.save(apiUser);
     _oktaRepo.setUserIsActive(apiUser.getLoginEmail(), !deleted);
+    _rosterService.recordMemberStatus(apiUser.getLoginEmail());
     return new UserInfo(apiUser, Optional.empty(), isAdmin(apiUser));
   }
 
@@ -276,6 +293,7 @@ public class ApiUserService {
     ApiUser apiUser = getApiUser(userId);
     String username = apiUser.getLoginEmail();
     _oktaRepo.reactivateUser(username);
+    _rosterService.recordMemberStatus(username);
     OrganizationRoleClaims orgClaims =
         _oktaRepo
             .getOrganizationRoleClaimsForUser(username)
@@ -292,6 +310,7 @@ public class ApiUserService {
     ApiUser apiUser = getApiUser(userId);
     String username = apiUser.getLoginEmail();
     _oktaRepo.resendActivationEmail(username);
+    _rosterService.recordMemberStatus(username);
     OrganizationRoleClaims orgClaims =
         _oktaRepo
             .getOrganizationRoleClaimsForUser(username)
@@ -350,10 +369,7 @@ public class ApiUserService {
 
     if (found.isPresent()) {
       log.debug("Patient has logged in before: retrieving user record.");
-      ApiUser user = found.get();
-      user.updateLastSeen();
-      user = _apiUserRepo.save(user);
-      return user;
+      return refreshLastSeen(found.get());
     } else {
       log.info("Initial login for patient: creating user record.");
       ApiUser user = new ApiUser(username, patient.getNameInfo());
@@ -469,10 +485,7 @@ public class ApiUserService {
     Optional<ApiUser> found = _apiUserRepo.findByLoginEmail(userIdentity.getUsername());
     if (found.isPresent()) {
       log.debug("User has logged in before: retrieving user record.");
-      ApiUser user = found.get();
-      user.updateLastSeen();
-      user = _apiUserRepo.save(user);
-      return user;
+      return refreshLastSeen(found.get());
     } else {
       // Assumes user already has a corresponding Okta entity; otherwise, they couldn't log in :)
       log.info("Initial login for user: creating user record.");
@@ -486,8 +499,44 @@ public class ApiUserService {
     }
   }
 
+  private ApiUser refreshLastSeen(ApiUser user) {
+    // last-seen only needs to be accurate to the configured granularity: writing it on every
+    // request turns each read into a contended update of the same api_user row
+    if (user.updateLastSeen(_lastSeenGranularity)) {
+      return _apiUserRepo.save(user);
+    }
+    return user;
+  }
+
+  /**
+   * Do some work outside of any request on behalf of the given user (for instance, sending a
+   * notification that they asked for): anything the work saves is recorded as created or updated by
+   * that user. Permissions are <em>not</em> checked for the user, so the work must only use methods
+   * that do not check them.
+   */
+  public void runAsUser(ApiUser user, Runnable work) {
+    if (RequestContextHolder.getRequestAttributes() != null) {
+      throw new IllegalStateException("Cannot run as another user inside a request");
+    }
+    ApiUser previous = BACKGROUND_USER.get();
+    BACKGROUND_USER.set(user);
+    try {
+      work.run();
+    } finally {
+      if (previous == null) {
+        BACKGROUND_USER.remove();
+      } else {
+        BACKGROUND_USER.set(previous);
+      }
+    }
+  }
+
   private ApiUser getCurrentApiUser() {
     if (RequestContextHolder.getRequestAttributes() == null) {
+      ApiUser backgroundUser = BACKGROUND_USER.get();
+      if (backgroundUser != null) {
+        return backgroundUser;
+      }
       // short-circuit in the event this is called from outside a request
       return getCurrentApiUserNoCache();
     }
@@ -524,6 +573,11 @@ public class ApiUserService {
   @AuthorizationConfiguration.RequirePermissionManageUsers
   public List<ApiUserWithStatus> getUsersAndStatusInCurrentOrg() {
     Organization org = _orgService.getCurrentOrganization();
+    Optional<List<ApiUserWithStatus>> fromSnapshot = _rosterService.getUsersWithStatus(org);
+    if (fromSnapshot.isPresent()) {
+      return fromSnapshot.get();
+    }
+    // the snapshot of this organization has not been built yet: ask Okta
     final Map<String, UserStatus> emailsToStatus =
         _oktaRepo.getAllUsersWithStatusForOrganization(org);
     List<ApiUser> users = _apiUserRepo.findAllByLoginEmailInOrderByName(emailsToStatus.keySet());
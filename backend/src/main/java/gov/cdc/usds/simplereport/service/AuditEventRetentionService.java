@@ -0,0 +1,196 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventPartitions;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventPartitions.Partition;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of the audit event table in order: it creates partitions a few
+ * months before they are needed, and archives partitions once every event in them is past the
+ * retention period. Archiving exports the partition to a gzipped file of JSON rows (one per line)
+ * in the archive directory, and only then detaches and drops it; if there is no archive directory,
+ * expired partitions are left where they are.
+ *
+ * <p>If maintenance has fallen behind, the default partition may already hold events for a month
+ * whose partition is missing. Those are moved into a detached partition in batches, each in a short
+ * transaction of its own, and the partition is attached once the default partition is nearly empty:
+ * only that last step blocks (for the default partition only) the audit events that belong in no
+ * other partition. Maintenance runs in the middle of the night (see the partition-maintenance cron
+ * setting), so any such lock falls outside working hours.
+ */
+@Service
+@Slf4j
+public class AuditEventRetentionService {
+
+  private static final int LOCK_TIMEOUT_SECONDS = 5;
+  private static final int MOVE_BATCH_SIZE = 1000;
+
+  private final ApiAuditEventPartitions _partitions;
+  private final TransactionTemplate _batchTransaction;
+  private final int _monthsAhead;
+  private final int _retentionMonths;
+  private final Path _archiveDirectory;
+
+  public AuditEventRetentionService(
+      ApiAuditEventPartitions partitions,
+      PlatformTransactionManager transactionManager,
+      @Value("${simple-report.audit.partitions-ahead:3}") int monthsAhead,
+      @Value("${simple-report.audit.retention-months:72}") int retentionMonths,
+      @Value("${simple-report.audit.archive-directory:}") String archiveDirectory) {
+    _partitions = partitions;
+    _batchTransaction = new TransactionTemplate(transactionManager);
+    _batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    _monthsAhead = monthsAhead;
+    _retentionMonths = retentionMonths;
+    _archiveDirectory = archiveDirectory.isBlank() ? null : Path.of(archiveDirectory);
+  }
+
+  /**
+   * Create the partitions for the coming months, and archive the expired ones. Only one instance of
+   * the application does this at a time: the others fail to take the advisory lock and return
+   * immediately.
+   *
+   * @return the number of partitions that were archived
+   */
+  @Transactional
+  public int maintainPartitions() {
+    return maintainPartitions(LocalDate.now());
+  }
+
+  int maintainPartitions(LocalDate today) {
+    if (!_partitions.tryMaintenanceLock()) {
+      log.debug("Audit event partition maintenance locked out by mutex: skipping");
+      return 0;
+    }
+
+    List<Partition> partitions = _partitions.findPartitions();
+    List<String> expired = findExpired(partitions, today);
+    if (!expired.isEmpty() && _archiveDirectory == null) {
+      log.warn(
+          "Keeping {} expired audit event partitions: no archive directory is configured",
+          expired.size());
+      expired = List.of();
+    }
+    // the exports only read, so run them before any DDL locks the table
+    for (String partition : expired) {
+      archive(partition);
+    }
+
+    YearMonth lastNeeded = YearMonth.from(today).plusMonths(_monthsAhead);
+    YearMonth firstNeeded =
+        partitions.stream()
+            .map(Partition::getUpperBound)
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .map(YearMonth::from)
+            .orElse(YearMonth.from(today));
+    // events are moved out of the default partition in transactions that commit batch by batch, so
+    // that they never wait on (or hold up audit writes behind) the DDL in this one
+    List<YearMonth> detached = new ArrayList<>();
+    for (YearMonth month = firstNeeded; !month.isAfter(lastNeeded); month = month.plusMonths(1)) {
+      if (_partitions.monthlyPartitionExists(month)
+          || _partitions.hasDefaultPartitionEvents(month)) {
+        moveOutOfDefaultPartition(month);
+        detached.add(month);
+      }
+    }
+
+    _partitions.setLockTimeout(LOCK_TIMEOUT_SECONDS);
+    for (YearMonth month = firstNeeded; !month.isAfter(lastNeeded); month = month.plusMonths(1)) {
+      if (detached.contains(month)) {
+        log.info("Attaching audit event partition for {}", month);
+        int moved = _partitions.attachMonthlyPartition(month);
+        if (moved > 0) {
+          log.warn("Moved {} more audit events for {} while attaching", moved, month);
+        }
+      } else {
+        log.info("Creating audit event partition for {}", month);
+        _partitions.createMonthlyPartition(month);
+      }
+    }
+    for (String partition : expired) {
+      log.info("Dropping archived audit event partition {}", partition);
+      _partitions.dropPartition(partition);
+    }
+    return expired.size();
+  }
+
+  private void moveOutOfDefaultPartition(YearMonth month) {
+    if (!_partitions.monthlyPartitionExists(month)) {
+      _batchTransaction.executeWithoutResult(
+          status -> _partitions.createDetachedMonthlyPartition(month));
+    }
+    long total = 0;
+    int moved;
+    do {
+      moved =
+          _batchTransaction.execute(
+              status -> _partitions.moveDefaultPartitionEvents(month, MOVE_BATCH_SIZE));
+      total += moved;
+    } while (moved == MOVE_BATCH_SIZE);
+    log.warn("Moved {} audit events for {} out of the default partition", total, month);
+  }
+
+  private List<String> findExpired(List<Partition> partitions, LocalDate today) {
+    LocalDateTime retainedFrom =
+        YearMonth.from(today).minusMonths(_retentionMonths).atDay(1).atStartOfDay();
+    return partitions.stream()
+        .filter(p -> p.getUpperBound() != null && !p.getUpperBound().isAfter(retainedFrom))
+        .sorted(Comparator.comparing(Partition::getUpperBound))
+        .map(Partition::getName)
+        .collect(Collectors.toList());
+  }
+
+  private void archive(String partition) {
+    Path archive = _archiveDirectory.resolve(partition + ".ndjson.gz");
+    Path partial = _archiveDirectory.resolve(partition + ".ndjson.gz.partial");
+    try {
+      Files.createDirectories(_archiveDirectory);
+      long rows;
+      try (Writer out =
+          new BufferedWriter(
+              new OutputStreamWriter(
+                  new GZIPOutputStream(Files.newOutputStream(partial)), StandardCharsets.UTF_8))) {
+        rows = _partitions.exportPartition(partition, row -> writeLine(out, row));
+      }
+      Files.move(
+          partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.info("Archived {} audit events from {} to {}", rows, partition, archive);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to archive audit event partition " + partition, e);
+    }
+  }
+
+  private static void writeLine(Writer out, String line) {
+    try {
+      out.write(line);
+      out.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventRepository;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves audit events with a group commit: events written while a flush is in progress are collected
+ * into a batch, and the next flush saves the whole batch in one transaction (as a single multi-row
+ * insert, since the driver rewrites batched inserts). Every request still pays for its audit event
+ * being committed before it gets a response, as AU-3 requires, but concurrent requests share the
+ * cost instead of each running an insert and a commit of its own.
+ *
+ * <p>{@link #write} blocks until the batch holding the event has been flushed, and throws if the
+ * event could not be saved. If a batch fails, its events are retried one at a time, so that one bad
+ * event cannot fail every request it happened to be batched with.
+ */
+@Component
+@Slf4j
+public class AuditEventWriter {
+
+  private final ApiAuditEventRepository _repo;
+  private final ThreadPoolTaskExecutor _executor;
+  private final int _maxBatchSize;
+  private final Duration _flushTimeout;
+
+  private final Object _lock = new Object();
+  // guarded by _lock
+  private final Deque<Batch> _pending = new ArrayDeque<>();
+  private boolean _flushing;
+
+  public AuditEventWriter(
+      ApiAuditEventRepository repo,
+      TaskExecutorBuilder taskExecutorBuilder,
+      @Value("${simple-report.audit.max-batch-size:100}") int maxBatchSize,
+      @Value("${simple-report.audit.flush-timeout:10s}") Duration flushTimeout) {
+    _repo = repo;
+    _maxBatchSize = maxBatchSize;
+    _flushTimeout = flushTimeout;
+    _executor =
+        taskExecutorBuilder
+            .corePoolSize(1)
+            .maxPoolSize(1)
+            .threadNamePrefix("audit-writer-")
+            .awaitTermination(true)
+            .awaitTerminationPeriod(flushTimeout)
+            .build();
+    _executor.setDaemon(true);
+    _executor.initialize();
+  }
+
+  /**
+   * Stop the writer thread once it has flushed the events already queued, waiting no longer than
+   * the writers themselves would.
+   */
+  @PreDestroy
+  void shutdown() {
+    _executor.shutdown();
+  }
+
+  /** Save an audit event, returning once it has been committed. */
+  public void write(ApiAuditEvent event) {
+    Batch batch;
+    boolean startFlushing = false;
+    synchronized (_lock) {
+      batch = _pending.peekLast();
+      if (batch == null || batch.events.size() >= _maxBatchSize) {
+        batch = new Batch();
+        _pending.addLast(batch);
+      }
+      batch.events.add(event);
+      if (!_flushing) {
+        _flushing = true;
+        startFlushing = true;
+      }
+    }
+    if (startFlushing) {
+      try {
+        _executor.execute(this::flushPending);
+      } catch (TaskRejectedException e) {
+        // shutting down: nobody else is going to flush this batch
+        flushPending();
+      }
+    }
+    batch.await(event, _flushTimeout);
+  }
+
+  private void flushPending() {
+    while (true) {
+      Batch batch;
+      synchronized (_lock) {
+        batch = _pending.pollFirst();
+        if (batch == null) {
+          _flushing = false;
+          return;
+        }
+      }
+      batch.flush();
+    }
+  }
+
+  private class Batch {
+
+    private final List<ApiAuditEvent> events = new ArrayList<>();
+    private final Map<ApiAuditEvent, RuntimeException> failures = new IdentityHashMap<>();
+    private final CompletableFuture<Void> flushed = new CompletableFuture<>();
+
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    void flush() {
+      log.trace("Saving {} audit events", events.size());
+      try {
+        _repo.saveAll(events);
+      } catch (RuntimeException batchFailure) {
+        if (events.size() == 1) {
+          failures.put(events.get(0), batchFailure);
+        } else {
+          log.warn(
+              "Saving a batch of {} audit events failed, retrying them one at a time",
+              events.size(),
+              batchFailure);
+          for (ApiAuditEvent event : events) {
+            try {
+              _repo.saveAll(List.of(event));
+            } catch (RuntimeException e) {
+              failures.put(event, e);
+            }
+          }
+        }
+      } finally {
+        flushed.complete(null);
+      }
+    }
+
+    void await(ApiAuditEvent event, Duration timeout) {
+      try {
+        flushed.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while saving audit event", e);
+      } catch (ExecutionException | TimeoutException e) {
+        throw new IllegalStateException("Audit event was not saved in time", e);
+      }
+      RuntimeException failure = failures.get(event);
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+}
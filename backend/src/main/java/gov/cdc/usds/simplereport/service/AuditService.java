@@ -8,17 +8,26 @@ import gov.cdc.usds.simplereport.db.model.ApiUser;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventPartitions;
 import gov.cdc.usds.simplereport.db.repository.ApiAuditEventRepository;
 import gov.cdc.usds.simplereport.logging.GraphqlQueryState;
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.Range;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
-/** Service for recording API access events that must be made available for audits. */
+/**
+ * Service for recording API access events that must be made available for audits.
+ *
+ * <p>Events are saved through the {@link AuditEventWriter}, which commits them in its own
+ * transactions, so the logging methods run outside of any transaction: a caller holding a database
+ * connection while it waits for its event to be saved would be taking it away from the writer.
+ */
 @Service
 @Transactional(readOnly = true)
 @Validated
@@ -29,10 +38,21 @@ public class AuditService {
 
   private final ApiAuditEventRepository _repo;
   private final ApiUserService _userService;
+  private final AuditEventWriter _writer;
+  private final ApiAuditEventPartitions _partitions;
+  private final long _exactCountThreshold;
 
-  public AuditService(ApiAuditEventRepository repo, ApiUserService userService) {
+  public AuditService(
+      ApiAuditEventRepository repo,
+      ApiUserService userService,
+      AuditEventWriter writer,
+      ApiAuditEventPartitions partitions,
+      @Value("${simple-report.audit.exact-count-threshold:100000}") long exactCountThreshold) {
     this._repo = repo;
     this._userService = userService;
+    this._writer = writer;
+    this._partitions = partitions;
+    this._exactCountThreshold = exactCountThreshold;
   }
 
   public List<ApiAuditEvent> getLastEvents(@Range(min = 1, max = MAX_EVENT_FETCH) int count) {
@@ -40,11 +60,17 @@ public class AuditService {
     return count <= events.size() ? events.subList(0, count) : events;
   }
 
+  /**
+   * Count the audit events. Counting a large table exactly means reading all of it, so above a
+   * threshold this returns the planner's estimate instead, which is only as fresh as the last
+   * ANALYZE; below it, the estimate may be far off in relative terms, so the table is counted.
+   */
   public long countAuditEvents() {
-    return _repo.count();
+    long estimate = _partitions.estimateRowCount();
+    return estimate < _exactCountThreshold ? _repo.count() : estimate;
   }
 
-  @Transactional(readOnly = false)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void logGraphQlEvent(
       GraphqlQueryState state,
       List<String> errorPaths,
@@ -53,7 +79,7 @@ public class AuditService {
       boolean isAdmin,
       Organization organization) {
     log.trace("Saving audit event for {}", state.getRequestId());
-    _repo.save(
+    _writer.write(
         new ApiAuditEvent(
             state.getRequestId(),
             state.getHttpDetails(),
@@ -65,7 +91,7 @@ public class AuditService {
             organization));
   }
 
-  @Transactional(readOnly = false)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void logRestEvent(
       String requestId,
       HttpServletRequest request,
@@ -75,10 +101,11 @@ public class AuditService {
     log.trace("Saving audit event for {}", requestId);
     HttpRequestDetails reqDetails = new HttpRequestDetails(request);
     ApiUser userInfo = _userService.getCurrentApiUserInContainedTransaction();
-    _repo.save(new ApiAuditEvent(requestId, reqDetails, responseCode, userInfo, org, patientLink));
+    _writer.write(
+        new ApiAuditEvent(requestId, reqDetails, responseCode, userInfo, org, patientLink));
   }
 
-  @Transactional(readOnly = false)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void logAnonymousRestEvent(
       String requestId, HttpServletRequest request, int responseCode) {
     log.trace("Saving audit event for {}", requestId);
@@ -89,10 +116,10 @@ public class AuditService {
             ? null
             : JsonNodeFactory.instance.objectNode().put("userId", userIdObj.toString());
     ApiUser anonymousUser = _userService.getAnonymousApiUser();
-    _repo.save(new ApiAuditEvent(requestId, reqDetails, responseCode, userId, anonymousUser));
+    _writer.write(new ApiAuditEvent(requestId, reqDetails, responseCode, userId, anonymousUser));
   }
 
-  @Transactional(readOnly = false)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void logWebhookRestEvent(String requestId, HttpServletRequest request, int responseCode) {
     log.trace("Saving webhook REST audit event for {}", requestId);
     HttpRequestDetails reqDetails = new HttpRequestDetails(request);
@@ -102,6 +129,6 @@ public class AuditService {
             ? null
             : JsonNodeFactory.instance.objectNode().put("userId", userIdObj.toString());
     ApiUser webhookUser = _userService.getWebhookApiUser();
-    _repo.save(new ApiAuditEvent(requestId, reqDetails, responseCode, userId, webhookUser));
+    _writer.write(new ApiAuditEvent(requestId, reqDetails, responseCode, userId, webhookUser));
   }
 }
@@ -2,85 +2,182 @@ package gov.cdc.usds.simplereport.service;
 
 import com.azure.storage.queue.QueueAsyncClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import gov.cdc.usds.simplereport.api.model.TestEventExport;
+import gov.cdc.usds.simplereport.api.model.TestEventExportWriter;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Set;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public final class AzureStorageQueueTestEventReportingService implements TestEventReportingService {
+/**
+ * Reports test events to an Azure storage queue.
+ *
+ * <p>Events are serialized on the calling thread (while their lazy associations are still
+ * reachable) and then handed to a bounded in-memory buffer. A single dispatcher thread drains the
+ * buffer and sends up to {@code batchSize} messages concurrently, so a burst of results turns into
+ * a handful of parallel round-trips instead of one blocking round-trip per request. When the buffer
+ * is full, callers block for up to {@code enqueueTimeoutMillis} before the send fails, which
+ * provides backpressure instead of unbounded memory growth.
+ */
+public final class AzureStorageQueueTestEventReportingService
+    implements TestEventReportingService, AutoCloseable {
   private static final Logger log =
       LoggerFactory.getLogger(AzureStorageQueueTestEventReportingService.class);
-  private static final int MAX_QUEUE_MESSAGES_TO_RECEIVE = 32;
+  private static final int DEFAULT_BATCH_SIZE = 32;
+  private static final int DEFAULT_BUFFER_CAPACITY = 1000;
+  private static final long DEFAULT_ENQUEUE_TIMEOUT_MILLIS = 5000;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
   private final ObjectMapper mapper;
   private final QueueAsyncClient queueClient;
+  private final int batchSize;
+  private final long enqueueTimeoutMillis;
+  private final BlockingQueue<PendingMessage> buffer;
+  private final ExecutorService dispatcher;
 
   public AzureStorageQueueTestEventReportingService(
       ObjectMapper mapper, QueueAsyncClient queueClient) {
+    this(
+        mapper,
+        queueClient,
+        DEFAULT_BATCH_SIZE,
+        DEFAULT_BUFFER_CAPACITY,
+        DEFAULT_ENQUEUE_TIMEOUT_MILLIS);
+  }
+
+  public AzureStorageQueueTestEventReportingService(
+      ObjectMapper mapper,
+      QueueAsyncClient queueClient,
+      int batchSize,
+      int bufferCapacity,
+      long enqueueTimeoutMillis) {
     this.mapper = mapper;
     this.queueClient = queueClient;
+    this.batchSize = Math.max(1, batchSize);
+    this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+    this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferCapacity));
+    this.dispatcher =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              var thread = new Thread(r, "test-event-reporting-dispatcher");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.dispatcher.execute(this::drainBuffer);
   }
 
   @Override
   public CompletableFuture<Void> reportAsync(TestEvent testEvent) {
     log.trace("Dispatching TestEvent [{}] to Azure storage queue", testEvent.getInternalId());
-    return queueClient.sendMessage(toBuffer(testEvent)).toFuture().thenApply(result -> null);
+    var message = new PendingMessage(toBuffer(testEvent));
+    enqueue(message);
+    return message.result;
   }
 
+  /**
+   * Stops the dispatcher and synchronously sends anything still sitting in the buffer, so that a
+   * graceful shutdown does not drop events that were already accepted.
+   */
   @Override
-  public void markTestEventsAsReported(Set<TestEvent> testEvents) {
-    var idsToComplete =
-        testEvents.stream()
-            .map(TestEvent::getInternalId)
-            .map(UUID::toString)
-            .collect(Collectors.toSet());
-
-    // This is a best effort cleanup that is only in place while migrating from a cron job to a
-    // queue worker. As such, we'll only poll the queue as many times as needed to see each
-    // outstanding message once on the assumption that no other worker is attempting to pull jobs
-    // from the queue. If any messages already have an open lease, they have most likely already
-    // been reported more than once to ReportStream.
-    final int maxAttempts =
-        (int) Math.ceil(((double) idsToComplete.size()) / MAX_QUEUE_MESSAGES_TO_RECEIVE);
-    for (int i = 0; i < maxAttempts; i++) {
-      var outstandingRequests = new ArrayList<CompletableFuture<Void>>();
-      for (var message : queueClient.receiveMessages(MAX_QUEUE_MESSAGES_TO_RECEIVE).toIterable()) {
-        String resultId;
-        try {
-          resultId = mapper.readTree(message.getMessageText()).get("Result_ID").asText();
-        } catch (IOException e) {
-          log.error("Unable to read queue message as JSON", e);
-          continue;
-        }
-
-        if (idsToComplete.contains(resultId)) {
-          outstandingRequests.add(
-              queueClient
-                  .deleteMessage(message.getMessageId(), message.getPopReceipt())
-                  .toFuture()
-                  .thenAccept(voidValue -> idsToComplete.remove(resultId))
-                  .exceptionally(
-                      t -> {
-                        log.warn("Unable to delete queue message concerning test [{}]", resultId);
-                        return null;
-                      }));
-        }
+  public void close() {
+    dispatcher.shutdownNow();
+    try {
+      if (!dispatcher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("Test event reporting dispatcher did not stop in time");
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
 
-      CompletableFuture.allOf(outstandingRequests.toArray(new CompletableFuture[0])).join();
+    var remaining = new ArrayList<PendingMessage>();
+    buffer.drainTo(remaining);
+    if (!remaining.isEmpty()) {
+      log.info("Flushing {} buffered test events before shutdown", remaining.size());
+      sendBatch(remaining);
     }
   }
 
+  private void enqueue(PendingMessage message) {
+    if (dispatcher.isShutdown()) {
+      message.result.completeExceptionally(
+          new RejectedExecutionException("Test event reporting has been shut down"));
+      return;
+    }
+
+    try {
+      if (!buffer.offer(message, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        message.result.completeExceptionally(
+            new RejectedExecutionException("Test event reporting buffer is full"));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      message.result.completeExceptionally(e);
+    }
+  }
+
+  private void drainBuffer() {
+    var batch = new ArrayList<PendingMessage>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(buffer.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      buffer.drainTo(batch, batchSize - 1);
+      log.trace("Sending batch of {} test events to Azure storage queue", batch.size());
+      sendBatch(batch);
+      batch.clear();
+    }
+  }
+
+  private void sendBatch(List<PendingMessage> batch) {
+    var sends = batch.stream().map(this::send).toArray(CompletableFuture[]::new);
+    // failures are reported through each message's own future: here we only wait for the batch
+    CompletableFuture.allOf(sends).exceptionally(t -> null).join();
+  }
+
+  private CompletableFuture<Void> send(PendingMessage message) {
+    CompletableFuture<Void> sent;
+    try {
+      sent = queueClient.sendMessage(message.payload).toFuture().thenApply(result -> null);
+    } catch (RuntimeException e) {
+      sent = CompletableFuture.failedFuture(e);
+    }
+
+    return sent.whenComplete(
+        (result, t) -> {
+          if (t == null) {
+            message.result.complete(null);
+          } else {
+            message.result.completeExceptionally(t);
+          }
+        });
+  }
+
   private String toBuffer(TestEvent testEvent) {
     try {
-      return mapper.writeValueAsString(new TestEventExport(testEvent));
+      return TestEventExportWriter.writeValueAsString(mapper.getFactory(), testEvent);
     } catch (IOException e) {
       throw new IllegalArgumentException("Failed to serialize test event", e);
     }
   }
+
+  private static final class PendingMessage {
+    private final String payload;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private PendingMessage(String payload) {
+      this.payload = payload;
+    }
+  }
 }
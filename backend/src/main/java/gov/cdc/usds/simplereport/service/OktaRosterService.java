@@ -0,0 +1,279 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.okta.sdk.resource.user.UserStatus;
+import gov.cdc.usds.simplereport.api.model.ApiUserWithStatus;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.OktaRoster;
+import gov.cdc.usds.simplereport.db.model.OktaRosterEntry;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.repository.OktaRosterEntryRepository;
+import gov.cdc.usds.simplereport.db.repository.OktaRosterRepository;
+import gov.cdc.usds.simplereport.idp.repository.OktaRepository;
+import gov.cdc.usds.simplereport.service.model.OrganizationRosterMember;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps a local snapshot of each organization's Okta users (their login, status, and what their
+ * groups grant them), so that listing an organization's users is a single database query instead of
+ * a walk through Okta's paged APIs.
+ *
+ * <p>Snapshots are built in the background, a few organizations at a time, and from then on are
+ * refreshed incrementally: each refresh asks Okta only for the users and groups that changed since
+ * the previous one. Changes that we make ourselves are written to the snapshot as we make them, so
+ * they show up straight away. Until an organization's snapshot has been built, its users are looked
+ * up in Okta as before.
+ *
+ * <p>A refresh talks to Okta outside of any transaction, and writes each organization's snapshot in
+ * a short transaction of its own, so one organization that fails to refresh holds up neither the
+ * others nor the rest of the application. Every entry is written with an upsert that keeps whatever
+ * was read from Okta most recently, so a refresh and our own changes can safely overlap.
+ */
+@Service
+@Slf4j
+public class OktaRosterService {
+
+  private final OktaRosterRepository _rosterRepo;
+  private final OktaRosterEntryRepository _entryRepo;
+  private final OktaRepository _oktaRepo;
+  private final TransactionTemplate _transactionTemplate;
+  private final int _batchSize;
+  private final Duration _clockSkew;
+  private final Duration _lease;
+
+  public OktaRosterService(
+      OktaRosterRepository rosterRepo,
+      OktaRosterEntryRepository entryRepo,
+      OktaRepository oktaRepo,
+      PlatformTransactionManager transactionManager,
+      @Value("${simple-report.okta-roster.batch-size:20}") int batchSize,
+      @Value("${simple-report.okta-roster.clock-skew:1m}") Duration clockSkew,
+      @Value("${simple-report.okta-roster.lease:30m}") Duration lease) {
+    _rosterRepo = rosterRepo;
+    _entryRepo = entryRepo;
+    _oktaRepo = oktaRepo;
+    _transactionTemplate = new TransactionTemplate(transactionManager);
+    _batchSize = batchSize;
+    _clockSkew = clockSkew;
+    _lease = lease;
+  }
+
+  /**
+   * The organization's (undeleted) users with their Okta status, in name order; empty if the
+   * organization's snapshot has not been built yet.
+   */
+  @Transactional(readOnly = true)
+  public Optional<List<ApiUserWithStatus>> getUsersWithStatus(Organization org) {
+    return _rosterRepo
+        .findByOrganization(org)
+        .map(
+            roster ->
+                _entryRepo.findUsersWithStatus(roster).stream()
+                    .map(row -> new ApiUserWithStatus((ApiUser) row[0], (UserStatus) row[1]))
+                    .collect(Collectors.toList()));
+  }
+
+  /**
+   * Record a user's current Okta status and claims (as returned by the change that was just made to
+   * them) in their organization's snapshot, if it has one.
+   */
+  @Transactional
+  public void recordMember(String username, OrganizationRoleClaims claims) {
+    Optional<OktaRoster> roster =
+        _rosterRepo.findByOrganizationExternalId(claims.getOrganizationExternalId());
+    if (roster.isEmpty()) {
+      return;
+    }
+    Date readAt = new Date();
+    fetchStatus(username)
+        .ifPresent(status -> _entryRepo.upsert(roster.get(), username, status, claims, readAt));
+  }
+
+  /** Record a user's current Okta status in any snapshot that they are in. */
+  @Transactional
+  public void recordMemberStatus(String username) {
+    if (_entryRepo.findAllByLoginEmail(username).isEmpty()) {
+      return;
+    }
+    Date readAt = new Date();
+    fetchStatus(username).ifPresent(status -> _entryRepo.updateStatus(username, status, readAt));
+  }
+
+  /** Record that a user's login has changed, in any snapshot that they are in. */
+  @Transactional
+  public void renameMember(String oldUsername, String newUsername) {
+    for (OktaRosterEntry entry : _entryRepo.findAllByLoginEmail(oldUsername)) {
+      // if a refresh has already written the new login, whichever was read from Okta last wins
+      _entryRepo.upsert(
+          entry.getRoster().getInternalId(),
+          newUsername,
+          entry.getStatus(),
+          entry.getRoles(),
+          entry.getFacilityIds(),
+          entry.getRefreshedAt());
+      _entryRepo.delete(entry);
+    }
+  }
+
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  private Optional<UserStatus> fetchStatus(String username) {
+    try {
+      return Optional.of(_oktaRepo.getUserStatus(username));
+    } catch (RuntimeException e) {
+      // the change has already been made in Okta, so the next refresh will pick it up
+      log.warn("Unable to fetch Okta status to update roster snapshots", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Bring the snapshots up to date with Okta, and build snapshots for a batch of the organizations
+   * that do not have one yet. Only one instance of the application does this at a time: a refresh
+   * claims the snapshots for the length of its lease, and the others return immediately while the
+   * claim lasts.
+   *
+   * @return the number of snapshots that were built or rebuilt from scratch
+   */
+  public int refreshRosters() {
+    return refreshRosters(Instant.now());
+  }
+
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  int refreshRosters(Instant now) {
+    Date claimedUntil = Date.from(now.plus(_lease));
+    Boolean claimed =
+        _transactionTemplate.execute(status -> claimRosters(Date.from(now), claimedUntil));
+    if (!Boolean.TRUE.equals(claimed)) {
+      return 0;
+    }
+    // a change that Okta records just before "now" may not be visible to us yet
+    Date syncedTo = Date.from(now.minus(_clockSkew));
+    Set<UUID> behind = new HashSet<>();
+    int rebuilt = 0;
+    try {
+      Date oldestSync = _rosterRepo.findOldestSync();
+      if (oldestSync != null) {
+        rebuilt += catchUp(oldestSync.toInstant(), behind);
+      }
+      rebuilt += buildNewRosters(syncedTo);
+    } catch (RuntimeException e) {
+      // nothing is marked as synced, so the next refresh starts from the same place
+      log.error("Unable to refresh Okta roster snapshots", e);
+      _transactionTemplate.executeWithoutResult(
+          status -> _rosterRepo.releaseRefreshClaims(claimedUntil));
+      return rebuilt;
+    }
+    // the rosters that fell behind are asked about the same changes again next time
+    _transactionTemplate.executeWithoutResult(
+        status -> {
+          behind.forEach(rosterId -> _rosterRepo.releaseRefreshClaim(rosterId, claimedUntil));
+          _rosterRepo.completeRefresh(syncedTo, claimedUntil);
+        });
+    return rebuilt;
+  }
+
+  private boolean claimRosters(Date now, Date claimedUntil) {
+    if (!_rosterRepo.tryRefreshLock()) {
+      log.debug("Okta roster refresh locked out by mutex: skipping");
+      return false;
+    }
+    if (_rosterRepo.existsByRefreshClaimedUntilAfter(now)) {
+      log.debug("Okta roster refresh already in progress: skipping");
+      return false;
+    }
+    _rosterRepo.claimAllForRefresh(claimedUntil);
+    return true;
+  }
+
+  /**
+   * Apply the changes made in Okta since the given time to the existing snapshots.
+   *
+   * @param behind collects the rosters that could not be brought up to date
+   * @return the number of snapshots that were rebuilt
+   */
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  private int catchUp(Instant since, Set<UUID> behind) {
+    Date readAt = new Date();
+    Map<String, UserStatus> statuses = _oktaRepo.getUserStatusesChangedSince(since);
+    Set<String> changedOrgs = _oktaRepo.getOrganizationsWithMembershipChangesSince(since);
+    if (!statuses.isEmpty()) {
+      _transactionTemplate.executeWithoutResult(
+          status ->
+              statuses.forEach(
+                  (username, userStatus) -> _entryRepo.updateStatus(username, userStatus, readAt)));
+    }
+    int rebuilt = 0;
+    for (String orgExternalId : changedOrgs) {
+      Optional<OktaRoster> roster = _rosterRepo.findByOrganizationExternalId(orgExternalId);
+      if (roster.isEmpty()) {
+        continue;
+      }
+      try {
+        rebuild(roster.get());
+        rebuilt++;
+      } catch (RuntimeException e) {
+        log.warn("Unable to refresh the Okta roster snapshot for {}", orgExternalId, e);
+        behind.add(roster.get().getInternalId());
+      }
+    }
+    log.info(
+        "Applied {} Okta user changes and {} group membership changes to roster snapshots",
+        statuses.size(),
+        changedOrgs.size());
+    return rebuilt;
+  }
+
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  private int buildNewRosters(Date syncedTo) {
+    int built = 0;
+    for (Organization org :
+        _rosterRepo.findOrganizationsWithoutRoster(PageRequest.of(0, _batchSize))) {
+      try {
+        Date readAt = new Date();
+        List<OrganizationRosterMember> members = _oktaRepo.getOrganizationRoster(org);
+        _transactionTemplate.executeWithoutResult(
+            status ->
+                writeEntries(_rosterRepo.save(new OktaRoster(org, syncedTo)), members, readAt));
+        built++;
+      } catch (RuntimeException e) {
+        // the organization is tried again in the next refresh
+        log.warn("Unable to build the Okta roster snapshot for {}", org.getExternalId(), e);
+      }
+    }
+    return built;
+  }
+
+  /** Replace the entries of the snapshot with what Okta currently has for the organization. */
+  private void rebuild(OktaRoster roster) {
+    Date readAt = new Date();
+    List<OrganizationRosterMember> members =
+        _oktaRepo.getOrganizationRoster(roster.getOrganization());
+    _transactionTemplate.executeWithoutResult(status -> writeEntries(roster, members, readAt));
+  }
+
+  private void writeEntries(
+      OktaRoster roster, List<OrganizationRosterMember> members, Date readAt) {
+    members.forEach(
+        member ->
+            _entryRepo.upsert(
+                roster, member.getUsername(), member.getStatus(), member.getClaims(), readAt));
+    // anyone written neither above nor by one of our own changes since has left the organization
+    _entryRepo.deleteRefreshedBefore(roster, readAt);
+  }
+}
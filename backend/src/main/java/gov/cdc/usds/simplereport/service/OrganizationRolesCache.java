@@ -0,0 +1,138 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.repository.FacilityRepository;
+import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cross-request cache of the {@link OrganizationRoles} resolved for a set of role claims.
+ *
+ * <p>Only the <em>membership</em> (organization id, accessible facility ids and granted roles) is
+ * cached, never the entities themselves: on a hit, the organization is handed back as a reference
+ * bound to the current persistence context, and the facilities are loaded in a single query that
+ * skips any that have been deleted since the entry was cached. Anything that reads entity fields
+ * therefore sees current data, and the cache only needs to be invalidated when the set of
+ * facilities visible to a claim can grow (facilities or organizations being created); other
+ * instances of the application pick those changes up when the entry expires.
+ */
+@Component
+@Slf4j
+public class OrganizationRolesCache {
+
+  private final EntityManager entityManager;
+  private final FacilityRepository facilityRepository;
+  private final Cache<List<OrganizationRoleClaims>, CachedRoles> cache;
+
+  public OrganizationRolesCache(
+      EntityManager entityManager,
+      FacilityRepository facilityRepository,
+      MeterRegistry meterRegistry,
+      @Value("${simple-report.organization-roles-cache.ttl:60s}") Duration ttl,
+      @Value("${simple-report.organization-roles-cache.maximum-size:10000}") long maximumSize) {
+    this.entityManager = entityManager;
+    this.facilityRepository = facilityRepository;
+    if (ttl.isZero() || ttl.isNegative()) {
+      log.info("Organization roles cache is disabled");
+      this.cache = null;
+    } else {
+      this.cache =
+          Caffeine.newBuilder()
+              .expireAfterWrite(ttl)
+              .maximumSize(maximumSize)
+              .recordStats()
+              .build();
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, "organizationRoles");
+    }
+  }
+
+  /**
+   * Get the roles for the supplied claims, calling {@code loader} (and remembering its result) if
+   * they are not already cached. Empty results are not cached, so that a user whose organization
+   * does not exist yet is not locked out until the entry expires.
+   */
+  public Optional<OrganizationRoles> get(
+      List<OrganizationRoleClaims> claims, Supplier<Optional<OrganizationRoles>> loader) {
+    if (cache == null) {
+      return loader.get();
+    }
+    CachedRoles cached = cache.getIfPresent(claims);
+    if (cached != null) {
+      return Optional.of(cached.toOrganizationRoles(entityManager, facilityRepository));
+    }
+    Optional<OrganizationRoles> loaded = loader.get();
+    loaded.ifPresent(roles -> cache.put(List.copyOf(claims), new CachedRoles(roles)));
+    return loaded;
+  }
+
+  /** Discard every cached entry. */
+  public void invalidateAll() {
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * Discard every cached entry once the current transaction has committed (or right away, if there
+   * is none). Invalidating any earlier would let a concurrent request reload the roles before the
+   * change is visible to it, and cache them without the change until the entry expires.
+   */
+  public void invalidateAllAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidateAll();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            invalidateAll();
+          }
+        });
+  }
+
+  private static final class CachedRoles {
+    private final UUID organizationId;
+    private final Set<UUID> facilityIds;
+    private final Set<OrganizationRole> roles;
+
+    private CachedRoles(OrganizationRoles resolved) {
+      organizationId = resolved.getOrganization().getInternalId();
+      facilityIds =
+          resolved.getFacilities().stream()
+              .map(Facility::getInternalId)
+              .collect(Collectors.toUnmodifiableSet());
+      roles = EnumSet.copyOf(resolved.getGrantedRoles());
+    }
+
+    private OrganizationRoles toOrganizationRoles(
+        EntityManager entityManager, FacilityRepository facilityRepository) {
+      Organization organization = entityManager.getReference(Organization.class, organizationId);
+      Set<Facility> facilities =
+          facilityIds.isEmpty()
+              ? Set.of()
+              : facilityRepository.findAllByOrganizationAndInternalId(organization, facilityIds);
+      return new OrganizationRoles(organization, facilities, roles);
+    }
+  }
+}
@@ -45,6 +45,7 @@ public class OrganizationService {
   private final OrderingProviderRequiredValidator orderingProviderValidator;
   private final PatientSelfRegistrationLinkService patientSelfRegistrationLinkService;
   private final DeviceTypeRepository deviceTypeRepository;
+  private final OrganizationRolesCache organizationRolesCache;
 
   public void resetOrganizationRolesContext() {
     organizationRolesContext.reset();
@@ -61,6 +62,11 @@ public class OrganizationService {
 
   private Optional<OrganizationRoles> fetchCurrentOrganizationRoles() {
     List<OrganizationRoleClaims> orgRoles = authorizationService.findAllOrganizationRoles();
+    return organizationRolesCache.get(orgRoles, () -> fetchOrganizationRoles(orgRoles));
+  }
+
+  private Optional<OrganizationRoles> fetchOrganizationRoles(
+      List<OrganizationRoleClaims> orgRoles) {
     List<String> candidateExternalIds =
         orgRoles.stream()
             .map(OrganizationRoleClaims::getOrganizationExternalId)
@@ -98,7 +104,8 @@ public class OrganizationService {
    */
   public Organization getCurrentOrganizationNoCache() {
     OrganizationRoles orgRole =
-        fetchCurrentOrganizationRoles().orElseThrow(MisconfiguredUserException::new);
+        fetchOrganizationRoles(authorizationService.findAllOrganizationRoles())
+            .orElseThrow(MisconfiguredUserException::new);
     return orgRole.getOrganization();
   }
 
@@ -259,6 +266,7 @@ public class OrganizationService {
   public Organization createOrganization(String name, String type, String externalId) {
     // for now, all new organizations have identity_verified = false by default
     Organization org = organizationRepository.save(new Organization(name, type, externalId, false));
+    organizationRolesCache.invalidateAllAfterCommit();
     oktaRepository.createOrganization(org);
     patientSelfRegistrationLinkService.createRegistrationLink(org);
     return org;
@@ -344,6 +352,7 @@ public class OrganizationService {
             orderingProvider,
             configuredDevices);
     facility = facilityRepository.save(facility);
+    organizationRolesCache.invalidateAllAfterCommit();
     patientSelfRegistrationLinkService.createRegistrationLink(facility);
     oktaRepository.createFacility(facility);
     return facility;
@@ -385,6 +394,7 @@ public class OrganizationService {
     }
     Facility facility = optionalFacility.get();
     facility.setIsDeleted(deleted);
+    organizationRolesCache.invalidateAllAfterCommit();
     return facilityRepository.save(facility);
   }
 }
@@ -13,8 +13,11 @@ import gov.cdc.usds.simplereport.db.repository.PatientLinkRepository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -63,42 +66,53 @@ public class PatientLinkService {
     return plrepo.save(pl);
   }
 
+  /**
+   * Check the birth date given for a patient link against the linked patient's, keeping count of
+   * failed attempts so that a link can be locked out. On success, the link, order, and patient are
+   * put in the request's {@link CurrentPatientContextHolder} for the rest of the request to use.
+   *
+   * <p>This runs before every patient experience request, so it loads everything it needs (and
+   * everything those requests need) in a single query, and only writes the count of failed attempts
+   * when it changes.
+   */
   public boolean verifyPatientLink(UUID internalId, LocalDate birthDate)
       throws ExpiredPatientLinkException {
-    try {
-      PatientLink patientLink = getPatientLink(internalId);
-      log.trace("Found a patient link for id={}", internalId);
-
-      PatientLinkFailedAttempt patientLinkFailedAttempt =
-          plfarepo
-              .findById(patientLink.getInternalId())
-              .orElse(new PatientLinkFailedAttempt(patientLink));
-      if (patientLinkFailedAttempt.isLockedOut()) {
+    Optional<Object[]> found = plrepo.findForVerification(internalId).stream().findFirst();
+    if (found.isEmpty()) {
+      // patient link id was invalid
+      return false;
+    }
+    PatientLink patientLink = (PatientLink) found.get()[0];
+    log.trace("Found a patient link for id={}", internalId);
+
+    PatientLinkFailedAttempt patientLinkFailedAttempt = (PatientLinkFailedAttempt) found.get()[1];
+    if (patientLinkFailedAttempt == null) {
+      patientLinkFailedAttempt = new PatientLinkFailedAttempt(patientLink);
+    }
+    if (patientLinkFailedAttempt.isLockedOut()) {
+      throw new ExpiredPatientLinkException();
+    }
+
+    TestOrder testOrder = patientLink.getTestOrder();
+    Person patient = testOrder.getPatient();
+
+    if (patient.getBirthDate().equals(birthDate)) {
+      log.trace("Successfully authenticated patient {}", patient.getInternalId());
+      contextHolder.setContext(patientLink, testOrder, patient);
+      if (patientLink.isExpired()) {
+        log.trace("Link is expired!");
         throw new ExpiredPatientLinkException();
       }
-
-      TestOrder testOrder = patientLink.getTestOrder();
-      Person patient = testOrder.getPatient();
-
-      if (patient.getBirthDate().equals(birthDate)) {
-        log.trace("Successfully authenticated patient {}", patient.getInternalId());
-        contextHolder.setContext(patientLink, testOrder, patient);
-        if (patientLink.isExpired()) {
-          log.trace("Link is expired!");
-          throw new ExpiredPatientLinkException();
-        }
-        patientLinkFailedAttempt.resetFailedAttempts();
+      if (patientLinkFailedAttempt.resetFailedAttempts()) {
         plfarepo.save(patientLinkFailedAttempt);
-        return true;
       }
+      return true;
+    }
 
-      patientLinkFailedAttempt.addFailedAttempt();
+    if (patientLinkFailedAttempt.addFailedAttempt()) {
       plfarepo.save(patientLinkFailedAttempt);
-      return false;
-    } catch (InvalidPatientLinkException e) {
-      // patient link id was invalid
-      return false;
     }
+    return false;
   }
 
   public PatientLink createPatientLink(UUID testOrderUuid) {
@@ -106,4 +120,11 @@ public class PatientLinkService {
     PatientLink pl = new PatientLink(to);
     return plrepo.save(pl);
   }
+
+  public List<PatientLink> createPatientLinks(Collection<TestOrder> testOrders) {
+    List<PatientLink> links =
+        testOrders.stream().map(PatientLink::new).collect(Collectors.toList());
+    plrepo.saveAll(links);
+    return links;
+  }
 }
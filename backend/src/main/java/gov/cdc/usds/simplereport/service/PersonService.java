@@ -13,10 +13,14 @@ import gov.cdc.usds.simplereport.db.model.PhoneNumber;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
+import gov.cdc.usds.simplereport.db.repository.LimitedSpecificationQuery;
+import gov.cdc.usds.simplereport.db.repository.PersonNameSearchQuery;
 import gov.cdc.usds.simplereport.db.repository.PersonRepository;
 import gov.cdc.usds.simplereport.db.repository.PhoneNumberRepository;
+import gov.cdc.usds.simplereport.service.model.PersonPageKey;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -24,8 +28,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.validation.constraints.Size;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -40,6 +47,8 @@ public class PersonService {
   private final OrganizationService _os;
   private final PersonRepository _repo;
   private final PhoneNumberRepository _phoneRepo;
+  private final LimitedSpecificationQuery _limitedQuery;
+  private final PersonNameSearchQuery _nameSearch;
 
   public static final int DEFAULT_PAGINATION_PAGEOFFSET = 0;
   public static final int DEFAULT_PAGINATION_PAGESIZE = 5000; // this is high because the searchBar
@@ -47,16 +56,22 @@ public class PersonService {
 
   private static final Sort NAME_SORT =
       Sort.by("nameInfo.lastName", "nameInfo.firstName", "nameInfo.middleName", "nameInfo.suffix");
+  private static final Sort NAME_KEYSET_SORT =
+      Sort.by("nameInfo.lastName", "nameInfo.firstName", "internalId");
 
   public PersonService(
       OrganizationService os,
       PersonRepository repo,
       CurrentPatientContextHolder patientContext,
-      PhoneNumberRepository phoneRepo) {
+      PhoneNumberRepository phoneRepo,
+      LimitedSpecificationQuery limitedQuery,
+      PersonNameSearchQuery nameSearch) {
     _patientContext = patientContext;
     _os = os;
     _repo = repo;
     _phoneRepo = phoneRepo;
+    _limitedQuery = limitedQuery;
+    _nameSearch = nameSearch;
   }
 
   private void updatePersonFacility(Person person, UUID facilityId) {
@@ -194,6 +209,77 @@ public class PersonService {
         PageRequest.of(pageOffset, pageSize, NAME_SORT));
   }
 
+  /**
+   * Keyset-paged counterpart of {@link #getPatients}: returns up to {@code limit} patients, ordered
+   * by last name, first name and id, starting immediately after the patient identified by {@code
+   * after} (or at the start of the list if it is null). Unlike OFFSET paging, the cost of a page
+   * does not depend on how deep into the list it is.
+   */
+  @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
+  public List<Person> getPatientsAfter(
+      UUID facilityId, boolean isArchived, String namePrefixMatch, PersonPageKey after, int limit) {
+    if (namePrefixMatch != null && namePrefixMatch.trim().length() < MINIMUM_CHAR_FOR_SEARCH) {
+      return List.of(); // empty list
+    }
+
+    Specification<Person> filter = buildPersonSearchFilter(facilityId, isArchived, namePrefixMatch);
+    if (after != null) {
+      filter = filter.and(patientsAfter(after));
+    }
+    return _limitedQuery.findAll(Person.class, filter, NAME_KEYSET_SORT, limit);
+  }
+
+  // Postgres sorts nulls last in ascending order, so a null first name comes after any other
+  private static Specification<Person> patientsAfter(PersonPageKey key) {
+    return (root, query, cb) -> {
+      Path<String> lastName = root.get(SpecField.PERSON_NAME).get(SpecField.LAST_NAME);
+      Path<String> firstName = root.get(SpecField.PERSON_NAME).get(SpecField.FIRST_NAME);
+      Predicate idAfter = cb.greaterThan(root.get(SpecField.INTERNAL_ID), key.getInternalId());
+      Predicate firstNameAfter =
+          key.getFirstName() == null
+              ? cb.and(cb.isNull(firstName), idAfter)
+              : cb.or(
+                  cb.greaterThan(firstName, key.getFirstName()),
+                  cb.isNull(firstName),
+                  cb.and(cb.equal(firstName, key.getFirstName()), idAfter));
+      return cb.or(
+          cb.greaterThan(lastName, key.getLastName()),
+          cb.and(cb.equal(lastName, key.getLastName()), firstNameAfter));
+    };
+  }
+
+  /**
+   * Find patients by name for a search box: every word of {@code namePrefixMatch} must be the start
+   * of one of the patient's names, and the best matches come first. Unlike {@link #getPatients},
+   * this is served by an index on patient names rather than a scan of the whole organization.
+   *
+   * @param facilityId If null, then it means all facilities the user can access
+   * @param isArchived true will ONLY show deleted patients
+   * @param namePrefixMatch the search; fewer than {@value #MINIMUM_CHAR_FOR_SEARCH} characters
+   *     finds nothing
+   * @param limit the maximum number of patients to return
+   */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
+  public List<Person> searchPatients(
+      UUID facilityId, boolean isArchived, String namePrefixMatch, int limit) {
+    if (namePrefixMatch == null || namePrefixMatch.trim().length() < MINIMUM_CHAR_FOR_SEARCH) {
+      return List.of();
+    }
+    List<String> terms =
+        Arrays.stream(namePrefixMatch.toLowerCase().split("[ ,]"))
+            .filter(term -> !term.isEmpty())
+            .collect(Collectors.toList());
+    Set<UUID> facilityIds =
+        facilityId == null
+            ? _os.getAccessibleFacilities().stream()
+                .map(Facility::getInternalId)
+                .collect(Collectors.toSet())
+            : Set.of(facilityId);
+    return _nameSearch.search(
+        _os.getCurrentOrganization().getInternalId(), facilityIds, isArchived, terms, limit);
+  }
+
   public boolean isDuplicatePatient(
       String firstName,
       String lastName,
@@ -208,6 +294,30 @@ public class PersonService {
     return !patients.isEmpty();
   }
 
+  /**
+   * Bulk counterpart of {@link #isDuplicatePatient}: fetches every patient in the organization
+   * (including archived ones) whose birth date and last name appear in the supplied collections, so
+   * that a batch of new patients can be checked for duplicates with a single query. Callers are
+   * expected to do the exact matching themselves.
+   */
+  public List<Person> getPotentialDuplicatePatients(
+      Organization org, Collection<LocalDate> birthDates, Collection<String> lastNames) {
+    if (birthDates.isEmpty() || lastNames.isEmpty()) {
+      return List.of();
+    }
+    Set<String> lowerLastNames =
+        lastNames.stream().map(String::toLowerCase).collect(Collectors.toSet());
+    Specification<Person> filter =
+        inOrganizationFilter(org.getInternalId())
+            .and(
+                (root, query, cb) ->
+                    cb.and(
+                        root.get(SpecField.BIRTH_DATE).in(birthDates),
+                        cb.lower(root.get(SpecField.PERSON_NAME).get(SpecField.LAST_NAME))
+                            .in(lowerLastNames)));
+    return _repo.findAll(filter, Pageable.unpaged());
+  }
+
   @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
   public long getPatientsCount(UUID facilityId, boolean isArchived, String namePrefixMatch) {
     if (namePrefixMatch != null && namePrefixMatch.trim().length() < MINIMUM_CHAR_FOR_SEARCH) {
@@ -225,6 +335,11 @@ public class PersonService {
     return getPatientNoPermissionsCheck(id, org, false);
   }
 
+  // NO PERMISSION CHECK (make sure the caller has one!) Patients that are not found are omitted.
+  public List<Person> getPatientsNoPermissionsCheck(Collection<UUID> ids, Organization org) {
+    return _repo.findAllByOrganizationAndInternalIdIn(org, ids);
+  }
+
   public Person getPatientNoPermissionsCheck(UUID id, Organization org, boolean showIsDeleted) {
     return _repo
         .findByIdAndOrganization(id, org, showIsDeleted)
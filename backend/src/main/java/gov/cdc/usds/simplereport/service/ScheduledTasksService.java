@@ -1,5 +1,6 @@
 package gov.cdc.usds.simplereport.service;
 
+import java.time.Duration;
 import java.util.TimeZone;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.task.TaskSchedulerBuilder;
@@ -15,10 +16,23 @@ public class ScheduledTasksService {
 
   private final TaskScheduler _scheduler;
   private final ReminderService _reminderService;
+  private final TestEventOutboxService _testEventOutboxService;
+  private final AuditEventRetentionService _auditEventRetentionService;
+  private final TestResultNotificationDispatcher _notificationDispatcher;
+  private final OktaRosterService _oktaRosterService;
 
   public ScheduledTasksService(
-      ReminderService reminderService, TaskSchedulerBuilder schedulerBuilder) {
+      ReminderService reminderService,
+      TestEventOutboxService testEventOutboxService,
+      AuditEventRetentionService auditEventRetentionService,
+      TestResultNotificationDispatcher notificationDispatcher,
+      OktaRosterService oktaRosterService,
+      TaskSchedulerBuilder schedulerBuilder) {
     _reminderService = reminderService;
+    _testEventOutboxService = testEventOutboxService;
+    _auditEventRetentionService = auditEventRetentionService;
+    _notificationDispatcher = notificationDispatcher;
+    _oktaRosterService = oktaRosterService;
     ThreadPoolTaskScheduler scheduler = schedulerBuilder.build();
     scheduler.initialize();
     _scheduler = scheduler;
@@ -33,4 +47,30 @@ public class ScheduledTasksService {
     Trigger cronTrigger = new CronTrigger(cronScheduleDefinition, tz);
     _scheduler.schedule(_reminderService::sendAccountReminderEmails, cronTrigger);
   }
+
+  public void scheduleTestEventOutboxRelay(Duration interval) {
+    log.info("Scheduling test event outbox relay to run every {}", interval);
+    _scheduler.scheduleWithFixedDelay(_testEventOutboxService::relayPendingEvents, interval);
+  }
+
+  public void scheduleAuditEventPartitionMaintenance(
+      String cronScheduleDefinition, String tzString) {
+    TimeZone tz = TimeZone.getTimeZone(tzString);
+    log.info(
+        "Scheduling audit event partition maintenance to run on cron schedule '{}' in time zone {}",
+        cronScheduleDefinition,
+        tz.getID());
+    Trigger cronTrigger = new CronTrigger(cronScheduleDefinition, tz);
+    _scheduler.schedule(_auditEventRetentionService::maintainPartitions, cronTrigger);
+  }
+
+  public void scheduleTestResultNotificationDispatch(Duration interval) {
+    log.info("Scheduling test result notification dispatch to run every {}", interval);
+    _scheduler.scheduleWithFixedDelay(_notificationDispatcher::requestDispatch, interval);
+  }
+
+  public void scheduleOktaRosterRefresh(Duration interval) {
+    log.info("Scheduling Okta roster refresh to run every {}", interval);
+    _scheduler.scheduleWithFixedDelay(_oktaRosterService::refreshRosters, interval);
+  }
 }
@@ -0,0 +1,120 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestEventOutboxEntry;
+import gov.cdc.usds.simplereport.db.repository.TestEventOutboxRepository;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Transactional outbox for test event reporting. Request transactions only write an outbox row next
+ * to the {@link TestEvent}; a background relay (see {@link ScheduledTasksService}) later hands
+ * pending rows to the {@link TestEventReportingService} in batches. An event is therefore reported
+ * if and only if its transaction committed, and no queue I/O happens while a request holds a
+ * connection.
+ */
+@Service
+@Slf4j
+public class TestEventOutboxService {
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final TestEventOutboxRepository _repo;
+  private final TestEventReportingService _reportingService;
+  private final int _batchSize;
+  private final int _maxAttempts;
+
+  public TestEventOutboxService(
+      TestEventOutboxRepository repo,
+      TestEventReportingService reportingService,
+      @Value("${simple-report.test-event-outbox.batch-size:100}") int batchSize,
+      @Value("${simple-report.test-event-outbox.max-attempts:10}") int maxAttempts) {
+    _repo = repo;
+    _reportingService = reportingService;
+    _batchSize = batchSize;
+    _maxAttempts = maxAttempts;
+  }
+
+  /** Record that the supplied event needs to be reported once the current transaction commits. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(TestEvent testEvent) {
+    _repo.save(new TestEventOutboxEntry(testEvent));
+  }
+
+  /** Record that all of the supplied events need to be reported, as {@link #enqueue} does. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueueAll(Collection<TestEvent> testEvents) {
+    _repo.saveAll(testEvents.stream().map(TestEventOutboxEntry::new).collect(Collectors.toList()));
+  }
+
+  /**
+   * Report the oldest batch of pending events. Only one instance of the application relays at a
+   * time: the others fail to take the advisory lock and return immediately.
+   *
+   * @return the number of events that were successfully reported
+   */
+  @Transactional
+  public int relayPendingEvents() {
+    if (!_repo.tryRelayLock()) {
+      log.debug("Test event outbox relay locked out by mutex: skipping");
+      return 0;
+    }
+
+    int exhausted = _repo.deadLetterExhausted(_maxAttempts);
+    if (exhausted > 0) {
+      log.warn("Dead-lettered {} test events that had already been tried too often", exhausted);
+    }
+    List<TestEventOutboxEntry> pending =
+        _repo.findPending(_maxAttempts, PageRequest.of(0, _batchSize));
+    if (pending.isEmpty()) {
+      return 0;
+    }
+
+    Map<TestEventOutboxEntry, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+    for (TestEventOutboxEntry entry : pending) {
+      CompletableFuture<Void> send;
+      try {
+        send = _reportingService.reportAsync(entry.getTestEvent());
+      } catch (RuntimeException e) {
+        send = CompletableFuture.failedFuture(e);
+      }
+      sends.put(entry, send);
+    }
+
+    int reported = 0;
+    for (var send : sends.entrySet()) {
+      TestEventOutboxEntry entry = send.getKey();
+      try {
+        send.getValue().join();
+        entry.markReported();
+        reported++;
+      } catch (CompletionException | CancellationException e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        log.warn(
+            "Unable to report TestEvent [{}] (attempt {})",
+            entry.getTestEvent().getInternalId(),
+            entry.getAttempts() + 1,
+            cause);
+        entry.markFailed(truncate(String.valueOf(cause)), _maxAttempts);
+      }
+    }
+
+    log.info("Relayed {} of {} pending test events", reported, pending.size());
+    return reported;
+  }
+
+  private static String truncate(String error) {
+    return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+  }
+}
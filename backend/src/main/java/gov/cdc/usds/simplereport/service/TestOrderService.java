@@ -1,50 +1,76 @@
 package gov.cdc.usds.simplereport.service;
 
-import com.twilio.exception.ApiException;
-import com.twilio.exception.TwilioException;
+import static gov.cdc.usds.simplereport.api.Translators.parseSymptoms;
+
+import gov.cdc.usds.simplereport.api.model.AddPatientToQueueInput;
+import gov.cdc.usds.simplereport.api.model.AddPatientToQueueResult;
+import gov.cdc.usds.simplereport.api.model.AddTestResultInput;
+import gov.cdc.usds.simplereport.api.model.AddTestResultOutcome;
 import gov.cdc.usds.simplereport.api.model.AddTestResultResponse;
 import gov.cdc.usds.simplereport.api.model.AggregateFacilityMetrics;
 import gov.cdc.usds.simplereport.api.model.OrganizationLevelDashboardMetrics;
+import gov.cdc.usds.simplereport.api.model.TestEventExport;
 import gov.cdc.usds.simplereport.api.model.TopLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
 import gov.cdc.usds.simplereport.db.model.AuditedEntity_;
 import gov.cdc.usds.simplereport.db.model.BaseTestInfo_;
 import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
+import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType_;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.PatientAnswers;
-import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.Person_;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestEvent_;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
 import gov.cdc.usds.simplereport.db.model.TestOrder_;
+import gov.cdc.usds.simplereport.db.model.TestResultDailyRollup;
 import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
+import gov.cdc.usds.simplereport.db.model.auxiliary.FacilityTestResultWithCount;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
-import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
-import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultWithCount;
 import gov.cdc.usds.simplereport.db.repository.AdvisoryLockManager;
+import gov.cdc.usds.simplereport.db.repository.LimitedSpecificationQuery;
 import gov.cdc.usds.simplereport.db.repository.PatientAnswersRepository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
+import gov.cdc.usds.simplereport.db.repository.TestResultDailyRollupRepository;
+import gov.cdc.usds.simplereport.service.model.TestEventPageKey;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import javax.persistence.criteria.Fetch;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -64,16 +90,33 @@ public class TestOrderService {
   private final TestOrderRepository _repo;
   private final PatientAnswersRepository _parepo;
   private final TestEventRepository _terepo;
+  private final TestResultDailyRollupRepository _rollupRepo;
+  private final LimitedSpecificationQuery _limitedQuery;
   private final PatientLinkService _pls;
-  private final TestEventReportingService _testEventReportingService;
+  private final TestEventOutboxService _testEventOutboxService;
   private final FacilityDeviceTypeService _facilityDeviceTypeService;
-  private final TestResultsDeliveryService testResultsDeliveryService;
+  private final TestResultNotificationDispatcher _notificationDispatcher;
 
   public static final int DEFAULT_PAGINATION_PAGEOFFSET = 0;
   public static final int DEFAULT_PAGINATION_PAGESIZE = 5000;
 
   public static final String MISSING_ARG = "Must provide either facility ID or patient ID";
 
+  private static final String NO_SUCH_ORDER = "No active test order was found for that patient";
+  private static final String ORDER_LOCKED =
+      "Someone else is currently modifying this test result.";
+  private static final String MULTIPLE_QUEUE_ENTRIES =
+      "Cannot create multiple queue entries for the same patient";
+  private static final String INCOMPATIBLE_FACILITY =
+      "Cannot add patient to this queue: patient's facility and/or organization "
+          + "are incompatible with facility of queue";
+
+  private static final Sort TEST_EVENT_KEYSET_SORT =
+      Sort.by(Sort.Direction.DESC, "createdAt", "internalId");
+
+  // Rows read per round trip by result exports; also how often the persistence context is cleared
+  private static final int EXPORT_FETCH_SIZE = 500;
+
   @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
   public List<TestOrder> getQueue(UUID facilityId) {
     Facility fac = _os.getFacilityInCurrentOrg(facilityId);
@@ -164,6 +207,82 @@ public class TestOrderService {
         .toList();
   }
 
+  /**
+   * Keyset-paged counterpart of {@link #getTestEventsResults}: returns up to {@code limit} results,
+   * newest first, starting immediately after the result identified by {@code after} (or at the
+   * start of the list if it is null). Unlike OFFSET paging, the cost of a page does not depend on
+   * how deep into the list it is.
+   */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionReadResultListAtFacility
+  public List<TestEvent> getTestEventsResultsAfter(
+      UUID facilityId,
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      Date startDate,
+      Date endDate,
+      TestEventPageKey after,
+      int limit) {
+    Specification<TestEvent> filter =
+        buildTestEventSearchFilter(facilityId, patientId, result, role, startDate, endDate);
+    if (after != null) {
+      filter = filter.and(testEventsAfter(after));
+    }
+    return _limitedQuery.findAll(TestEvent.class, filter, TEST_EVENT_KEYSET_SORT, limit);
+  }
+
+  private static Specification<TestEvent> testEventsAfter(TestEventPageKey key) {
+    Date createdAt = Timestamp.from(key.getCreatedAt());
+    return (root, query, cb) ->
+        cb.or(
+            cb.lessThan(root.get(AuditedEntity_.createdAt), createdAt),
+            cb.and(
+                cb.equal(root.get(AuditedEntity_.createdAt), createdAt),
+                cb.lessThan(root.get(AuditedEntity_.internalId), key.getInternalId())));
+  }
+
+  /**
+   * Passes every result matching the same filters as {@link #getTestEventsResults} to <code>action
+   * </code>, newest first, reading them from the database a batch at a time. Each event is detached
+   * once its batch has been processed, so <code>action</code> must finish with it before returning.
+   *
+   * <p>Exports are streamed off the request thread, where the permission checks cannot run, so the
+   * caller must check {@link AuthorizationConfiguration.RequirePermissionReadResultListAtFacility}
+   * itself before calling this, and pass in the current organization: only its results are
+   * exported, whatever the other filters say.
+   */
+  @Transactional(readOnly = true)
+  public void exportTestEventsResultsNoPermissionsCheck(
+      Organization org,
+      UUID facilityId,
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      Date startDate,
+      Date endDate,
+      Consumer<TestEvent> action) {
+    Specification<TestEvent> filter =
+        buildTestEventSearchFilter(facilityId, patientId, result, role, startDate, endDate)
+            .and((root, query, cb) -> cb.equal(root.get(BaseTestInfo_.organization), org))
+            .and(fetchExportAssociations());
+    _limitedQuery.forEach(
+        TestEvent.class, filter, TEST_EVENT_KEYSET_SORT, EXPORT_FETCH_SIZE, action);
+  }
+
+  /** Join-fetch everything {@link TestEventExport} reads, so exports don't query once per row. */
+  private static Specification<TestEvent> fetchExportAssociations() {
+    return (root, query, cb) -> {
+      root.fetch(BaseTestInfo_.facility);
+      root.fetch(BaseTestInfo_.organization);
+      Fetch<TestEvent, DeviceSpecimenType> deviceSpecimen =
+          root.fetch(BaseTestInfo_.deviceSpecimen);
+      deviceSpecimen.fetch(DeviceSpecimenType_.deviceType);
+      deviceSpecimen.fetch(DeviceSpecimenType_.specimenType);
+      return null;
+    };
+  }
+
   @Transactional(readOnly = true)
   public int getTestResultsCount(
       UUID facilityId,
@@ -236,7 +355,7 @@ public class TestOrderService {
   }
 
   @AuthorizationConfiguration.RequirePermissionSubmitTestForPatient
-  @Transactional(noRollbackFor = {TwilioException.class, ApiException.class})
+  @Transactional
   public AddTestResultResponse addTestResult(
       UUID deviceSpecimenTypeId, TestResult result, UUID patientId, Date dateTested) {
     Organization org = _os.getCurrentOrganization();
@@ -260,45 +379,131 @@ public class TestOrderService {
       order.setTestEventRef(testEvent);
       TestOrder savedOrder = _repo.save(order);
 
-      _testEventReportingService.report(testEvent);
-      ArrayList<Boolean> deliveryStatuses = new ArrayList<>();
-
-      PatientLink patientLink = _pls.createPatientLink(savedOrder.getInternalId());
-      if (patientHasDeliveryPreference(savedOrder)) {
+      _testEventOutboxService.enqueue(testEvent);
+      // results are sent once this commits, so there is no delivery status to report yet
+      _notificationDispatcher.enqueue(List.of(_pls.createPatientLink(savedOrder.getInternalId())));
+      return new AddTestResultResponse(savedOrder);
+    } finally {
+      unlockOrder(order.getInternalId());
+    }
+  }
 
-        if (smsDeliveryPreference(savedOrder) || smsAndEmailDeliveryPreference(savedOrder)) {
-          boolean smsDeliveryStatus = testResultsDeliveryService.smsTestResults(patientLink);
-          deliveryStatuses.add(smsDeliveryStatus);
-        }
+  /**
+   * Record many results at once, for the patients in a facility's queue. The queue entries, the
+   * device types and whether each patient has been tested before are all looked up in bulk, and the
+   * test events and orders are saved in JDBC batches. Each order is locked without waiting: any
+   * result whose order is locked by someone else is not recorded.
+   *
+   * <p>Reporting goes through the test event outbox as usual, and patients are notified of their
+   * results in the background after the results are committed, so the outcome does not say whether
+   * the notifications were delivered. A result that cannot be recorded does not stop the others.
+   *
+   * @return the outcome for each result, in the order the results were given
+   */
+  @AuthorizationConfiguration.RequirePermissionSubmitTestAtFacility
+  public List<AddTestResultOutcome> addTestResults(
+      UUID facilityId, List<AddTestResultInput> results) {
+    Organization org = _os.getCurrentOrganization();
+    Facility facility = _os.getFacilityInCurrentOrg(facilityId);
+    Set<UUID> patientIds =
+        results.stream().map(AddTestResultInput::getPatientId).collect(Collectors.toSet());
+    Map<UUID, TestOrder> ordersByPatientId =
+        _repo.fetchQueueItemsForPatientIds(org, facility, patientIds).stream()
+            .collect(Collectors.toMap(o -> o.getPatient().getInternalId(), o -> o));
+
+    AddTestResultOutcome[] outcomes = new AddTestResultOutcome[results.size()];
+    Map<Integer, TestOrder> accepted = new LinkedHashMap<>();
+    Map<String, DeviceSpecimenType> deviceSpecimens = new HashMap<>();
+    Set<UUID> seen = new HashSet<>();
+    for (int i = 0; i < results.size(); i++) {
+      AddTestResultInput input = results.get(i);
+      UUID patientId = input.getPatientId();
+      TestOrder order = ordersByPatientId.get(patientId);
+      if (order == null) {
+        outcomes[i] = AddTestResultOutcome.failed(patientId, NO_SUCH_ORDER);
+        continue;
+      }
+      if (!seen.add(patientId)) {
+        outcomes[i] =
+            AddTestResultOutcome.failed(
+                patientId, "Cannot record more than one result per patient");
+        continue;
+      }
+      try {
+        resolveDeviceSpecimen(input, deviceSpecimens);
+        TestResult.valueOf(input.getResult());
+      } catch (IllegalArgumentException e) {
+        outcomes[i] = AddTestResultOutcome.failed(patientId, "Invalid device or result");
+        continue;
+      }
+      accepted.put(i, order);
+    }
 
-        if (emailDeliveryPreference(savedOrder) || smsAndEmailDeliveryPreference(savedOrder)) {
-          boolean emailDeliveryStatus = testResultsDeliveryService.emailTestResults(patientLink);
-          deliveryStatuses.add(emailDeliveryStatus);
+    SortedSet<Integer> heldLocks = new TreeSet<>();
+    try {
+      SortedMap<Integer, List<Integer>> byLockKey = new TreeMap<>();
+      accepted.forEach(
+          (i, order) ->
+              byLockKey
+                  .computeIfAbsent(order.getInternalId().hashCode(), k -> new ArrayList<>())
+                  .add(i));
+      for (var entry : byLockKey.entrySet()) {
+        if (_repo.tryLock(AdvisoryLockManager.TEST_ORDER_LOCK_SCOPE, entry.getKey())) {
+          heldLocks.add(entry.getKey());
+        } else {
+          for (int i : entry.getValue()) {
+            TestOrder order = accepted.remove(i);
+            outcomes[i] =
+                AddTestResultOutcome.failed(order.getPatient().getInternalId(), ORDER_LOCKED);
+          }
         }
       }
 
-      boolean deliveryStatus =
-          deliveryStatuses.isEmpty() || deliveryStatuses.stream().anyMatch(status -> status);
-      return new AddTestResultResponse(savedOrder, deliveryStatus);
+      Set<UUID> testedPatientIds =
+          accepted.isEmpty()
+              ? Set.of()
+              : _terepo.findTestedPatientIds(
+                  accepted.values().stream()
+                      .map(TestOrder::getPatient)
+                      .collect(Collectors.toList()));
+      List<TestEvent> testEvents = new ArrayList<>();
+      for (var entry : accepted.entrySet()) {
+        AddTestResultInput input = results.get(entry.getKey());
+        TestOrder order = entry.getValue();
+        order.setDeviceSpecimen(resolveDeviceSpecimen(input, deviceSpecimens));
+        order.setResult(TestResult.valueOf(input.getResult()));
+        order.setDateTestedBackdate(input.getDateTested());
+        order.markComplete();
+        Person patient = order.getPatient();
+        TestEvent testEvent =
+            new TestEvent(order, testedPatientIds.contains(patient.getInternalId()));
+        order.setTestEventRef(testEvent);
+        testEvents.add(testEvent);
+      }
+      _terepo.saveAll(testEvents);
+      _repo.saveAll(accepted.values());
+      _testEventOutboxService.enqueueAll(testEvents);
+      _notificationDispatcher.enqueue(_pls.createPatientLinks(accepted.values()));
     } finally {
-      unlockOrder(order.getInternalId());
+      heldLocks.forEach(key -> _repo.unlock(AdvisoryLockManager.TEST_ORDER_LOCK_SCOPE, key));
     }
-  }
 
-  private boolean patientHasDeliveryPreference(TestOrder savedOrder) {
-    return TestResultDeliveryPreference.NONE != savedOrder.getPatient().getTestResultDelivery();
+    accepted.forEach(
+        (i, order) ->
+            outcomes[i] = AddTestResultOutcome.recorded(order.getPatient().getInternalId(), order));
+    return Arrays.asList(outcomes);
   }
 
-  private boolean smsDeliveryPreference(TestOrder savedOrder) {
-    return TestResultDeliveryPreference.SMS == savedOrder.getPatient().getTestResultDelivery();
-  }
-
-  private boolean emailDeliveryPreference(TestOrder savedOrder) {
-    return TestResultDeliveryPreference.EMAIL == savedOrder.getPatient().getTestResultDelivery();
-  }
-
-  private boolean smsAndEmailDeliveryPreference(TestOrder savedOrder) {
-    return TestResultDeliveryPreference.ALL == savedOrder.getPatient().getTestResultDelivery();
+  private DeviceSpecimenType resolveDeviceSpecimen(
+      AddTestResultInput input, Map<String, DeviceSpecimenType> resolved) {
+    if (input.getDeviceSpecimenType() != null) {
+      return resolved.computeIfAbsent(
+          input.getDeviceSpecimenType().toString(),
+          k -> _dts.getDeviceSpecimenType(input.getDeviceSpecimenType()));
+    }
+    return resolved.computeIfAbsent(
+        "device:" + input.getDeviceId(),
+        k -> _dts.getFirstDeviceSpecimenTypeForDeviceTypeId(UUID.fromString(input.getDeviceId())));
   }
 
   @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
@@ -317,40 +522,123 @@ public class TestOrderService {
     // an exception either way)
     Optional<TestOrder> existingOrder = _repo.fetchQueueItem(_os.getCurrentOrganization(), patient);
     if (existingOrder.isPresent()) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot create multiple queue entries for the same patient");
+      throw new IllegalGraphqlArgumentException(MULTIPLE_QUEUE_ENTRIES);
+    }
+    Facility testFacility = _os.getFacilityInCurrentOrg(facilityId);
+    if (!canBeQueuedAt(patient, testFacility)) {
+      throw new IllegalGraphqlArgumentException(INCOMPATIBLE_FACILITY);
     }
+
+    ensureDefaultDeviceSpecimen(testFacility);
+
+    TestOrder newOrder = new TestOrder(patient, testFacility);
+
+    PatientAnswers answers =
+        new PatientAnswers(surveyOf(pregnancy, symptoms, symptomOnsetDate, noSymptoms));
+    _parepo.save(answers);
+    newOrder.setAskOnEntrySurvey(answers);
+    return _repo.save(newOrder);
+  }
+
+  /**
+   * Add many patients to a facility's queue at once, as at a mass-testing event. However many
+   * patients there are, they are loaded and checked for existing queue entries with one query each,
+   * and their survey answers and orders are saved in JDBC batches. A patient who cannot be added
+   * does not stop the others.
+   *
+   * @return the outcome for each patient, in the order the patients were given
+   */
+  @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
+  public List<AddPatientToQueueResult> addPatientsToQueue(
+      UUID facilityId, List<AddPatientToQueueInput> patients) {
+    Organization org = _os.getCurrentOrganization();
     Facility testFacility = _os.getFacilityInCurrentOrg(facilityId);
-    if (!patient
+    Set<UUID> patientIds =
+        patients.stream().map(AddPatientToQueueInput::getPatientId).collect(Collectors.toSet());
+    Map<UUID, Person> patientsById =
+        _ps.getPatientsNoPermissionsCheck(patientIds, org).stream()
+            .collect(Collectors.toMap(Person::getInternalId, p -> p));
+    Set<UUID> alreadyQueued =
+        patientsById.isEmpty()
+            ? Set.of()
+            : _repo.fetchQueueItems(org, patientsById.values()).stream()
+                .map(o -> o.getPatient().getInternalId())
+                .collect(Collectors.toSet());
+
+    List<AddPatientToQueueResult> results = new ArrayList<>();
+    List<PatientAnswers> newAnswers = new ArrayList<>();
+    List<TestOrder> newOrders = new ArrayList<>();
+    Set<UUID> seen = new HashSet<>();
+    for (AddPatientToQueueInput input : patients) {
+      UUID patientId = input.getPatientId();
+      Person patient = patientsById.get(patientId);
+      if (patient == null) {
+        results.add(AddPatientToQueueResult.failed(patientId, "No patient with that ID was found"));
+      } else if (alreadyQueued.contains(patientId) || !seen.add(patientId)) {
+        results.add(AddPatientToQueueResult.failed(patientId, MULTIPLE_QUEUE_ENTRIES));
+      } else if (!canBeQueuedAt(patient, testFacility)) {
+        results.add(AddPatientToQueueResult.failed(patientId, INCOMPATIBLE_FACILITY));
+      } else {
+        Map<String, Boolean> symptoms;
+        try {
+          symptoms = input.getSymptoms() == null ? Map.of() : parseSymptoms(input.getSymptoms());
+        } catch (JSONException e) {
+          results.add(
+              AddPatientToQueueResult.failed(
+                  patientId, "Symptoms must be a JSON object of booleans"));
+          continue;
+        }
+        ensureDefaultDeviceSpecimen(testFacility);
+        PatientAnswers answers =
+            new PatientAnswers(
+                surveyOf(
+                    input.getPregnancy(),
+                    symptoms,
+                    input.getSymptomOnset(),
+                    input.getNoSymptoms()));
+        TestOrder newOrder = new TestOrder(patient, testFacility);
+        newOrder.setAskOnEntrySurvey(answers);
+        patient.setTestResultDelivery(input.getTestResultDelivery());
+        newAnswers.add(answers);
+        newOrders.add(newOrder);
+        // the order's ID is only assigned when it is saved, below
+        results.add(AddPatientToQueueResult.added(patientId, newOrder));
+      }
+    }
+
+    _parepo.saveAll(newAnswers);
+    _repo.saveAll(newOrders);
+    return results;
+  }
+
+  private static boolean canBeQueuedAt(Person patient, Facility testFacility) {
+    return patient
             .getOrganization()
             .getInternalId()
             .equals(testFacility.getOrganization().getInternalId())
-        || (patient.getFacility() != null
-            && !patient.getFacility().getInternalId().equals(facilityId))) {
-      throw new IllegalGraphqlArgumentException(
-          "Cannot add patient to this queue: patient's facility and/or organization "
-              + "are incompatible with facility of queue");
-    }
+        && (patient.getFacility() == null
+            || patient.getFacility().getInternalId().equals(testFacility.getInternalId()));
+  }
 
+  private void ensureDefaultDeviceSpecimen(Facility testFacility) {
     if (testFacility.getDefaultDeviceSpecimen() == null) {
       testFacility.addDefaultDeviceSpecimen(
           _dts.getFirstDeviceSpecimenTypeForDeviceTypeId(
               testFacility.getDeviceTypes().get(0).getInternalId()));
     }
+  }
 
-    TestOrder newOrder = new TestOrder(patient, testFacility);
-
-    AskOnEntrySurvey survey =
-        AskOnEntrySurvey.builder()
-            .pregnancy(pregnancy)
-            .symptoms(symptoms)
-            .noSymptoms(noSymptoms)
-            .symptomOnsetDate(symptomOnsetDate)
-            .build();
-    PatientAnswers answers = new PatientAnswers(survey);
-    _parepo.save(answers);
-    newOrder.setAskOnEntrySurvey(answers);
-    return _repo.save(newOrder);
+  private static AskOnEntrySurvey surveyOf(
+      String pregnancy,
+      Map<String, Boolean> symptoms,
+      LocalDate symptomOnsetDate,
+      Boolean noSymptoms) {
+    return AskOnEntrySurvey.builder()
+        .pregnancy(pregnancy)
+        .symptoms(symptoms)
+        .noSymptoms(noSymptoms)
+        .symptomOnsetDate(symptomOnsetDate)
+        .build();
   }
 
   @AuthorizationConfiguration.RequirePermissionUpdateTestForPatient
@@ -424,7 +712,7 @@ public class TestOrderService {
     TestEvent newRemoveEvent =
         new TestEvent(event, TestCorrectionStatus.REMOVED, reasonForCorrection);
     _terepo.save(newRemoveEvent);
-    _testEventReportingService.report(newRemoveEvent);
+    _testEventOutboxService.enqueue(newRemoveEvent);
 
     // order having reason text is way more useful when we allow actual corrections
     // not just
@@ -459,19 +747,18 @@ public class TestOrderService {
   public OrganizationLevelDashboardMetrics getOrganizationLevelDashboardMetrics(
       Date startDate, Date endDate) {
     Organization org = _os.getCurrentOrganization();
-    List<UUID> facilityIds =
-        _os.getFacilities(org).stream().map(Facility::getInternalId).collect(Collectors.toList());
+    List<Facility> facilities = _os.getFacilities(org);
+    Map<UUID, Map<TestResult, Long>> countsByFacility =
+        countCurrentResults(
+            facilities.stream().map(Facility::getInternalId).collect(Collectors.toSet()),
+            startDate,
+            endDate);
 
     List<AggregateFacilityMetrics> facilityMetrics = new ArrayList<AggregateFacilityMetrics>();
 
-    for (UUID facilityId : facilityIds) {
-      List<TestResultWithCount> results =
-          _terepo.countByResultForFacility(facilityId, startDate, endDate);
-      Facility facility = _os.getFacilityInCurrentOrg(facilityId);
+    for (Facility facility : facilities) {
       Map<TestResult, Long> testResultMap =
-          results.stream()
-              .collect(
-                  Collectors.toMap(TestResultWithCount::getResult, TestResultWithCount::getCount));
+          countsByFacility.getOrDefault(facility.getInternalId(), Map.of());
       long negativeTestCount = testResultMap.getOrDefault(TestResult.NEGATIVE, 0L);
       long positiveTestCount = testResultMap.getOrDefault(TestResult.POSITIVE, 0L);
       long totalTestCount = testResultMap.values().stream().reduce(0L, Long::sum);
@@ -515,12 +802,12 @@ public class TestOrderService {
           _os.getFacilities(org).stream().map(Facility::getInternalId).collect(Collectors.toSet());
     }
 
-    List<TestResultWithCount> testResultList =
-        _terepo.countByResultByFacility(facilityIds, startDate, endDate);
-    Map<TestResult, Long> testResultMap =
-        testResultList.stream()
-            .collect(
-                Collectors.toMap(TestResultWithCount::getResult, TestResultWithCount::getCount));
+    Map<TestResult, Long> testResultMap = new EnumMap<>(TestResult.class);
+    countCurrentResults(facilityIds, startDate, endDate)
+        .values()
+        .forEach(
+            counts ->
+                counts.forEach((result, count) -> testResultMap.merge(result, count, Long::sum)));
 
     long totalTestCount = testResultMap.values().stream().reduce(0L, Long::sum);
     long positiveTestCount = testResultMap.getOrDefault(TestResult.POSITIVE, 0L);
@@ -528,10 +815,65 @@ public class TestOrderService {
     return new TopLevelDashboardMetrics(positiveTestCount, totalTestCount);
   }
 
+  /**
+   * Count the current (original, uncorrected) test results for each facility, for tests performed
+   * between the two dates (inclusive). Whole days inside the range are read from the daily rollup
+   * maintained by the database; only the partial days at either end (if any) are counted from the
+   * test events themselves, so the cost does not grow with the length of the range or the number of
+   * tests in it. Days are those of {@link TestResultDailyRollup#DAY_ZONE}, as in the rollup.
+   */
+  private Map<UUID, Map<TestResult, Long>> countCurrentResults(
+      Set<UUID> facilityIds, Date startDate, Date endDate) {
+    Map<UUID, Map<TestResult, Long>> counts = new HashMap<>();
+    if (facilityIds.isEmpty()) {
+      return counts;
+    }
+
+    ZoneId zone = TestResultDailyRollup.DAY_ZONE;
+    LocalDateTime start = LocalDateTime.ofInstant(startDate.toInstant(), zone);
+    LocalDateTime endExclusive =
+        LocalDateTime.ofInstant(endDate.toInstant(), zone).plus(1, ChronoUnit.MILLIS);
+    LocalDate firstFullDay =
+        start.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? start.toLocalDate()
+            : start.toLocalDate().plusDays(1);
+    LocalDate lastFullDay = endExclusive.toLocalDate().minusDays(1);
+
+    List<FacilityTestResultWithCount> results = new ArrayList<>();
+    if (firstFullDay.isAfter(lastFullDay)) {
+      results.addAll(
+          _terepo.countByFacilityAndResult(facilityIds, startDate, toDate(endExclusive, zone)));
+    } else {
+      results.addAll(_rollupRepo.countByFacilityAndResult(facilityIds, firstFullDay, lastFullDay));
+      LocalDateTime firstFullDayStart = firstFullDay.atStartOfDay();
+      if (start.isBefore(firstFullDayStart)) {
+        results.addAll(
+            _terepo.countByFacilityAndResult(
+                facilityIds, startDate, toDate(firstFullDayStart, zone)));
+      }
+      LocalDateTime lastFullDayEnd = lastFullDay.plusDays(1).atStartOfDay();
+      if (lastFullDayEnd.isBefore(endExclusive)) {
+        results.addAll(
+            _terepo.countByFacilityAndResult(
+                facilityIds, toDate(lastFullDayEnd, zone), toDate(endExclusive, zone)));
+      }
+    }
+
+    results.forEach(
+        r ->
+            counts
+                .computeIfAbsent(r.getFacilityId(), id -> new EnumMap<>(TestResult.class))
+                .merge(r.getResult(), r.getCount(), Long::sum));
+    return counts;
+  }
+
+  private static Date toDate(LocalDateTime localDateTime, ZoneId zone) {
+    return Date.from(localDateTime.atZone(zone).toInstant());
+  }
+
   private void lockOrder(UUID orderId) throws IllegalGraphqlArgumentException {
     if (!_repo.tryLock(AdvisoryLockManager.TEST_ORDER_LOCK_SCOPE, orderId.hashCode())) {
-      throw new IllegalGraphqlArgumentException(
-          "Someone else is currently modifying this test result.");
+      throw new IllegalGraphqlArgumentException(ORDER_LOCKED);
     }
   }
 
@@ -540,6 +882,6 @@ public class TestOrderService {
   }
 
   private static IllegalGraphqlArgumentException noSuchOrderFound() {
-    return new IllegalGraphqlArgumentException("No active test order was found for that patient");
+    return new IllegalGraphqlArgumentException(NO_SUCH_ORDER);
   }
 }
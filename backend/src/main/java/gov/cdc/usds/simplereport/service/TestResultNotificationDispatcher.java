@@ -0,0 +1,344 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
+import gov.cdc.usds.simplereport.db.model.TestResultNotification;
+import gov.cdc.usds.simplereport.db.model.auxiliary.NotificationChannel;
+import gov.cdc.usds.simplereport.db.model.auxiliary.NotificationStatus;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
+import gov.cdc.usds.simplereport.db.repository.TestResultNotificationRepository;
+import gov.cdc.usds.simplereport.service.TestResultsDeliveryService.DeliveryOutcome;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sends test result notifications (SMS and email) in the background. Recording a result only writes
+ * a {@link TestResultNotification} row for each message the patient asked for; once that
+ * transaction commits, the dispatcher claims the due rows and hands them to a worker pool for each
+ * provider, so that a slow or failing provider never holds up a request (or the other provider).
+ *
+ * <p>Each send runs outside of any transaction, between a short one that loads the claimed
+ * notification and another that records the outcome. A failed send is retried with exponential
+ * backoff until it runs out of attempts, at which point it is marked as failed; one that cannot
+ * succeed (there is nowhere usable to send it) is marked as failed straight away. Rows are also
+ * claimed periodically (see {@link ScheduledTasksService}), which picks up retries and anything
+ * left behind by an instance that stopped. Sends happen on behalf of the user who recorded the
+ * result, so the {@code TextMessageSent} rows (and the {@code TextMessageStatus} rows that the SMS
+ * status webhook records against them) are attributed as they were when messages were sent inline.
+ */
+@Component
+@Slf4j
+public class TestResultNotificationDispatcher {
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final TestResultNotificationRepository _repo;
+  private final TestResultsDeliveryService _deliveryService;
+  private final ApiUserService _userService;
+  private final TransactionTemplate _transactionTemplate;
+  private final ThreadPoolTaskExecutor _dispatcher;
+  private final Map<NotificationChannel, ThreadPoolTaskExecutor> _senders =
+      new EnumMap<>(NotificationChannel.class);
+  private final int _batchSize;
+  private final int _maxAttempts;
+  private final Duration _initialBackoff;
+  private final Duration _maxBackoff;
+  private final Duration _lease;
+
+  private final Object _lock = new Object();
+  // guarded by _lock
+  private boolean _dispatching;
+  private boolean _dispatchRequested;
+
+  @SuppressWarnings("checkstyle:ParameterNumber")
+  public TestResultNotificationDispatcher(
+      TestResultNotificationRepository repo,
+      TestResultsDeliveryService deliveryService,
+      ApiUserService userService,
+      PlatformTransactionManager transactionManager,
+      TaskExecutorBuilder taskExecutorBuilder,
+      @Value("${simple-report.test-result-notifications.sms-concurrency:4}") int smsConcurrency,
+      @Value("${simple-report.test-result-notifications.email-concurrency:4}") int emailConcurrency,
+      @Value("${simple-report.test-result-notifications.batch-size:100}") int batchSize,
+      @Value("${simple-report.test-result-notifications.max-attempts:5}") int maxAttempts,
+      @Value("${simple-report.test-result-notifications.initial-backoff:30s}")
+          Duration initialBackoff,
+      @Value("${simple-report.test-result-notifications.max-backoff:1h}") Duration maxBackoff,
+      @Value("${simple-report.test-result-notifications.lease:10m}") Duration lease) {
+    _repo = repo;
+    _deliveryService = deliveryService;
+    _userService = userService;
+    _transactionTemplate = new TransactionTemplate(transactionManager);
+    _batchSize = batchSize;
+    _maxAttempts = maxAttempts;
+    _initialBackoff = initialBackoff;
+    _maxBackoff = maxBackoff;
+    _lease = lease;
+    _dispatcher = buildExecutor(taskExecutorBuilder, 1, "notification-dispatch-");
+    _senders.put(
+        NotificationChannel.SMS, buildExecutor(taskExecutorBuilder, smsConcurrency, "sms-sender-"));
+    _senders.put(
+        NotificationChannel.EMAIL,
+        buildExecutor(taskExecutorBuilder, emailConcurrency, "email-sender-"));
+  }
+
+  private static ThreadPoolTaskExecutor buildExecutor(
+      TaskExecutorBuilder builder, int threads, String threadNamePrefix) {
+    ThreadPoolTaskExecutor executor =
+        builder
+            .corePoolSize(threads)
+            .maxPoolSize(threads)
+            .threadNamePrefix(threadNamePrefix)
+            .awaitTermination(true)
+            .awaitTerminationPeriod(SHUTDOWN_TIMEOUT)
+            .build();
+    executor.setDaemon(true);
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Stop claiming notifications, then let the sends already under way finish (up to a point). Any
+   * that are cut off are claimed again once their lease runs out.
+   */
+  @PreDestroy
+  void shutdown() {
+    _dispatcher.shutdown();
+    _senders.values().forEach(ThreadPoolTaskExecutor::shutdown);
+  }
+
+  /**
+   * Queue the notifications that the patients of the given links asked for, to be sent once the
+   * current transaction commits.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(Collection<PatientLink> patientLinks) {
+    List<TestResultNotification> notifications = new ArrayList<>();
+    ApiUser requestedBy = null;
+    for (PatientLink link : patientLinks) {
+      TestResultDeliveryPreference preference =
+          link.getTestOrder().getPatient().getTestResultDelivery();
+      if (preference == null || preference == TestResultDeliveryPreference.NONE) {
+        continue;
+      }
+      if (requestedBy == null) {
+        requestedBy = _userService.getCurrentApiUserInContainedTransaction();
+      }
+      if (preference == TestResultDeliveryPreference.SMS
+          || preference == TestResultDeliveryPreference.ALL) {
+        notifications.add(new TestResultNotification(link, NotificationChannel.SMS, requestedBy));
+      }
+      if (preference == TestResultDeliveryPreference.EMAIL
+          || preference == TestResultDeliveryPreference.ALL) {
+        notifications.add(new TestResultNotification(link, NotificationChannel.EMAIL, requestedBy));
+      }
+    }
+    if (notifications.isEmpty()) {
+      return;
+    }
+    _repo.saveAll(notifications);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            requestDispatch();
+          }
+        });
+  }
+
+  /**
+   * Have the due notifications claimed and sent as soon as possible, without waiting for them. If a
+   * dispatch is already running, another one follows it.
+   */
+  public void requestDispatch() {
+    synchronized (_lock) {
+      _dispatchRequested = true;
+      if (_dispatching) {
+        return;
+      }
+      _dispatching = true;
+    }
+    _dispatcher.execute(this::dispatchWhileRequested);
+  }
+
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  private void dispatchWhileRequested() {
+    while (true) {
+      synchronized (_lock) {
+        if (!_dispatchRequested) {
+          _dispatching = false;
+          return;
+        }
+        _dispatchRequested = false;
+      }
+      try {
+        if (dispatchPending() >= _batchSize) {
+          // there may be more due than fit in one batch
+          synchronized (_lock) {
+            _dispatchRequested = true;
+          }
+        }
+      } catch (RuntimeException e) {
+        log.error("Unable to dispatch test result notifications", e);
+      }
+    }
+  }
+
+  /**
+   * Claim a batch of due notifications and hand them to the senders. Only one instance of the
+   * application claims at a time: the others fail to take the advisory lock and return immediately.
+   * A claimed notification is hidden from other dispatches until its lease runs out.
+   *
+   * @return the number of notifications claimed
+   */
+  public int dispatchPending() {
+    Date leaseExpiry = Date.from(Instant.now().plus(_lease));
+    Map<UUID, NotificationChannel> claimed =
+        _transactionTemplate.execute(status -> claimDue(leaseExpiry));
+    if (claimed == null || claimed.isEmpty()) {
+      return 0;
+    }
+    claimed.forEach((id, channel) -> _senders.get(channel).execute(() -> send(id, leaseExpiry)));
+    log.info("Dispatched {} test result notifications", claimed.size());
+    return claimed.size();
+  }
+
+  private Map<UUID, NotificationChannel> claimDue(Date leaseExpiry) {
+    if (!_repo.tryDispatchLock()) {
+      log.debug("Test result notification dispatch locked out by mutex: skipping");
+      return Map.of();
+    }
+    Map<UUID, NotificationChannel> claimed = new LinkedHashMap<>();
+    for (TestResultNotification due : _repo.findDue(new Date(), PageRequest.of(0, _batchSize))) {
+      due.claimUntil(leaseExpiry);
+      claimed.put(due.getInternalId(), due.getChannel());
+    }
+    return claimed;
+  }
+
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  private void send(UUID notificationId, Date leaseExpiry) {
+    TestResultNotification notification;
+    try {
+      notification =
+          _transactionTemplate.execute(
+              status ->
+                  _repo
+                      .findForSending(notificationId)
+                      .filter(n -> isClaimed(n, leaseExpiry))
+                      .orElse(null));
+    } catch (RuntimeException e) {
+      // nothing was sent, so the notification is retried when its lease runs out
+      log.error("Unable to load test result notification {}", notificationId, e);
+      return;
+    }
+    if (notification == null) {
+      log.debug("Notification {} was claimed again: not sending it", notificationId);
+      return;
+    }
+
+    // no transaction is open while sending: provider calls do not hold a database connection, and
+    // whatever goes wrong in them cannot keep the outcome from being recorded
+    DeliveryOutcome[] outcome = {DeliveryOutcome.FAILED};
+    String error = null;
+    try {
+      _userService.runAsUser(
+          notification.getRequestedBy(), () -> outcome[0] = deliver(notification));
+    } catch (RuntimeException e) {
+      outcome[0] = DeliveryOutcome.FAILED;
+      error = String.valueOf(e);
+    }
+
+    String recordedError = error;
+    try {
+      _transactionTemplate.executeWithoutResult(
+          status -> record(notificationId, leaseExpiry, outcome[0], recordedError));
+    } catch (RuntimeException e) {
+      // the notification is retried when its lease runs out
+      log.error("Unable to record test result notification {}", notificationId, e);
+    }
+  }
+
+  private DeliveryOutcome deliver(TestResultNotification notification) {
+    PatientLink link = notification.getPatientLink();
+    DeliveryOutcome outcome =
+        notification.getChannel() == NotificationChannel.SMS
+            ? _deliveryService.smsTestResultsNoPermissionsCheck(link)
+            : _deliveryService.emailTestResultsNoPermissionsCheck(link);
+    return outcome == null ? DeliveryOutcome.FAILED : outcome;
+  }
+
+  private void record(
+      UUID notificationId, Date leaseExpiry, DeliveryOutcome outcome, String error) {
+    TestResultNotification notification =
+        _repo.findById(notificationId).filter(n -> isClaimed(n, leaseExpiry)).orElse(null);
+    if (notification == null) {
+      log.warn(
+          "Notification {} was claimed again while it was being sent: not recording it ({})",
+          notificationId,
+          outcome);
+      return;
+    }
+    if (outcome == DeliveryOutcome.SENT) {
+      notification.markSent();
+      return;
+    }
+    int attempt = notification.getAttempts() + 1;
+    Date retryAt =
+        outcome == DeliveryOutcome.FAILED && attempt < _maxAttempts
+            ? Date.from(Instant.now().plus(backoff(attempt)))
+            : null;
+    log.warn(
+        "Test result {} for notification {} was not sent (attempt {}{})",
+        notification.getChannel(),
+        notificationId,
+        attempt,
+        retryAt == null ? ", giving up" : "");
+    if (error == null) {
+      error =
+          outcome == DeliveryOutcome.UNDELIVERABLE
+              ? "No phone number or email address that it can be sent to"
+              : "Not accepted by the provider";
+    }
+    notification.markFailed(truncate(error), retryAt);
+  }
+
+  private static boolean isClaimed(TestResultNotification notification, Date leaseExpiry) {
+    return notification.getStatus() == NotificationStatus.PENDING
+        && notification.getNextAttemptAt().getTime() == leaseExpiry.getTime();
+  }
+
+  private Duration backoff(int attempt) {
+    Duration backoff = _initialBackoff;
+    for (int i = 1; i < attempt && backoff.compareTo(_maxBackoff) < 0; i++) {
+      backoff = backoff.multipliedBy(2);
+    }
+    return backoff.compareTo(_maxBackoff) < 0 ? backoff : _maxBackoff;
+  }
+
+  private static String truncate(String error) {
+    return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+  }
+}
@@ -29,17 +29,32 @@ public class TestResultsDeliveryService {
   private final EmailService emailService;
   private final SmsService smsService;
 
+  /** The outcome of trying to send a patient's test result notification. */
+  public enum DeliveryOutcome {
+    /** At least one of the patient's phone numbers (or their email addresses) accepted it. */
+    SENT,
+    /** Nothing accepted it this time, but trying again later may. */
+    FAILED,
+    /** Nothing accepted it, and trying again will not help: there is nowhere usable to send it. */
+    UNDELIVERABLE
+  }
+
   public boolean emailTestResults(UUID patientLinkId) {
     PatientLink patientLink = patientLinkService.getRefreshedPatientLink(patientLinkId);
     return emailTestResults(patientLink);
   }
 
   public boolean emailTestResults(PatientLink patientLink) {
+    return emailTestResultsNoPermissionsCheck(patientLink) == DeliveryOutcome.SENT;
+  }
+
+  // NO PERMISSION CHECK (make sure the caller has one!)
+  public DeliveryOutcome emailTestResultsNoPermissionsCheck(PatientLink patientLink) {
     List<String> recipientEmailAddresses = patientLink.getTestOrder().getPatient().getEmails();
 
     if (recipientEmailAddresses.isEmpty()) {
       log.error("Patient missing email address");
-      return false;
+      return DeliveryOutcome.UNDELIVERABLE;
     }
 
     Map<String, Object> templateVariables =
@@ -59,10 +74,10 @@ public class TestResultsDeliveryService {
           "failed to send email for patient link {}, exception: {}",
           patientLink.getInternalId(),
           e.getMessage());
-      return false;
+      return DeliveryOutcome.FAILED;
     }
 
-    return true;
+    return DeliveryOutcome.SENT;
   }
 
   @NotNull
@@ -77,14 +92,31 @@ public class TestResultsDeliveryService {
   }
 
   public boolean smsTestResults(PatientLink patientLink) {
-    String message =
-        format(
-            "Your COVID-19 test result is ready to view. This link will expire after {0}: {1}",
-            getExpirationDuration(patientLink), patientLinkUrl + patientLink.getInternalId());
-    List<SmsAPICallResult> smsSendResults = smsService.sendToPatientLink(patientLink, message);
+    List<SmsAPICallResult> smsSendResults =
+        smsService.sendToPatientLink(patientLink, getSmsMessage(patientLink));
     return smsSendResults.stream().allMatch(SmsAPICallResult::isSuccessful);
   }
 
+  // NO PERMISSION CHECK (make sure the caller has one!) Sent as soon as any one of the patient's
+  // numbers accepts the message, so that a retry never texts the numbers that already have it.
+  public DeliveryOutcome smsTestResultsNoPermissionsCheck(PatientLink patientLink) {
+    List<SmsAPICallResult> smsSendResults =
+        smsService.sendToPatientLinkNoPermissionsCheck(patientLink, getSmsMessage(patientLink));
+    if (smsSendResults.stream().anyMatch(SmsAPICallResult::isSuccessful)) {
+      return DeliveryOutcome.SENT;
+    }
+    // including when the patient has no numbers that can take a text at all
+    return smsSendResults.stream().allMatch(SmsAPICallResult::isPermanentFailure)
+        ? DeliveryOutcome.UNDELIVERABLE
+        : DeliveryOutcome.FAILED;
+  }
+
+  private String getSmsMessage(PatientLink patientLink) {
+    return format(
+        "Your COVID-19 test result is ready to view. This link will expire after {0}: {1}",
+        getExpirationDuration(patientLink), patientLinkUrl + patientLink.getInternalId());
+  }
+
   public boolean smsTestResultsForTestEvent(UUID testEventId) {
     PatientLink patientLink = patientLinkService.getPatientLinkForTestEvent(testEventId);
     return this.smsTestResults(patientLink.getInternalId());
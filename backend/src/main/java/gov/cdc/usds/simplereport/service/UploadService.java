@@ -6,6 +6,7 @@ import static gov.cdc.usds.simplereport.api.Translators.parseGender;
 import static gov.cdc.usds.simplereport.api.Translators.parsePersonRole;
 import static gov.cdc.usds.simplereport.api.Translators.parsePhoneNumbers;
 import static gov.cdc.usds.simplereport.api.Translators.parseRaceDisplayValue;
+import static gov.cdc.usds.simplereport.api.Translators.parseState;
 import static gov.cdc.usds.simplereport.api.Translators.parseString;
 import static gov.cdc.usds.simplereport.api.Translators.parseUUID;
 import static gov.cdc.usds.simplereport.api.Translators.parseUserShortDate;
@@ -18,7 +19,10 @@ import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
-import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneNumberInput;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import java.io.BufferedReader;
@@ -28,30 +32,74 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /** Created by nickrobison on 11/21/20 */
 @Service
 @Transactional
-@RequiredArgsConstructor
 @Slf4j
 public class UploadService {
   private static final String FACILITY_ID = "facilityId";
   private static final int MAX_LINE_LENGTH = 1024 * 6;
+  private static final int CHUNK_SIZE = 500;
+  private static final int MAX_REPORTED_ERRORS = 100;
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
   public static final String ZIP_CODE_REGEX = "^[0-9]{5}(?:-[0-9]{4})?$";
 
   private final PersonService personService;
   private final AddressValidationService addressValidationService;
   private final OrganizationService organizationService;
+  private final ThreadPoolTaskExecutor addressLookupExecutor;
   private boolean hasHeaderRow = false;
 
-  private MappingIterator<Map<String, String>> getIteratorForCsv(InputStream csvStream)
+  public UploadService(
+      PersonService personService,
+      AddressValidationService addressValidationService,
+      OrganizationService organizationService,
+      TaskExecutorBuilder taskExecutorBuilder,
+      @Value("${simple-report.patient-upload.address-lookup-threads:8}") int addressLookupThreads) {
+    this.personService = personService;
+    this.addressValidationService = addressValidationService;
+    this.organizationService = organizationService;
+    ThreadPoolTaskExecutor executor =
+        taskExecutorBuilder
+            .corePoolSize(addressLookupThreads)
+            .maxPoolSize(addressLookupThreads)
+            .threadNamePrefix("patient-upload-")
+            .awaitTermination(true)
+            .awaitTerminationPeriod(SHUTDOWN_TIMEOUT)
+            .build();
+    executor.setDaemon(true);
+    executor.initialize();
+    this.addressLookupExecutor = executor;
+  }
+
+  /** Let lookups already under way finish (up to a point), then stop the lookup threads. */
+  @PreDestroy
+  void shutdown() {
+    addressLookupExecutor.shutdown();
+  }
+
+  // package-private, along with parseRow, for UploadServiceBenchmark
+  MappingIterator<Map<String, String>> getIteratorForCsv(InputStream csvStream)
       throws IllegalGraphqlArgumentException {
     try {
       BufferedReader csvStreamBuffered =
@@ -106,81 +154,39 @@ public class UploadService {
 
     Instant startTime = Instant.now();
 
+    // Rows are handled a chunk at a time: the address lookups for a chunk are sent as concurrent
+    // SmartyStreets batches, its duplicate check is a single query, and its inserts are flushed
+    // together as JDBC batches.
+    // Row errors are collected rather than thrown so that the whole file is checked in one pass;
+    // if there are any, the transaction is rolled back and nothing is imported.
+    var errors = new ArrayList<String>();
+    var seenPatients = new HashSet<PatientKey>();
+    var chunk = new ArrayList<PatientRow>(CHUNK_SIZE);
     int rowNumber = 0;
     while (valueIterator.hasNext()) {
-      final Instant rowStartTime = Instant.now();
       final Map<String, String> row = getNextRow(valueIterator);
       rowNumber++;
       try {
-        var facilityId = parseUUID(getRow(row, FACILITY_ID, false));
-        Optional<Facility> facility =
-            Optional.ofNullable(facilityId).map(organizationService::getFacilityInCurrentOrg);
-
-        String zipCode = getRow(row, "ZipCode", true);
-        if (!zipCode.matches(ZIP_CODE_REGEX)) {
-          throw new IllegalGraphqlArgumentException("Invalid zip code");
-        }
-
-        StreetAddress address =
-            addressValidationService.getValidatedAddress(
-                getRow(row, "Street", true),
-                getRow(row, "Street2", false),
-                getRow(row, "City", false),
-                getRow(row, "State", true),
-                zipCode,
-                null);
-
-        var firstName = parseString(getRow(row, "FirstName", true));
-        var lastName = parseString(getRow(row, "LastName", true));
-        var dob = parseUserShortDate(getRow(row, "DOB", true));
-        var country = parseString(getRow(row, "Country", false));
-
-        if (country == null) {
-          country = "USA";
-        }
-
-        if (personService.isDuplicatePatient(firstName, lastName, dob, org, facility)) {
-          continue;
-        }
+        chunk.add(parseRow(rowNumber, row));
+      } catch (IllegalGraphqlArgumentException e) {
+        errors.add(rowError(rowNumber, e));
+      }
 
-        personService.addPatient(
-            facilityId,
-            null, // lookupID
-            firstName,
-            parseString(getRow(row, "MiddleName", false)),
-            lastName,
-            parseString(getRow(row, "Suffix", false)),
-            dob,
-            address,
-            country,
-            parsePhoneNumbers(
-                List.of(
-                    new PhoneNumberInput(
-                        getRow(row, "PhoneNumberType", false), getRow(row, "PhoneNumber", true)))),
-            parsePersonRole(getRow(row, "Role", false), false),
-            parseEmails(List.of(getRow(row, "Email", false))),
-            parseRaceDisplayValue(getRow(row, "Race", true)),
-            parseEthnicity(getRow(row, "Ethnicity", true)),
-            null,
-            parseGender(getRow(row, "biologicalSex", true)),
-            parseYesNo(getRow(row, "residentCongregateSetting", true)),
-            parseYesNo(getRow(row, "employedInHealthcare", true)),
-            null, // Not including preferredLanguage for now
-            null); // Not including test result delivery preference for now
-
-        Duration rowElapsed = Duration.between(rowStartTime, Instant.now());
-        Duration totalElapsed = Duration.between(startTime, Instant.now());
+      if (chunk.size() == CHUNK_SIZE) {
+        importChunk(chunk, org, seenPatients, errors);
+        chunk.clear();
         log.debug(
-            "Processed row {} in {}ms; {} minutes total",
+            "Processed {} rows; {} minutes total",
             rowNumber,
-            rowElapsed.toMillis(),
-            totalElapsed.toMinutes());
-      } catch (IllegalGraphqlArgumentException e) {
-        String errorMessage = "Error on row " + rowNumber + "; " + e.getMessage();
-        log.error(errorMessage);
-        throw new IllegalGraphqlArgumentException(errorMessage);
+            Duration.between(startTime, Instant.now()).toMinutes());
       }
     }
+    importChunk(chunk, org, seenPatients, errors);
+
+    if (!errors.isEmpty()) {
+      log.error("CSV Patient upload failed with {} invalid row(s)", errors.size());
+      throw new IllegalGraphqlArgumentException(errorMessage(errors));
+    }
 
     log.info(
         "CSV Patient upload completed for {} records in {} minutes",
@@ -189,6 +195,159 @@ public class UploadService {
     return "Successfully uploaded " + rowNumber + " record(s)";
   }
 
+  /** Parse and check everything in a row that does not need a network call or a query. */
+  PatientRow parseRow(int rowNumber, Map<String, String> row) {
+    var facilityId = parseUUID(getRow(row, FACILITY_ID, false));
+    if (facilityId != null) {
+      // throws if the facility is not in the current organization
+      organizationService.getFacilityInCurrentOrg(facilityId);
+    }
+
+    String zipCode = getRow(row, "ZipCode", true);
+    if (!zipCode.matches(ZIP_CODE_REGEX)) {
+      throw new IllegalGraphqlArgumentException("Invalid zip code");
+    }
+
+    var patientRow = new PatientRow(rowNumber, facilityId);
+    patientRow.enteredAddress =
+        new StreetAddress(
+            getRow(row, "Street", true),
+            getRow(row, "Street2", false),
+            getRow(row, "City", false),
+            // checked here so that one bad state cannot fail a whole batch of address lookups
+            parseState(getRow(row, "State", true)),
+            zipCode,
+            null);
+
+    patientRow.firstName = parseString(getRow(row, "FirstName", true));
+    patientRow.lastName = parseString(getRow(row, "LastName", true));
+    patientRow.birthDate = parseUserShortDate(getRow(row, "DOB", true));
+    var country = parseString(getRow(row, "Country", false));
+    patientRow.country = country == null ? "USA" : country;
+
+    patientRow.middleName = parseString(getRow(row, "MiddleName", false));
+    patientRow.suffix = parseString(getRow(row, "Suffix", false));
+    patientRow.phoneNumbers =
+        parsePhoneNumbers(
+            List.of(
+                new PhoneNumberInput(
+                    getRow(row, "PhoneNumberType", false), getRow(row, "PhoneNumber", true))));
+    patientRow.role = parsePersonRole(getRow(row, "Role", false), false);
+    patientRow.emails = parseEmails(List.of(getRow(row, "Email", false)));
+    patientRow.race = parseRaceDisplayValue(getRow(row, "Race", true));
+    patientRow.ethnicity = parseEthnicity(getRow(row, "Ethnicity", true));
+    patientRow.gender = parseGender(getRow(row, "biologicalSex", true));
+    patientRow.residentCongregateSetting =
+        parseYesNo(getRow(row, "residentCongregateSetting", true));
+    patientRow.employedInHealthcare = parseYesNo(getRow(row, "employedInHealthcare", true));
+    return patientRow;
+  }
+
+  private void importChunk(
+      List<PatientRow> chunk, Organization org, Set<PatientKey> seenPatients, List<String> errors) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+
+    // each lookup task validates up to one SmartyStreets batch, and the tasks run concurrently
+    Map<List<PatientRow>, CompletableFuture<List<StreetAddress>>> lookups = new LinkedHashMap<>();
+    for (int i = 0; i < chunk.size(); i += AddressValidationService.MAX_BATCH_SIZE) {
+      List<PatientRow> rows =
+          chunk.subList(i, Math.min(i + AddressValidationService.MAX_BATCH_SIZE, chunk.size()));
+      List<StreetAddress> addresses =
+          rows.stream().map(r -> r.enteredAddress).collect(Collectors.toList());
+      lookups.put(
+          rows,
+          CompletableFuture.supplyAsync(
+              () -> addressValidationService.getValidatedAddresses(addresses),
+              addressLookupExecutor));
+    }
+
+    var validRows = new ArrayList<PatientRow>(chunk.size());
+    for (var lookup : lookups.entrySet()) {
+      List<PatientRow> rows = lookup.getKey();
+      try {
+        List<StreetAddress> validated = lookup.getValue().join();
+        for (int i = 0; i < rows.size(); i++) {
+          rows.get(i).address = validated.get(i);
+        }
+        validRows.addAll(rows);
+      } catch (CompletionException e) {
+        if (!(e.getCause() instanceof IllegalGraphqlArgumentException)) {
+          throw e;
+        }
+        rows.forEach(
+            row ->
+                errors.add(
+                    rowError(row.rowNumber, (IllegalGraphqlArgumentException) e.getCause())));
+      }
+    }
+
+    // once the file is known to be bad nothing will be committed, so only keep validating
+    if (!errors.isEmpty() || validRows.isEmpty()) {
+      return;
+    }
+
+    List<Person> candidates =
+        personService.getPotentialDuplicatePatients(
+            org,
+            validRows.stream().map(r -> r.birthDate).collect(Collectors.toSet()),
+            validRows.stream().map(r -> r.lastName).collect(Collectors.toSet()));
+    for (Person existing : candidates) {
+      seen(
+          seenPatients,
+          existing.getFirstName(),
+          existing.getLastName(),
+          existing.getBirthDate(),
+          existing.getFacility() == null ? null : existing.getFacility().getInternalId());
+    }
+
+    for (PatientRow row : validRows) {
+      if (isDuplicate(seenPatients, row)) {
+        continue;
+      }
+      seen(seenPatients, row.firstName, row.lastName, row.birthDate, row.facilityId);
+
+      personService.addPatient(
+          row.facilityId,
+          null, // lookupID
+          row.firstName,
+          row.middleName,
+          row.lastName,
+          row.suffix,
+          row.birthDate,
+          row.address,
+          row.country,
+          row.phoneNumbers,
+          row.role,
+          row.emails,
+          row.race,
+          row.ethnicity,
+          null,
+          row.gender,
+          row.residentCongregateSetting,
+          row.employedInHealthcare,
+          null, // Not including preferredLanguage for now
+          null); // Not including test result delivery preference for now
+    }
+  }
+
+  private static String rowError(int rowNumber, IllegalGraphqlArgumentException e) {
+    String errorMessage = "Error on row " + rowNumber + "; " + e.getMessage();
+    log.error(errorMessage);
+    return errorMessage;
+  }
+
+  private static String errorMessage(List<String> errors) {
+    if (errors.size() <= MAX_REPORTED_ERRORS) {
+      return String.join("\n", errors);
+    }
+    return String.join("\n", errors.subList(0, MAX_REPORTED_ERRORS))
+        + "\n... and "
+        + (errors.size() - MAX_REPORTED_ERRORS)
+        + " more invalid row(s)";
+  }
+
   private static CsvSchema personSchema(boolean hasHeaderRow) {
     // using both addColumn and setUseHeader() causes offset issues (columns don't align). use one
     // or the other.
@@ -223,4 +382,84 @@ public class UploadService {
           .build();
     }
   }
+
+  /** A parsed row that is waiting for its address to be validated. */
+  static class PatientRow {
+    private final int rowNumber;
+    private final UUID facilityId;
+    private StreetAddress enteredAddress;
+    private StreetAddress address;
+    private String firstName;
+    private String middleName;
+    private String lastName;
+    private String suffix;
+    private LocalDate birthDate;
+    private String country;
+    private List<PhoneNumber> phoneNumbers;
+    private PersonRole role;
+    private List<String> emails;
+    private String race;
+    private String ethnicity;
+    private String gender;
+    private Boolean residentCongregateSetting;
+    private Boolean employedInHealthcare;
+
+    private PatientRow(int rowNumber, UUID facilityId) {
+      this.rowNumber = rowNumber;
+      this.facilityId = facilityId;
+    }
+  }
+
+  /**
+   * Like {@link PersonService#isDuplicatePatient}: a row for a facility matches a patient at that
+   * facility or at no facility in particular, and a row without a facility matches a patient
+   * anywhere in the organization.
+   */
+  private static boolean isDuplicate(Set<PatientKey> seenPatients, PatientRow row) {
+    if (row.facilityId == null) {
+      return seenPatients.contains(
+          new PatientKey(row.firstName, row.lastName, row.birthDate, PatientKey.ANYWHERE));
+    }
+    return seenPatients.contains(
+            new PatientKey(row.firstName, row.lastName, row.birthDate, row.facilityId))
+        || seenPatients.contains(
+            new PatientKey(row.firstName, row.lastName, row.birthDate, PatientKey.NO_FACILITY));
+  }
+
+  private static void seen(
+      Set<PatientKey> seenPatients,
+      String firstName,
+      String lastName,
+      LocalDate birthDate,
+      UUID facilityId) {
+    seenPatients.add(
+        new PatientKey(
+            firstName,
+            lastName,
+            birthDate,
+            facilityId == null ? PatientKey.NO_FACILITY : facilityId));
+    seenPatients.add(new PatientKey(firstName, lastName, birthDate, PatientKey.ANYWHERE));
+  }
+
+  /**
+   * The fields {@link PersonService#isDuplicatePatient} matches on. Each patient is recorded both
+   * at their facility (or {@link #NO_FACILITY}) and {@link #ANYWHERE} in the organization.
+   */
+  @EqualsAndHashCode
+  private static class PatientKey {
+    private static final UUID NO_FACILITY = new UUID(0, 0);
+    private static final UUID ANYWHERE = null;
+
+    private final String firstName;
+    private final String lastName;
+    private final LocalDate birthDate;
+    private final UUID facilityId;
+
+    private PatientKey(String firstName, String lastName, LocalDate birthDate, UUID facilityId) {
+      this.firstName = firstName == null ? null : firstName.toLowerCase();
+      this.lastName = lastName == null ? null : lastName.toLowerCase();
+      this.birthDate = birthDate;
+      this.facilityId = facilityId;
+    }
+  }
 }
@@ -4,7 +4,6 @@ import gov.cdc.usds.simplereport.db.model.PatientSelfRegistrationLink;
 import gov.cdc.usds.simplereport.db.repository.PatientRegistrationLinkRepository;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
@@ -22,20 +21,18 @@ public class ApiFacilityPatientSelfRegistrationLinkDataLoader
   ApiFacilityPatientSelfRegistrationLinkDataLoader(
       PatientRegistrationLinkRepository patientSelfRegistrationLinkRepository) {
     super(
-        facilityIds ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  Map<UUID, PatientSelfRegistrationLink> found =
-                      patientSelfRegistrationLinkRepository
-                          .findAllByFacilityInternalIdIn(facilityIds)
-                          .stream()
-                          .collect(
-                              Collectors.toMap(
-                                  srl -> srl.getFacility().getInternalId(), Function.identity()));
+        facilityIds -> {
+          Map<UUID, PatientSelfRegistrationLink> found =
+              patientSelfRegistrationLinkRepository
+                  .findAllByFacilityInternalIdIn(facilityIds)
+                  .stream()
+                  .collect(
+                      Collectors.toMap(
+                          srl -> srl.getFacility().getInternalId(), Function.identity()));
 
-                  return facilityIds.stream()
-                      .map(facilityId -> found.get(facilityId).getLink())
-                      .collect(Collectors.toList());
-                }));
+          return facilityIds.stream()
+              .map(facilityId -> found.get(facilityId).getLink())
+              .collect(Collectors.toList());
+        });
   }
 }
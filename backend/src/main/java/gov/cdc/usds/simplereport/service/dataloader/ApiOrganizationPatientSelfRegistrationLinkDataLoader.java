@@ -4,7 +4,6 @@ import gov.cdc.usds.simplereport.db.model.PatientSelfRegistrationLink;
 import gov.cdc.usds.simplereport.db.repository.PatientRegistrationLinkRepository;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
@@ -22,21 +21,18 @@ public class ApiOrganizationPatientSelfRegistrationLinkDataLoader
   ApiOrganizationPatientSelfRegistrationLinkDataLoader(
       PatientRegistrationLinkRepository patientSelfRegistrationLinkRepository) {
     super(
-        organizationIds ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  Map<UUID, PatientSelfRegistrationLink> found =
-                      patientSelfRegistrationLinkRepository
-                          .findAllByOrganizationInternalIdIn(organizationIds)
-                          .stream()
-                          .collect(
-                              Collectors.toMap(
-                                  srl -> srl.getOrganization().getInternalId(),
-                                  Function.identity()));
+        organizationIds -> {
+          Map<UUID, PatientSelfRegistrationLink> found =
+              patientSelfRegistrationLinkRepository
+                  .findAllByOrganizationInternalIdIn(organizationIds)
+                  .stream()
+                  .collect(
+                      Collectors.toMap(
+                          srl -> srl.getOrganization().getInternalId(), Function.identity()));
 
-                  return organizationIds.stream()
-                      .map(orgId -> found.get(orgId).getLink())
-                      .collect(Collectors.toList());
-                }));
+          return organizationIds.stream()
+              .map(orgId -> found.get(orgId).getLink())
+              .collect(Collectors.toList());
+        });
   }
 }
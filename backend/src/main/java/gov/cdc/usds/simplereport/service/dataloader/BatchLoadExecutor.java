@@ -0,0 +1,116 @@
+package gov.cdc.usds.simplereport.service.dataloader;
+
+import gov.cdc.usds.simplereport.logging.GraphqlMetricsState;
+import gov.cdc.usds.simplereport.logging.LoggingConstants;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * The thread pool that DataLoader batch loads run on, so that their blocking database queries stay
+ * off the JVM-wide common pool. The pool is kept well below the size of the database connection
+ * pool, so that a query with many DataLoader fields cannot take every connection away from request
+ * threads. When the pool and its queue are full, batch loads run on the calling thread.
+ *
+ * <p>The size and duration of every batch load are recorded per DataLoader; the number of
+ * dispatches is the count of either.
+ */
+@Component
+@Slf4j
+class BatchLoadExecutor implements Executor {
+  private static final int QUEUE_CAPACITY = 1000;
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final ThreadPoolTaskExecutor executor;
+  private final MeterRegistry meterRegistry;
+  private final int maxBatchSize;
+  private final Map<String, BatchMeters> batchMeters = new ConcurrentHashMap<>();
+
+  BatchLoadExecutor(
+      TaskExecutorBuilder taskExecutorBuilder,
+      MeterRegistry meterRegistry,
+      @Value("${spring.datasource.simplereport.hikari.maximum-pool-size:10}")
+          int connectionPoolSize,
+      @Value("${simple-report.dataloader.threads:0}") int threads,
+      @Value("${simple-report.dataloader.max-batch-size:500}") int maxBatchSize) {
+    int poolSize = threads > 0 ? threads : Math.max(1, connectionPoolSize / 4);
+    this.executor =
+        taskExecutorBuilder
+            .corePoolSize(poolSize)
+            .maxPoolSize(poolSize)
+            .queueCapacity(QUEUE_CAPACITY)
+            .threadNamePrefix("graphql-dataloader-")
+            .awaitTermination(true)
+            .awaitTerminationPeriod(SHUTDOWN_TIMEOUT)
+            .build();
+    executor.setDaemon(true);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.initialize();
+    ExecutorServiceMetrics.monitor(
+        meterRegistry, executor.getThreadPoolExecutor(), "graphqlDataLoader");
+    this.meterRegistry = meterRegistry;
+    this.maxBatchSize = maxBatchSize;
+    log.info("DataLoader batches limited to {} keys on {} threads", maxBatchSize, poolSize);
+  }
+
+  /** Let batch loads already under way finish (up to a point), then stop the loader threads. */
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    executor.execute(GraphqlMetricsState.propagate(command));
+  }
+
+  /** Run one batch load for the named DataLoader on this executor. */
+  <V> CompletableFuture<List<V>> loadBatch(
+      String loaderName, int batchSize, Supplier<List<V>> batchLoad) {
+    BatchMeters meters = batchMeters.computeIfAbsent(loaderName, this::createBatchMeters);
+    meters.sizes.record(batchSize);
+    return CompletableFuture.supplyAsync(meters.loads.wrap(batchLoad), this);
+  }
+
+  private BatchMeters createBatchMeters(String loaderName) {
+    return new BatchMeters(
+        DistributionSummary.builder(LoggingConstants.BATCH_SIZE_METRIC)
+            .description("Keys passed to a single DataLoader batch load")
+            .tag("loader", loaderName)
+            .register(meterRegistry),
+        Timer.builder(LoggingConstants.BATCH_LOAD_METRIC)
+            .description("Time spent running a DataLoader batch load")
+            .tag("loader", loaderName)
+            .register(meterRegistry));
+  }
+
+  /** The most keys passed to a single batch load; larger batches are split and run in parallel. */
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  private static class BatchMeters {
+    private final DistributionSummary sizes;
+    private final Timer loads;
+
+    BatchMeters(DistributionSummary sizes, Timer loads) {
+      this.sizes = sizes;
+      this.loads = loads;
+    }
+  }
+}
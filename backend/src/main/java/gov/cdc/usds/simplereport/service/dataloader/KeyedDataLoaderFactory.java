@@ -3,24 +3,37 @@ package gov.cdc.usds.simplereport.service.dataloader;
 import gov.cdc.usds.simplereport.api.model.errors.NoDataLoaderFoundException;
 import graphql.kickstart.execution.context.GraphQLContext;
 import graphql.schema.DataFetchingEnvironment;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import org.dataloader.BatchLoader;
+import java.util.function.Function;
 import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
 import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * The DataLoaderRegistryBuilder will receive an injected List of KeyedDataLoaderFactories, and each
  * time it builds a new DataLoaderRegistry it will use the factories to new up a DataLoader of each
  * type that needs to be registered. In order for them to be get and set, they also have to be aware
  * of their key.
+ *
+ * <p>Subclasses supply a blocking function that loads the values for a list of keys; it is run on
+ * the {@link BatchLoadExecutor}, at most {@link BatchLoadExecutor#getMaxBatchSize()} keys at a
+ * time.
  */
 abstract class KeyedDataLoaderFactory<K, V> {
-  private final BatchLoader<K, V> batchLoadFunction;
+  private final Function<List<K>, List<V>> batchLoadFunction;
+  private BatchLoadExecutor executor;
 
-  KeyedDataLoaderFactory(BatchLoader<K, V> batchLoadFunction) {
+  KeyedDataLoaderFactory(Function<List<K>, List<V>> batchLoadFunction) {
     this.batchLoadFunction = batchLoadFunction;
   }
 
+  @Autowired
+  void setExecutor(BatchLoadExecutor executor) {
+    this.executor = executor;
+  }
+
   public CompletableFuture<V> load(K searchObject, DataFetchingEnvironment dfe) {
     DataLoaderRegistry registry = ((GraphQLContext) dfe.getContext()).getDataLoaderRegistry();
     DataLoader<K, V> loader = registry.getDataLoader(getKey());
@@ -31,7 +44,9 @@ abstract class KeyedDataLoaderFactory<K, V> {
   }
 
   public DataLoader<K, V> get() {
-    return new DataLoader<>(batchLoadFunction);
+    return new DataLoader<>(
+        keys -> executor.loadBatch(getKey(), keys.size(), () -> batchLoadFunction.apply(keys)),
+        DataLoaderOptions.newOptions().setMaxBatchSize(executor.getMaxBatchSize()));
   }
 
   public abstract String getKey();
@@ -6,7 +6,6 @@ import gov.cdc.usds.simplereport.db.repository.PatientAnswersRepository;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
@@ -22,22 +21,17 @@ public class PatientAnswersDataLoader extends KeyedDataLoaderFactory<TestOrder,
 
   PatientAnswersDataLoader(PatientAnswersRepository patientAnswersRepository) {
     super(
-        testOrders ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  List<UUID> patientAnswerIds =
-                      testOrders.stream()
-                          .map(TestOrder::getPatientAnswersId)
-                          .collect(Collectors.toList());
+        testOrders -> {
+          List<UUID> patientAnswerIds =
+              testOrders.stream().map(TestOrder::getPatientAnswersId).collect(Collectors.toList());
 
-                  Map<UUID, PatientAnswers> found =
-                      patientAnswersRepository.findAllByInternalIdIn(patientAnswerIds).stream()
-                          .collect(
-                              Collectors.toMap(PatientAnswers::getInternalId, Function.identity()));
+          Map<UUID, PatientAnswers> found =
+              patientAnswersRepository.findAllByInternalIdIn(patientAnswerIds).stream()
+                  .collect(Collectors.toMap(PatientAnswers::getInternalId, Function.identity()));
 
-                  return testOrders.stream()
-                      .map(to -> found.getOrDefault(to.getPatientAnswersId(), null))
-                      .collect(Collectors.toList());
-                }));
+          return testOrders.stream()
+              .map(to -> found.getOrDefault(to.getPatientAnswersId(), null))
+              .collect(Collectors.toList());
+        });
   }
 }
@@ -4,7 +4,6 @@ import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
@@ -19,15 +18,13 @@ public class PatientLastTestDataLoader extends KeyedDataLoaderFactory<UUID, Test
 
   PatientLastTestDataLoader(TestEventRepository testEventRepository) {
     super(
-        patientIds ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  Map<UUID, TestEvent> found =
-                      testEventRepository.findLastTestsByPatient(patientIds).stream()
-                          .collect(Collectors.toMap(TestEvent::getPatientInternalID, s -> s));
-                  return patientIds.stream()
-                      .map(te -> found.getOrDefault(te, null))
-                      .collect(Collectors.toList());
-                }));
+        patientIds -> {
+          Map<UUID, TestEvent> found =
+              testEventRepository.findLastTestsByPatient(patientIds).stream()
+                  .collect(Collectors.toMap(TestEvent::getPatientInternalID, s -> s));
+          return patientIds.stream()
+              .map(te -> found.getOrDefault(te, null))
+              .collect(Collectors.toList());
+        });
   }
 }
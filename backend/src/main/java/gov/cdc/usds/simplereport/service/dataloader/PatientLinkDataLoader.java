@@ -5,7 +5,6 @@ import gov.cdc.usds.simplereport.db.repository.PatientLinkRepository;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
@@ -35,19 +34,16 @@ public class PatientLinkDataLoader extends KeyedDataLoaderFactory<UUID, PatientL
 
   PatientLinkDataLoader(PatientLinkRepository patientLinkRepository) {
     super(
-        testOrders ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  Map<UUID, List<PatientLink>> found =
-                      patientLinkRepository.findAllByTestOrderInternalIdIn(testOrders).stream()
-                          .collect(Collectors.groupingBy(PatientLink::getTestOrderId));
+        testOrders -> {
+          Map<UUID, List<PatientLink>> found =
+              patientLinkRepository.findAllByTestOrderInternalIdIn(testOrders).stream()
+                  .collect(Collectors.groupingBy(PatientLink::getTestOrderId));
 
-                  return testOrders.stream()
-                      .map(
-                          to ->
-                              PatientLinkDataLoader.getMostRecentPatientLink(
-                                  found.getOrDefault(to, null)))
-                      .collect(Collectors.toList());
-                }));
+          return testOrders.stream()
+              .map(
+                  to ->
+                      PatientLinkDataLoader.getMostRecentPatientLink(found.getOrDefault(to, null)))
+              .collect(Collectors.toList());
+        });
   }
 }
@@ -5,7 +5,6 @@ import gov.cdc.usds.simplereport.db.repository.PhoneNumberRepository;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
@@ -20,17 +19,15 @@ public class PatientPhoneNumbersDataLoader extends KeyedDataLoaderFactory<UUID,
 
   PatientPhoneNumbersDataLoader(PhoneNumberRepository phoneNumberRepository) {
     super(
-        patientIds ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  Map<UUID, List<PhoneNumber>> found =
-                      phoneNumberRepository.findAllByPersonInternalIdIn(patientIds).stream()
-                          .flatMap(List::stream)
-                          .collect(Collectors.groupingBy(PhoneNumber::getPersonInternalID));
+        patientIds -> {
+          Map<UUID, List<PhoneNumber>> found =
+              phoneNumberRepository.findAllByPersonInternalIdIn(patientIds).stream()
+                  .flatMap(List::stream)
+                  .collect(Collectors.groupingBy(PhoneNumber::getPersonInternalID));
 
-                  return patientIds.stream()
-                      .map(pn -> found.getOrDefault(pn, null))
-                      .collect(Collectors.toList());
-                }));
+          return patientIds.stream()
+              .map(pn -> found.getOrDefault(pn, null))
+              .collect(Collectors.toList());
+        });
   }
 }
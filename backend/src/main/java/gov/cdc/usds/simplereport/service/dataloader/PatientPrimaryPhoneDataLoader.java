@@ -5,7 +5,6 @@ import gov.cdc.usds.simplereport.db.model.PhoneNumber;
 import gov.cdc.usds.simplereport.db.repository.PhoneNumberRepository;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
@@ -20,22 +19,20 @@ public class PatientPrimaryPhoneDataLoader extends KeyedDataLoaderFactory<Person
 
   PatientPrimaryPhoneDataLoader(PhoneNumberRepository phoneNumberRepository) {
     super(
-        patients ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  var phoneIds =
-                      patients.stream()
-                          .map(Person::getPrimaryPhone)
-                          .map(PhoneNumber::getInternalId)
-                          .collect(Collectors.toList());
+        patients -> {
+          var phoneIds =
+              patients.stream()
+                  .map(Person::getPrimaryPhone)
+                  .map(PhoneNumber::getInternalId)
+                  .collect(Collectors.toList());
 
-                  Map<UUID, PhoneNumber> found =
-                      phoneNumberRepository.findAllByInternalIdIn(phoneIds).stream()
-                          .collect(Collectors.toMap(PhoneNumber::getInternalId, s -> s));
+          Map<UUID, PhoneNumber> found =
+              phoneNumberRepository.findAllByInternalIdIn(phoneIds).stream()
+                  .collect(Collectors.toMap(PhoneNumber::getInternalId, s -> s));
 
-                  return patients.stream()
-                      .map(p -> found.getOrDefault(p.getPrimaryPhone().getInternalId(), null))
-                      .collect(Collectors.toList());
-                }));
+          return patients.stream()
+              .map(p -> found.getOrDefault(p.getPrimaryPhone().getInternalId(), null))
+              .collect(Collectors.toList());
+        });
   }
 }
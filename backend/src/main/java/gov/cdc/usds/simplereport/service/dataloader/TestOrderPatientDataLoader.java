@@ -4,7 +4,6 @@ import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.repository.PersonRepository;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
@@ -19,16 +18,14 @@ public class TestOrderPatientDataLoader extends KeyedDataLoaderFactory<UUID, Per
 
   TestOrderPatientDataLoader(PersonRepository personRepository) {
     super(
-        personIds ->
-            CompletableFuture.supplyAsync(
-                () -> {
-                  Map<UUID, Person> found =
-                      personRepository.findAllByInternalIdIn(personIds).stream()
-                          .collect(Collectors.toMap(Person::getInternalId, s -> s));
+        personIds -> {
+          Map<UUID, Person> found =
+              personRepository.findAllByInternalIdIn(personIds).stream()
+                  .collect(Collectors.toMap(Person::getInternalId, s -> s));
 
-                  return personIds.stream()
-                      .map(pid -> found.getOrDefault(pid, null))
-                      .collect(Collectors.toList());
-                }));
+          return personIds.stream()
+              .map(pid -> found.getOrDefault(pid, null))
+              .collect(Collectors.toList());
+        });
   }
 }
@@ -0,0 +1,13 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import com.okta.sdk.resource.user.UserStatus;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import lombok.Value;
+
+/** A user in an organization, as Okta has them: their login, status, and claims in the org. */
+@Value
+public class OrganizationRosterMember {
+  String username;
+  UserStatus status;
+  OrganizationRoleClaims claims;
+}
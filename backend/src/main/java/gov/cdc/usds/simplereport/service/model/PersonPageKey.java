@@ -0,0 +1,20 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import java.util.UUID;
+import lombok.Value;
+
+/**
+ * The position of a patient in the patient list (ordered by last name, then first name), used to
+ * fetch the page that follows it. The first name may be null.
+ */
+@Value
+public class PersonPageKey {
+  String lastName;
+  String firstName;
+  UUID internalId;
+
+  public static PersonPageKey of(Person person) {
+    return new PersonPageKey(person.getLastName(), person.getFirstName(), person.getInternalId());
+  }
+}
@@ -11,4 +11,6 @@ public class SmsAPICallResult {
   private String telephone;
   private String messageId;
   private boolean successful;
+  // the send failed in a way that retrying will not fix (such as the number not being valid)
+  private boolean permanentFailure;
 }
@@ -0,0 +1,21 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Value;
+
+/**
+ * The position of a test event in the result list (newest first), used to fetch the page that
+ * follows it. The creation time is kept at full database precision so that the seek matches it
+ * exactly.
+ */
+@Value
+public class TestEventPageKey {
+  Instant createdAt;
+  UUID internalId;
+
+  public static TestEventPageKey of(TestEvent event) {
+    return new TestEventPageKey(event.getCreatedAt().toInstant(), event.getInternalId());
+  }
+}
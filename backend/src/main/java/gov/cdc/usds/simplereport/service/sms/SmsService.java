@@ -21,6 +21,7 @@ import javax.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -49,6 +50,15 @@ public class SmsService {
   @AuthorizationConfiguration.RequirePermissionStartTestWithPatientLink
   @Transactional(noRollbackFor = {TwilioException.class, ApiException.class})
   public List<SmsAPICallResult> sendToPatientLink(PatientLink patientLink, String text) {
+    return sendToPatientLinkNoPermissionsCheck(patientLink, text);
+  }
+
+  // NO PERMISSION CHECK (make sure the caller has one!)
+  // Runs outside of any transaction, so that the calls to the provider do not hold a database
+  // connection: each TextMessageSent is saved on its own.
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public List<SmsAPICallResult> sendToPatientLinkNoPermissionsCheck(
+      PatientLink patientLink, String text) {
     List<SmsAPICallResult> smsSendResults =
         sendToPerson(patientLink.getTestOrder().getPatient(), text);
 
@@ -74,13 +84,13 @@ public class SmsService {
                     sms.send(new PhoneNumber(formatNumber(phoneNumber.getNumber())), text);
                 log.debug("SMS send initiated {}", msgId);
 
-                return new SmsAPICallResult(phoneNumber.getNumber(), msgId, true);
+                return new SmsAPICallResult(phoneNumber.getNumber(), msgId, true, false);
               } catch (NumberParseException npe) {
                 log.warn("Failed to parse phone number for patient={}", p.getInternalId());
-                return new SmsAPICallResult(phoneNumber.getNumber(), null, false);
+                return new SmsAPICallResult(phoneNumber.getNumber(), null, false, true);
               } catch (ApiException apiException) {
                 log.warn("Failed to send text message to patient={}", p.getInternalId());
-                return new SmsAPICallResult(phoneNumber.getNumber(), null, false);
+                return new SmsAPICallResult(phoneNumber.getNumber(), null, false, false);
               }
             })
         .collect(Collectors.toList());
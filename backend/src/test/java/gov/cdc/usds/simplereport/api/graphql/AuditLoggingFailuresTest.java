@@ -66,7 +66,7 @@ class AuditLoggingFailuresTest extends BaseGraphqlTest {
   @MockBean private ApiAuditEventRepository _auditRepo;
   @MockBean private TestEventRepository _testEventRepo;
   @MockBean private TimeOfConsentService _consentService;
-  @Captor private ArgumentCaptor<ApiAuditEvent> _eventCaptor;
+  @Captor private ArgumentCaptor<Iterable<ApiAuditEvent>> _eventCaptor;
 
   private Facility _base;
   private Person _patient;
@@ -94,14 +94,14 @@ class AuditLoggingFailuresTest extends BaseGraphqlTest {
             .put("deviceId", _base.getDefaultDeviceType().getInternalId().toString())
             .put("result", "NEGATIVE");
     runQuery("submit-test", args, "ewww");
-    verify(_auditRepo).save(_eventCaptor.capture());
-    ApiAuditEvent event = _eventCaptor.getValue();
+    verify(_auditRepo).saveAll(_eventCaptor.capture());
+    ApiAuditEvent event = _eventCaptor.getValue().iterator().next();
     assertEquals(List.of("addTestResultNew"), event.getGraphqlErrorPaths());
   }
 
   @Test
   void graphqlQuery_auditFailure_noDataReturned() {
-    when(_auditRepo.save(_eventCaptor.capture()))
+    when(_auditRepo.saveAll(_eventCaptor.capture()))
         .thenThrow(new IllegalArgumentException("naughty naughty"));
     useOrgUserAllFacilityAccess();
     ObjectNode args = patientArgs().put("symptoms", "{}").put("noSymptoms", true);
@@ -122,8 +122,8 @@ class AuditLoggingFailuresTest extends BaseGraphqlTest {
         _restTemplate.exchange(
             ResourceLinks.VERIFY_LINK, HttpMethod.POST, requestEntity, String.class);
     log.info("Response body is {}", resp.getBody());
-    verify(_auditRepo).save(_eventCaptor.capture());
-    assertThat(_eventCaptor.getValue())
+    verify(_auditRepo).saveAll(_eventCaptor.capture());
+    assertThat(_eventCaptor.getValue().iterator().next())
         .as("Saved audit event")
         .matches(e -> e.getHttpRequestDetails().getRequestUri().equals(ResourceLinks.VERIFY_LINK))
         .hasFieldOrPropertyWithValue("responseCode", 500);
@@ -132,7 +132,7 @@ class AuditLoggingFailuresTest extends BaseGraphqlTest {
   @Test
   void restQuery_auditFailure_noDataReturned()
       throws JsonMappingException, JsonProcessingException {
-    when(_auditRepo.save(_eventCaptor.capture())).thenThrow(HibernateException.class);
+    when(_auditRepo.saveAll(_eventCaptor.capture())).thenThrow(HibernateException.class);
     HttpEntity<JsonNode> requestEntity = new HttpEntity<JsonNode>(makeVerifyLinkArgs());
     ResponseEntity<String> resp =
         _restTemplate.exchange(
@@ -1,7 +1,9 @@
 package gov.cdc.usds.simplereport.api.graphql;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -67,6 +69,32 @@ class QueueManagementTest extends BaseGraphqlTest {
     assertEquals("1899-05-10", queueEntry.get("patient").get("birthDate").asText());
   }
 
+  @Test
+  void enqueueManyPatients() throws Exception {
+    Person p = _dataFactory.createFullPerson(_org);
+    ArrayNode patients = JsonNodeFactory.instance.arrayNode();
+    patients
+        .addObject()
+        .put("patientId", p.getInternalId().toString())
+        .put("symptoms", "{}")
+        .put("symptomOnset", "2020-11-30");
+    patients.addObject().put("patientId", UUID.randomUUID().toString());
+    ObjectNode variables = getFacilityScopedArguments();
+    variables.set("patients", patients);
+
+    ArrayNode results =
+        (ArrayNode) runQuery("add-patients-to-queue", variables).get("addPatientsToQueue");
+
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).get("error").isNull());
+    assertFalse(results.get(1).get("error").isNull());
+    ArrayNode queueData = fetchQueue();
+    assertEquals(1, queueData.size());
+    JsonNode queueEntry = queueData.get(0);
+    assertEquals(results.get(0).get("testOrderId").asText(), queueEntry.get("internalId").asText());
+    assertEquals("2020-11-30", queueEntry.get("symptomOnset").asText());
+  }
+
   @Test
   void updateItemInQueue() throws Exception {
     Person p = _dataFactory.createFullPerson(_org);
@@ -1,6 +1,7 @@
 package gov.cdc.usds.simplereport.api.graphql;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -74,6 +75,30 @@ class TestResultTest extends BaseGraphqlTest {
     assertNotNull(testResults.get(0).get("patientLink"));
   }
 
+  @Test
+  void fetchTestResultsConnection_pagesThroughResults() {
+    Person p = _dataFactory.createFullPerson(_org);
+    UUID oldest = _dataFactory.createTestEvent(p, _site).getInternalId();
+    _dataFactory.createTestEvent(p, _site);
+    _dataFactory.createTestEvent(p, _site);
+
+    ObjectNode variables = getFacilityScopedArguments().put("first", 2);
+    JsonNode firstPage =
+        runQuery("test-results-connection-query", variables).get("testResultsConnection");
+    assertEquals(2, firstPage.get("edges").size());
+    assertTrue(firstPage.get("pageInfo").get("hasNextPage").asBoolean());
+    assertEquals(3, firstPage.get("totalCount").asInt());
+
+    variables.put("after", firstPage.get("pageInfo").get("endCursor").asText());
+    JsonNode secondPage =
+        runQuery("test-results-connection-query", variables).get("testResultsConnection");
+    assertEquals(1, secondPage.get("edges").size());
+    assertFalse(secondPage.get("pageInfo").get("hasNextPage").asBoolean());
+    // newest first, so the first test event created is the last one returned
+    assertEquals(
+        oldest.toString(), secondPage.get("edges").get(0).get("node").get("internalId").asText());
+  }
+
   @Test
   void submitTestResult() throws Exception {
     Person p = _dataFactory.createFullPerson(_org);
@@ -0,0 +1,58 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
+import gov.cdc.usds.simplereport.service.model.PersonPageKey;
+import gov.cdc.usds.simplereport.service.model.TestEventPageKey;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class ConnectionCursorTest {
+
+  @Test
+  void decode_encodedParts_roundTrips() {
+    String[] parts = {"O'Brien-Smith.Jr", "", null, "Zoë, \"the\" | 1st"};
+    assertArrayEquals(parts, ConnectionCursor.decode(ConnectionCursor.encode(parts), 4));
+  }
+
+  @Test
+  void decode_wrongNumberOfParts_error() {
+    String cursor = ConnectionCursor.encode("a", "b");
+    assertThrows(IllegalGraphqlArgumentException.class, () -> ConnectionCursor.decode(cursor, 3));
+  }
+
+  @Test
+  void decode_garbage_error() {
+    assertThrows(
+        IllegalGraphqlArgumentException.class, () -> ConnectionCursor.decode("not!base64.?", 2));
+    assertThrows(
+        IllegalGraphqlArgumentException.class, () -> ConnectionCursor.decode("YWJj.YWJj", 2));
+  }
+
+  @Test
+  void parseCursor_testResultCursor_keepsFullPrecision() {
+    TestEventPageKey key =
+        new TestEventPageKey(Instant.parse("2021-07-01T12:34:56.123456Z"), UUID.randomUUID());
+    String cursor =
+        ConnectionCursor.encode(key.getCreatedAt().toString(), key.getInternalId().toString());
+
+    assertEquals(key, TestResultEdge.parseCursor(cursor));
+    assertNull(TestResultEdge.parseCursor(null));
+    assertThrows(
+        IllegalGraphqlArgumentException.class,
+        () -> TestResultEdge.parseCursor(ConnectionCursor.encode("yesterday", "nope")));
+  }
+
+  @Test
+  void parseCursor_patientCursorWithoutFirstName_nullFirstName() {
+    UUID id = UUID.randomUUID();
+    String cursor = ConnectionCursor.encode("Jones", null, id.toString());
+
+    assertEquals(new PersonPageKey("Jones", null, id), PatientEdge.parseCursor(cursor));
+  }
+}
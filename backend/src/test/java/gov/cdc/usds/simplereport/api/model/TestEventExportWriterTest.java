@@ -0,0 +1,88 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.repository.BaseRepositoryTest;
+import gov.cdc.usds.simplereport.test_util.TestDataFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class TestEventExportWriterTest extends BaseRepositoryTest {
+  // computed from the clock, so it may tick over between the two serializations
+  private static final String RELEASED_FIELD = "Date_result_released";
+
+  @Autowired private TestDataFactory _dataFactory;
+
+  private final ObjectMapper _mapper = new ObjectMapper();
+
+  @Test
+  void write_originalEvent_matchesBeanSerialization() throws IOException {
+    TestEvent event = createEvent();
+
+    assertMatchesBeanSerialization(event);
+  }
+
+  @Test
+  void write_removedEvent_matchesBeanSerialization() throws IOException {
+    TestEvent removal = _dataFactory.createTestEventRemoval(createEvent());
+
+    assertMatchesBeanSerialization(removal);
+  }
+
+  @Test
+  void csvSchema_sameColumnsAsBean() {
+    // in declaration order, as in JSON, rather than CsvMapper's default of alphabetical order
+    CsvSchema beanSchema =
+        CsvMapper.builder()
+            .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build()
+            .schemaFor(TestEventExport.class);
+
+    assertEquals(columnNames(beanSchema), columnNames(TestEventExportWriter.CSV_SCHEMA));
+  }
+
+  private TestEvent createEvent() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility facility = _dataFactory.createValidFacility(org);
+    Person patient = _dataFactory.createFullPerson(org);
+    return _dataFactory.createTestEvent(patient, facility);
+  }
+
+  private void assertMatchesBeanSerialization(TestEvent event) throws IOException {
+    ObjectNode expected = (ObjectNode) _mapper.valueToTree(new TestEventExport(event));
+    ObjectNode actual =
+        (ObjectNode)
+            _mapper.readTree(TestEventExportWriter.writeValueAsString(_mapper.getFactory(), event));
+    expected.remove(RELEASED_FIELD);
+    actual.remove(RELEASED_FIELD);
+    assertEquals(expected, actual);
+    // ObjectNode equality ignores field order
+    assertEquals(fieldNames(expected), fieldNames(actual));
+  }
+
+  private static List<String> fieldNames(ObjectNode node) {
+    List<String> names = new ArrayList<>();
+    node.fieldNames().forEachRemaining(names::add);
+    return names;
+  }
+
+  private static List<String> columnNames(CsvSchema schema) {
+    return StreamSupport.stream(schema.spliterator(), false)
+        .map(CsvSchema.Column::getName)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,155 @@
+package gov.cdc.usds.simplereport.api.testresult;
+
+import static gov.cdc.usds.simplereport.config.WebConfiguration.TEST_RESULT_EXPORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import gov.cdc.usds.simplereport.api.graphql.BaseGraphqlTest;
+import gov.cdc.usds.simplereport.config.authorization.DemoAuthenticationConfiguration;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportStandardUser;
+import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+@TestPropertySource(properties = "hibernate.query.interceptor.error-level=ERROR")
+@WithSimpleReportStandardUser // for creating the test data
+class TestResultExportControllerTest extends BaseGraphqlTest {
+
+  @Autowired private MockMvc _mockMvc;
+
+  private Organization _org;
+  private Facility _site;
+
+  @BeforeEach
+  void init() {
+    _org = _orgService.getCurrentOrganizationNoCache();
+    _site = _orgService.getFacilities(_org).get(0);
+  }
+
+  @Test
+  void exportTestResults_csv_rowsStreamed() throws Exception {
+    Person p = _dataFactory.createFullPerson(_org);
+    _dataFactory.createTestEvent(p, _site);
+    _dataFactory.createTestEvent(p, _site);
+
+    MvcResult started =
+        _mockMvc
+            .perform(exportRequest().param("facilityId", _site.getInternalId().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    String body =
+        _mockMvc
+            .perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(TestResultExportController.TEXT_CSV))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    String[] lines = body.split("\n");
+    assertThat(lines).hasSize(3);
+    assertThat(lines[0]).startsWith("Patient_last_name,");
+    assertThat(lines[1]).startsWith(p.getLastName() + ",");
+  }
+
+  @Test
+  void exportTestResults_ndjson_rowsStreamed() throws Exception {
+    Person p = _dataFactory.createFullPerson(_org);
+    _dataFactory.createTestEvent(p, _site);
+
+    MvcResult started =
+        _mockMvc
+            .perform(
+                exportRequest()
+                    .param("facilityId", _site.getInternalId().toString())
+                    .param("format", TestResultExportController.FORMAT_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    String body =
+        _mockMvc
+            .perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertThat(body).startsWith("{\"Patient_last_name\":\"" + p.getLastName() + "\"");
+  }
+
+  @Test
+  void exportTestResults_noFacilityOrPatient_badRequest() throws Exception {
+    _mockMvc.perform(exportRequest()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void exportTestResults_otherFacility_forbidden() throws Exception {
+    _mockMvc
+        .perform(
+            exportRequest()
+                .param(
+                    "facilityId",
+                    _dataFactory
+                        .createValidFacility(_dataFactory.createValidOrg())
+                        .getInternalId()
+                        .toString()))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  void exportTestResults_exportTimeoutApplied() throws Exception {
+    MvcResult started =
+        _mockMvc
+            .perform(exportRequest().param("facilityId", _site.getInternalId().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    assertThat(started.getRequest().getAsyncContext().getTimeout())
+        .isEqualTo(Duration.ofMinutes(15).toMillis());
+  }
+
+  @Test
+  void exportTestResults_otherOrganizationPatient_noRows() throws Exception {
+    Organization otherOrg = _dataFactory.createValidOrg("Other org", "k12", "OTHER_ORG", true);
+    Person other = _dataFactory.createFullPerson(otherOrg);
+    _dataFactory.createTestEvent(other, _dataFactory.createValidFacility(otherOrg));
+
+    MvcResult started =
+        _mockMvc
+            .perform(exportRequest().param("patientId", other.getInternalId().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    String body =
+        _mockMvc
+            .perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertThat(body).doesNotContain(other.getLastName());
+    assertThat(body.split("\n")).hasSizeLessThanOrEqualTo(1);
+  }
+
+  private static MockHttpServletRequestBuilder exportRequest() {
+    return get(TEST_RESULT_EXPORT)
+        .header(
+            HttpHeaders.AUTHORIZATION,
+            "Bearer "
+                + DemoAuthenticationConfiguration.DEMO_AUTHORIZATION_FLAG
+                + TestUserIdentities.STANDARD_USER);
+  }
+}
@@ -1,6 +1,8 @@
 package gov.cdc.usds.simplereport.config.authorization;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gov.cdc.usds.simplereport.config.AuthorizationProperties;
@@ -163,6 +165,42 @@ class OrganizationExtractorTest {
                                 Set.of(UUID.fromString("80d0c820-1dc5-418e-a61e-dc6dad8c5e49")))));
   }
 
+  @Test
+  void convert_equalAuthorities_sharedImmutableReturn() {
+    OrganizationExtractor extractor = new OrganizationExtractor(MOCK_PROPS);
+    List<OrganizationRoleClaims> first =
+        extractor.convert(
+            List.of(
+                new SimpleGrantedAuthority("SR-UNITTEST-TENANT:MYNIFTYORG:USER"),
+                new SimpleGrantedAuthority(
+                    "SR-UNITTEST-TENANT:MYNIFTYORG:FACILITY_ACCESS:"
+                        + "80d0c820-1dc5-418e-a61e-dc6dad8c5e49")));
+    List<OrganizationRoleClaims> second =
+        extractor.convertClaims(
+            List.of(
+                "SR-UNITTEST-TENANT:MYNIFTYORG:USER",
+                "SR-UNITTEST-TENANT:MYNIFTYORG:FACILITY_ACCESS:"
+                    + "80d0c820-1dc5-418e-a61e-dc6dad8c5e49"));
+    assertSame(first, second);
+    assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+    OrganizationRoleClaims claims = first.get(0);
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> claims.getGrantedRoles().add(OrganizationRole.ADMIN));
+    assertThrows(UnsupportedOperationException.class, () -> claims.getFacilities().clear());
+  }
+
+  @Test
+  void convert_differentAuthorities_separateReturn() {
+    OrganizationExtractor extractor = new OrganizationExtractor(MOCK_PROPS);
+    List<OrganizationRoleClaims> user =
+        extractor.convertClaims(List.of("SR-UNITTEST-TENANT:MYNIFTYORG:USER"));
+    List<OrganizationRoleClaims> admin =
+        extractor.convertClaims(List.of("SR-UNITTEST-TENANT:MYNIFTYORG:ADMIN"));
+    assertEquals(Set.of(OrganizationRole.USER), user.get(0).getGrantedRoles());
+    assertEquals(Set.of(OrganizationRole.ADMIN), admin.get(0).getGrantedRoles());
+  }
+
   private List<OrganizationRoleClaims> convert(List<GrantedAuthority> authorities) {
     return new OrganizationExtractor(MOCK_PROPS).convert(authorities);
   }
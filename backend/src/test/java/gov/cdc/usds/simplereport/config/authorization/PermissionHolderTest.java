@@ -141,6 +141,22 @@ class PermissionHolderTest {
     assertTrue(makeHolder(roles).grantsAllFacilityAccess());
   }
 
+  @Test
+  void getGrantedPermissionMask_eachRoleCombination_matchesGrantedPermissions() {
+    for (OrganizationRole one : OrganizationRole.values()) {
+      for (OrganizationRole other : OrganizationRole.values()) {
+        PermissionHolder holder = makeHolder(EnumSet.of(one, other));
+        long mask = holder.getGrantedPermissionMask();
+        for (UserPermission permission : UserPermission.values()) {
+          assertEquals(
+              holder.getGrantedPermissions().contains(permission),
+              (mask & permission.getMask()) != 0,
+              one + "+" + other + ": " + permission);
+        }
+      }
+    }
+  }
+
   private PermissionHolder makeHolder(Collection<OrganizationRole> roles) {
     return () -> Set.copyOf(roles);
   }
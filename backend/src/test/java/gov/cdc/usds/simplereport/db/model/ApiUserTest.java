@@ -0,0 +1,40 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import java.time.Duration;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+class ApiUserTest {
+  private static final Duration GRANULARITY = Duration.ofMinutes(5);
+
+  private final ApiUser user =
+      new ApiUser("someone@example.com", new PersonName("Some", null, "One", null));
+
+  @Test
+  void updateLastSeen_neverSeen_updates() {
+    assertTrue(user.updateLastSeen(GRANULARITY));
+    assertNotNull(user.getLastSeen());
+  }
+
+  @Test
+  void updateLastSeen_seenRecently_skipsUpdate() {
+    user.updateLastSeen();
+    Date firstSeen = user.getLastSeen();
+
+    assertFalse(user.updateLastSeen(GRANULARITY));
+    assertEquals(firstSeen, user.getLastSeen());
+  }
+
+  @Test
+  void updateLastSeen_zeroGranularity_alwaysUpdates() {
+    user.updateLastSeen();
+
+    assertTrue(user.updateLastSeen(Duration.ZERO));
+  }
+}
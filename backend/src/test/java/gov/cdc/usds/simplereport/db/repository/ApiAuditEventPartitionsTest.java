@@ -0,0 +1,119 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
+import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventPartitions.Partition;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Import(ApiAuditEventPartitions.class)
+class ApiAuditEventPartitionsTest extends BaseRepositoryTest {
+
+  @Autowired private ApiAuditEventPartitions _partitions;
+  @Autowired private ApiAuditEventRepository _repo;
+  @Autowired private ApiUserRepository _userRepo;
+  @Autowired private JdbcTemplate _jdbc;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String _schema;
+
+  @Test
+  void findPartitions_afterMigration_currentEventsHaveAPartition() {
+    List<Partition> partitions = _partitions.findPartitions();
+
+    assertThat(partitions)
+        .anyMatch(p -> p.getUpperBound() != null && p.getUpperBound().isAfter(LocalDateTime.now()))
+        .anyMatch(p -> p.getUpperBound() == null);
+  }
+
+  @Test
+  void attachMonthlyPartition_eventsInDefaultPartition_eventsMoved() {
+    YearMonth month = YearMonth.of(2099, 3);
+    saveEvent("STRAGGLER");
+    flush();
+    // no partition covers this month yet, so the event lands in the default partition
+    _jdbc.update(
+        "UPDATE "
+            + _schema
+            + "."
+            + ApiAuditEventPartitions.TABLE_NAME
+            + " SET event_timestamp = ? WHERE request_id = 'STRAGGLER'",
+        Timestamp.valueOf(month.atDay(15).atStartOfDay()));
+
+    assertTrue(_partitions.hasDefaultPartitionEvents(month));
+    _partitions.createDetachedMonthlyPartition(month);
+    assertEquals(1, _partitions.moveDefaultPartitionEvents(month, 1000));
+    assertEquals(0, _partitions.attachMonthlyPartition(month));
+
+    assertEquals(
+        1,
+        _jdbc.queryForObject(
+            "SELECT COUNT(*) FROM "
+                + _schema
+                + "."
+                + ApiAuditEventPartitions.partitionName(month)
+                + " WHERE request_id = 'STRAGGLER'",
+            Integer.class));
+    assertFalse(_partitions.hasDefaultPartitionEvents(month));
+    assertThat(_partitions.findPartitions())
+        .anyMatch(p -> p.getName().equals(ApiAuditEventPartitions.partitionName(month)))
+        .anyMatch(p -> p.getUpperBound() == null);
+  }
+
+  @Test
+  void createMonthlyPartition_noEventsInDefaultPartition_partitionCreated() {
+    YearMonth month = YearMonth.of(2099, 4);
+
+    assertFalse(_partitions.hasDefaultPartitionEvents(month));
+    _partitions.createMonthlyPartition(month);
+
+    assertThat(_partitions.findPartitions())
+        .anyMatch(p -> p.getName().equals(ApiAuditEventPartitions.partitionName(month)));
+  }
+
+  @Test
+  void exportPartition_savedEvent_exportedAsJson() {
+    saveEvent("EXPORTME");
+    flush();
+
+    List<String> rows = new ArrayList<>();
+    for (Partition partition : _partitions.findPartitions()) {
+      _partitions.exportPartition(partition.getName(), rows::add);
+    }
+
+    assertTrue(rows.stream().anyMatch(row -> row.contains("\"request_id\":\"EXPORTME\"")));
+  }
+
+  private void saveEvent(String requestId) {
+    ApiUser user =
+        _userRepo.save(new ApiUser("jane@example.com", new PersonName("Jane", null, "Doe", null)));
+    _repo.save(
+        new ApiAuditEvent(
+            requestId,
+            new HttpRequestDetails(
+                "foo.com", "1.2.3.4", List.of(), "ftp", "simplereport.name", "/"),
+            new GraphQlInputs("OPPY", "get'em", Map.of()),
+            List.of(),
+            user,
+            List.of(),
+            false,
+            null));
+  }
+}
@@ -0,0 +1,83 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import gov.cdc.usds.simplereport.test_util.TestDataFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class PersonNameSearchQueryTest extends BaseRepositoryTest {
+
+  @Autowired private EntityManager _entityManager;
+  @Autowired private TestDataFactory _dataFactory;
+
+  @Test
+  void search_everyTermMatchesStartOfAName_rankedBySimilarity() {
+    Organization org = _dataFactory.createValidOrg();
+    _dataFactory.createMinimalPerson(org, null, new PersonName("Bradley", "Z.", "Jones", null));
+    _dataFactory.createMinimalPerson(org, null, new PersonName("Dexter", null, "Jones", null));
+    _dataFactory.createMinimalPerson(org, null, new PersonName("Joan", null, "Smith", null));
+    _dataFactory.createMinimalPerson(org, null, new PersonName("Maria", null, "Ajones", null));
+    flush();
+
+    assertEquals(List.of("Dexter", "Bradley"), firstNames(search(org, "jones")));
+    assertEquals(List.of("Bradley"), firstNames(search(org, "jones", "br")));
+    assertEquals(List.of(), firstNames(search(org, "jones", "sm")));
+  }
+
+  @Test
+  void search_likeWildcardsInTerm_matchedLiterally() {
+    Organization org = _dataFactory.createValidOrg();
+    _dataFactory.createMinimalPerson(org, null, new PersonName("Percy", null, "Underhill", null));
+    flush();
+
+    assertEquals(List.of(), search(org, "%"));
+    assertEquals(List.of(), search(org, "_nderhill"));
+    assertEquals(1, search(org, "underhill").size());
+  }
+
+  @Test
+  void explain_searchWithFewMatches_usesNameSearchIndex() {
+    Organization org = _dataFactory.createValidOrg();
+    for (int i = 0; i < 200; i++) {
+      _dataFactory.createMinimalPerson(
+          org, null, new PersonName("Patient" + i, null, "Common", null));
+    }
+    _dataFactory.createMinimalPerson(org, null, new PersonName("Zebulon", null, "Quixote", null));
+    flush();
+    _entityManager.createNativeQuery("ANALYZE {h-schema}person").executeUpdate();
+
+    Query explain =
+        _entityManager
+            .createNativeQuery("EXPLAIN " + PersonNameSearchQuery.toSql(2, true))
+            .setParameter("organizationId", org.getInternalId())
+            .setParameter("isDeleted", false)
+            .setParameter("facilityIds", Set.of(UUID.randomUUID()))
+            .setParameter("search", "zeb qui")
+            .setParameter("term0", PersonNameSearchQuery.toLikePattern("zeb"))
+            .setParameter("term1", PersonNameSearchQuery.toLikePattern("qui"));
+    @SuppressWarnings("unchecked")
+    List<String> plan = explain.getResultList();
+
+    assertThat(String.join("\n", plan)).contains("ix__person__name_search");
+  }
+
+  private List<Person> search(Organization org, String... terms) {
+    return new PersonNameSearchQuery(_entityManager)
+        .search(org.getInternalId(), Set.of(), false, List.of(terms), 10);
+  }
+
+  private static List<String> firstNames(List<Person> people) {
+    return people.stream().map(Person::getFirstName).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,129 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.model.TestResultDailyRollup;
+import gov.cdc.usds.simplereport.db.model.auxiliary.FacilityTestResultWithCount;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.test_util.TestDataFactory;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class TestResultDailyRollupRepositoryTest extends BaseRepositoryTest {
+
+  private static final LocalDate BACKDATE = LocalDate.of(2021, 7, 1);
+
+  @Autowired private TestResultDailyRollupRepository _repo;
+  @Autowired private TestEventRepository _testEventRepo;
+  @Autowired private TestDataFactory _dataFactory;
+
+  @Test
+  void countByFacilityAndResult_newEvents_countedPerFacility() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    Facility otherPlace = _dataFactory.createValidFacility(org, "Other Place");
+    saveEvent(place, TestResult.POSITIVE, null);
+    saveEvent(place, TestResult.POSITIVE, null);
+    saveEvent(place, TestResult.NEGATIVE, null);
+    saveEvent(otherPlace, TestResult.UNDETERMINED, null);
+    flush();
+
+    Map<UUID, Map<TestResult, Long>> counts =
+        count(
+            Set.of(place.getInternalId(), otherPlace.getInternalId()),
+            LocalDate.now(TestResultDailyRollup.DAY_ZONE));
+
+    assertEquals(
+        Map.of(TestResult.POSITIVE, 2L, TestResult.NEGATIVE, 1L),
+        counts.get(place.getInternalId()));
+    assertEquals(Map.of(TestResult.UNDETERMINED, 1L), counts.get(otherPlace.getInternalId()));
+  }
+
+  @Test
+  void countByFacilityAndResult_backdatedEvent_countedOnDayTested() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    saveEvent(place, TestResult.NEGATIVE, BACKDATE);
+    flush();
+
+    assertEquals(
+        Map.of(TestResult.NEGATIVE, 1L),
+        count(Set.of(place.getInternalId()), BACKDATE).get(place.getInternalId()));
+    assertEquals(
+        Map.of(),
+        count(Set.of(place.getInternalId()), LocalDate.now(TestResultDailyRollup.DAY_ZONE))
+            .get(place.getInternalId()));
+  }
+
+  @Test
+  void countByFacilityAndResult_removedEvent_notCounted() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    saveEvent(place, TestResult.POSITIVE, BACKDATE);
+    TestEvent removed = saveEvent(place, TestResult.POSITIVE, BACKDATE);
+    flush();
+    _testEventRepo.save(new TestEvent(removed, TestCorrectionStatus.REMOVED, "Wrong patient"));
+    flush();
+
+    assertEquals(
+        Map.of(TestResult.POSITIVE, 1L),
+        count(Set.of(place.getInternalId()), BACKDATE).get(place.getInternalId()));
+  }
+
+  @Test
+  void countByFacilityAndResult_eventCorrectedTwice_removedFromCountsOnce() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    saveEvent(place, TestResult.POSITIVE, BACKDATE);
+    TestEvent corrected = saveEvent(place, TestResult.POSITIVE, BACKDATE);
+    flush();
+    _testEventRepo.save(new TestEvent(corrected, TestCorrectionStatus.REMOVED, "Wrong patient"));
+    _testEventRepo.save(new TestEvent(corrected, TestCorrectionStatus.REMOVED, "Still wrong"));
+    flush();
+
+    assertEquals(
+        Map.of(TestResult.POSITIVE, 1L),
+        count(Set.of(place.getInternalId()), BACKDATE).get(place.getInternalId()));
+  }
+
+  private TestEvent saveEvent(Facility place, TestResult result, LocalDate backdate) {
+    Person patient = _dataFactory.createMinimalPerson(place.getOrganization(), place);
+    TestOrder order = _dataFactory.createTestOrder(patient, place);
+    if (backdate != null) {
+      order.setDateTestedBackdate(
+          Date.from(backdate.atTime(12, 0).atZone(TestResultDailyRollup.DAY_ZONE).toInstant()));
+    }
+    return _testEventRepo.save(
+        new TestEvent(result, place.getDefaultDeviceSpecimen(), patient, place, order));
+  }
+
+  /** Count a three-day window around the given day, so that tests are not sensitive to midnight. */
+  private Map<UUID, Map<TestResult, Long>> count(Set<UUID> facilityIds, LocalDate day) {
+    List<FacilityTestResultWithCount> results =
+        _repo.countByFacilityAndResult(facilityIds, day.minusDays(1), day.plusDays(1));
+    Map<UUID, Map<TestResult, Long>> counts =
+        results.stream()
+            .filter(r -> r.getCount() > 0)
+            .collect(
+                Collectors.groupingBy(
+                    FacilityTestResultWithCount::getFacilityId,
+                    Collectors.toMap(
+                        FacilityTestResultWithCount::getResult,
+                        FacilityTestResultWithCount::getCount)));
+    facilityIds.forEach(id -> counts.putIfAbsent(id, Map.of()));
+    return counts;
+  }
+}
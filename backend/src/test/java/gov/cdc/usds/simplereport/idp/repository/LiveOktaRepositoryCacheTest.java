@@ -0,0 +1,219 @@
+package gov.cdc.usds.simplereport.idp.repository;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.okta.sdk.authc.credentials.TokenClientCredentials;
+import com.okta.sdk.cache.Caches;
+import com.okta.sdk.client.Client;
+import com.okta.sdk.client.Clients;
+import com.okta.sdk.resource.user.UserStatus;
+import gov.cdc.usds.simplereport.api.CurrentTenantDataAccessContextHolder;
+import gov.cdc.usds.simplereport.config.AuthorizationProperties;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationExtractor;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs LiveOktaRepository against a real Okta client pointed at a local WireMock server, counting
+ * the calls that reach "Okta", to check what the directory cache saves and what it must not.
+ */
+class LiveOktaRepositoryCacheTest {
+
+  private static final AuthorizationProperties PROPS =
+      new AuthorizationProperties(null, "UNITTEST");
+  private static final String CLIENT_ID = "FAKE_CLIENT_ID";
+  private static final String USERNAME = "fraud@fake.com";
+  private static final String USER_ID = "00ufakeuser";
+  private static final String ORG_GROUP_PREFIX = "SR-UNITTEST-TENANT:MYNIFTYORG";
+  private static final String DISABLE_HTTPS_CHECK = "okta.testing.disableHttpsCheck";
+
+  private final WireMockServer _okta = new WireMockServer(options().dynamicPort());
+  private LiveOktaRepository _repo;
+
+  @BeforeEach
+  void setup() {
+    _okta.start();
+    _okta.stubFor(
+        get(urlPathEqualTo("/api/v1/apps/" + CLIENT_ID))
+            .willReturn(
+                okJson("{\"id\":\"" + CLIENT_ID + "\",\"signOnMode\":\"OPENID_CONNECT\"}")));
+    _okta.stubFor(get(urlPathEqualTo("/api/v1/users")).willReturn(okJson("[" + user() + "]")));
+    _okta.stubFor(
+        get(urlPathEqualTo("/api/v1/users/" + USER_ID + "/groups"))
+            .willReturn(okJson("[" + group("00gnoaccess", ":NO_ACCESS") + "]")));
+    _okta.stubFor(
+        get(urlPathEqualTo("/api/v1/groups"))
+            .willReturn(
+                okJson(
+                    "["
+                        + group("00gnoaccess", ":NO_ACCESS")
+                        + ","
+                        + group("00guser", ":USER")
+                        + "]")));
+    _okta.stubFor(post(urlPathEqualTo("/api/v1/users")).willReturn(okJson(user())));
+    _okta.stubFor(
+        post(urlPathMatching("/api/v1/users/" + USER_ID + "/lifecycle/.*"))
+            .willReturn(okJson("{}")));
+
+    Client client;
+    // WireMock is plain http, which the SDK only accepts for testing
+    System.setProperty(DISABLE_HTTPS_CHECK, "true");
+    try {
+      client =
+          Clients.builder()
+              .setOrgUrl(_okta.baseUrl())
+              .setClientCredentials(new TokenClientCredentials("FAKE_TOKEN"))
+              // the SDK caches resources by URL on its own: turn that off so every call is counted
+              .setCacheManager(Caches.newDisabledCacheManager())
+              .build();
+    } finally {
+      System.clearProperty(DISABLE_HTTPS_CHECK);
+    }
+    _repo =
+        new LiveOktaRepository(
+            PROPS,
+            client,
+            CLIENT_ID,
+            new OrganizationExtractor(PROPS),
+            new CurrentTenantDataAccessContextHolder(),
+            new OktaDirectoryCache(new SimpleMeterRegistry(), Duration.ofMinutes(1), 100));
+  }
+
+  @AfterEach
+  void shutdown() {
+    _okta.stop();
+  }
+
+  @Test
+  void viewUser_repeatedly_userAndGroupsFetchedOnce() {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(UserStatus.ACTIVE, _repo.getUserStatus(USERNAME));
+      assertEquals(
+          "MYNIFTYORG",
+          _repo.getOrganizationRoleClaimsForUser(USERNAME).get().getOrganizationExternalId());
+    }
+
+    _okta.verify(1, getRequestedFor(urlPathEqualTo("/api/v1/users")));
+    _okta.verify(1, getRequestedFor(urlPathEqualTo("/api/v1/users/" + USER_ID + "/groups")));
+  }
+
+  @Test
+  void setUserIsActive_afterView_userFetchedAgain() {
+    _repo.getUserStatus(USERNAME);
+
+    _repo.setUserIsActive(USERNAME, false);
+    _repo.getUserStatus(USERNAME);
+
+    // the change looks the user up afresh, and the next view does not reuse the stale status
+    _okta.verify(3, getRequestedFor(urlPathEqualTo("/api/v1/users")));
+    _okta.verify(
+        1, postRequestedFor(urlPathEqualTo("/api/v1/users/" + USER_ID + "/lifecycle/suspend")));
+  }
+
+  @Test
+  void viewUser_differentlyCasedLogin_userFetchedOnce() {
+    _repo.getUserStatus(USERNAME.toUpperCase(Locale.ROOT));
+    _repo.getUserStatus(USERNAME);
+
+    _okta.verify(1, getRequestedFor(urlPathEqualTo("/api/v1/users")));
+  }
+
+  @Test
+  void setUserIsActive_differentlyCasedLogin_userFetchedAgain() {
+    _repo.getUserStatus(USERNAME.toUpperCase(Locale.ROOT));
+
+    _repo.setUserIsActive(USERNAME, false);
+    _repo.getUserStatus(USERNAME.toUpperCase(Locale.ROOT));
+
+    _okta.verify(3, getRequestedFor(urlPathEqualTo("/api/v1/users")));
+  }
+
+  @Test
+  void createUser_sameOrganization_groupsFetchedOnce() {
+    Organization org = new Organization("My Nifty Org", "k12", "MYNIFTYORG", true);
+
+    _repo.createUser(
+        new IdentityAttributes("one@fake.com", "One", null, "User", null),
+        org,
+        Set.of(),
+        Set.of(OrganizationRole.USER),
+        true);
+    _repo.createUser(
+        new IdentityAttributes("two@fake.com", "Two", null, "User", null),
+        org,
+        Set.of(),
+        Set.of(OrganizationRole.USER),
+        true);
+
+    _okta.verify(1, getRequestedFor(urlPathEqualTo("/api/v1/groups")));
+    _okta.verify(2, postRequestedFor(urlPathEqualTo("/api/v1/users")));
+  }
+
+  @Test
+  void createUser_groupMissingFromCache_groupsFetchedAgain() {
+    Organization org = new Organization("My Nifty Org", "k12", "MYNIFTYORG", true);
+    _repo.createUser(
+        new IdentityAttributes("one@fake.com", "One", null, "User", null),
+        org,
+        Set.of(),
+        Set.of(OrganizationRole.USER),
+        true);
+    // another instance adds a group for the organization
+    _okta.stubFor(
+        get(urlPathEqualTo("/api/v1/groups"))
+            .willReturn(
+                okJson(
+                    "["
+                        + group("00gnoaccess", ":NO_ACCESS")
+                        + ","
+                        + group("00guser", ":USER")
+                        + ","
+                        + group("00gadmin", ":ADMIN")
+                        + "]")));
+
+    _repo.createUser(
+        new IdentityAttributes("two@fake.com", "Two", null, "User", null),
+        org,
+        Set.of(),
+        Set.of(OrganizationRole.ADMIN),
+        true);
+
+    _okta.verify(2, getRequestedFor(urlPathEqualTo("/api/v1/groups")));
+  }
+
+  private static String user() {
+    return "{\"id\":\""
+        + USER_ID
+        + "\",\"status\":\"ACTIVE\",\"profile\":{\"login\":\""
+        + USERNAME
+        + "\",\"email\":\""
+        + USERNAME
+        + "\"}}";
+  }
+
+  private static String group(String id, String nameSuffix) {
+    return "{\"id\":\""
+        + id
+        + "\",\"type\":\"OKTA_GROUP\",\"profile\":{\"name\":\""
+        + ORG_GROUP_PREFIX
+        + nameSuffix
+        + "\"}}";
+  }
+}
@@ -25,13 +25,21 @@ import gov.cdc.usds.simplereport.config.AuthorizationProperties;
 import gov.cdc.usds.simplereport.config.authorization.OrganizationExtractor;
 import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
 import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import gov.cdc.usds.simplereport.service.model.OrganizationRosterMember;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,7 +63,12 @@ class LiveOktaRepositoryTest {
     when(_client.getApplication(MOCK_CLIENT_ID)).thenReturn(_app);
     _repo =
         new LiveOktaRepository(
-            MOCK_PROPS, _client, MOCK_CLIENT_ID, MOCK_EXTRACTOR, tenantDataAccessContextHolder);
+            MOCK_PROPS,
+            _client,
+            MOCK_CLIENT_ID,
+            MOCK_EXTRACTOR,
+            tenantDataAccessContextHolder,
+            new OktaDirectoryCache(new SimpleMeterRegistry(), Duration.ofMinutes(1), 100));
   }
 
   @Test
@@ -111,6 +124,57 @@ class LiveOktaRepositoryTest {
     assertFalse(claims.grantsAllFacilityAccess());
   }
 
+  @Test
+  void getOrganizationRoster_groupMembers_claimsForDefaultGroupMembers() {
+    Organization org = new Organization("My Nifty Org", "k12", "MYNIFTYORG", true);
+    User admin = mockUser("admin@fake.com", UserStatus.ACTIVE);
+    User user = mockUser("user@fake.com", UserStatus.PROVISIONED);
+    User stray = mockUser("stray@fake.com", UserStatus.ACTIVE);
+    Group noAccess = mockGroup("SR-UNITTEST-TENANT:MYNIFTYORG:NO_ACCESS", admin, user);
+    Group admins = mockGroup("SR-UNITTEST-TENANT:MYNIFTYORG:ADMIN", admin);
+    // in a group of the organization, but not in its default group
+    Group users = mockGroup("SR-UNITTEST-TENANT:MYNIFTYORG:USER", user, stray);
+    // matched by the search, but belongs to another organization
+    Group otherOrg = mockGroup("SR-UNITTEST-TENANT:MYNIFTYORG2:NO_ACCESS", stray);
+    GroupList groupList = mock(GroupList.class);
+    when(_client.listGroups("SR-UNITTEST-TENANT:MYNIFTYORG", "type eq \"OKTA_GROUP\"", null))
+        .thenReturn(groupList);
+    when(groupList.iterator()).thenReturn(List.of(noAccess, admins, users, otherOrg).iterator());
+
+    Map<String, OrganizationRosterMember> roster =
+        _repo.getOrganizationRoster(org).stream()
+            .collect(Collectors.toMap(OrganizationRosterMember::getUsername, m -> m));
+
+    assertEquals(Set.of("admin@fake.com", "user@fake.com"), roster.keySet());
+    assertEquals(UserStatus.PROVISIONED, roster.get("user@fake.com").getStatus());
+    assertEquals(
+        Set.of(OrganizationRole.NO_ACCESS, OrganizationRole.ADMIN),
+        roster.get("admin@fake.com").getClaims().getGrantedRoles());
+    assertEquals(
+        Set.of(OrganizationRole.NO_ACCESS, OrganizationRole.USER),
+        roster.get("user@fake.com").getClaims().getGrantedRoles());
+  }
+
+  @Test
+  void getOrganizationsWithMembershipChangesSince_changedGroups_organizationIds() {
+    Group role = mockGroup("SR-UNITTEST-TENANT:MYNIFTYORG:USER");
+    Group facility =
+        mockGroup(
+            "SR-UNITTEST-TENANT:OTHERORG:FACILITY_ACCESS:80d0c820-1dc5-418e-a61e-dc6dad8c5e49");
+    Group notOurs = mockGroup("Everyone");
+    GroupList groupList = mock(GroupList.class);
+    when(_client.listGroups(
+            null,
+            "type eq \"OKTA_GROUP\" and lastMembershipUpdated gt \"2021-06-01T12:30:00.000Z\"",
+            null))
+        .thenReturn(groupList);
+    when(groupList.stream()).thenReturn(Stream.of(role, facility, notOurs));
+
+    assertEquals(
+        Set.of("MYNIFTYORG", "OTHERORG"),
+        _repo.getOrganizationsWithMembershipChangesSince(Instant.parse("2021-06-01T12:30:00Z")));
+  }
+
   @Test
   void getOrganizationRoleClaimsForUser_withTenantDataAccess_success() {
     String username = "fraud@fake.com";
@@ -300,4 +364,25 @@ class LiveOktaRepositoryTest {
             });
     assertEquals("Cannot reprovision Okta user with unrecognized username", caught.getMessage());
   }
+
+  private static User mockUser(String email, UserStatus status) {
+    User user = mock(User.class);
+    UserProfile profile = mock(UserProfile.class);
+    when(user.getProfile()).thenReturn(profile);
+    when(user.getStatus()).thenReturn(status);
+    when(profile.getEmail()).thenReturn(email);
+    return user;
+  }
+
+  private static Group mockGroup(String name, User... members) {
+    Group group = mock(Group.class);
+    GroupProfile profile = mock(GroupProfile.class);
+    UserList userList = mock(UserList.class);
+    when(group.getType()).thenReturn(GroupType.OKTA_GROUP);
+    when(group.getProfile()).thenReturn(profile);
+    when(profile.getName()).thenReturn(name);
+    when(group.listUsers()).thenReturn(userList);
+    when(userList.iterator()).thenReturn(List.of(members).iterator());
+    return group;
+  }
 }
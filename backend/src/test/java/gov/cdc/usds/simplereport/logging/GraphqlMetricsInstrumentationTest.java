@@ -0,0 +1,104 @@
+package gov.cdc.usds.simplereport.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class GraphqlMetricsInstrumentationTest {
+
+  private static final String SCHEMA =
+      "type Query { patients: [Patient] }\n"
+          + "type Patient { firstName: String, lastTest: String }\n";
+  private static final String QUERY = "query GetPatients { patients { firstName lastTest } }";
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final StatementCountingInspector inspector = new StatementCountingInspector();
+
+  @Test
+  void execute_sampled_fieldTimesAndStatementsRecorded() {
+    ExecutionResult result = execute(1.0);
+
+    assertThat(result.getErrors()).isEmpty();
+    assertEquals(1, fieldTimer("Query.patients").count());
+    assertEquals(3, fieldTimer("Patient.lastTest").count());
+    // property fetchers are not worth timing
+    assertNull(fieldTimer("Patient.firstName"));
+    DistributionSummary statements =
+        meterRegistry
+            .find(LoggingConstants.STATEMENTS_METRIC)
+            .tag("operation", "GetPatients")
+            .summary();
+    assertEquals(1, statements.count());
+    // one on the request thread, and one for each patient on other threads
+    assertEquals(4, statements.totalAmount());
+  }
+
+  @Test
+  void execute_notSampled_nothingRecorded() {
+    ExecutionResult result = execute(0);
+
+    assertThat(result.getErrors()).isEmpty();
+    assertThat(meterRegistry.getMeters()).isEmpty();
+  }
+
+  private ExecutionResult execute(double sampleRate) {
+    List<Map<String, String>> patients =
+        List.of(
+            Map.of("firstName", "Fred"),
+            Map.of("firstName", "Wilma"),
+            Map.of("firstName", "Pebbles"));
+    RuntimeWiring wiring =
+        RuntimeWiring.newRuntimeWiring()
+            .type(
+                "Query",
+                type ->
+                    type.dataFetcher(
+                        "patients",
+                        env -> {
+                          inspector.inspect("select * from person");
+                          return patients;
+                        }))
+            .type(
+                "Patient",
+                type ->
+                    type.dataFetcher(
+                        "lastTest",
+                        env ->
+                            CompletableFuture.supplyAsync(
+                                () -> inspector.inspect("select * from test_event"),
+                                command ->
+                                    ForkJoinPool.commonPool()
+                                        .execute(GraphqlMetricsState.propagate(command)))))
+            .build();
+    GraphQL graphQL =
+        GraphQL.newGraphQL(
+                new SchemaGenerator()
+                    .makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring))
+            .instrumentation(new GraphqlMetricsInstrumentation(meterRegistry, sampleRate))
+            .build();
+    ExecutionResult result =
+        graphQL.execute(ExecutionInput.newExecutionInput(QUERY).operationName("GetPatients"));
+    assertNull(GraphqlMetricsState.current());
+    return result;
+  }
+
+  private Timer fieldTimer(String field) {
+    return meterRegistry.find(LoggingConstants.FIELD_FETCH_METRIC).tag("field", field).timer();
+  }
+}
@@ -1,29 +1,41 @@
 package gov.cdc.usds.simplereport.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
 import com.smartystreets.api.us_street.Candidate;
 import com.smartystreets.api.us_street.Client;
 import com.smartystreets.api.us_street.Lookup;
 import com.smartystreets.api.us_street.Metadata;
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class AddressValidationServiceTest {
 
   private AddressValidationService s;
+  private Client client;
 
   @BeforeEach
   public void setup() throws SmartyException, IOException {
-    Client client = mock(Client.class);
+    client = mock(Client.class);
     doNothing().when(client).send(isA(Lookup.class));
     s = new AddressValidationService(client);
   }
@@ -64,9 +76,82 @@ class AddressValidationServiceTest {
     assertEquals("User entered street", address.getStreetOne());
   }
 
+  @Test
+  void repeatedAddressIsServedFromCache() throws SmartyException, IOException {
+    s.getValidatedAddress("123 Main Street", null, "Washington", "DC", "20008", null);
+    StreetAddress address =
+        s.getValidatedAddress(" 123  MAIN street", null, "washington", "dc", "20008", null);
+
+    verify(client, times(1)).send(isA(Lookup.class));
+    assertEquals("123  MAIN street", address.getStreetOne());
+  }
+
+  @Test
+  void validatesAddressesInBatches() throws SmartyException, IOException {
+    answerBatchesWithCounty();
+    List<StreetAddress> addresses =
+        IntStream.range(0, 150)
+            .mapToObj(i -> new StreetAddress(i + " Main Street", null, "Town", "DC", "20008", null))
+            .collect(Collectors.toList());
+
+    List<StreetAddress> validated = s.getValidatedAddresses(addresses);
+
+    verify(client, times(2)).send(isA(Batch.class));
+    assertEquals(150, validated.size());
+    assertEquals("0 Main Street", validated.get(0).getStreetOne());
+    assertEquals("County of 0 Main Street", validated.get(0).getCounty());
+    assertEquals("County of 149 Main Street", validated.get(149).getCounty());
+  }
+
+  @Test
+  void batchSkipsCachedAndRepeatedAddresses() throws SmartyException, IOException {
+    answerBatchesWithCounty();
+    var first = new StreetAddress("1 Main Street", null, "Town", "DC", "20008", null);
+    var second = new StreetAddress("2 Main Street", null, "Town", "DC", "20008", null);
+    s.getValidatedAddresses(List.of(first));
+
+    List<StreetAddress> validated = s.getValidatedAddresses(List.of(first, second, second));
+
+    verify(client, times(2)).send(isA(Batch.class));
+    assertEquals("County of 1 Main Street", validated.get(0).getCounty());
+    assertEquals("County of 2 Main Street", validated.get(2).getCounty());
+
+    s.getValidatedAddresses(List.of(second, first));
+    verify(client, times(2)).send(isA(Batch.class));
+    verify(client, never()).send(isA(Lookup.class));
+  }
+
+  @Test
+  void batchFailureIsReported() throws SmartyException, IOException {
+    doThrow(new SmartyException("nope")).when(client).send(isA(Batch.class));
+    var address = new StreetAddress("1 Main Street", null, "Town", "DC", "20008", null);
+
+    assertThrows(
+        IllegalGraphqlArgumentException.class, () -> s.getValidatedAddresses(List.of(address)));
+  }
+
+  private void answerBatchesWithCounty() throws SmartyException, IOException {
+    doAnswer(
+            invocation -> {
+              Batch batch = invocation.getArgument(0);
+              for (Lookup lookup : batch.getAllLookups()) {
+                ArrayList<Candidate> results = new ArrayList<>();
+                results.add(getMockResult("County of " + lookup.getStreet()));
+                lookup.setResult(results);
+              }
+              return null;
+            })
+        .when(client)
+        .send(isA(Batch.class));
+  }
+
   private Candidate getMockResult() {
+    return getMockResult("District of Columbia");
+  }
+
+  private Candidate getMockResult(String county) {
     Metadata metadata = mock(Metadata.class);
-    when(metadata.getCountyName()).thenReturn("District of Columbia");
+    when(metadata.getCountyName()).thenReturn(county);
 
     Candidate result = mock(Candidate.class);
     when(result.getMetadata()).thenReturn(metadata);
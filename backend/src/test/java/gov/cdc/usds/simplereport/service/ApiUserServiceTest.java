@@ -28,6 +28,7 @@ class ApiUserServiceTest extends BaseServiceTest<ApiUserService> {
 
   @Autowired ApiUserRepository _apiUserRepo;
   @Autowired OktaRepository _oktaRepo;
+  @Autowired OktaRosterService _rosterService;
 
   // The next several retrieval tests expect the demo users as they are defined in the
   // no-security and no-okta-mgmt profiles
@@ -75,6 +76,38 @@ class ApiUserServiceTest extends BaseServiceTest<ApiUserService> {
         users.get(4), "allfacilities@example.com", "Williams", UserStatus.ACTIVE);
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getUsersAndStatusInCurrentOrg_rosterSnapshot_servedFromSnapshot() {
+    initSampleData();
+    _rosterService.refreshRosters();
+    // a change made directly in Okta only shows up after the next refresh
+    _oktaRepo.setUserIsActive("nobody@example.com", false);
+
+    List<ApiUserWithStatus> users = _service.getUsersAndStatusInCurrentOrg();
+    assertEquals(5, users.size());
+
+    checkApiUserWithStatus(users.get(0), "admin@example.com", "Andrews", UserStatus.ACTIVE);
+    checkApiUserWithStatus(users.get(2), "nobody@example.com", "Nixon", UserStatus.ACTIVE);
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getUsersAndStatusInCurrentOrg_rosterSnapshot_reflectsOwnChanges() {
+    initSampleData();
+    _rosterService.refreshRosters();
+    ApiUser apiUser = _apiUserRepo.findByLoginEmail("allfacilities@example.com").get();
+
+    _service.createUserInCurrentOrg(
+        "newuser@example.com", new PersonName("First", null, "Last", null), Role.USER, true);
+    _service.updateUserEmail(apiUser.getInternalId(), "newemail@example.com");
+
+    List<ApiUserWithStatus> users = _service.getUsersAndStatusInCurrentOrg();
+    assertEquals(6, users.size());
+    assertEquals("newuser@example.com", users.get(2).getEmail());
+    checkApiUserWithStatus(users.get(5), "newemail@example.com", "Williams", UserStatus.ACTIVE);
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getUser_adminUser_success() {
@@ -0,0 +1,136 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventPartitions;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventPartitions.Partition;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class AuditEventRetentionServiceTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2028, 3, 15);
+
+  private final ApiAuditEventPartitions partitions = mock(ApiAuditEventPartitions.class);
+
+  @TempDir Path archiveDirectory;
+
+  @BeforeEach
+  void init() {
+    when(partitions.tryMaintenanceLock()).thenReturn(true);
+    when(partitions.findPartitions())
+        .thenReturn(
+            List.of(
+                new Partition("api_audit_event_legacy", LocalDateTime.of(2021, 7, 1, 0, 0)),
+                new Partition("api_audit_event_y2021m07", LocalDateTime.of(2021, 8, 1, 0, 0)),
+                new Partition("api_audit_event_y2028m04", LocalDateTime.of(2028, 5, 1, 0, 0)),
+                new Partition("api_audit_event_default", null)));
+  }
+
+  @Test
+  void maintainPartitions_noArchiveDirectory_createsPartitionsAndKeepsExpired() {
+    int archived = service("").maintainPartitions(TODAY);
+
+    assertEquals(0, archived);
+    verify(partitions).createMonthlyPartition(YearMonth.of(2028, 5));
+    verify(partitions).createMonthlyPartition(YearMonth.of(2028, 6));
+    verify(partitions, never()).createMonthlyPartition(YearMonth.of(2028, 7));
+    verify(partitions, never()).exportPartition(anyString(), any());
+    verify(partitions, never()).dropPartition(anyString());
+  }
+
+  @Test
+  void maintainPartitions_withArchiveDirectory_exportsThenDropsExpired() throws IOException {
+    when(partitions.exportPartition(anyString(), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<String> rows = invocation.getArgument(1);
+              rows.accept("{\"partition\":\"" + invocation.getArgument(0) + "\"}");
+              return 1L;
+            });
+
+    int archived = service(archiveDirectory.toString()).maintainPartitions(TODAY);
+
+    // with 72 months of retention, only events from before March 2022 are expired
+    assertEquals(2, archived);
+    InOrder order = inOrder(partitions);
+    order.verify(partitions).exportPartition(eq("api_audit_event_legacy"), any());
+    order.verify(partitions).exportPartition(eq("api_audit_event_y2021m07"), any());
+    order.verify(partitions).createMonthlyPartition(YearMonth.of(2028, 5));
+    order.verify(partitions).dropPartition("api_audit_event_legacy");
+    order.verify(partitions).dropPartition("api_audit_event_y2021m07");
+    verify(partitions, never()).dropPartition("api_audit_event_y2028m04");
+    verify(partitions, never()).dropPartition("api_audit_event_default");
+    assertEquals(
+        "{\"partition\":\"api_audit_event_y2021m07\"}\n",
+        readArchive(archiveDirectory.resolve("api_audit_event_y2021m07.ndjson.gz")));
+    assertThat(archiveDirectory.resolve("api_audit_event_y2021m07.ndjson.gz.partial"))
+        .doesNotExist();
+  }
+
+  @Test
+  void maintainPartitions_lockedOut_doesNothing() {
+    when(partitions.tryMaintenanceLock()).thenReturn(false);
+
+    assertEquals(0, service(archiveDirectory.toString()).maintainPartitions(TODAY));
+
+    verify(partitions, never()).findPartitions();
+    verify(partitions, never()).createMonthlyPartition(any());
+  }
+
+  @Test
+  void maintainPartitions_eventsInDefaultPartition_movedInBatchesThenAttached() {
+    YearMonth month = YearMonth.of(2028, 5);
+    when(partitions.hasDefaultPartitionEvents(month)).thenReturn(true);
+    when(partitions.moveDefaultPartitionEvents(eq(month), anyInt())).thenReturn(1000, 1000, 10);
+
+    service("").maintainPartitions(TODAY);
+
+    InOrder order = inOrder(partitions);
+    order.verify(partitions).createDetachedMonthlyPartition(month);
+    order.verify(partitions, times(3)).moveDefaultPartitionEvents(eq(month), anyInt());
+    order.verify(partitions).setLockTimeout(anyInt());
+    order.verify(partitions).attachMonthlyPartition(month);
+    verify(partitions, never()).createMonthlyPartition(month);
+    verify(partitions).createMonthlyPartition(YearMonth.of(2028, 6));
+  }
+
+  private AuditEventRetentionService service(String archiveDirectory) {
+    return new AuditEventRetentionService(
+        partitions, mock(PlatformTransactionManager.class), 3, 72, archiveDirectory);
+  }
+
+  private static String readArchive(Path archive) throws IOException {
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      in.transferTo(out);
+      return out.toString(StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.task.TaskExecutorBuilder;
+
+class AuditEventWriterTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private final ApiAuditEventRepository repo = mock(ApiAuditEventRepository.class);
+  private final ExecutorService callers = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    callers.shutdownNow();
+  }
+
+  @Test
+  void write_singleEvent_savedAlone() {
+    ApiAuditEvent event = mock(ApiAuditEvent.class);
+
+    writer(TIMEOUT).write(event);
+
+    verify(repo).saveAll(List.of(event));
+  }
+
+  @Test
+  void write_duringFlush_groupedIntoNextBatch() throws Exception {
+    AuditEventWriter writer = writer(TIMEOUT);
+    ApiAuditEvent first = mock(ApiAuditEvent.class);
+    List<ApiAuditEvent> waiting = List.of(mock(ApiAuditEvent.class), mock(ApiAuditEvent.class));
+    CountDownLatch flushStarted = new CountDownLatch(1);
+    CountDownLatch releaseFlush = new CountDownLatch(1);
+    List<List<ApiAuditEvent>> batches = new ArrayList<>();
+    when(repo.saveAll(any()))
+        .thenAnswer(
+            invocation -> {
+              List<ApiAuditEvent> batch = new ArrayList<>();
+              invocation.<Iterable<ApiAuditEvent>>getArgument(0).forEach(batch::add);
+              synchronized (batches) {
+                batches.add(batch);
+              }
+              flushStarted.countDown();
+              releaseFlush.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+              return batch;
+            });
+
+    Future<?> firstWrite = callers.submit(() -> writer.write(first));
+    assertThat(flushStarted.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+    List<Future<?>> waitingWrites = new ArrayList<>();
+    for (ApiAuditEvent event : waiting) {
+      waitingWrites.add(callers.submit(() -> writer.write(event)));
+    }
+    // give the waiting writers time to join the pending batch before the flush is released
+    Thread.sleep(200);
+    releaseFlush.countDown();
+    firstWrite.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    for (Future<?> write : waitingWrites) {
+      write.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // the waiting writers race each other, so only the grouping is deterministic
+    assertThat(batches).hasSize(2);
+    assertThat(batches.get(0)).containsExactly(first);
+    assertThat(batches.get(1)).containsExactlyInAnyOrderElementsOf(waiting);
+  }
+
+  @Test
+  void write_oneBadEventInBatch_onlyThatCallerFails() throws Exception {
+    AuditEventWriter writer = writer(TIMEOUT);
+    ApiAuditEvent blocker = mock(ApiAuditEvent.class);
+    ApiAuditEvent good = mock(ApiAuditEvent.class);
+    ApiAuditEvent bad = mock(ApiAuditEvent.class);
+    CountDownLatch flushStarted = new CountDownLatch(1);
+    CountDownLatch releaseFlush = new CountDownLatch(1);
+    when(repo.saveAll(any()))
+        .thenAnswer(
+            invocation -> {
+              List<ApiAuditEvent> events = new ArrayList<>();
+              invocation.<Iterable<ApiAuditEvent>>getArgument(0).forEach(events::add);
+              if (events.contains(blocker)) {
+                flushStarted.countDown();
+                releaseFlush.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+              }
+              if (events.contains(bad)) {
+                throw new IllegalArgumentException("bad event");
+              }
+              return events;
+            });
+
+    Future<?> blockerWrite = callers.submit(() -> writer.write(blocker));
+    assertThat(flushStarted.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+    Future<?> goodWrite = callers.submit(() -> writer.write(good));
+    CompletableFuture<Void> badWrite = CompletableFuture.runAsync(() -> writer.write(bad), callers);
+    Thread.sleep(200);
+    releaseFlush.countDown();
+
+    blockerWrite.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    goodWrite.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    Throwable failure =
+        assertThrows(
+            Exception.class, () -> badWrite.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+    assertThat(failure).hasRootCauseInstanceOf(IllegalArgumentException.class);
+    verify(repo).saveAll(List.of(good));
+    verify(repo).saveAll(List.of(bad));
+  }
+
+  @Test
+  void write_singleEventFails_exceptionRethrown() {
+    ApiAuditEvent event = mock(ApiAuditEvent.class);
+    IllegalArgumentException boom = new IllegalArgumentException("naughty naughty");
+    when(repo.saveAll(any())).thenThrow(boom);
+
+    AuditEventWriter writer = writer(TIMEOUT);
+    IllegalArgumentException thrown =
+        assertThrows(IllegalArgumentException.class, () -> writer.write(event));
+
+    assertThat(thrown).isSameAs(boom);
+    verify(repo, times(1)).saveAll(any());
+  }
+
+  @Test
+  void write_flushTooSlow_throws() {
+    CountDownLatch never = new CountDownLatch(1);
+    when(repo.saveAll(any()))
+        .thenAnswer(
+            invocation -> {
+              never.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+              return List.of();
+            });
+
+    AuditEventWriter writer = writer(Duration.ofMillis(50));
+    ApiAuditEvent event = mock(ApiAuditEvent.class);
+    assertThrows(IllegalStateException.class, () -> writer.write(event));
+    never.countDown();
+    verify(repo, timeout(TIMEOUT.toMillis()))
+        .saveAll(argThat(batch -> batch.iterator().next() == event));
+  }
+
+  @Test
+  void shutdown_eventsQueued_flushedBeforeExit() throws Exception {
+    AuditEventWriter writer = writer(TIMEOUT);
+    ApiAuditEvent blocker = mock(ApiAuditEvent.class);
+    ApiAuditEvent queued = mock(ApiAuditEvent.class);
+    CountDownLatch flushStarted = new CountDownLatch(1);
+    CountDownLatch releaseFlush = new CountDownLatch(1);
+    when(repo.saveAll(any()))
+        .thenAnswer(
+            invocation -> {
+              flushStarted.countDown();
+              releaseFlush.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+              return List.of();
+            });
+
+    Future<?> blockerWrite = callers.submit(() -> writer.write(blocker));
+    assertThat(flushStarted.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+    Future<?> queuedWrite = callers.submit(() -> writer.write(queued));
+    Thread.sleep(200);
+    Future<?> shutdown = callers.submit(writer::shutdown);
+    releaseFlush.countDown();
+
+    shutdown.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    blockerWrite.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    queuedWrite.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    verify(repo).saveAll(List.of(queued));
+  }
+
+  @Test
+  void write_afterShutdown_savedByCaller() {
+    AuditEventWriter writer = writer(TIMEOUT);
+    writer.shutdown();
+    ApiAuditEvent event = mock(ApiAuditEvent.class);
+
+    writer.write(event);
+
+    verify(repo).saveAll(List.of(event));
+  }
+
+  private AuditEventWriter writer(Duration flushTimeout) {
+    return new AuditEventWriter(repo, new TaskExecutorBuilder(), 100, flushTimeout);
+  }
+}
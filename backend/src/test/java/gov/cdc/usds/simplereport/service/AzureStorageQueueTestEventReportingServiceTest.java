@@ -2,25 +2,21 @@ package gov.cdc.usds.simplereport.service;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.azure.core.http.rest.PagedFlux;
 import com.azure.storage.queue.QueueAsyncClient;
-import com.azure.storage.queue.models.QueueMessageItem;
 import com.azure.storage.queue.models.SendMessageResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import gov.cdc.usds.simplereport.api.model.TestEventExport;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatcher;
 import reactor.core.publisher.Mono;
@@ -56,60 +52,39 @@ class AzureStorageQueueTestEventReportingServiceTest
   }
 
   @Test
-  void culls_enqueued_test_events_when_those_are_marked_as_completed() {
-    var testEvents = createTestEvents(3);
-
-    // Set up response for queueClient.receivedMessages
-    PagedFlux<QueueMessageItem> response = mock(PagedFlux.class);
-    when(response.toIterable())
-        .thenReturn(testEvents.stream().map(this::queueMessageItemFor).collect(Collectors.toSet()));
+  void dispatches_concurrently_reported_events_in_batches() {
     var client = mock(QueueAsyncClient.class);
-    when(client.receiveMessages(anyInt())).thenReturn(response);
-
-    // Set up response for each expected call to queueClient.deleteMessage
-    for (var testEvent : testEvents) {
-      Mono<Void> deleteMessageResponse = mock(Mono.class);
-      when(deleteMessageResponse.toFuture()).thenReturn(CompletableFuture.completedFuture(null));
-      when(client.deleteMessage(messageIdFor(testEvent), popReceiptFor(testEvent)))
-          .thenReturn(deleteMessageResponse);
-    }
+    Mono<SendMessageResult> response = mock(Mono.class);
+    when(response.toFuture())
+        .thenReturn(CompletableFuture.completedFuture(new SendMessageResult()));
+    when(client.sendMessage(any(String.class))).thenReturn(response);
 
-    var sut = new AzureStorageQueueTestEventReportingService(mapper, client);
-    sut.markTestEventsAsReported(testEvents);
+    var sut = new AzureStorageQueueTestEventReportingService(new ObjectMapper(), client, 2, 10, 0);
+    var testEvents = createTestEvents(5);
+    var futures = testEvents.stream().map(sut::reportAsync).toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(futures).join();
 
     for (var testEvent : testEvents) {
-      verify(client, times(1)).deleteMessage(messageIdFor(testEvent), popReceiptFor(testEvent));
+      verify(client, times(1)).sendMessage(argThat(matcherForTest(testEvent)));
     }
   }
 
   @Test
-  void bulldozes_past_failures_to_mark_events_as_completed() {
-    var testEvents = createTestEvents(3);
-
-    // Set up response for queueClient.receivedMessages
-    PagedFlux<QueueMessageItem> response = mock(PagedFlux.class);
-    when(response.toIterable())
-        .thenReturn(testEvents.stream().map(this::queueMessageItemFor).collect(Collectors.toSet()));
+  void flushes_buffered_events_on_close() {
     var client = mock(QueueAsyncClient.class);
-    when(client.receiveMessages(anyInt())).thenReturn(response);
-
-    // Set up response for each expected call to queueClient.deleteMessage
-    for (var testEvent : testEvents) {
-      Mono<Void> deleteMessageResponse = mock(Mono.class);
-      when(deleteMessageResponse.toFuture())
-          .thenReturn(CompletableFuture.failedFuture(new RuntimeException("PANIC")));
-      when(client.deleteMessage(messageIdFor(testEvent), popReceiptFor(testEvent)))
-          .thenReturn(deleteMessageResponse);
-    }
-
-    var sut = new AzureStorageQueueTestEventReportingService(mapper, client);
+    Mono<SendMessageResult> response = mock(Mono.class);
+    when(response.toFuture())
+        .thenReturn(CompletableFuture.completedFuture(new SendMessageResult()));
+    when(client.sendMessage(any(String.class))).thenReturn(response);
 
-    // None of the RuntimeExceptions thrown by QueueClient::DeleteMessage should be surfaced.
-    sut.markTestEventsAsReported(testEvents);
+    var sut = new AzureStorageQueueTestEventReportingService(new ObjectMapper(), client);
+    var testEvent = createTestEvent();
+    var future = sut.reportAsync(testEvent);
+    sut.close();
 
-    for (var testEvent : testEvents) {
-      verify(client, times(1)).deleteMessage(messageIdFor(testEvent), popReceiptFor(testEvent));
-    }
+    future.join();
+    verify(client, times(1)).sendMessage(argThat(matcherForTest(testEvent)));
+    assertThrows(CompletionException.class, () -> sut.reportAsync(testEvent).join());
   }
 
   private ArgumentMatcher<String> matcherForTest(TestEvent testEvent) {
@@ -139,26 +114,4 @@ class AzureStorageQueueTestEventReportingServiceTest
 
     return events;
   }
-
-  private QueueMessageItem queueMessageItemFor(TestEvent testEvent) {
-    var message = new QueueMessageItem();
-    message.setMessageId(messageIdFor(testEvent));
-    message.setPopReceipt(popReceiptFor(testEvent));
-
-    try {
-      message.setMessageText(mapper.writeValueAsString(new TestEventExport(testEvent)));
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-
-    return message;
-  }
-
-  private String messageIdFor(TestEvent testEvent) {
-    return "messageId:" + testEvent.getInternalId();
-  }
-
-  private String popReceiptFor(TestEvent testEvent) {
-    return "popReceipt:" + testEvent.getInternalId();
-  }
 }
@@ -0,0 +1,112 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import gov.cdc.usds.simplereport.db.model.OktaRoster;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.repository.OktaRosterRepository;
+import gov.cdc.usds.simplereport.idp.repository.OktaRepository;
+import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class OktaRosterServiceTest extends BaseServiceTest<OktaRosterService> {
+
+  private static final String FAILING_ORG = TestUserIdentities.DEFAULT_ORGANIZATION;
+  private static final String OTHER_ORG = "DAT_ORG";
+
+  @Autowired private OktaRosterRepository _rosterRepo;
+  @Autowired private PlatformTransactionManager _transactionManager;
+  @SpyBean private OktaRepository _oktaRepo;
+
+  @BeforeEach
+  void setupData() {
+    initSampleData();
+  }
+
+  @Test
+  void refreshRosters_oneOrganizationFails_othersBuilt() {
+    int organizations = _rosterRepo.findOrganizationsWithoutRoster(PageRequest.of(0, 100)).size();
+    doThrow(new IllegalStateException("Okta is down"))
+        .when(_oktaRepo)
+        .getOrganizationRoster(argThat(hasExternalId(FAILING_ORG)));
+
+    assertEquals(organizations - 1, _service.refreshRosters());
+    assertTrue(_rosterRepo.findByOrganizationExternalId(FAILING_ORG).isEmpty());
+    assertTrue(_rosterRepo.findByOrganizationExternalId(OTHER_ORG).isPresent());
+
+    // the organization that failed is tried again in the next refresh
+    doCallRealMethod().when(_oktaRepo).getOrganizationRoster(any());
+    assertEquals(1, _service.refreshRosters());
+    assertTrue(_rosterRepo.findByOrganizationExternalId(FAILING_ORG).isPresent());
+  }
+
+  @Test
+  void refreshRosters_membershipChangeFails_onlyThatRosterStaysBehind() {
+    Instant start = Instant.now();
+    _service.refreshRosters(start);
+    Date builtSyncedAt = roster(FAILING_ORG).getSyncedAt();
+    doReturn(Set.of(FAILING_ORG))
+        .when(_oktaRepo)
+        .getOrganizationsWithMembershipChangesSince(any(Instant.class));
+    doThrow(new IllegalStateException("Okta is down"))
+        .when(_oktaRepo)
+        .getOrganizationRoster(argThat(hasExternalId(FAILING_ORG)));
+
+    Instant next = start.plus(Duration.ofMinutes(10));
+    assertEquals(0, _service.refreshRosters(next));
+
+    OktaRoster failing = roster(FAILING_ORG);
+    assertEquals(builtSyncedAt, failing.getSyncedAt());
+    assertNull(failing.getRefreshClaimedUntil());
+    OktaRoster other = roster(OTHER_ORG);
+    assertEquals(Date.from(next.minus(Duration.ofMinutes(1))), other.getSyncedAt());
+    assertNull(other.getRefreshClaimedUntil());
+  }
+
+  @Test
+  void refreshRosters_claimedByAnotherRefresh_skippedUntilLeaseRunsOut() {
+    Instant start = Instant.now();
+    _service.refreshRosters(start);
+    Date claimedUntil = Date.from(start.plus(Duration.ofMinutes(30)));
+    new TransactionTemplate(_transactionManager)
+        .executeWithoutResult(status -> _rosterRepo.claimAllForRefresh(claimedUntil));
+
+    assertEquals(0, _service.refreshRosters(start.plus(Duration.ofMinutes(5))));
+    verify(_oktaRepo, never()).getUserStatusesChangedSince(any(Instant.class));
+
+    Instant afterLease = start.plus(Duration.ofMinutes(31));
+    _service.refreshRosters(afterLease);
+    verify(_oktaRepo).getUserStatusesChangedSince(any(Instant.class));
+    OktaRoster roster = roster(FAILING_ORG);
+    assertEquals(Date.from(afterLease.minus(Duration.ofMinutes(1))), roster.getSyncedAt());
+    assertNull(roster.getRefreshClaimedUntil());
+  }
+
+  private OktaRoster roster(String orgExternalId) {
+    return _rosterRepo.findByOrganizationExternalId(orgExternalId).orElseThrow();
+  }
+
+  private static ArgumentMatcher<Organization> hasExternalId(String externalId) {
+    return org -> org != null && externalId.equals(org.getExternalId());
+  }
+}
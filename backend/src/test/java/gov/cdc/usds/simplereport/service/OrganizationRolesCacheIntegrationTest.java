@@ -0,0 +1,78 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.repository.FacilityRepository;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "simple-report.organization-roles-cache.ttl=60s")
+@WithSimpleReportOrgAdminUser
+class OrganizationRolesCacheIntegrationTest extends BaseServiceTest<OrganizationService> {
+
+  @Autowired private OrganizationRolesCache organizationRolesCache;
+  @Autowired private FacilityRepository facilityRepository;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setupData() {
+    initSampleData();
+    organizationRolesCache.invalidateAll(); // ids from a previous test are gone
+  }
+
+  @Test
+  void getCurrentOrganizationRoles_cacheHit_facilitiesLoaded() {
+    Set<UUID> loaded =
+        facilityIds(_service.getCurrentOrganizationRoles().orElseThrow().getFacilities());
+    double hits = cacheHits();
+
+    Set<Facility> cached = _service.getCurrentOrganizationRoles().orElseThrow().getFacilities();
+
+    assertEquals(hits + 1, cacheHits());
+    assertEquals(loaded, facilityIds(cached));
+    cached.forEach(f -> assertNotNull(f.getFacilityName()));
+  }
+
+  @Test
+  void getCurrentOrganizationRoles_cachedFacilityDeleted_facilityOmitted() {
+    Set<UUID> loaded =
+        facilityIds(_service.getCurrentOrganizationRoles().orElseThrow().getFacilities());
+    UUID deletedId = loaded.iterator().next();
+    Facility deleted = facilityRepository.findById(deletedId).orElseThrow();
+    deleted.setIsDeleted(true);
+    facilityRepository.save(deleted); // bypasses the service, so the entry is not invalidated
+    double hits = cacheHits();
+
+    Set<UUID> cached =
+        facilityIds(_service.getCurrentOrganizationRoles().orElseThrow().getFacilities());
+
+    assertEquals(hits + 1, cacheHits());
+    assertEquals(loaded.size() - 1, cached.size());
+    assertTrue(loaded.containsAll(cached));
+    assertFalse(cached.contains(deletedId));
+  }
+
+  private double cacheHits() {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("cache", "organizationRoles")
+        .tag("result", "hit")
+        .functionCounter()
+        .count();
+  }
+
+  private static Set<UUID> facilityIds(Set<Facility> facilities) {
+    return facilities.stream().map(Facility::getInternalId).collect(Collectors.toSet());
+  }
+}
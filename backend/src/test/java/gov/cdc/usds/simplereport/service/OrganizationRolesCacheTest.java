@@ -0,0 +1,159 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.repository.FacilityRepository;
+import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class OrganizationRolesCacheTest {
+  private static final List<OrganizationRoleClaims> CLAIMS =
+      List.of(new OrganizationRoleClaims("MY-ORG", Set.of(), Set.of(OrganizationRole.USER)));
+
+  private final EntityManager entityManager = mock(EntityManager.class);
+  private final FacilityRepository facilityRepository = mock(FacilityRepository.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private Organization org;
+  private Facility facility;
+  private Supplier<Optional<OrganizationRoles>> loader;
+
+  @BeforeEach
+  void setup() {
+    org = mock(Organization.class);
+    facility = mock(Facility.class);
+    when(org.getInternalId()).thenReturn(UUID.randomUUID());
+    when(facility.getInternalId()).thenReturn(UUID.randomUUID());
+    when(entityManager.getReference(Organization.class, org.getInternalId())).thenReturn(org);
+    when(facilityRepository.findAllByOrganizationAndInternalId(
+            org, Set.of(facility.getInternalId())))
+        .thenReturn(Set.of(facility));
+
+    loader =
+        () -> {
+          loads.incrementAndGet();
+          return Optional.of(
+              new OrganizationRoles(org, Set.of(facility), Set.of(OrganizationRole.USER)));
+        };
+  }
+
+  @Test
+  void get_sameClaims_loadsOnce() {
+    OrganizationRolesCache cache = enabledCache();
+
+    cache.get(CLAIMS, loader);
+    OrganizationRoles cached =
+        cache
+            .get(
+                List.of(
+                    new OrganizationRoleClaims("MY-ORG", Set.of(), Set.of(OrganizationRole.USER))),
+                loader)
+            .orElseThrow();
+
+    assertEquals(1, loads.get());
+    assertSame(org, cached.getOrganization());
+    assertEquals(Set.of(facility), cached.getFacilities());
+    assertEquals(Set.of(OrganizationRole.USER), cached.getGrantedRoles());
+    assertEquals(
+        1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    assertEquals(
+        1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void get_differentClaims_loadsAgain() {
+    OrganizationRolesCache cache = enabledCache();
+
+    cache.get(CLAIMS, loader);
+    cache.get(
+        List.of(new OrganizationRoleClaims("MY-ORG", Set.of(), Set.of(OrganizationRole.ADMIN))),
+        loader);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_afterInvalidateAll_loadsAgain() {
+    OrganizationRolesCache cache = enabledCache();
+
+    cache.get(CLAIMS, loader);
+    cache.invalidateAll();
+    cache.get(CLAIMS, loader);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_afterInvalidateAllAfterCommit_loadsAgainOnlyOnceCommitted() {
+    OrganizationRolesCache cache = enabledCache();
+    cache.get(CLAIMS, loader);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      cache.invalidateAllAfterCommit();
+      cache.get(CLAIMS, loader);
+      assertEquals(1, loads.get());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    cache.get(CLAIMS, loader);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_emptyResult_notCached() {
+    OrganizationRolesCache cache = enabledCache();
+
+    cache.get(
+        CLAIMS,
+        () -> {
+          loads.incrementAndGet();
+          return Optional.empty();
+        });
+    assertTrue(cache.get(CLAIMS, loader).isPresent());
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_zeroTtl_alwaysLoads() {
+    OrganizationRolesCache cache =
+        new OrganizationRolesCache(
+            entityManager, facilityRepository, meterRegistry, Duration.ZERO, 10);
+
+    cache.get(CLAIMS, loader);
+    cache.get(CLAIMS, loader);
+
+    assertEquals(2, loads.get());
+  }
+
+  private OrganizationRolesCache enabledCache() {
+    return new OrganizationRolesCache(
+        entityManager, facilityRepository, meterRegistry, Duration.ofMinutes(1), 10);
+  }
+}
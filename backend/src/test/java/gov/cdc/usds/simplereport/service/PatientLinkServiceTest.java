@@ -16,6 +16,7 @@ import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.repository.PatientLinkFailedAttemptRepository;
 import gov.cdc.usds.simplereport.db.repository.PatientLinkRepository;
 import gov.cdc.usds.simplereport.service.dataloader.PatientLinkDataLoader;
 import gov.cdc.usds.simplereport.test_util.TestDataFactory;
@@ -35,6 +36,7 @@ import org.springframework.test.context.TestPropertySource;
 @SuppressWarnings("checkstyle:MagicNumber")
 class PatientLinkServiceTest extends BaseServiceTest<PatientLinkService> {
   @Autowired private PatientLinkRepository patientLinkRepository;
+  @Autowired private PatientLinkFailedAttemptRepository _failedAttemptRepository;
   @Autowired private OrganizationService _organizationService;
   @Autowired private TestDataFactory _dataFactory;
   @MockBean private CurrentPatientContextHolder _contextHolder;
@@ -121,6 +123,26 @@ class PatientLinkServiceTest extends BaseServiceTest<PatientLinkService> {
             _patientLink.getInternalId(), _person.getBirthDate().plusDays(1)));
   }
 
+  @Test
+  void verifyPatientLink_onlyWritesFailedAttemptsWhenTheyChange() {
+    UUID patientLinkId = _patientLink.getInternalId();
+    LocalDate birthDate = _person.getBirthDate();
+
+    assertTrue(_service.verifyPatientLink(patientLinkId, birthDate));
+    assertTrue(_failedAttemptRepository.findById(patientLinkId).isEmpty());
+
+    assertFalse(_service.verifyPatientLink(patientLinkId, birthDate.plusDays(1)));
+    assertEquals(1, _failedAttemptRepository.findById(patientLinkId).get().getFailedAttempts());
+
+    assertTrue(_service.verifyPatientLink(patientLinkId, birthDate));
+    assertEquals(0, _failedAttemptRepository.findById(patientLinkId).get().getFailedAttempts());
+  }
+
+  @Test
+  void verifyPatientLink_unknownLink_false() {
+    assertFalse(_service.verifyPatientLink(UUID.randomUUID(), _person.getBirthDate()));
+  }
+
   @Test
   void patientLinkLockout() {
     UUID patientId = _patientLink.getInternalId();
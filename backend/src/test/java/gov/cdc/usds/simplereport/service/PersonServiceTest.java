@@ -18,6 +18,7 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneType;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
 import gov.cdc.usds.simplereport.db.repository.PatientRegistrationLinkRepository;
+import gov.cdc.usds.simplereport.service.model.PersonPageKey;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyAllFacilitiesUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
@@ -29,7 +30,9 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -530,6 +533,30 @@ class PersonServiceTest extends BaseServiceTest<PersonService> {
     assertEquals(0, patients_site2_page2.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getPatientsAfter_keysetPagination() {
+    makedata(true);
+    List<Person> page0 = _service.getPatientsAfter(null, false, null, null, 5);
+    List<Person> page1 =
+        _service.getPatientsAfter(null, false, null, PersonPageKey.of(page0.get(4)), 5);
+    List<Person> page2 =
+        _service.getPatientsAfter(null, false, null, PersonPageKey.of(page1.get(4)), 5);
+
+    assertPatientList(page0, CHARLES, FRANK, GALE, JANNELLE, BRAD);
+    assertPatientList(page1, DEXTER, KACEY, ELIZABETH, LEELOO, AMOS);
+    assertPatientList(page2, IAN, HEINRICK);
+
+    List<Person> site2Page0 =
+        _service.getPatientsAfter(_site2.getInternalId(), false, null, null, 4);
+    List<Person> site2Page1 =
+        _service.getPatientsAfter(
+            _site2.getInternalId(), false, null, PersonPageKey.of(site2Page0.get(3)), 4);
+
+    assertPatientList(site2Page0, FRANK, JANNELLE, BRAD, DEXTER);
+    assertPatientList(site2Page1, KACEY, LEELOO, AMOS);
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getPatients_search_OrgAdminUser() {
@@ -588,6 +615,34 @@ class PersonServiceTest extends BaseServiceTest<PersonService> {
     assertPatientList(patients3, JANNELLE);
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void searchPatients_matchesGetPatientsSearch() {
+    makedata(true);
+
+    assertEquals(
+        Set.of(GALE, JANNELLE, KACEY), names(_service.searchPatients(null, false, "ma cr", 100)));
+    assertEquals(
+        List.of(JANNELLE),
+        _service.searchPatients(null, false, "ma cr ja", 100).stream()
+            .map(Person::getNameInfo)
+            .collect(Collectors.toList()));
+    assertEquals(
+        Set.of(FRANK, JANNELLE, KACEY),
+        names(_service.searchPatients(_site2.getInternalId(), false, "ma", 100)));
+    assertEquals(2, _service.searchPatients(null, false, "ma", 2).size());
+    assertEquals(List.of(), _service.searchPatients(null, false, "M", 100));
+    assertEquals(List.of(), _service.searchPatients(null, false, null, 100));
+  }
+
+  @Test
+  @WithSimpleReportEntryOnlyUser
+  void searchPatients_entryOnly_archivedFailure() {
+    makedata(true);
+    _service.searchPatients(null, false, "ma", 100);
+    assertThrows(AccessDeniedException.class, () -> _service.searchPatients(null, true, "ma", 100));
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getPatients_counts() {
@@ -986,6 +1041,10 @@ class PersonServiceTest extends BaseServiceTest<PersonService> {
     _site2 = _dataFactory.createValidFacility(_org, "Second One");
   }
 
+  private static Set<PersonName> names(List<Person> found) {
+    return found.stream().map(Person::getNameInfo).collect(Collectors.toSet());
+  }
+
   private static void assertPatientList(List<Person> found, PersonName... expected) {
     // check common elements first
     for (int i = 0; i < expected.length && i < found.size(); i++) {
@@ -1,12 +1,14 @@
 package gov.cdc.usds.simplereport.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -26,10 +28,17 @@ class ScheduledTasksServiceTest {
     ArgumentCaptor<Runnable> captureMethod = ArgumentCaptor.forClass(Runnable.class);
 
     ReminderService reminderService = mock(ReminderService.class);
+    TestEventOutboxService outboxService = mock(TestEventOutboxService.class);
 
     when(schedulerBuilder.build()).thenReturn(scheduler);
 
-    new ScheduledTasksService(reminderService, schedulerBuilder)
+    new ScheduledTasksService(
+            reminderService,
+            outboxService,
+            mock(AuditEventRetentionService.class),
+            mock(TestResultNotificationDispatcher.class),
+            mock(OktaRosterService.class),
+            schedulerBuilder)
         .scheduleAccountReminderEmails(cronExpression, tzString);
 
     verify(scheduler, Mockito.times(1)).initialize();
@@ -42,4 +51,115 @@ class ScheduledTasksServiceTest {
     captureMethod.getValue().run();
     verify(reminderService, times(1)).sendAccountReminderEmails();
   }
+
+  @Test
+  void scheduleTestEventOutboxRelay_ensureScheduling() {
+    ThreadPoolTaskScheduler scheduler = mock(ThreadPoolTaskScheduler.class);
+    TaskSchedulerBuilder schedulerBuilder = mock(TaskSchedulerBuilder.class);
+    ArgumentCaptor<Runnable> captureMethod = ArgumentCaptor.forClass(Runnable.class);
+
+    TestEventOutboxService outboxService = mock(TestEventOutboxService.class);
+
+    when(schedulerBuilder.build()).thenReturn(scheduler);
+
+    new ScheduledTasksService(
+            mock(ReminderService.class),
+            outboxService,
+            mock(AuditEventRetentionService.class),
+            mock(TestResultNotificationDispatcher.class),
+            mock(OktaRosterService.class),
+            schedulerBuilder)
+        .scheduleTestEventOutboxRelay(Duration.ofSeconds(5));
+
+    verify(scheduler, times(1))
+        .scheduleWithFixedDelay(captureMethod.capture(), eq(Duration.ofSeconds(5)));
+
+    verify(outboxService, never()).relayPendingEvents();
+    captureMethod.getValue().run();
+    verify(outboxService, times(1)).relayPendingEvents();
+  }
+
+  @Test
+  void scheduleAuditEventPartitionMaintenance_ensureScheduling() {
+    String cronExpression = "0 30 2 * * *";
+
+    ThreadPoolTaskScheduler scheduler = mock(ThreadPoolTaskScheduler.class);
+    TaskSchedulerBuilder schedulerBuilder = mock(TaskSchedulerBuilder.class);
+    ArgumentCaptor<CronTrigger> captureTrigger = ArgumentCaptor.forClass(CronTrigger.class);
+    ArgumentCaptor<Runnable> captureMethod = ArgumentCaptor.forClass(Runnable.class);
+
+    AuditEventRetentionService retentionService = mock(AuditEventRetentionService.class);
+
+    when(schedulerBuilder.build()).thenReturn(scheduler);
+
+    new ScheduledTasksService(
+            mock(ReminderService.class),
+            mock(TestEventOutboxService.class),
+            retentionService,
+            mock(TestResultNotificationDispatcher.class),
+            mock(OktaRosterService.class),
+            schedulerBuilder)
+        .scheduleAuditEventPartitionMaintenance(cronExpression, "America/New_York");
+
+    verify(scheduler, times(1)).schedule(captureMethod.capture(), captureTrigger.capture());
+    assertEquals(cronExpression, captureTrigger.getValue().getExpression());
+
+    verify(retentionService, never()).maintainPartitions();
+    captureMethod.getValue().run();
+    verify(retentionService, times(1)).maintainPartitions();
+  }
+
+  @Test
+  void scheduleTestResultNotificationDispatch_ensureScheduling() {
+    ThreadPoolTaskScheduler scheduler = mock(ThreadPoolTaskScheduler.class);
+    TaskSchedulerBuilder schedulerBuilder = mock(TaskSchedulerBuilder.class);
+    ArgumentCaptor<Runnable> captureMethod = ArgumentCaptor.forClass(Runnable.class);
+
+    TestResultNotificationDispatcher dispatcher = mock(TestResultNotificationDispatcher.class);
+
+    when(schedulerBuilder.build()).thenReturn(scheduler);
+
+    new ScheduledTasksService(
+            mock(ReminderService.class),
+            mock(TestEventOutboxService.class),
+            mock(AuditEventRetentionService.class),
+            dispatcher,
+            mock(OktaRosterService.class),
+            schedulerBuilder)
+        .scheduleTestResultNotificationDispatch(Duration.ofSeconds(10));
+
+    verify(scheduler, times(1))
+        .scheduleWithFixedDelay(captureMethod.capture(), eq(Duration.ofSeconds(10)));
+
+    verify(dispatcher, never()).requestDispatch();
+    captureMethod.getValue().run();
+    verify(dispatcher, times(1)).requestDispatch();
+  }
+
+  @Test
+  void scheduleOktaRosterRefresh_ensureScheduling() {
+    ThreadPoolTaskScheduler scheduler = mock(ThreadPoolTaskScheduler.class);
+    TaskSchedulerBuilder schedulerBuilder = mock(TaskSchedulerBuilder.class);
+    ArgumentCaptor<Runnable> captureMethod = ArgumentCaptor.forClass(Runnable.class);
+
+    OktaRosterService rosterService = mock(OktaRosterService.class);
+
+    when(schedulerBuilder.build()).thenReturn(scheduler);
+
+    new ScheduledTasksService(
+            mock(ReminderService.class),
+            mock(TestEventOutboxService.class),
+            mock(AuditEventRetentionService.class),
+            mock(TestResultNotificationDispatcher.class),
+            rosterService,
+            schedulerBuilder)
+        .scheduleOktaRosterRefresh(Duration.ofMinutes(5));
+
+    verify(scheduler, times(1))
+        .scheduleWithFixedDelay(captureMethod.capture(), eq(Duration.ofMinutes(5)));
+
+    verify(rosterService, never()).refreshRosters();
+    captureMethod.getValue().run();
+    verify(rosterService, times(1)).refreshRosters();
+  }
 }
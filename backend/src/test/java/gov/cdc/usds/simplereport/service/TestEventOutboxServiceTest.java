@@ -0,0 +1,105 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.db.model.TestEventOutboxEntry;
+import gov.cdc.usds.simplereport.db.repository.TestEventOutboxRepository;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "simple-report.test-event-outbox.max-attempts=3")
+class TestEventOutboxServiceTest extends BaseServiceTest<TestEventOutboxService> {
+  private static final int MAX_ATTEMPTS = 3; // as set above
+
+  @Autowired private TestEventOutboxRepository _outboxRepo;
+  @MockBean private TestEventReportingService _reportingService;
+
+  @BeforeEach
+  void setupData() {
+    var org = _dataFactory.createValidOrg();
+    var facility = _dataFactory.createValidFacility(org);
+    var patient = _dataFactory.createFullPerson(org);
+    for (int i = 0; i < 3; i++) {
+      _outboxRepo.save(new TestEventOutboxEntry(_dataFactory.createTestEvent(patient, facility)));
+    }
+  }
+
+  @Test
+  void relayPendingEvents_reportingSucceeds_eventsMarkedReported() {
+    when(_reportingService.reportAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+    assertEquals(3, _service.relayPendingEvents());
+
+    verify(_reportingService, times(3)).reportAsync(any());
+    List<TestEventOutboxEntry> entries = _outboxRepo.findAll();
+    assertThat(entries).allMatch(e -> e.getReportedAt() != null && e.getAttempts() == 1);
+  }
+
+  @Test
+  void relayPendingEvents_alreadyReported_eventsNotResent() {
+    when(_reportingService.reportAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    _service.relayPendingEvents();
+
+    assertEquals(0, _service.relayPendingEvents());
+
+    verify(_reportingService, times(3)).reportAsync(any());
+  }
+
+  @Test
+  void relayPendingEvents_reportingFails_eventsLeftPending() {
+    when(_reportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("queue is down")));
+
+    assertEquals(0, _service.relayPendingEvents());
+
+    List<TestEventOutboxEntry> entries = _outboxRepo.findAll();
+    assertThat(entries)
+        .allMatch(
+            e ->
+                e.getReportedAt() == null
+                    && e.getAttempts() == 1
+                    && e.getLastError().contains("queue is down"));
+  }
+
+  @Test
+  void relayPendingEvents_maxAttemptsUsedUp_eventsDeadLettered() {
+    when(_reportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("queue is down")));
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      _service.relayPendingEvents();
+    }
+
+    assertEquals(0, _service.relayPendingEvents());
+
+    verify(_reportingService, times(3 * MAX_ATTEMPTS)).reportAsync(any());
+    assertThat(_outboxRepo.findAll())
+        .allMatch(e -> e.getDeadLetteredAt() != null && e.getAttempts() == MAX_ATTEMPTS);
+  }
+
+  @Test
+  void relayPendingEvents_attemptsLeftFromLargerSetting_eventsDeadLettered() {
+    for (TestEventOutboxEntry entry : _outboxRepo.findAll()) {
+      for (int i = 0; i < MAX_ATTEMPTS; i++) {
+        entry.markFailed("queue was down", MAX_ATTEMPTS + 1);
+      }
+      _outboxRepo.save(entry);
+    }
+
+    assertEquals(0, _service.relayPendingEvents());
+
+    verify(_reportingService, never()).reportAsync(any());
+    assertThat(_outboxRepo.findAll())
+        .allMatch(e -> e.getDeadLetteredAt() != null && e.getAttempts() == MAX_ATTEMPTS);
+  }
+}
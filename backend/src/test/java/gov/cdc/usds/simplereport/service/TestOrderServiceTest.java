@@ -1,21 +1,30 @@
 package gov.cdc.usds.simplereport.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import gov.cdc.usds.simplereport.api.model.AddPatientToQueueInput;
+import gov.cdc.usds.simplereport.api.model.AddPatientToQueueResult;
+import gov.cdc.usds.simplereport.api.model.AddTestResultInput;
+import gov.cdc.usds.simplereport.api.model.AddTestResultOutcome;
 import gov.cdc.usds.simplereport.api.model.AddTestResultResponse;
 import gov.cdc.usds.simplereport.api.model.OrganizationLevelDashboardMetrics;
+import gov.cdc.usds.simplereport.api.model.TestEventExport;
 import gov.cdc.usds.simplereport.api.model.TopLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.api.model.errors.NonexistentQueueItemException;
 import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
@@ -25,13 +34,17 @@ import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.model.TestResultNotification;
 import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
+import gov.cdc.usds.simplereport.db.model.auxiliary.NotificationStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
+import gov.cdc.usds.simplereport.db.repository.TestResultNotificationRepository;
+import gov.cdc.usds.simplereport.service.TestResultsDeliveryService.DeliveryOutcome;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyAllFacilitiesUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
@@ -39,9 +52,12 @@ import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleRepo
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportStandardUser;
 import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -49,6 +65,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -59,6 +76,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @TestPropertySource(properties = "hibernate.query.interceptor.error-level=ERROR")
 @SuppressWarnings("checkstyle:MagicNumber")
@@ -67,10 +86,12 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
   @Autowired private OrganizationService _organizationService;
   @Autowired private PersonService _personService;
   @Autowired private TestEventRepository _testEventRepository;
+  @Autowired private TestResultNotificationRepository _notificationRepository;
   @Autowired private TestDataFactory _dataFactory;
+  @Autowired private PlatformTransactionManager _transactionManager;
   @SpyBean private PatientLinkService patientLinkService;
   @MockBean private TestResultsDeliveryService testResultsDeliveryService;
-  @MockBean TestEventReportingService testEventReportingService;
+  @MockBean TestEventOutboxService testEventOutboxService;
   @Captor ArgumentCaptor<TestEvent> testEventArgumentCaptor;
 
   private static final PersonName AMOS = new PersonName("Amos", null, "Quint", null);
@@ -150,7 +171,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     verify(patientLinkService).createPatientLink(any());
 
     // make sure the corrected event is sent to storage queue
-    verify(testEventReportingService).report(testEventArgumentCaptor.capture());
+    verify(testEventOutboxService).enqueue(testEventArgumentCaptor.capture());
     TestEvent sentEvent = testEventArgumentCaptor.getValue();
     assertThat(sentEvent.getPatient().getInternalId()).isEqualTo(patient.getInternalId());
     assertThat(sentEvent.getResult()).isEqualTo(TestResult.POSITIVE);
@@ -192,7 +213,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         p.getInternalId(),
         null);
 
-    verify(testEventReportingService, times(1)).report(any());
+    verify(testEventOutboxService, times(1)).enqueue(any());
 
     List<TestEvent> testEvents =
         _testEventRepository.findAllByPatientAndFacilities(p, List.of(facility));
@@ -211,7 +232,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertThat(testEvents).hasSize(2);
     assertThat(testEvents.get(0).getPatientHasPriorTests()).isFalse();
     assertThat(testEvents.get(1).getPatientHasPriorTests()).isTrue();
-    verify(testEventReportingService, times(2)).report(any());
+    verify(testEventOutboxService, times(2)).enqueue(any());
   }
 
   @Test
@@ -313,6 +334,157 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(1, queue.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void addPatientsToQueue_mixedPatients_outcomePerPatient() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org, "Mass Testing Site");
+    Facility otherFacility = _dataFactory.createValidFacility(org, "Other Site");
+    Person anywhere = _dataFactory.createMinimalPerson(org, null, AMOS);
+    Person here = _dataFactory.createMinimalPerson(org, facility, BRAD);
+    Person elsewhere = _dataFactory.createMinimalPerson(org, otherFacility, CHARLES);
+    Person queued = _dataFactory.createMinimalPerson(org, null, DEXTER);
+    _service.addPatientToQueue(
+        facility.getInternalId(), queued, "", Collections.emptyMap(), null, true);
+    UUID unknown = UUID.randomUUID();
+
+    List<AddPatientToQueueResult> results =
+        _service.addPatientsToQueue(
+            facility.getInternalId(),
+            List.of(
+                new AddPatientToQueueInput(
+                    anywhere.getInternalId(),
+                    null,
+                    "{\"25064002\":true}",
+                    LocalDate.of(2021, 2, 1),
+                    false,
+                    TestResultDeliveryPreference.SMS),
+                queueInput(here),
+                queueInput(elsewhere),
+                queueInput(queued),
+                new AddPatientToQueueInput(unknown, null, null, null, true, null),
+                queueInput(here)));
+
+    assertThat(results)
+        .extracting(AddPatientToQueueResult::getPatientId)
+        .containsExactly(
+            anywhere.getInternalId(),
+            here.getInternalId(),
+            elsewhere.getInternalId(),
+            queued.getInternalId(),
+            unknown,
+            here.getInternalId());
+    assertNull(results.get(0).getError());
+    assertNotNull(results.get(0).getTestOrderId());
+    assertNull(results.get(1).getError());
+    assertNotNull(results.get(1).getTestOrderId());
+    assertThat(results.get(2).getError()).contains("incompatible");
+    assertThat(results.get(3).getError()).contains("multiple queue entries");
+    assertThat(results.get(4).getError()).contains("No patient");
+    assertThat(results.get(5).getError()).contains("multiple queue entries");
+    assertThat(results.subList(2, 6)).allMatch(r -> r.getTestOrderId() == null);
+
+    List<TestOrder> queue = _service.getQueue(facility.getInternalId());
+    assertEquals(3, queue.size());
+    TestOrder added = _service.getTestOrder(org, results.get(0).getTestOrderId());
+    assertEquals(anywhere.getInternalId(), added.getPatient().getInternalId());
+    assertEquals(Map.of("25064002", true), added.getAskOnEntrySurvey().getSurvey().getSymptoms());
+    assertEquals(
+        TestResultDeliveryPreference.SMS,
+        _personService
+            .getPatientNoPermissionsCheck(anywhere.getInternalId())
+            .getTestResultDelivery());
+  }
+
+  @Test
+  @WithSimpleReportStandardUser
+  void addPatientsToQueue_standardUser_noFacilityAccess_error() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    Person p = _dataFactory.createMinimalPerson(org, facility);
+    UUID facilityId = facility.getInternalId();
+    List<AddPatientToQueueInput> patients = List.of(queueInput(p));
+
+    assertThrows(
+        AccessDeniedException.class, () -> _service.addPatientsToQueue(facilityId, patients));
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void addTestResults_mixedResults_outcomePerResult() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org, "Mass Testing Site");
+    Person texted = _dataFactory.createMinimalPerson(org, null, AMOS);
+    Person quiet = _dataFactory.createMinimalPerson(org, null, BRAD);
+    Person badResult = _dataFactory.createMinimalPerson(org, null, CHARLES);
+    Person notQueued = _dataFactory.createMinimalPerson(org, null, DEXTER);
+    _service.addPatientsToQueue(
+        facility.getInternalId(),
+        List.of(
+            new AddPatientToQueueInput(
+                texted.getInternalId(), null, null, null, true, TestResultDeliveryPreference.SMS),
+            queueInput(quiet),
+            queueInput(badResult)));
+    String deviceId = _dataFactory.getGenericDevice().getInternalId().toString();
+
+    List<AddTestResultOutcome> outcomes =
+        _service.addTestResults(
+            facility.getInternalId(),
+            List.of(
+                new AddTestResultInput(
+                    texted.getInternalId(), deviceId, null, TestResult.POSITIVE.name(), null),
+                new AddTestResultInput(
+                    quiet.getInternalId(), deviceId, null, TestResult.NEGATIVE.name(), null),
+                new AddTestResultInput(badResult.getInternalId(), deviceId, null, "MAYBE", null),
+                new AddTestResultInput(
+                    notQueued.getInternalId(), deviceId, null, TestResult.NEGATIVE.name(), null),
+                new AddTestResultInput(
+                    texted.getInternalId(), deviceId, null, TestResult.NEGATIVE.name(), null)));
+
+    assertThat(outcomes)
+        .extracting(AddTestResultOutcome::getError)
+        .containsExactly(
+            null,
+            null,
+            "Invalid device or result",
+            "No active test order was found for that patient",
+            "Cannot record more than one result per patient");
+    assertEquals(TestResult.POSITIVE.name(), outcomes.get(0).getTestResult().getResult());
+    assertEquals(TestResult.NEGATIVE.name(), outcomes.get(1).getTestResult().getResult());
+    assertThat(outcomes.subList(2, 5)).allMatch(o -> o.getTestResult() == null);
+
+    List<TestOrder> queue = _service.getQueue(facility.getInternalId());
+    assertEquals(1, queue.size());
+    assertEquals(badResult.getInternalId(), queue.get(0).getPatient().getInternalId());
+    assertThat(_testEventRepository.findAllByPatientAndFacilities(texted, List.of(facility)))
+        .hasSize(1);
+    verify(testEventOutboxService).enqueueAll(argThat(events -> events.size() == 2));
+    // notifications are sent in the background once the results are committed
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(any(PatientLink.class));
+    verify(testResultsDeliveryService, never())
+        .emailTestResultsNoPermissionsCheck(any(PatientLink.class));
+  }
+
+  @Test
+  @WithSimpleReportEntryOnlyUser
+  void addTestResults_entryOnlyUser_noFacilityAccess_error() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    Person p = _dataFactory.createMinimalPerson(org, facility);
+    UUID facilityId = facility.getInternalId();
+    List<AddTestResultInput> results =
+        List.of(
+            new AddTestResultInput(
+                p.getInternalId(),
+                _dataFactory.getGenericDevice().getInternalId().toString(),
+                null,
+                TestResult.NEGATIVE.name(),
+                null));
+
+    assertThrows(AccessDeniedException.class, () -> _service.addTestResults(facilityId, results));
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void addTestResult_orgAdmin_ok() {
@@ -348,11 +520,12 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     _service.addTestResult(devA.getInternalId(), TestResult.POSITIVE, p.getInternalId(), null);
 
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(any(PatientLink.class));
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
-    verify(testEventReportingService).report(any());
+    verify(testEventOutboxService).enqueue(any());
   }
 
   @Test
@@ -390,7 +563,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
-    verify(testEventReportingService).report(any());
+    verify(testEventOutboxService).enqueue(any());
   }
 
   @Test
@@ -480,7 +653,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
                 devA.getInternalId(), TestResult.POSITIVE, p1.getInternalId(), null));
 
     // make sure the nothing was sent to storage queue
-    verifyNoInteractions(testEventReportingService);
+    verifyNoInteractions(testEventOutboxService);
 
     TestUserIdentities.setFacilityAuthorities(facility1);
     _service.addTestResult(devA.getInternalId(), TestResult.POSITIVE, p1.getInternalId(), null);
@@ -488,7 +661,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(1, queue.size());
 
     // make sure the corrected event is sent to storage queue
-    verify(testEventReportingService).report(any());
+    verify(testEventOutboxService).enqueue(any());
 
     _service.addTestResult(devA.getInternalId(), TestResult.NEGATIVE, p2.getInternalId(), null);
 
@@ -496,7 +669,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(0, queue.size());
 
     // make sure the second event is sent to storage queue
-    verify(testEventReportingService, times(2)).report(any());
+    verify(testEventOutboxService, times(2)).enqueue(any());
   }
 
   @Test
@@ -514,7 +687,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     _service.addTestResult(devA.getInternalId(), TestResult.POSITIVE, p.getInternalId(), null);
 
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(any(PatientLink.class));
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
@@ -561,8 +735,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         false);
     DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
     facility.addDefaultDeviceSpecimen(devA);
-    when(testResultsDeliveryService.smsTestResults(any(PatientLink.class))).thenReturn(true);
-    when(testResultsDeliveryService.smsTestResults(any(UUID.class))).thenReturn(true);
+    when(testResultsDeliveryService.smsTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenReturn(DeliveryOutcome.SENT);
 
     // WHEN
     AddTestResultResponse res =
@@ -570,11 +744,13 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
 
     // THEN
-    assertTrue(res.getDeliverySuccess());
+    assertNull(res.getDeliverySuccess());
     ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
-    verify(testResultsDeliveryService).smsTestResults(patientLinkCaptor.capture());
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(patientLinkCaptor.capture());
     assertThat(patientLinkCaptor.getValue().getTestOrder().getPatient().getInternalId())
         .isEqualTo(patient.getInternalId());
+    awaitNotification(patientLinkCaptor.getValue(), n -> n.getStatus() == NotificationStatus.SENT);
   }
 
   @Test
@@ -598,8 +774,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
     facility.addDefaultDeviceSpecimen(devA);
 
-    when(testResultsDeliveryService.smsTestResults(any(PatientLink.class))).thenReturn(false);
-    when(testResultsDeliveryService.smsTestResults(any(UUID.class))).thenReturn(false);
+    when(testResultsDeliveryService.smsTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenReturn(DeliveryOutcome.FAILED);
 
     // WHEN
     AddTestResultResponse res =
@@ -607,8 +783,100 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
 
     // THEN
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
-    assertFalse(res.getDeliverySuccess());
+    assertNull(res.getDeliverySuccess());
+    ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(patientLinkCaptor.capture());
+    // the send is retried later
+    TestResultNotification notification =
+        awaitNotification(patientLinkCaptor.getValue(), n -> n.getAttempts() == 1);
+    assertEquals(NotificationStatus.PENDING, notification.getStatus());
+    assertNotNull(notification.getLastError());
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void addTestResult_smsDelivery_unexpectedError_retried() {
+    // GIVEN
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _organizationService.getFacilities(org).get(0);
+    Person patient = _dataFactory.createFullPerson(org);
+
+    _personService.updateTestResultDeliveryPreference(
+        patient.getInternalId(), TestResultDeliveryPreference.SMS);
+
+    _service.addPatientToQueue(
+        facility.getInternalId(),
+        patient,
+        "",
+        Collections.emptyMap(),
+        LocalDate.of(1865, 12, 25),
+        false);
+    DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
+    facility.addDefaultDeviceSpecimen(devA);
+
+    // fails the way a transactional sender would: rolling back any transaction it took part in
+    when(testResultsDeliveryService.smsTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenAnswer(
+            invocation ->
+                new TransactionTemplate(_transactionManager)
+                    .execute(
+                        status -> {
+                          throw new IllegalStateException("sender blew up");
+                        }));
+
+    // WHEN
+    _service.addTestResult(
+        devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
+
+    // THEN
+    ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(patientLinkCaptor.capture());
+    // the failure is recorded, and the send is retried later
+    TestResultNotification notification =
+        awaitNotification(patientLinkCaptor.getValue(), n -> n.getAttempts() == 1);
+    assertEquals(NotificationStatus.PENDING, notification.getStatus());
+    assertThat(notification.getLastError()).contains("sender blew up");
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void addTestResult_smsDelivery_undeliverable_notRetried() {
+    // GIVEN
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _organizationService.getFacilities(org).get(0);
+    Person patient = _dataFactory.createFullPerson(org);
+
+    _personService.updateTestResultDeliveryPreference(
+        patient.getInternalId(), TestResultDeliveryPreference.SMS);
+
+    _service.addPatientToQueue(
+        facility.getInternalId(),
+        patient,
+        "",
+        Collections.emptyMap(),
+        LocalDate.of(1865, 12, 25),
+        false);
+    DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
+    facility.addDefaultDeviceSpecimen(devA);
+
+    when(testResultsDeliveryService.smsTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenReturn(DeliveryOutcome.UNDELIVERABLE);
+
+    // WHEN
+    _service.addTestResult(
+        devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
+
+    // THEN
+    ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(patientLinkCaptor.capture());
+    TestResultNotification notification =
+        awaitNotification(
+            patientLinkCaptor.getValue(), n -> n.getStatus() == NotificationStatus.FAILED);
+    assertEquals(1, notification.getAttempts());
+    assertNotNull(notification.getLastError());
   }
 
   @Test
@@ -632,8 +900,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
     facility.addDefaultDeviceSpecimen(devA);
 
-    when(testResultsDeliveryService.emailTestResults(any(PatientLink.class))).thenReturn(true);
-    when(testResultsDeliveryService.emailTestResults(any(UUID.class))).thenReturn(true);
+    when(testResultsDeliveryService.emailTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenReturn(DeliveryOutcome.SENT);
 
     // WHEN
     AddTestResultResponse res =
@@ -641,11 +909,13 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
 
     // THEN
-    assertTrue(res.getDeliverySuccess());
+    assertNull(res.getDeliverySuccess());
     ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
-    verify(testResultsDeliveryService).emailTestResults(patientLinkCaptor.capture());
+    verify(testResultsDeliveryService, timeout(5000))
+        .emailTestResultsNoPermissionsCheck(patientLinkCaptor.capture());
     assertThat(patientLinkCaptor.getValue().getTestOrder().getPatient().getInternalId())
         .isEqualTo(patient.getInternalId());
+    awaitNotification(patientLinkCaptor.getValue(), n -> n.getStatus() == NotificationStatus.SENT);
   }
 
   @Test
@@ -669,8 +939,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
     facility.addDefaultDeviceSpecimen(devA);
 
-    when(testResultsDeliveryService.emailTestResults(any(PatientLink.class))).thenReturn(false);
-    when(testResultsDeliveryService.emailTestResults(any(UUID.class))).thenReturn(false);
+    when(testResultsDeliveryService.emailTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenReturn(DeliveryOutcome.FAILED);
 
     // WHEN
     AddTestResultResponse res =
@@ -678,8 +948,15 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
 
     // THEN
-    verify(testResultsDeliveryService).emailTestResults(any(PatientLink.class));
-    assertFalse(res.getDeliverySuccess());
+    assertNull(res.getDeliverySuccess());
+    ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
+    verify(testResultsDeliveryService, timeout(5000))
+        .emailTestResultsNoPermissionsCheck(patientLinkCaptor.capture());
+    // the send is retried later
+    TestResultNotification notification =
+        awaitNotification(patientLinkCaptor.getValue(), n -> n.getAttempts() == 1);
+    assertEquals(NotificationStatus.PENDING, notification.getStatus());
+    assertNotNull(notification.getLastError());
   }
 
   @Test
@@ -702,8 +979,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         false);
     DeviceSpecimenType devA = _dataFactory.getGenericDeviceSpecimen();
     facility.addDefaultDeviceSpecimen(devA);
-    when(testResultsDeliveryService.emailTestResults(any(PatientLink.class))).thenReturn(true);
-    when(testResultsDeliveryService.emailTestResults(any(UUID.class))).thenReturn(true);
+    when(testResultsDeliveryService.emailTestResultsNoPermissionsCheck(any(PatientLink.class)))
+        .thenReturn(DeliveryOutcome.SENT);
 
     // WHEN
     AddTestResultResponse res =
@@ -711,9 +988,11 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
 
     // THEN
-    verify(testResultsDeliveryService).emailTestResults(any(PatientLink.class));
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
-    assertTrue(res.getDeliverySuccess());
+    assertNull(res.getDeliverySuccess());
+    verify(testResultsDeliveryService, timeout(5000))
+        .emailTestResultsNoPermissionsCheck(any(PatientLink.class));
+    verify(testResultsDeliveryService, timeout(5000))
+        .smsTestResultsNoPermissionsCheck(any(PatientLink.class));
   }
 
   @Test
@@ -743,9 +1022,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             devA.getInternalId(), TestResult.POSITIVE, patient.getInternalId(), null);
 
     // THEN
-    assertTrue(res.getDeliverySuccess());
+    assertNull(res.getDeliverySuccess());
     verifyNoInteractions(testResultsDeliveryService);
-    verify(testEventReportingService).report(any());
+    verify(testEventOutboxService).enqueue(any());
   }
 
   @Test
@@ -1103,7 +1382,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     // make sure the corrected event is sent to storage queue, which gets picked up to be delivered
     // to report stream
-    verify(testEventReportingService).report(deleteMarkerEvent);
+    verify(testEventOutboxService).enqueue(deleteMarkerEvent);
   }
 
   @Test
@@ -1127,6 +1406,57 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(0, results_page3.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void exportTestEventsResultsNoPermissionsCheck_matchesResultList() {
+    makedata();
+    List<UUID> listed =
+        _service
+            .getTestEventsResults(
+                _site.getInternalId(), null, TestResult.POSITIVE, null, null, null, 0, 50)
+            .stream()
+            .map(TestEvent::getInternalId)
+            .collect(Collectors.toList());
+    List<UUID> exported = new ArrayList<>();
+    _service.exportTestEventsResultsNoPermissionsCheck(
+        _organizationService.getCurrentOrganization(),
+        _site.getInternalId(),
+        null,
+        TestResult.POSITIVE,
+        null,
+        null,
+        null,
+        e -> exported.add(e.getInternalId()));
+
+    assertFalse(exported.isEmpty());
+    assertEquals(listed, exported);
+  }
+
+  @Test
+  @WithSimpleReportStandardAllFacilitiesUser
+  void exportTestEventsResultsNoPermissionsCheck_NPlusOne() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _organizationService.getFacilities(org).get(0);
+    facility.addDefaultDeviceSpecimen(_dataFactory.getGenericDeviceSpecimen());
+    Person p = _dataFactory.createFullPerson(org);
+    _dataFactory.createTestEvent(p, facility);
+
+    long startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+    _service.exportTestEventsResultsNoPermissionsCheck(
+        org, facility.getInternalId(), null, null, null, null, null, this::readExportColumns);
+    long firstPassTotal = _hibernateQueryInterceptor.getQueryCount() - startQueryCount;
+
+    _dataFactory.createTestEvent(p, facility);
+    _dataFactory.createTestEvent(p, facility);
+    _dataFactory.createTestEvent(p, facility);
+
+    startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+    _service.exportTestEventsResultsNoPermissionsCheck(
+        org, facility.getInternalId(), null, null, null, null, null, this::readExportColumns);
+    long secondPassTotal = _hibernateQueryInterceptor.getQueryCount() - startQueryCount;
+    assertEquals(firstPassTotal, secondPassTotal);
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getTestEventsResults_filtering() {
@@ -1310,6 +1640,46 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(1, metrics.getTotalTestCount());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getTopLevelDashboardMetrics_partialDays_onlyTestsInRangeCounted() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org, "Dashboard Facility");
+    createBackdatedTestEvent(facility, TestResult.POSITIVE, LocalDateTime.of(2021, 7, 1, 8, 0));
+    createBackdatedTestEvent(facility, TestResult.NEGATIVE, LocalDateTime.of(2021, 7, 1, 16, 0));
+    createBackdatedTestEvent(facility, TestResult.POSITIVE, LocalDateTime.of(2021, 7, 2, 12, 0));
+    createBackdatedTestEvent(facility, TestResult.NEGATIVE, LocalDateTime.of(2021, 7, 3, 10, 0));
+    TestEvent removed =
+        createBackdatedTestEvent(
+            facility, TestResult.POSITIVE, LocalDateTime.of(2021, 7, 3, 11, 0));
+    createBackdatedTestEvent(facility, TestResult.POSITIVE, LocalDateTime.of(2021, 7, 3, 20, 0));
+    _dataFactory.createTestEventRemoval(removed);
+
+    TopLevelDashboardMetrics wholeDays =
+        _service.getTopLevelDashboardMetrics(
+            facility.getInternalId(),
+            toDate(LocalDateTime.of(2021, 7, 1, 0, 0)),
+            toDate(LocalDateTime.of(2021, 7, 3, 23, 59, 59, 999_000_000)));
+    assertEquals(3, wholeDays.getPositiveTestCount());
+    assertEquals(5, wholeDays.getTotalTestCount());
+
+    TopLevelDashboardMetrics partialDays =
+        _service.getTopLevelDashboardMetrics(
+            facility.getInternalId(),
+            toDate(LocalDateTime.of(2021, 7, 1, 12, 0)),
+            toDate(LocalDateTime.of(2021, 7, 3, 12, 0)));
+    assertEquals(1, partialDays.getPositiveTestCount());
+    assertEquals(3, partialDays.getTotalTestCount());
+
+    TopLevelDashboardMetrics withinOneDay =
+        _service.getTopLevelDashboardMetrics(
+            facility.getInternalId(),
+            toDate(LocalDateTime.of(2021, 7, 3, 9, 0)),
+            toDate(LocalDateTime.of(2021, 7, 3, 12, 0)));
+    assertEquals(0, withinOneDay.getPositiveTestCount());
+    assertEquals(1, withinOneDay.getTotalTestCount());
+  }
+
   @Test
   @WithSimpleReportStandardAllFacilitiesUser
   void getTopLevelDashboardMetrics_inOrgWithStandardUser_failure() {
@@ -1324,6 +1694,29 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         });
   }
 
+  private TestEvent createBackdatedTestEvent(
+      Facility facility, TestResult result, LocalDateTime dateTested) {
+    Person person = _dataFactory.createMinimalPerson(facility.getOrganization(), facility);
+    return _dataFactory.createTestEvent(
+        person,
+        facility,
+        new AskOnEntrySurvey(null, Collections.emptyMap(), false, null),
+        result,
+        toDate(dateTested));
+  }
+
+  private static Date toDate(LocalDateTime localDateTime) {
+    return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  private void readExportColumns(TestEvent event) {
+    TestEventExport export = new TestEventExport(event);
+    assertNotNull(export.getOrderingFacilityName());
+    assertNotNull(export.getOrganizationName());
+    assertNotNull(export.getOrderedTestCode());
+    assertNotNull(export.getSpecimenTypeCode());
+  }
+
   private List<TestEvent> makedata() {
     Organization org = _organizationService.getCurrentOrganization();
     _site = _dataFactory.createValidFacility(org, "The Facility");
@@ -1432,13 +1825,29 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         () -> _service.getTestResult(_e.getInternalId()).getTestOrder());
 
     // make sure the corrected event is not sent to storage queue
-    verifyNoInteractions(testEventReportingService);
+    verifyNoInteractions(testEventOutboxService);
 
     TestUserIdentities.setFacilityAuthorities(facility);
     TestEvent correctedTestEvent = _service.correctTestMarkAsError(_e.getInternalId(), reasonMsg);
     _service.getTestEventsResults(facility.getInternalId(), null, null, null, null, null, 0, 10);
     _service.getTestResult(_e.getInternalId()).getTestOrder();
     // make sure the corrected event is sent to storage queue
-    verify(testEventReportingService).report(correctedTestEvent);
+    verify(testEventOutboxService).enqueue(correctedTestEvent);
+  }
+
+  private static AddPatientToQueueInput queueInput(Person patient) {
+    return new AddPatientToQueueInput(patient.getInternalId(), null, null, null, true, null);
+  }
+
+  private TestResultNotification awaitNotification(
+      PatientLink patientLink, Predicate<TestResultNotification> condition) {
+    return await()
+        .atMost(Duration.ofSeconds(5))
+        .until(
+            () ->
+                _notificationRepository
+                    .findAllByPatientLinkInternalIdIn(List.of(patientLink.getInternalId()))
+                    .get(0),
+            condition);
   }
 }
@@ -13,6 +13,7 @@ import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.service.TestResultsDeliveryService.DeliveryOutcome;
 import gov.cdc.usds.simplereport.service.email.EmailProviderTemplate;
 import gov.cdc.usds.simplereport.service.email.EmailService;
 import gov.cdc.usds.simplereport.service.model.SmsAPICallResult;
@@ -221,6 +222,73 @@ class TestResultsDeliveryServiceTest {
     verify(smsService).sendToPatientLink(patientLink, message);
   }
 
+  @Test
+  void smsTestResultsNoPermissionsCheck_partialSuccess_sent() {
+    // GIVEN
+    PatientLink patientLink = getMockedPatientLink(UUID.randomUUID());
+    when(smsService.sendToPatientLinkNoPermissionsCheck(any(PatientLink.class), anyString()))
+        .thenReturn(
+            List.of(
+                SmsAPICallResult.builder().successful(true).build(),
+                SmsAPICallResult.builder().successful(false).build()));
+
+    // WHEN
+    DeliveryOutcome outcome =
+        testResultsDeliveryService.smsTestResultsNoPermissionsCheck(patientLink);
+
+    // THEN
+    assertThat(outcome).isEqualTo(DeliveryOutcome.SENT);
+  }
+
+  @Test
+  void smsTestResultsNoPermissionsCheck_providerFailure_failed() {
+    // GIVEN
+    PatientLink patientLink = getMockedPatientLink(UUID.randomUUID());
+    when(smsService.sendToPatientLinkNoPermissionsCheck(any(PatientLink.class), anyString()))
+        .thenReturn(
+            List.of(
+                SmsAPICallResult.builder().successful(false).permanentFailure(true).build(),
+                SmsAPICallResult.builder().successful(false).build()));
+
+    // WHEN
+    DeliveryOutcome outcome =
+        testResultsDeliveryService.smsTestResultsNoPermissionsCheck(patientLink);
+
+    // THEN
+    assertThat(outcome).isEqualTo(DeliveryOutcome.FAILED);
+  }
+
+  @Test
+  void smsTestResultsNoPermissionsCheck_invalidNumbers_undeliverable() {
+    // GIVEN
+    PatientLink patientLink = getMockedPatientLink(UUID.randomUUID());
+    when(smsService.sendToPatientLinkNoPermissionsCheck(any(PatientLink.class), anyString()))
+        .thenReturn(
+            List.of(SmsAPICallResult.builder().successful(false).permanentFailure(true).build()));
+
+    // WHEN
+    DeliveryOutcome outcome =
+        testResultsDeliveryService.smsTestResultsNoPermissionsCheck(patientLink);
+
+    // THEN
+    assertThat(outcome).isEqualTo(DeliveryOutcome.UNDELIVERABLE);
+  }
+
+  @Test
+  void emailTestResultsNoPermissionsCheck_noEmail_undeliverable() {
+    // GIVEN
+    PatientLink patientLink = getMockedPatientLink(UUID.randomUUID());
+    when(patientLink.getTestOrder().getPatient().getEmails()).thenReturn(List.of());
+
+    // WHEN
+    DeliveryOutcome outcome =
+        testResultsDeliveryService.emailTestResultsNoPermissionsCheck(patientLink);
+
+    // THEN
+    assertThat(outcome).isEqualTo(DeliveryOutcome.UNDELIVERABLE);
+    verifyNoInteractions(emailService);
+  }
+
   private PatientLink getMockedPatientLink(UUID internalId) {
     Facility facility = mock(Facility.class);
     when(facility.getFacilityName()).thenReturn("House of Gryffindor");
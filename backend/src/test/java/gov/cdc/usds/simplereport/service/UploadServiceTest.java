@@ -3,6 +3,7 @@ package gov.cdc.usds.simplereport.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 
 import gov.cdc.usds.simplereport.db.model.Person;
@@ -15,8 +16,10 @@ import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +36,7 @@ class UploadServiceTest extends BaseServiceTest<UploadService> {
   public static final int PATIENT_PAGE_SIZE = 1000;
 
   @Autowired private PersonService personService;
+  @Autowired private OrganizationService organizationService;
   @Autowired private PhoneNumberRepository phoneNumberRepository;
   @MockBean protected AddressValidationService addressValidationService;
   private StreetAddress address;
@@ -43,6 +47,11 @@ class UploadServiceTest extends BaseServiceTest<UploadService> {
     initSampleData();
     when(addressValidationService.getValidatedAddress(any(), any(), any(), any(), any(), any()))
         .thenReturn(address);
+    when(addressValidationService.getValidatedAddresses(anyList()))
+        .thenAnswer(
+            invocation ->
+                Collections.nCopies(
+                    invocation.<List<StreetAddress>>getArgument(0).size(), address));
   }
 
   @Test
@@ -273,6 +282,83 @@ class UploadServiceTest extends BaseServiceTest<UploadService> {
     assertThat(getPatients()).hasSize(1);
   }
 
+  @Test
+  void testMultipleBadRows_allReported() {
+    // GIVEN
+    InputStream inputStream = loadCsv("test-upload-multiple-invalid-rows.csv");
+
+    // WHEN
+    var error =
+        assertThrows(
+            IllegalArgumentException.class, () -> this._service.processPersonCSV(inputStream));
+
+    // THEN
+    assertThat(error.getMessage())
+        .isEqualTo("Error on row 1; Invalid zip code\nError on row 3; [abc] is not a valid date");
+    assertThat(getPatients()).isEmpty();
+  }
+
+  @Test
+  void testUploadTwice_existingPatientsSkipped() {
+    // GIVEN
+    this._service.processPersonCSV(loadCsv("test-upload.csv"));
+
+    // WHEN
+    this._service.processPersonCSV(loadCsv("test-upload.csv"));
+
+    // THEN
+    assertThat(getPatients()).hasSize(1);
+  }
+
+  @Test
+  void testUploadAtFacility_existingPatientWithoutFacility_skipped() {
+    // GIVEN
+    UUID facilityId = getFacilityId();
+    this._service.processPersonCSV(csvWithFacilities(""));
+
+    // WHEN
+    this._service.processPersonCSV(csvWithFacilities(facilityId.toString()));
+
+    // THEN
+    assertThat(getPatients()).hasSize(1);
+  }
+
+  @Test
+  void testUploadRowWithoutFacilityThenAtFacility_secondRowSkipped() {
+    // GIVEN
+    UUID facilityId = getFacilityId();
+
+    // WHEN
+    this._service.processPersonCSV(csvWithFacilities("", facilityId.toString()));
+
+    // THEN
+    assertThat(getPatients()).hasSize(1);
+    assertThat(getPatients().get(0).getFacility()).isNull();
+  }
+
+  /** The patient from test-upload.csv, once for each of the given facility ids. */
+  private InputStream csvWithFacilities(String... facilityIds) {
+    String header =
+        "LastName,FirstName,MiddleName,Suffix,Race,DOB,biologicalSex,Ethnicity,Street,Street2,City,"
+            + "County,State,ZipCode,Country,PhoneNumber,PhoneNumberType,employedInHealthcare,"
+            + "residentCongregateSetting,Role,Email,facilityId\n";
+    String row =
+        "Best,Tim,,,White,5/11/1933,Male,Not_Hispanic,123 Main Street,,Washington,,DC,20008,USA,"
+            + "5656667777,MOBILE,Yes,No,Staff,foo@example.com,";
+    StringBuilder csv = new StringBuilder(header);
+    for (String facilityId : facilityIds) {
+      csv.append(row).append(facilityId).append('\n');
+    }
+    return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private UUID getFacilityId() {
+    return organizationService
+        .getFacilities(organizationService.getCurrentOrganization())
+        .get(0)
+        .getInternalId();
+  }
+
   private InputStream loadCsv(String csvFile) {
     return UploadServiceTest.class.getClassLoader().getResourceAsStream(csvFile);
   }
@@ -0,0 +1,71 @@
+package gov.cdc.usds.simplereport.service.dataloader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.cdc.usds.simplereport.logging.LoggingConstants;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.dataloader.DataLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.task.TaskExecutorBuilder;
+
+class KeyedDataLoaderFactoryTest {
+
+  private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+  private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private class DoublingDataLoader extends KeyedDataLoaderFactory<Integer, Integer> {
+    DoublingDataLoader() {
+      super(
+          keys -> {
+            batches.add(keys);
+            threadNames.add(Thread.currentThread().getName());
+            return keys.stream().map(k -> k * 2).collect(Collectors.toList());
+          });
+    }
+
+    @Override
+    public String getKey() {
+      return "doubling";
+    }
+  }
+
+  @Test
+  void get_manyKeys_splitIntoBatchesOnDataLoaderThreads() {
+    DoublingDataLoader factory = new DoublingDataLoader();
+    factory.setExecutor(
+        new BatchLoadExecutor(new TaskExecutorBuilder(), meterRegistry, 10, 2, 100));
+    DataLoader<Integer, Integer> loader = factory.get();
+
+    List<CompletableFuture<Integer>> results =
+        IntStream.range(0, 250).mapToObj(loader::load).collect(Collectors.toList());
+    loader.dispatchAndJoin();
+
+    assertEquals(
+        IntStream.range(0, 250).map(i -> i * 2).boxed().collect(Collectors.toList()),
+        results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    assertThat(batches).hasSize(3).allSatisfy(batch -> assertThat(batch).hasSizeLessThan(101));
+    assertThat(threadNames).allSatisfy(name -> assertThat(name).startsWith("graphql-dataloader-"));
+    DistributionSummary batchSizes =
+        meterRegistry.find(LoggingConstants.BATCH_SIZE_METRIC).tag("loader", "doubling").summary();
+    assertEquals(3, batchSizes.count());
+    assertEquals(250, batchSizes.totalAmount());
+    assertEquals(
+        3,
+        meterRegistry
+            .find(LoggingConstants.BATCH_LOAD_METRIC)
+            .tag("loader", "doubling")
+            .timer()
+            .count());
+  }
+}
@@ -19,6 +19,7 @@ import gov.cdc.usds.simplereport.service.ApiUserService;
 import gov.cdc.usds.simplereport.service.AuthorizationService;
 import gov.cdc.usds.simplereport.service.BaseServiceTest;
 import gov.cdc.usds.simplereport.service.LoggedInAuthorizationService;
+import gov.cdc.usds.simplereport.service.OktaRosterService;
 import gov.cdc.usds.simplereport.service.OrganizationInitializingService;
 import gov.cdc.usds.simplereport.service.OrganizationService;
 import gov.cdc.usds.simplereport.service.PatientSelfRegistrationLinkService;
@@ -85,6 +86,7 @@ import org.springframework.security.test.context.support.WithMockUser;
   OrganizationExtractor.class,
   OrganizationService.class,
   ApiUserService.class,
+  OktaRosterService.class,
   OrganizationInitializingService.class,
   CurrentPatientContextHolder.class,
   CurrentAccountRequestContextHolder.class,
@@ -54,12 +54,10 @@ export const QUERY_PATIENT = gql`
     $facilityId: ID!
     $namePrefixMatch: String
   ) {
-    patients(
+    patients: searchPatients(
       facilityId: $facilityId
-      pageNumber: 0
-      pageSize: 100
-      showDeleted: false
       namePrefixMatch: $namePrefixMatch
+      limit: 100
     ) {
       internalId
       firstName
@@ -620,6 +620,12 @@ export type OrganizationLevelDashboardMetrics = {
   organizationTotalTestCount?: Maybe<Scalars["Int"]>;
 };
 
+export type PageInfo = {
+  __typename?: "PageInfo";
+  endCursor?: Maybe<Scalars["String"]>;
+  hasNextPage: Scalars["Boolean"];
+};
+
 export type Patient = {
   __typename?: "Patient";
   address?: Maybe<AddressInfo>;
@@ -658,6 +664,19 @@ export type Patient = {
   zipCode?: Maybe<Scalars["String"]>;
 };
 
+export type PatientConnection = {
+  __typename?: "PatientConnection";
+  edges: Array<PatientEdge>;
+  pageInfo: PageInfo;
+  totalCount: Scalars["Int"];
+};
+
+export type PatientEdge = {
+  __typename?: "PatientEdge";
+  cursor: Scalars["String"];
+  node: Patient;
+};
+
 export type PatientLink = {
   __typename?: "PatientLink";
   createdAt?: Maybe<Scalars["DateTime"]>;
@@ -725,13 +744,16 @@ export type Query = {
   patientExists?: Maybe<Scalars["Boolean"]>;
   patientExistsWithoutZip?: Maybe<Scalars["Boolean"]>;
   patients?: Maybe<Array<Maybe<Patient>>>;
+  patientsConnection: PatientConnection;
   patientsCount?: Maybe<Scalars["Int"]>;
   pendingOrganizations: Array<PendingOrganization>;
   queue?: Maybe<Array<Maybe<TestOrder>>>;
+  searchPatients?: Maybe<Array<Maybe<Patient>>>;
   specimenType?: Maybe<Array<Maybe<SpecimenType>>>;
   specimenTypes: Array<SpecimenType>;
   testResult?: Maybe<TestResult>;
   testResults?: Maybe<Array<Maybe<TestResult>>>;
+  testResultsConnection: TestResultConnection;
   testResultsCount?: Maybe<Scalars["Int"]>;
   topLevelDashboardMetrics?: Maybe<TopLevelDashboardMetrics>;
   user?: Maybe<User>;
@@ -776,6 +798,14 @@ export type QueryPatientsArgs = {
   showDeleted?: InputMaybe<Scalars["Boolean"]>;
 };
 
+export type QueryPatientsConnectionArgs = {
+  after?: InputMaybe<Scalars["String"]>;
+  facilityId?: InputMaybe<Scalars["ID"]>;
+  first?: InputMaybe<Scalars["Int"]>;
+  namePrefixMatch?: InputMaybe<Scalars["String"]>;
+  showDeleted?: InputMaybe<Scalars["Boolean"]>;
+};
+
 export type QueryPatientsCountArgs = {
   facilityId?: InputMaybe<Scalars["ID"]>;
   namePrefixMatch?: InputMaybe<Scalars["String"]>;
@@ -786,6 +816,13 @@ export type QueryQueueArgs = {
   facilityId: Scalars["ID"];
 };
 
+export type QuerySearchPatientsArgs = {
+  facilityId?: InputMaybe<Scalars["ID"]>;
+  limit?: InputMaybe<Scalars["Int"]>;
+  namePrefixMatch?: InputMaybe<Scalars["String"]>;
+  showDeleted?: InputMaybe<Scalars["Boolean"]>;
+};
+
 export type QueryTestResultArgs = {
   id: Scalars["ID"];
 };
@@ -801,6 +838,17 @@ export type QueryTestResultsArgs = {
   startDate?: InputMaybe<Scalars["DateTime"]>;
 };
 
+export type QueryTestResultsConnectionArgs = {
+  after?: InputMaybe<Scalars["String"]>;
+  endDate?: InputMaybe<Scalars["DateTime"]>;
+  facilityId?: InputMaybe<Scalars["ID"]>;
+  first?: InputMaybe<Scalars["Int"]>;
+  patientId?: InputMaybe<Scalars["ID"]>;
+  result?: InputMaybe<Scalars["String"]>;
+  role?: InputMaybe<Scalars["String"]>;
+  startDate?: InputMaybe<Scalars["DateTime"]>;
+};
+
 export type QueryTestResultsCountArgs = {
   endDate?: InputMaybe<Scalars["DateTime"]>;
   facilityId?: InputMaybe<Scalars["ID"]>;
@@ -903,6 +951,19 @@ export enum TestResultDeliveryPreference {
   Sms = "SMS",
 }
 
+export type TestResultConnection = {
+  __typename?: "TestResultConnection";
+  edges: Array<TestResultEdge>;
+  pageInfo: PageInfo;
+  totalCount: Scalars["Int"];
+};
+
+export type TestResultEdge = {
+  __typename?: "TestResultEdge";
+  cursor: Scalars["String"];
+  node: TestResult;
+};
+
 export type TopLevelDashboardMetrics = {
   __typename?: "TopLevelDashboardMetrics";
   positiveTestCount?: Maybe<Scalars["Int"]>;
@@ -5504,12 +5565,10 @@ export const GetPatientsByFacilityForQueueDocument = gql`
     $facilityId: ID!
     $namePrefixMatch: String
   ) {
-    patients(
+    patients: searchPatients(
       facilityId: $facilityId
-      pageNumber: 0
-      pageSize: 100
-      showDeleted: false
       namePrefixMatch: $namePrefixMatch
+      limit: 100
     ) {
       internalId
       firstName